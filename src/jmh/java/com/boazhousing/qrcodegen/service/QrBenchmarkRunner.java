@@ -0,0 +1,45 @@
+package com.boazhousing.qrcodegen.service;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Lance les benchmarks une fois par nombre de threads (propriété jmh.threads, ex: "1,4,8"),
+ * avec le profileur GC (allocations par opération, gc.alloc.rate.norm).
+ *
+ * Les arguments sont ceux de la ligne de commande JMH (filtre de benchmarks, -p, -f, -wi...).
+ * Résultats JSON: target/jmh/results-t{threads}.json.
+ */
+public final class QrBenchmarkRunner {
+
+    private QrBenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        Path resultDirectory = Paths.get("target", "jmh");
+        Files.createDirectories(resultDirectory);
+
+        for (String value : System.getProperty("jmh.threads", "1").split(",")) {
+            int threads = Integer.parseInt(value.trim());
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(resultDirectory.resolve("results-t" + threads + ".json").toString());
+            if (commandLine.getIncludes().isEmpty()) {
+                options.include(QrBenchmarkRunner.class.getPackageName() + ".*Benchmark");
+            }
+            new Runner(options.build()).run();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.boazhousing.qrcodegen.service;
+
+import com.boazhousing.qrcodegen.service.render.QrMatrixEncoder;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodage épinglé (app.qr.encoding.version / mask) comparé à l'encodage automatique,
+ * sur des URLs de vérification de longueurs typiques.
+ *
+ * - auto: version minimale et meilleur des 8 masques cherchés par ZXing
+ * - version: version épinglée, masque cherché
+ * - version-mask: version et masque épinglés (aucune recherche)
+ *
+ * La version épinglée est celle que l'encodage automatique choisit pour l'URL.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QrEncodingBenchmark {
+
+    @Param({"auto", "version", "version-mask"})
+    String pinning;
+
+    // Longueur de la référence (ATT-XXXXXXXX courante: 12 caractères)
+    @Param({"12", "40"})
+    int referenceLength;
+
+    private String verificationUrl;
+    private QrMatrixEncoder encoder;
+
+    @Setup
+    public void prepare() throws WriterException {
+        StringBuilder reference = new StringBuilder("ATT-");
+        while (reference.length() < referenceLength) {
+            reference.append((char) ('A' + reference.length() % 26));
+        }
+        verificationUrl = "https://housing.boaz-study.tech/verif_doc?ref=" + reference;
+
+        int moduleCount = new QrMatrixEncoder(0, -1).encode(verificationUrl).getWidth();
+        int version = (moduleCount - 17) / 4;
+        switch (pinning) {
+            case "version" -> encoder = new QrMatrixEncoder(version, -1);
+            case "version-mask" -> encoder = new QrMatrixEncoder(version, 0);
+            default -> encoder = new QrMatrixEncoder(0, -1);
+        }
+    }
+
+    @Benchmark
+    public BitMatrix encode() throws WriterException {
+        return encoder.encode(verificationUrl);
+    }
+}
@@ -0,0 +1,171 @@
+package com.boazhousing.qrcodegen.service;
+
+import com.boazhousing.qrcodegen.QrCodeGeneratorApplication;
+import com.boazhousing.qrcodegen.model.QrGenerationResult;
+import com.boazhousing.qrcodegen.service.render.Base64Sink;
+import com.boazhousing.qrcodegen.service.render.PngEncoder;
+import com.boazhousing.qrcodegen.service.render.RenderedQr;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmarks des chemins chauds de la génération, étape par étape puis de bout en bout.
+ *
+ * - encode: URL de vérification vers matrice QR (ZXing ou encodeur configuré)
+ * - render: matrice vers image stylée (modules, logo)
+ * - pngEncode: image vers octets PNG
+ * - base64: octets PNG vers base64 (Base64Sink)
+ * - generateAndSaveQrCodeImage: image complète, fichier PNG et base64
+ * - generateQrCodePdf: PDF complet sur disque
+ *
+ * Les services viennent d'un contexte Spring sans serveur web, configuré par application.yml;
+ * les fichiers sont écrits dans un répertoire temporaire. Cache PNG, regroupement des
+ * requêtes et contrôle d'admission sont désactivés: chaque appel mesure un vrai rendu.
+ * Chaque thread génère sa propre référence (pas de fichier partagé entre threads).
+ *
+ * Les étapes isolées utilisent les méthodes du renderer visibles dans le paquet.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QrGenerationBenchmark {
+
+    /**
+     * Contexte Spring partagé par tous les threads d'un fork.
+     */
+    @State(Scope.Benchmark)
+    public static class Services {
+        private final AtomicInteger threadIndex = new AtomicInteger();
+        private ConfigurableApplicationContext context;
+        private Path outputDirectory;
+
+        StyledQrRenderer renderer;
+        ImageQrCodeService imageService;
+        PdfGenerationService pdfService;
+
+        @Setup(Level.Trial)
+        public void start() throws IOException {
+            outputDirectory = Files.createTempDirectory("qr-benchmark");
+            context = new SpringApplicationBuilder(QrCodeGeneratorApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .bannerMode(Banner.Mode.OFF)
+                    .logStartupInfo(false)
+                    // Arguments de ligne de commande: prioritaires sur application.yml
+                    .run("--app.images.output-directory=" + outputDirectory.resolve("images"),
+                         "--app.qr.output-directory=" + outputDirectory.resolve("pdf"),
+                         "--app.jobs.directory=" + outputDirectory.resolve("jobs"),
+                         "--app.cache.png.enabled=false",
+                         "--app.coalescing.enabled=false",
+                         "--app.admission.enabled=false",
+                         "--logging.level.com.boazhousing.qrcodegen=WARN");
+            renderer = context.getBean(StyledQrRenderer.class);
+            imageService = context.getBean(ImageQrCodeService.class);
+            pdfService = context.getBean(PdfGenerationService.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() throws IOException {
+            context.close();
+            FileSystemUtils.deleteRecursively(outputDirectory);
+        }
+    }
+
+    /**
+     * Référence propre au thread et entrées précalculées de chaque étape.
+     */
+    @State(Scope.Thread)
+    public static class Input {
+        // Longueur de la référence (ATT-XXXXXXXX courante: 12 caractères)
+        @Param({"12", "40", "120"})
+        int referenceLength;
+
+        String reference;
+        String verificationUrl;
+        BitMatrix bitMatrix;
+        BufferedImage image;
+        PngEncoder pngEncoder;
+        RenderedQr encodedQr;
+
+        @Setup(Level.Trial)
+        public void prepare(Services services) throws WriterException, IOException {
+            int index = services.threadIndex.getAndIncrement();
+            reference = buildReference(index, referenceLength);
+            verificationUrl = services.renderer.buildVerificationUrl(reference);
+            bitMatrix = services.renderer.encode(verificationUrl);
+            image = services.renderer.renderImage(bitMatrix);
+            pngEncoder = services.renderer.getPngEncoder();
+            byte[] pngBytes = pngEncoder.encode(image);
+            encodedQr = new RenderedQr(reference, verificationUrl, pngBytes, () -> bitMatrix, matrix -> image);
+        }
+
+        private static String buildReference(int index, int length) {
+            StringBuilder reference = new StringBuilder("ATT-").append(index).append('-');
+            String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+            Random random = new Random(index);
+            while (reference.length() < length) {
+                reference.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            return reference.toString();
+        }
+    }
+
+    @Benchmark
+    public BitMatrix encode(Services services, Input input) throws WriterException {
+        return services.renderer.encode(input.verificationUrl);
+    }
+
+    @Benchmark
+    public BufferedImage render(Services services, Input input) {
+        return services.renderer.renderImage(input.bitMatrix);
+    }
+
+    @Benchmark
+    public byte[] pngEncode(Input input) throws IOException {
+        return input.pngEncoder.encode(input.image);
+    }
+
+    @Benchmark
+    public String base64(Input input) throws IOException {
+        Base64Sink sink = new Base64Sink();
+        sink.accept(input.encodedQr);
+        return sink.getBase64Image();
+    }
+
+    @Benchmark
+    public ImageQrCodeService.QrImageResult generateAndSaveQrCodeImage(Services services, Input input) throws Exception {
+        return services.imageService.generateAndSaveQrCodeImage(input.reference);
+    }
+
+    @Benchmark
+    public QrGenerationResult generateQrCodePdf(Services services, Input input) throws Exception {
+        return services.pdfService.generateQrCodePdf(input.reference);
+    }
+}
@@ -0,0 +1,201 @@
+package com.boazhousing.qrcodegen.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * Générateur de charge en boucle ouverte: les requêtes partent à intervalles fixes, quel que
+ * soit le temps de réponse du serveur (un serveur lent ne ralentit pas l'arrivée des requêtes).
+ *
+ * La latence est mesurée depuis l'instant d'envoi prévu, pas depuis l'envoi effectif: un retard
+ * du générateur ou une file côté serveur apparaît dans les percentiles (pas d'omission
+ * coordonnée). Au-delà du nombre maximal de requêtes en vol, les requêtes prévues sont
+ * abandonnées et comptées comme telles: le débit cible n'est alors pas tenu. Une requête
+ * abandonnée est enregistrée dans l'histogramme au délai de requête (30 s), comme si elle
+ * avait expiré: les percentiles ne sont pas flattés par les envois qui n'ont pas eu lieu.
+ *
+ * Les requêtes de la phase de chauffe sont envoyées mais ni mesurées ni comptées.
+ */
+final class OpenLoopDriver {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+    private final int maxInFlight;
+
+    OpenLoopDriver(HttpClient client, int maxInFlight) {
+        this.client = client;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Exécute un scénario au débit demandé.
+     *
+     * @param name Nom du scénario
+     * @param path Chemin de l'endpoint (pour le rapport)
+     * @param requests URI de la requête de rang i
+     * @param rate Débit cible (requêtes par seconde)
+     * @param warmup Durée de chauffe (non mesurée)
+     * @param duration Durée mesurée
+     * @return Résultats de la phase mesurée
+     * @throws InterruptedException Si le thread est interrompu
+     */
+    ScenarioResult run(String name, String path, LongFunction<URI> requests, double rate,
+                       Duration warmup, Duration duration) throws InterruptedException {
+        Recorder recorder = new Recorder(3);
+        AtomicInteger inFlight = new AtomicInteger();
+        LongAdder sent = new LongAdder();
+        LongAdder succeeded = new LongAdder();
+        LongAdder failed = new LongAdder();
+        LongAdder dropped = new LongAdder();
+        LongAdder responseBytes = new LongAdder();
+        AtomicLong lastCompletion = new AtomicLong();
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+        long measureStart = start + warmup.toNanos();
+        long end = measureStart + duration.toNanos();
+
+        for (long i = 0; ; i++) {
+            long intended = start + i * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            long delay;
+            while ((delay = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(delay);
+            }
+
+            boolean measured = intended >= measureStart;
+            if (measured) {
+                sent.increment();
+            }
+            if (inFlight.get() >= maxInFlight) {
+                if (measured) {
+                    dropped.increment();
+                    recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(REQUEST_TIMEOUT.toNanos()));
+                }
+                continue;
+            }
+
+            inFlight.incrementAndGet();
+            HttpRequest request = HttpRequest.newBuilder(requests.apply(i)).timeout(REQUEST_TIMEOUT).GET().build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                  .whenComplete((response, error) -> {
+                      long completed = System.nanoTime();
+                      if (measured) {
+                          recorder.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(completed - intended)));
+                          if (error == null && response.statusCode() / 100 == 2) {
+                              succeeded.increment();
+                              responseBytes.add(response.body().length);
+                          } else {
+                              failed.increment();
+                          }
+                          lastCompletion.accumulateAndGet(completed, Math::max);
+                      }
+                      inFlight.decrementAndGet();
+                  });
+        }
+
+        // Fin de l'envoi: attente des réponses en cours (délai de requête borné)
+        long deadline = System.nanoTime() + REQUEST_TIMEOUT.plusSeconds(5).toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        long elapsedNanos = Math.max(end, lastCompletion.get()) - measureStart;
+        return new ScenarioResult(name, path, rate, duration.toSeconds(), sent.sum(), succeeded.sum(),
+                                  failed.sum(), dropped.sum(), inFlight.get(), responseBytes.sum(),
+                                  elapsedNanos, recorder.getIntervalHistogram());
+    }
+
+    /**
+     * Résultats d'un scénario, sérialisés en JSON (latences en millisecondes).
+     */
+    static class ScenarioResult {
+        private final String name;
+        private final String path;
+        private final double targetRate;
+        private final long durationSeconds;
+        private final long sent;
+        private final long succeeded;
+        private final long failed;
+        private final long dropped;
+        private final long unfinished;
+        private final long responseBytes;
+        private final double throughput;
+        private final Histogram histogram;
+
+        ScenarioResult(String name, String path, double targetRate, long durationSeconds, long sent,
+                       long succeeded, long failed, long dropped, long unfinished, long responseBytes,
+                       long elapsedNanos, Histogram histogram) {
+            this.name = name;
+            this.path = path;
+            this.targetRate = targetRate;
+            this.durationSeconds = durationSeconds;
+            this.sent = sent;
+            this.succeeded = succeeded;
+            this.failed = failed;
+            this.dropped = dropped;
+            this.unfinished = unfinished;
+            this.responseBytes = responseBytes;
+            this.throughput = elapsedNanos > 0 ? succeeded * 1e9 / elapsedNanos : 0;
+            this.histogram = histogram;
+        }
+
+        public String getName() { return name; }
+        public String getPath() { return path; }
+        public double getTargetRate() { return targetRate; }
+        public long getDurationSeconds() { return durationSeconds; }
+        public long getSent() { return sent; }
+        public long getSucceeded() { return succeeded; }
+        public long getFailed() { return failed; }
+
+        /** @return Requêtes prévues non envoyées (limite en vol), comptées au délai de requête dans les latences */
+        public long getDropped() { return dropped; }
+
+        public long getUnfinished() { return unfinished; }
+        public long getResponseBytes() { return responseBytes; }
+
+        /** @return Réponses 2xx par seconde sur la phase mesurée */
+        public double getThroughput() { return throughput; }
+
+        /** @return Part des requêtes prévues en échec, abandonnées ou sans réponse */
+        public double getErrorRate() {
+            return sent > 0 ? (double) (sent - succeeded) / sent : 0;
+        }
+
+        public double getLatencyMeanMs() { return histogram.getMean() / 1000.0; }
+        public double getLatencyP50Ms() { return percentileMs(50); }
+        public double getLatencyP90Ms() { return percentileMs(90); }
+        public double getLatencyP99Ms() { return percentileMs(99); }
+        public double getLatencyP999Ms() { return percentileMs(99.9); }
+        public double getLatencyMaxMs() { return histogram.getMaxValue() / 1000.0; }
+
+        /** @return Histogramme complet (microsecondes), compressé en base64, pour comparer des exécutions */
+        public String getHistogram() {
+            ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+            int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+            return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+        }
+
+        private double percentileMs(double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.boazhousing.qrcodegen.loadtest;
+
+import com.boazhousing.qrcodegen.QrCodeGeneratorApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+/**
+ * Test de charge de bout en bout contre le serveur embarqué (même machine, hors réseau).
+ *
+ * Démarre l'application sur un port libre avec des répertoires de sortie temporaires, prépare
+ * des fichiers pour les scénarios de service, puis exécute chaque scénario en boucle ouverte
+ * ({@link OpenLoopDriver}) et écrit les résultats en JSON (target/loadtest/results-{date}.json):
+ * débit, erreurs et percentiles de latence HdrHistogram, histogramme complet inclus.
+ *
+ * Scénarios: generate-qr, generate-qr-image, images (/images/{filename}),
+ * download (/download/{filename}).
+ *
+ * Options (--nom=valeur):
+ * - scenarios: liste séparée par des virgules (défaut: tous)
+ * - rate: débit cible en requêtes par seconde (défaut 50); rate.{scénario} pour un scénario
+ * - warmup / duration: chauffe et durée mesurée en secondes (défaut 10 / 30)
+ * - references: nombre de références distinctes parcourues (défaut 1000)
+ * - max-in-flight: requêtes en vol au-delà desquelles les envois sont abandonnés (défaut 512)
+ * - max-p99-ms / min-throughput / max-error-rate: seuils d'acceptation par scénario; un seuil
+ *   dépassé termine le programme avec le code 1 (défaut: p99 et débit non contrôlés, 1% d'erreurs)
+ * Toute autre option est transmise à l'application (ex: --app.storage.mode=content-addressed).
+ */
+public final class QrLoadTest {
+
+    private static final List<String> SCENARIOS = List.of("generate-qr", "generate-qr-image", "images", "download");
+    private static final List<String> OPTIONS = List.of("scenarios", "rate", "warmup", "duration", "references",
+            "max-in-flight", "max-p99-ms", "min-throughput", "max-error-rate");
+
+    // Fichiers préparés pour les scénarios de service
+    private static final int SERVED_FILES = 50;
+
+    private QrLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        Map<String, String> serverProperties = new LinkedHashMap<>();
+        Path outputDirectory = Files.createTempDirectory("qr-loadtest");
+        serverProperties.put("server.port", "0");
+        serverProperties.put("app.images.output-directory", outputDirectory.resolve("images").toString());
+        serverProperties.put("app.qr.output-directory", outputDirectory.resolve("pdf").toString());
+        serverProperties.put("app.jobs.directory", outputDirectory.resolve("jobs").toString());
+        serverProperties.put("logging.level.com.boazhousing.qrcodegen", "WARN");
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Option invalide (--nom=valeur attendu): " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            boolean harnessOption = OPTIONS.contains(name) || name.startsWith("rate.");
+            (harnessOption ? options : serverProperties).put(name, value);
+        }
+
+        List<String> scenarios = List.of(options.getOrDefault("scenarios", String.join(",", SCENARIOS)).split(","));
+        for (String scenario : scenarios) {
+            if (!SCENARIOS.contains(scenario)) {
+                throw new IllegalArgumentException("Scénario inconnu: " + scenario + " (" + SCENARIOS + ")");
+            }
+        }
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30")));
+        int references = Integer.parseInt(options.getOrDefault("references", "1000"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "512"));
+        double maxP99Ms = Double.parseDouble(options.getOrDefault("max-p99-ms", "0"));
+        double minThroughput = Double.parseDouble(options.getOrDefault("min-throughput", "0"));
+        double maxErrorRate = Double.parseDouble(options.getOrDefault("max-error-rate", "0.01"));
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<String> serverArgs = new ArrayList<>();
+        serverProperties.forEach((name, value) -> serverArgs.add("--" + name + "=" + value));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(QrCodeGeneratorApplication.class)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run(serverArgs.toArray(new String[0]));
+
+        int exitCode = 0;
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port;
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+            List<String> imageNames = scenarios.contains("images")
+                    ? prepareFiles(client, mapper, baseUrl + "/generate-qr-image?includeBase64=false&reference=", "imageName")
+                    : List.of();
+            List<String> pdfNames = scenarios.contains("download")
+                    ? prepareFiles(client, mapper, baseUrl + "/generate-qr?reference=", "fileName")
+                    : List.of();
+
+            OpenLoopDriver driver = new OpenLoopDriver(client, maxInFlight);
+            List<OpenLoopDriver.ScenarioResult> results = new ArrayList<>();
+            List<String> violations = new ArrayList<>();
+            for (String scenario : scenarios) {
+                double rate = Double.parseDouble(options.getOrDefault("rate." + scenario,
+                                                                      options.getOrDefault("rate", "50")));
+                String path;
+                LongFunction<URI> requests;
+                switch (scenario) {
+                    case "generate-qr" -> {
+                        path = "/generate-qr";
+                        requests = i -> URI.create(baseUrl + "/generate-qr?reference=" + reference(i % references));
+                    }
+                    case "generate-qr-image" -> {
+                        path = "/generate-qr-image";
+                        requests = i -> URI.create(baseUrl + "/generate-qr-image?reference=" + reference(i % references));
+                    }
+                    case "images" -> {
+                        path = "/images/{filename}";
+                        requests = i -> URI.create(baseUrl + "/images/" + imageNames.get((int) (i % imageNames.size())));
+                    }
+                    default -> {
+                        path = "/download/{filename}";
+                        requests = i -> URI.create(baseUrl + "/download/" + pdfNames.get((int) (i % pdfNames.size())));
+                    }
+                }
+
+                System.out.printf("%s: %.0f req/s, chauffe %d s, mesure %d s%n",
+                                  scenario, rate, warmup.toSeconds(), duration.toSeconds());
+                OpenLoopDriver.ScenarioResult result = driver.run(scenario, path, requests, rate, warmup, duration);
+                results.add(result);
+                System.out.printf("%s: %.1f req/s, p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms, "
+                                  + "erreurs %d, abandons %d%n",
+                                  scenario, result.getThroughput(), result.getLatencyP50Ms(), result.getLatencyP99Ms(),
+                                  result.getLatencyP999Ms(), result.getLatencyMaxMs(), result.getFailed(),
+                                  result.getDropped());
+
+                if (maxP99Ms > 0 && result.getLatencyP99Ms() > maxP99Ms) {
+                    violations.add(String.format("%s: p99 %.2f ms > %.2f ms", scenario, result.getLatencyP99Ms(), maxP99Ms));
+                }
+                if (minThroughput > 0 && result.getThroughput() < minThroughput) {
+                    violations.add(String.format("%s: débit %.1f req/s < %.1f req/s", scenario,
+                                                 result.getThroughput(), minThroughput));
+                }
+                if (result.getErrorRate() > maxErrorRate) {
+                    violations.add(String.format("%s: taux d'erreur %.4f > %.4f", scenario,
+                                                 result.getErrorRate(), maxErrorRate));
+                }
+            }
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("startedAt", startedAt.toString());
+            report.put("javaVersion", System.getProperty("java.version"));
+            report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+            report.put("maxHeapBytes", Runtime.getRuntime().maxMemory());
+            report.put("options", options);
+            report.put("serverProperties", serverProperties);
+            report.put("scenarios", results);
+            report.put("passed", violations.isEmpty());
+            report.put("violations", violations);
+
+            Path resultDirectory = Paths.get("target", "loadtest");
+            Files.createDirectories(resultDirectory);
+            Path resultFile = resultDirectory.resolve("results-"
+                    + startedAt.format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+            mapper.writeValue(resultFile.toFile(), report);
+            System.out.println("Résultats: " + resultFile);
+
+            if (!violations.isEmpty()) {
+                violations.forEach(violation -> System.out.println("Seuil dépassé: " + violation));
+                exitCode = 1;
+            }
+        } finally {
+            context.close();
+            FileSystemUtils.deleteRecursively(outputDirectory);
+        }
+        System.exit(exitCode);
+    }
+
+    /**
+     * Génère des fichiers via l'API et retourne leurs noms (champ de data dans la réponse).
+     */
+    private static List<String> prepareFiles(HttpClient client, ObjectMapper mapper, String generateUrl,
+                                             String nameField) throws IOException, InterruptedException {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < SERVED_FILES; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(generateUrl + reference(i))).GET().build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("Préparation impossible (" + response.statusCode() + "): " + response.body());
+            }
+            JsonNode data = mapper.readTree(response.body()).path("data");
+            names.add(data.path(nameField).asText());
+        }
+        return names;
+    }
+
+    private static String reference(long index) {
+        return String.format("ATT-LOAD-%06d", index);
+    }
+}
@@ -1,11 +1,14 @@
 package com.boazhousing.qrcodegen.controller;
 
+import com.boazhousing.qrcodegen.service.QrMetrics;
+import com.boazhousing.qrcodegen.service.render.RenderStage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
@@ -40,6 +43,10 @@ public class ImageController {
     @Value("${app.images.output-directory:qr-images}")
     private String outputDirectory;
 
+    // Métriques (Micrometer): préparation du service, le transfert relève de http.server.requests
+    @Autowired(required = false)
+    private QrMetrics metrics;
+
     /**
      * Endpoint pour servir les images QR code générées.
      *
@@ -84,6 +91,7 @@ public class ImageController {
             )
             @PathVariable String filename) {
 
+        long start = System.nanoTime();
         try {
             logger.info("Demande de service d'image: {}", filename);
 
@@ -122,7 +130,12 @@ public class ImageController {
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.IMAGE_PNG);
             headers.setContentLength(imageFile.length());
-            headers.setCacheControl("public, max-age=3600"); // Cache 1 heure
+            if (filename.matches("^.+_[0-9a-f]{16}\\.png$")) {
+                // Nom adressé par contenu: le fichier ne change jamais sous ce nom
+                headers.setCacheControl("public, max-age=31536000, immutable");
+            } else {
+                headers.setCacheControl("public, max-age=3600"); // Cache 1 heure
+            }
 
             logger.info("Image {} servie avec succès ({} bytes)", filename, imageFile.length());
 
@@ -133,6 +146,10 @@ public class ImageController {
         } catch (Exception e) {
             logger.error("Erreur lors du service de l'image {}: {}", filename, e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        } finally {
+            if (metrics != null) {
+                metrics.recordStage(RenderStage.FILE_SERVE, System.nanoTime() - start);
+            }
         }
     }
 
@@ -151,7 +168,8 @@ public class ImageController {
         }
 
         // Pattern pour les images QR: QR_IMG_{reference}_{date}_{time}.png
-        String pattern = "^QR_IMG_[A-Za-z0-9\\-_]+_\\d{8}_\\d{6}\\.png$";
+        // ou QR_IMG_{reference}_{empreinte}.png (stockage adressé par contenu)
+        String pattern = "^QR_IMG_[A-Za-z0-9\\-_]+_(\\d{8}_\\d{6}|[0-9a-f]{16})\\.png$";
 
         if (!filename.matches(pattern)) {
             return false;
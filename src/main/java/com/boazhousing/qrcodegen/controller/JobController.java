@@ -0,0 +1,184 @@
+package com.boazhousing.qrcodegen.controller;
+
+import com.boazhousing.qrcodegen.model.ApiResponse;
+import com.boazhousing.qrcodegen.model.QrJobRequest;
+import com.boazhousing.qrcodegen.model.QrJobResponse;
+import com.boazhousing.qrcodegen.service.QrJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * Contrôleur des tâches de génération asynchrones.
+ *
+ * Les lots volumineux sont soumis en tâche de fond: la requête de soumission rend la main
+ * immédiatement (202), le client suit l'avancement puis télécharge le résultat, sans
+ * mobiliser de thread de requête pendant la génération.
+ *
+ * @author Boaz Housing Development Team
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/jobs")
+@Tag(name = "Generation Jobs", description = "Génération asynchrone de lots de QR codes")
+public class JobController {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobController.class);
+
+    @Autowired
+    private QrJobService qrJobService;
+
+    /**
+     * Soumission d'une tâche de génération.
+     *
+     * POST /jobs
+     */
+    @PostMapping
+    @Operation(
+            summary = "Soumettre une tâche de génération",
+            description = "Enregistre un lot de références dans la file persistante et retourne l'identifiant " +
+                         "de la tâche. Résultat: archive ZIP de PNG ou de PDF, ou planche d'étiquettes PDF."
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "202",
+                    description = "Tâche enregistrée et placée en file",
+                    content = @Content(schema = @Schema(implementation = QrJobResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Lot vide, trop volumineux, référence ou format invalide",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "500",
+                    description = "Tâche non enregistrée",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))
+            )
+    })
+    public ResponseEntity<ApiResponse<QrJobResponse>> submitJob(@RequestBody QrJobRequest request) {
+        try {
+            QrJobService.QrJob job = qrJobService.submit(request.getReferences(), request.getFormat());
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .location(URI.create("/jobs/" + job.getId()))
+                    .body(ApiResponse.success(toResponse(job), "Tâche de génération enregistrée"));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Erreur lors de l'enregistrement d'une tâche: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Erreur lors de l'enregistrement de la tâche", e.getMessage()));
+        }
+    }
+
+    /**
+     * Suivi d'une tâche.
+     *
+     * GET /jobs/{id}
+     */
+    @GetMapping("/{id}")
+    @Operation(
+            summary = "Consulter l'état d'une tâche",
+            description = "Retourne l'état de la tâche (QUEUED, RUNNING, SUCCEEDED, FAILED) et le nombre " +
+                         "de références traitées"
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "État de la tâche",
+                    content = @Content(schema = @Schema(implementation = QrJobResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "404",
+                    description = "Tâche inconnue ou expirée"
+            )
+    })
+    public ResponseEntity<ApiResponse<QrJobResponse>> getJob(
+            @Parameter(description = "Identifiant de la tâche", required = true)
+            @PathVariable String id) {
+        QrJobService.QrJob job = qrJobService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error("Tâche inconnue: " + id));
+        }
+        return ResponseEntity.ok(ApiResponse.success(toResponse(job), "Tâche " + job.getStatus()));
+    }
+
+    /**
+     * Téléchargement du résultat d'une tâche réussie.
+     *
+     * GET /jobs/{id}/result
+     */
+    @GetMapping("/{id}/result")
+    @Operation(
+            summary = "Télécharger le résultat d'une tâche",
+            description = "Retourne l'archive ZIP ou la planche PDF produite par la tâche"
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Résultat de la tâche",
+                    content = {
+                            @Content(mediaType = "application/zip"),
+                            @Content(mediaType = "application/pdf")
+                    }
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "404",
+                    description = "Tâche inconnue ou expirée"
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "409",
+                    description = "Tâche pas encore terminée ou en échec"
+            )
+    })
+    public ResponseEntity<Resource> getJobResult(
+            @Parameter(description = "Identifiant de la tâche", required = true)
+            @PathVariable String id) {
+        QrJobService.QrJob job = qrJobService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Path result = qrJobService.getResultPath(id);
+        if (result == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+
+        String extension = job.getResultExtension();
+        return ResponseEntity.ok()
+                .contentType("pdf".equals(extension) ? MediaType.APPLICATION_PDF : MediaType.valueOf("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"QR_JOB_" + job.getId() + "." + extension + "\"")
+                .body(new FileSystemResource(result));
+    }
+
+    private static QrJobResponse toResponse(QrJobService.QrJob job) {
+        String resultUrl = job.getStatus() == QrJobService.QrJobStatus.SUCCEEDED
+                ? "/jobs/" + job.getId() + "/result"
+                : null;
+        return new QrJobResponse(job.getId(), job.getStatus().name(), job.getFormat(), job.getTotal(),
+                                 job.getProcessed(), toIso(job.getCreatedAt()), toIso(job.getStartedAt()),
+                                 toIso(job.getFinishedAt()), job.getError(), resultUrl);
+    }
+
+    private static String toIso(long epochMillis) {
+        return epochMillis > 0 ? Instant.ofEpochMilli(epochMillis).toString() : null;
+    }
+}
@@ -1,10 +1,25 @@
 package com.boazhousing.qrcodegen.controller;
 
 import com.boazhousing.qrcodegen.model.ApiResponse;
+import com.boazhousing.qrcodegen.model.QrArchiveRequest;
+import com.boazhousing.qrcodegen.model.QrBatchItemResponse;
+import com.boazhousing.qrcodegen.model.QrBatchRequest;
+import com.boazhousing.qrcodegen.model.QrBatchResponse;
+import com.boazhousing.qrcodegen.model.QrBundleResponse;
 import com.boazhousing.qrcodegen.model.QrGenerationResult;
 import com.boazhousing.qrcodegen.model.QrImageResponse;
+import com.boazhousing.qrcodegen.model.QrSheetRequest;
+import com.boazhousing.qrcodegen.service.BoazQrCodeService;
 import com.boazhousing.qrcodegen.service.PdfGenerationService;
 import com.boazhousing.qrcodegen.service.ImageQrCodeService;
+import com.boazhousing.qrcodegen.service.QrAdmissionService;
+import com.boazhousing.qrcodegen.service.QrArchiveService;
+import com.boazhousing.qrcodegen.service.QrBatchService;
+import com.boazhousing.qrcodegen.service.QrBundleService;
+import com.boazhousing.qrcodegen.service.QrMetrics;
+import com.boazhousing.qrcodegen.service.render.PdfLabelLayout;
+import com.boazhousing.qrcodegen.service.render.RenderStage;
+import com.boazhousing.qrcodegen.service.render.SvgQrDocument;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -22,12 +37,16 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 @RestController
 @RequestMapping("/")
@@ -42,6 +61,22 @@ public class QrCodeController {
     @Autowired
     private ImageQrCodeService imageQrCodeService;
 
+    @Autowired
+    private QrBundleService qrBundleService;
+
+    @Autowired
+    private QrBatchService qrBatchService;
+
+    @Autowired
+    private QrArchiveService qrArchiveService;
+
+    @Autowired
+    private BoazQrCodeService boazQrCodeService;
+
+    // Métriques (Micrometer), absentes des tests de la couche web
+    @Autowired(required = false)
+    private QrMetrics metrics;
+
     /**
      * Endpoint principal pour générer un QR code PDF
      * GET /generate-qr?reference=ATT-XXXXXXXX
@@ -64,6 +99,11 @@ public class QrCodeController {
                     description = "Référence invalide ou manquante",
                     content = @Content(schema = @Schema(implementation = ApiResponse.class))
             ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "503",
+                    description = "Service saturé: réessayer après le délai de l'en-tête Retry-After",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))
+            ),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(
                     responseCode = "500",
                     description = "Erreur interne du serveur",
@@ -105,6 +145,8 @@ public class QrCodeController {
                     ApiResponse.success(result, "QR code PDF généré avec succès")
             );
 
+        } catch (QrAdmissionService.RenderRejectedException e) {
+            return serviceUnavailable(e);
         } catch (Exception e) {
             logger.error("Erreur lors de la génération QR pour référence {}: {}", reference, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -141,6 +183,11 @@ public class QrCodeController {
                     description = "Référence invalide ou manquante",
                     content = @Content(schema = @Schema(implementation = ApiResponse.class))
             ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "503",
+                    description = "Service saturé: réessayer après le délai de l'en-tête Retry-After",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))
+            ),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(
                     responseCode = "500",
                     description = "Erreur lors de la génération de l'image",
@@ -158,7 +205,14 @@ public class QrCodeController {
             @NotBlank(message = "La référence ne peut pas être vide")
             @Pattern(regexp = "^[A-Za-z0-9\\-_]+$",
                     message = "La référence ne doit contenir que des lettres, chiffres, tirets et underscores")
-            String reference) {
+            String reference,
+            @Parameter(
+                    description = "Inclure l'image encodée en base64 dans la réponse. " +
+                                 "Passer false lorsque seule l'URL publique est utilisée.",
+                    example = "true"
+            )
+            @RequestParam(name = "includeBase64", defaultValue = "true")
+            boolean includeBase64) {
 
         try {
             logger.info("Demande de génération image QR pour référence: {}", reference);
@@ -179,7 +233,7 @@ public class QrCodeController {
 
             // Génération de l'image QR avec le service isolé
             ImageQrCodeService.QrImageResult serviceResult =
-                imageQrCodeService.generateAndSaveQrCodeImage(cleanReference);
+                imageQrCodeService.generateAndSaveQrCodeImage(cleanReference, includeBase64);
 
             // Construction de la réponse utilisateur avec toutes les informations
             QrImageResponse response = new QrImageResponse(
@@ -190,12 +244,15 @@ public class QrCodeController {
             );
 
             logger.info("Image QR générée avec succès pour référence {}: {} (base64: {} chars)",
-                       cleanReference, serviceResult.getFilename(), serviceResult.getBase64Image().length());
+                       cleanReference, serviceResult.getFilename(),
+                       serviceResult.getBase64Image() != null ? serviceResult.getBase64Image().length() : 0);
 
             return ResponseEntity.ok(
                     ApiResponse.success(response, "Image QR code générée avec succès")
             );
 
+        } catch (QrAdmissionService.RenderRejectedException e) {
+            return serviceUnavailable(e);
         } catch (Exception e) {
             logger.error("Erreur lors de la génération image QR pour référence {}: {}",
                         reference, e.getMessage(), e);
@@ -204,6 +261,396 @@ public class QrCodeController {
         }
     }
 
+    /**
+     * Endpoint de génération d'images QR code par lots.
+     *
+     * Les références sont rendues en parallèle sur un pool borné (un thread par processeur);
+     * la réponse contient un résultat par référence, dans l'ordre de la requête, erreurs comprises.
+     *
+     * POST /generate-qr-image/batch
+     */
+    @PostMapping("/generate-qr-image/batch")
+    @Operation(
+            summary = "Générer les images QR code d'un lot de références",
+            description = "Génère en parallèle les images QR code Boaz-Housing d'une liste de références " +
+                         "et retourne, pour chacune, les informations d'accès ou le message d'erreur. " +
+                         "Une référence invalide n'interrompt pas le lot. Le base64 n'est inclus que sur demande."
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Lot traité (voir le résultat de chaque référence)",
+                    content = @Content(schema = @Schema(implementation = QrBatchResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Lot vide ou trop volumineux",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "500",
+                    description = "Erreur lors du traitement du lot",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))
+            )
+    })
+    public ResponseEntity<ApiResponse<QrBatchResponse>> generateQrImageBatch(@RequestBody QrBatchRequest request) {
+        try {
+            if (request == null || request.getReferences() == null || request.getReferences().isEmpty()) {
+                return ResponseEntity.badRequest()
+                        .body(ApiResponse.error("Le lot doit contenir au moins une référence"));
+            }
+
+            logger.info("Demande de génération d'un lot de {} images QR", request.getReferences().size());
+
+            QrBatchService.QrBatchResult batchResult =
+                qrBatchService.generateBatch(request.getReferences(), request.isIncludeBase64());
+
+            List<QrBatchItemResponse> items = new ArrayList<>(batchResult.getItems().size());
+            for (QrBatchService.QrBatchItem item : batchResult.getItems()) {
+                ImageQrCodeService.QrImageResult image = item.getImage();
+                QrImageResponse imageResponse = image != null
+                        ? new QrImageResponse(image.getAccessUrl(), image.getFilename(),
+                                              image.getBase64Image(), image.getReference())
+                        : null;
+                items.add(new QrBatchItemResponse(item.getReference(), imageResponse, item.getError()));
+            }
+            QrBatchResponse response = new QrBatchResponse(items, batchResult.getDurationMs());
+
+            return ResponseEntity.ok(
+                    ApiResponse.success(response, String.format("Lot traité: %d/%d images QR code générées",
+                                                                 response.getSucceeded(), response.getTotal()))
+            );
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Erreur lors de la génération d'un lot d'images QR: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Erreur lors de la génération du lot d'images QR code", e.getMessage()));
+        }
+    }
+
+    /**
+     * Endpoint d'export d'un lot de QR codes en archive ZIP.
+     *
+     * L'archive est écrite dans la réponse au fil du rendu, une entrée par référence
+     * (PNG ou page PDF), sans fichier temporaire ni base64: la mémoire utilisée ne dépend
+     * pas du nombre de références. Les références non exportées sont listées dans
+     * l'entrée erreurs.txt.
+     *
+     * POST /generate-qr-archive
+     */
+    @PostMapping("/generate-qr-archive")
+    @Operation(
+            summary = "Exporter les QR codes d'un lot de références en archive ZIP",
+            description = "Retourne une archive ZIP contenant l'image PNG (QR_IMG_<référence>.png) ou la page " +
+                         "PDF (QR_<référence>.pdf) de chaque référence, transmise au fur et à mesure du rendu. " +
+                         "Une référence invalide n'interrompt pas l'export: elle est listée dans erreurs.txt."
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Archive ZIP transmise en flux",
+                    content = @Content(mediaType = "application/zip")
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Liste vide, trop volumineuse ou format invalide",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "503",
+                    description = "Service saturé: réessayer après le délai de l'en-tête Retry-After",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))
+            )
+    })
+    public ResponseEntity<StreamingResponseBody> generateQrArchive(@RequestBody QrArchiveRequest request) {
+        List<String> references = request.getReferences();
+        String format = request.getFormat() != null ? request.getFormat().toLowerCase() : "png";
+
+        // Vérifications avant la première écriture (ensuite le statut ne peut plus changer):
+        // une demande refusée est rapportée en 400 par le gestionnaire d'erreurs
+        qrArchiveService.validateRequest(references, format);
+
+        logger.info("Demande d'export de {} QR codes en archive {}", references.size(), format);
+
+        // Mémoire de l'export réservée avant la réponse: un refus est encore rapporté en 503
+        // par handleRenderRejected
+        QrAdmissionService.Permit permit = admit(() -> qrArchiveService.admit(references));
+
+        StreamingResponseBody body = outputStream -> {
+            try (permit) {
+                qrArchiveService.writeArchive(references, format, outputStream);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.valueOf("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"qr-codes-" + format + ".zip\"")
+                .body(body);
+    }
+
+    /**
+     * Endpoint de planche d'étiquettes PDF pour l'impression en série.
+     *
+     * Un seul document multi-pages, N QR codes par page selon la grille demandée, écrit dans
+     * la réponse page par page (police et logo partagés par toutes les pages).
+     *
+     * POST /generate-qr-sheet
+     */
+    @PostMapping("/generate-qr-sheet")
+    @Operation(
+            summary = "Générer une planche d'étiquettes PDF",
+            description = "Retourne un PDF multi-pages contenant un QR code Boaz-Housing par référence, " +
+                         "disposés en grille (format de page, colonnes, lignes, marges et espacement " +
+                         "configurables), avec la référence imprimée sous chaque symbole. Le document est " +
+                         "transmis au fil de la génération."
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Planche PDF transmise en flux",
+                    content = @Content(mediaType = "application/pdf")
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Liste vide ou trop volumineuse, référence ou grille invalide",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "503",
+                    description = "Service saturé: réessayer après le délai de l'en-tête Retry-After",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))
+            )
+    })
+    public ResponseEntity<StreamingResponseBody> generateQrSheet(@RequestBody QrSheetRequest request) {
+        List<String> references = request.getReferences();
+
+        // Vérifications avant la première écriture (ensuite le statut ne peut plus changer):
+        // une demande refusée est rapportée en 400 par le gestionnaire d'erreurs
+        PdfLabelLayout layout = PdfLabelLayout.of(request.getPageSize(), request.getColumns(), request.getRows(),
+                                                  request.getMarginMm(), request.getGapMm(),
+                                                  request.isShowReference());
+        pdfGenerationService.validateLabelSheet(references);
+
+        logger.info("Demande de planche {} de {} étiquettes", layout.describe(), references.size());
+
+        // Mémoire de la planche réservée avant la réponse: un refus est encore rapporté en 503
+        // par handleRenderRejected
+        QrAdmissionService.Permit permit = admit(() -> pdfGenerationService.admitLabelSheet(references));
+
+        StreamingResponseBody body = outputStream -> {
+            try (permit) {
+                pdfGenerationService.writeLabelSheet(references, layout, outputStream);
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"QR_PLANCHE_" + layout.describe() + ".pdf\"")
+                .body(body);
+    }
+
+    /**
+     * Endpoint combiné: image QR code et PDF générés à partir d'un seul rendu.
+     *
+     * Évite de rendre deux fois le même symbole lorsqu'un client a besoin
+     * à la fois de l'image (URL + base64) et du PDF.
+     *
+     * GET /generate-qr-bundle?reference=ATT-XXXXXXXX
+     */
+    @GetMapping("/generate-qr-bundle")
+    @Operation(
+            summary = "Générer l'image QR code et le PDF en un seul rendu",
+            description = "Rend le QR code Boaz-Housing une seule fois et produit à la fois l'image PNG " +
+                         "(URL publique, nom de fichier, base64) et le PDF (URL de téléchargement)."
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Image et PDF générés avec succès",
+                    content = @Content(schema = @Schema(implementation = QrBundleResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Référence invalide ou manquante",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "503",
+                    description = "Service saturé: réessayer après le délai de l'en-tête Retry-After",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "500",
+                    description = "Erreur lors de la génération",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))
+            )
+    })
+    public ResponseEntity<ApiResponse<QrBundleResponse>> generateQrBundle(
+            @Parameter(
+                    description = "Référence unique pour le document (ex: ATT-DOCUMENT-001)",
+                    example = "ATT-DOCUMENT-001",
+                    required = true
+            )
+            @RequestParam(name = "reference")
+            @NotBlank(message = "La référence ne peut pas être vide")
+            @Pattern(regexp = "^[A-Za-z0-9\\-_]+$",
+                    message = "La référence ne doit contenir que des lettres, chiffres, tirets et underscores")
+            String reference,
+            @Parameter(
+                    description = "Inclure l'image encodée en base64 dans la réponse. " +
+                                 "Passer false lorsque seule l'URL publique est utilisée.",
+                    example = "true"
+            )
+            @RequestParam(name = "includeBase64", defaultValue = "true")
+            boolean includeBase64) {
+
+        try {
+            logger.info("Demande de génération combinée image + PDF pour référence: {}", reference);
+
+            if (StringUtils.isBlank(reference)) {
+                return ResponseEntity.badRequest()
+                        .body(ApiResponse.error("La référence est obligatoire"));
+            }
+
+            if (reference.length() > 50) {
+                return ResponseEntity.badRequest()
+                        .body(ApiResponse.error("La référence ne peut pas dépasser 50 caractères"));
+            }
+
+            String cleanReference = reference.trim().toUpperCase();
+
+            // Un seul rendu consommé par les sinks image et PDF
+            QrBundleService.QrBundleResult bundle = qrBundleService.generateBundle(cleanReference, includeBase64);
+            ImageQrCodeService.QrImageResult image = bundle.getImage();
+
+            QrBundleResponse response = new QrBundleResponse(
+                cleanReference,
+                new QrImageResponse(image.getAccessUrl(), image.getFilename(),
+                                    image.getBase64Image(), image.getReference()),
+                bundle.getPdf()
+            );
+
+            return ResponseEntity.ok(
+                    ApiResponse.success(response, "Image QR code et PDF générés avec succès")
+            );
+
+        } catch (QrAdmissionService.RenderRejectedException e) {
+            return serviceUnavailable(e);
+        } catch (Exception e) {
+            logger.error("Erreur lors de la génération combinée pour référence {}: {}",
+                        reference, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Erreur lors de la génération de l'image et du PDF", e.getMessage()));
+        }
+    }
+
+    /**
+     * Endpoint de rendu direct du symbole, sans fichier ni enveloppe JSON.
+     *
+     * - format=svg: document vectoriel écrit directement dans la réponse (aucune image
+     *   rastérisée ni compression PNG), idéal pour navigateurs et gabarits d'impression
+     * - format=png: octets PNG du symbole
+     *
+     * GET /generate-qr-symbol?reference=ATT-XXXXXXXX&format=svg
+     */
+    @GetMapping("/generate-qr-symbol")
+    @Operation(
+            summary = "Rendre le QR code directement en SVG ou PNG",
+            description = "Retourne le QR code Boaz-Housing dans le corps de la réponse. En SVG, le symbole " +
+                         "(points circulaires, finder patterns orange, logo) est décrit en vectoriel et " +
+                         "s'affiche à toute taille sans perte. Le logo peut être embarqué ou référencé par URL."
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Symbole rendu avec succès",
+                    content = {
+                            @Content(mediaType = "image/svg+xml"),
+                            @Content(mediaType = "image/png")
+                    }
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Référence, format ou mode de logo invalide"
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "503",
+                    description = "Service saturé: réessayer après le délai de l'en-tête Retry-After",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "500",
+                    description = "Erreur lors du rendu"
+            )
+    })
+    public ResponseEntity<StreamingResponseBody> generateQrSymbol(
+            @Parameter(
+                    description = "Référence unique pour le document (ex: ATT-DOCUMENT-001)",
+                    example = "ATT-DOCUMENT-001",
+                    required = true
+            )
+            @RequestParam(name = "reference")
+            @NotBlank(message = "La référence ne peut pas être vide")
+            @Pattern(regexp = "^[A-Za-z0-9\\-_]+$",
+                    message = "La référence ne doit contenir que des lettres, chiffres, tirets et underscores")
+            String reference,
+            @Parameter(description = "Format de sortie: svg ou png", example = "svg")
+            @RequestParam(name = "format", defaultValue = "svg")
+            String format,
+            @Parameter(description = "Logo SVG: embedded (document autonome) ou referenced (URL)", example = "embedded")
+            @RequestParam(name = "logo", defaultValue = "embedded")
+            String logo) {
+
+        try {
+            logger.info("Demande de rendu direct {} pour référence: {}", format, reference);
+
+            if (StringUtils.isBlank(reference) || reference.length() > 50) {
+                return ResponseEntity.badRequest().build();
+            }
+
+            boolean svg = "svg".equalsIgnoreCase(format);
+            if (!svg && !"png".equalsIgnoreCase(format)) {
+                logger.warn("Format de sortie invalide: {}", format);
+                return ResponseEntity.badRequest().build();
+            }
+            if (!"embedded".equalsIgnoreCase(logo) && !"referenced".equalsIgnoreCase(logo)) {
+                logger.warn("Mode de logo invalide: {}", logo);
+                return ResponseEntity.badRequest().build();
+            }
+
+            String cleanReference = reference.trim().toUpperCase();
+
+            if (svg) {
+                // Encodage immédiat, écriture du document directement dans la réponse
+                SvgQrDocument document = boazQrCodeService.generateBoazStyleQrCodeSvg(
+                        cleanReference, "embedded".equalsIgnoreCase(logo));
+                return ResponseEntity.ok()
+                        .contentType(MediaType.valueOf("image/svg+xml"))
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"QR_" + cleanReference + ".svg\"")
+                        .body(document::writeTo);
+            }
+
+            byte[] png = boazQrCodeService.generateBoazStyleQrCodePng(cleanReference);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.IMAGE_PNG)
+                    .contentLength(png.length)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"QR_" + cleanReference + ".png\"")
+                    .body(outputStream -> outputStream.write(png));
+
+        } catch (QrAdmissionService.RenderRejectedException e) {
+            // Rapporté en 503 par handleRenderRejected (le corps de cette réponse est un flux)
+            throw e;
+        } catch (Exception e) {
+            logger.error("Erreur lors du rendu direct pour référence {}: {}", reference, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Endpoint pour télécharger les PDFs générés
      * GET /download/{filename}
@@ -235,11 +682,12 @@ public class QrCodeController {
                     required = true
             )
             @PathVariable String filename) {
+        long start = System.nanoTime();
         try {
             logger.info("Demande de téléchargement du fichier: {}", filename);
 
             // Validation du nom de fichier
-            if (!filename.matches("^QR_[A-Za-z0-9\\-_]+_\\d{8}_\\d{6}\\.pdf$")) {
+            if (!filename.matches("^QR_[A-Za-z0-9\\-_]+_(\\d{8}_\\d{6}|[0-9a-f]{16})\\.pdf$")) {
                 logger.warn("Nom de fichier invalide: {}", filename);
                 return ResponseEntity.badRequest().build();
             }
@@ -273,6 +721,10 @@ public class QrCodeController {
         } catch (Exception e) {
             logger.error("Erreur lors du téléchargement du fichier {}: {}", filename, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        } finally {
+            if (metrics != null) {
+                metrics.recordStage(RenderStage.FILE_SERVE, System.nanoTime() - start);
+            }
         }
     }
 
@@ -327,6 +779,41 @@ public class QrCodeController {
         }
     }
 
+    /**
+     * Réponse 503 d'un rendu refusé par le contrôle d'admission, avec le délai avant nouvelle tentative.
+     */
+    private static <T> ResponseEntity<ApiResponse<T>> serviceUnavailable(QrAdmissionService.RenderRejectedException e) {
+        logger.warn("Rendu refusé: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(ApiResponse.error(e.getMessage()));
+    }
+
+    /**
+     * Réserve la mémoire d'un flux; une attente interrompue vaut refus (503), la requête n'ayant pas été admise.
+     */
+    private static QrAdmissionService.Permit admit(Admission admission) {
+        try {
+            return admission.admit();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QrAdmissionService.RenderRejectedException("Attente d'admission interrompue", 1);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Admission {
+        QrAdmissionService.Permit admit() throws InterruptedException;
+    }
+
+    /**
+     * Gestion des rendus refusés par le contrôle d'admission, y compris sur les endpoints en flux
+     */
+    @ExceptionHandler(QrAdmissionService.RenderRejectedException.class)
+    public ResponseEntity<ApiResponse<Void>> handleRenderRejected(QrAdmissionService.RenderRejectedException e) {
+        return serviceUnavailable(e);
+    }
+
     /**
      * Gestion des erreurs de validation
      */
@@ -0,0 +1,52 @@
+package com.boazhousing.qrcodegen.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Modèle de requête pour l'export d'une archive ZIP de QR codes.
+ *
+ * @author Boaz Housing Development Team
+ * @version 1.0.0
+ */
+@Schema(description = "Références à exporter dans une archive ZIP, une entrée par référence")
+public class QrArchiveRequest {
+
+    @Schema(description = "Références des documents (mêmes règles que l'endpoint unitaire)",
+            example = "[\"ATT-DOC-001\", \"ATT-DOC-002\"]")
+    private List<String> references;
+
+    @Schema(description = "Format des entrées: png (image QR code) ou pdf (page A4)", example = "png")
+    private String format = "png";
+
+    /**
+     * Constructeur par défaut requis pour la désérialisation JSON.
+     */
+    public QrArchiveRequest() {}
+
+    /**
+     * @param references Références des documents
+     * @param format Format des entrées (png ou pdf)
+     */
+    public QrArchiveRequest(List<String> references, String format) {
+        this.references = references;
+        this.format = format;
+    }
+
+    public List<String> getReferences() {
+        return references;
+    }
+
+    public void setReferences(List<String> references) {
+        this.references = references;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+}
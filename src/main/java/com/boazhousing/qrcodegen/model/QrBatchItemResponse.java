@@ -0,0 +1,75 @@
+package com.boazhousing.qrcodegen.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Résultat d'une référence dans une génération par lots: image générée ou erreur.
+ *
+ * @author Boaz Housing Development Team
+ * @version 1.0.0
+ */
+@Schema(description = "Résultat d'une référence du lot")
+public class QrBatchItemResponse {
+
+    @Schema(description = "Référence telle que demandée", example = "ATT-DOC-001")
+    private String reference;
+
+    @Schema(description = "true si l'image a été générée", example = "true")
+    private boolean success;
+
+    @Schema(description = "Informations d'accès à l'image (absent en cas d'erreur)")
+    private QrImageResponse image;
+
+    @Schema(description = "Message d'erreur (absent en cas de succès)",
+            example = "La référence ne doit contenir que des lettres, chiffres, tirets et underscores")
+    private String error;
+
+    /**
+     * Constructeur par défaut requis pour la désérialisation JSON.
+     */
+    public QrBatchItemResponse() {}
+
+    /**
+     * @param reference Référence demandée
+     * @param image Image générée, ou null en cas d'erreur
+     * @param error Message d'erreur, ou null en cas de succès
+     */
+    public QrBatchItemResponse(String reference, QrImageResponse image, String error) {
+        this.reference = reference;
+        this.success = image != null;
+        this.image = image;
+        this.error = error;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public QrImageResponse getImage() {
+        return image;
+    }
+
+    public void setImage(QrImageResponse image) {
+        this.image = image;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,53 @@
+package com.boazhousing.qrcodegen.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Modèle de requête pour la génération d'images QR code par lots.
+ *
+ * @author Boaz Housing Development Team
+ * @version 1.0.0
+ */
+@Schema(description = "Lot de références pour lesquelles générer une image QR code")
+public class QrBatchRequest {
+
+    @Schema(description = "Références des documents (mêmes règles que l'endpoint unitaire)",
+            example = "[\"ATT-DOC-001\", \"ATT-DOC-002\"]")
+    private List<String> references;
+
+    @Schema(description = "Inclure chaque image encodée en base64 (désactivé par défaut: réponse volumineuse)",
+            example = "false")
+    private boolean includeBase64;
+
+    /**
+     * Constructeur par défaut requis pour la désérialisation JSON.
+     */
+    public QrBatchRequest() {}
+
+    /**
+     * @param references Références des documents
+     * @param includeBase64 true pour inclure les images en base64
+     */
+    public QrBatchRequest(List<String> references, boolean includeBase64) {
+        this.references = references;
+        this.includeBase64 = includeBase64;
+    }
+
+    public List<String> getReferences() {
+        return references;
+    }
+
+    public void setReferences(List<String> references) {
+        this.references = references;
+    }
+
+    public boolean isIncludeBase64() {
+        return includeBase64;
+    }
+
+    public void setIncludeBase64(boolean includeBase64) {
+        this.includeBase64 = includeBase64;
+    }
+}
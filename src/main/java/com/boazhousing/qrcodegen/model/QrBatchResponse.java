@@ -0,0 +1,90 @@
+package com.boazhousing.qrcodegen.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Modèle de réponse pour la génération d'images QR code par lots.
+ *
+ * Un élément par référence demandée, dans l'ordre de la requête; les erreurs
+ * sont rapportées élément par élément sans interrompre le lot.
+ *
+ * @author Boaz Housing Development Team
+ * @version 1.0.0
+ */
+@Schema(description = "Résultats d'une génération d'images QR code par lots")
+public class QrBatchResponse {
+
+    @Schema(description = "Nombre de références demandées", example = "2")
+    private int total;
+
+    @Schema(description = "Nombre d'images générées", example = "2")
+    private int succeeded;
+
+    @Schema(description = "Nombre de références en erreur", example = "0")
+    private int failed;
+
+    @Schema(description = "Durée totale du lot en millisecondes", example = "42")
+    private long durationMs;
+
+    @Schema(description = "Résultats par référence, dans l'ordre de la requête")
+    private List<QrBatchItemResponse> items;
+
+    /**
+     * Constructeur par défaut requis pour la désérialisation JSON.
+     */
+    public QrBatchResponse() {}
+
+    /**
+     * @param items Résultats par référence
+     * @param durationMs Durée totale du lot en millisecondes
+     */
+    public QrBatchResponse(List<QrBatchItemResponse> items, long durationMs) {
+        this.items = items;
+        this.durationMs = durationMs;
+        this.total = items.size();
+        this.succeeded = (int) items.stream().filter(QrBatchItemResponse::isSuccess).count();
+        this.failed = total - succeeded;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public List<QrBatchItemResponse> getItems() {
+        return items;
+    }
+
+    public void setItems(List<QrBatchItemResponse> items) {
+        this.items = items;
+    }
+}
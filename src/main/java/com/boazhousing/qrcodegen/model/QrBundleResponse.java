@@ -0,0 +1,65 @@
+package com.boazhousing.qrcodegen.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Modèle de réponse pour la génération combinée image PNG + PDF.
+ *
+ * Les deux fichiers proviennent d'un seul rendu du QR code.
+ *
+ * @author Boaz Housing Development Team
+ * @version 1.0.0
+ */
+@Schema(description = "Réponse combinée: image QR code et PDF générés à partir d'un seul rendu")
+public class QrBundleResponse {
+
+    @Schema(description = "Référence du document utilisée pour générer le QR code",
+            example = "ATT-DOC-001")
+    private String reference;
+
+    @Schema(description = "Informations d'accès à l'image PNG générée")
+    private QrImageResponse image;
+
+    @Schema(description = "Informations du PDF généré")
+    private QrGenerationResult pdf;
+
+    /**
+     * Constructeur par défaut requis pour la désérialisation JSON.
+     */
+    public QrBundleResponse() {}
+
+    /**
+     * @param reference Référence du document
+     * @param image Informations de l'image générée
+     * @param pdf Informations du PDF généré
+     */
+    public QrBundleResponse(String reference, QrImageResponse image, QrGenerationResult pdf) {
+        this.reference = reference;
+        this.image = image;
+        this.pdf = pdf;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    public QrImageResponse getImage() {
+        return image;
+    }
+
+    public void setImage(QrImageResponse image) {
+        this.image = image;
+    }
+
+    public QrGenerationResult getPdf() {
+        return pdf;
+    }
+
+    public void setPdf(QrGenerationResult pdf) {
+        this.pdf = pdf;
+    }
+}
@@ -0,0 +1,53 @@
+package com.boazhousing.qrcodegen.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Modèle de requête pour la soumission d'une tâche de génération asynchrone.
+ *
+ * @author Boaz Housing Development Team
+ * @version 1.0.0
+ */
+@Schema(description = "Lot de références à générer en tâche de fond")
+public class QrJobRequest {
+
+    @Schema(description = "Références des documents (mêmes règles que l'endpoint unitaire)",
+            example = "[\"ATT-DOC-001\", \"ATT-DOC-002\"]")
+    private List<String> references;
+
+    @Schema(description = "Résultat: png ou pdf (archive ZIP), sheet (planche d'étiquettes PDF A4 3x8)",
+            example = "png")
+    private String format = "png";
+
+    /**
+     * Constructeur par défaut requis pour la désérialisation JSON.
+     */
+    public QrJobRequest() {}
+
+    /**
+     * @param references Références des documents
+     * @param format Format du résultat (png, pdf ou sheet)
+     */
+    public QrJobRequest(List<String> references, String format) {
+        this.references = references;
+        this.format = format;
+    }
+
+    public List<String> getReferences() {
+        return references;
+    }
+
+    public void setReferences(List<String> references) {
+        this.references = references;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+}
@@ -0,0 +1,143 @@
+package com.boazhousing.qrcodegen.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Modèle de réponse décrivant l'état d'une tâche de génération asynchrone.
+ *
+ * @author Boaz Housing Development Team
+ * @version 1.0.0
+ */
+@Schema(description = "État et avancement d'une tâche de génération")
+public class QrJobResponse {
+
+    @Schema(description = "Identifiant de la tâche", example = "3f2b8c1e-6a4d-4e0b-9a51-1c2d3e4f5a6b")
+    private String jobId;
+
+    @Schema(description = "État: QUEUED, RUNNING, SUCCEEDED ou FAILED", example = "RUNNING")
+    private String status;
+
+    @Schema(description = "Format du résultat (png, pdf ou sheet)", example = "png")
+    private String format;
+
+    @Schema(description = "Nombre de références du lot", example = "500")
+    private int total;
+
+    @Schema(description = "Références déjà traitées", example = "120")
+    private int processed;
+
+    @Schema(description = "Date de soumission (ISO-8601)", example = "2024-01-01T12:00:00Z")
+    private String createdAt;
+
+    @Schema(description = "Date de début d'exécution (ISO-8601), absente avant le début")
+    private String startedAt;
+
+    @Schema(description = "Date de fin (ISO-8601), absente avant la fin")
+    private String finishedAt;
+
+    @Schema(description = "Message d'erreur en cas d'échec")
+    private String error;
+
+    @Schema(description = "URL de téléchargement du résultat, présente une fois la tâche réussie",
+            example = "/jobs/3f2b8c1e-6a4d-4e0b-9a51-1c2d3e4f5a6b/result")
+    private String resultUrl;
+
+    /**
+     * Constructeur par défaut requis pour la désérialisation JSON.
+     */
+    public QrJobResponse() {}
+
+    public QrJobResponse(String jobId, String status, String format, int total, int processed,
+                         String createdAt, String startedAt, String finishedAt, String error, String resultUrl) {
+        this.jobId = jobId;
+        this.status = status;
+        this.format = format;
+        this.total = total;
+        this.processed = processed;
+        this.createdAt = createdAt;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.error = error;
+        this.resultUrl = resultUrl;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(int processed) {
+        this.processed = processed;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(String startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public String getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(String finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getResultUrl() {
+        return resultUrl;
+    }
+
+    public void setResultUrl(String resultUrl) {
+        this.resultUrl = resultUrl;
+    }
+}
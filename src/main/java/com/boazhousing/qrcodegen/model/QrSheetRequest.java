@@ -0,0 +1,108 @@
+package com.boazhousing.qrcodegen.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Modèle de requête pour la génération d'une planche d'étiquettes PDF.
+ *
+ * Grille par défaut: A4, 3 colonnes sur 8 lignes (24 étiquettes par page),
+ * marges de 10 mm, 4 mm entre étiquettes, référence imprimée sous chaque QR code.
+ *
+ * @author Boaz Housing Development Team
+ * @version 1.0.0
+ */
+@Schema(description = "Références à imprimer et grille des étiquettes de la planche PDF")
+public class QrSheetRequest {
+
+    @Schema(description = "Références des documents, une étiquette par référence (doublons imprimés)",
+            example = "[\"ATT-DOC-001\", \"ATT-DOC-002\"]")
+    private List<String> references;
+
+    @Schema(description = "Format de page: A4, A3, A5 ou LETTER", example = "A4")
+    private String pageSize = "A4";
+
+    @Schema(description = "Étiquettes par ligne", example = "3")
+    private int columns = 3;
+
+    @Schema(description = "Lignes d'étiquettes par page", example = "8")
+    private int rows = 8;
+
+    @Schema(description = "Marge de la page en millimètres", example = "10")
+    private float marginMm = 10;
+
+    @Schema(description = "Espacement entre étiquettes en millimètres", example = "4")
+    private float gapMm = 4;
+
+    @Schema(description = "Imprimer la référence sous chaque QR code", example = "true")
+    private boolean showReference = true;
+
+    /**
+     * Constructeur par défaut requis pour la désérialisation JSON.
+     */
+    public QrSheetRequest() {}
+
+    /**
+     * @param references Références des documents (grille par défaut)
+     */
+    public QrSheetRequest(List<String> references) {
+        this.references = references;
+    }
+
+    public List<String> getReferences() {
+        return references;
+    }
+
+    public void setReferences(List<String> references) {
+        this.references = references;
+    }
+
+    public String getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(String pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public void setColumns(int columns) {
+        this.columns = columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public void setRows(int rows) {
+        this.rows = rows;
+    }
+
+    public float getMarginMm() {
+        return marginMm;
+    }
+
+    public void setMarginMm(float marginMm) {
+        this.marginMm = marginMm;
+    }
+
+    public float getGapMm() {
+        return gapMm;
+    }
+
+    public void setGapMm(float gapMm) {
+        this.gapMm = gapMm;
+    }
+
+    public boolean isShowReference() {
+        return showReference;
+    }
+
+    public void setShowReference(boolean showReference) {
+        this.showReference = showReference;
+    }
+}
@@ -1,21 +1,16 @@
 package com.boazhousing.qrcodegen.service;
 
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.EncodeHintType;
-import com.google.zxing.WriterException;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.qrcode.QRCodeWriter;
-import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.boazhousing.qrcodegen.service.render.Base64Sink;
+import com.boazhousing.qrcodegen.service.render.PngFileSink;
+import com.boazhousing.qrcodegen.service.render.QrOutputSink;
+import com.boazhousing.qrcodegen.service.render.RenderedQr;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import javax.imageio.ImageIO;
-import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
-import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -23,8 +18,7 @@ import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.Base64;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
 /**
  * Service isolé et réutilisable pour la génération d'images QR code avec le style Boaz-Housing.
@@ -36,6 +30,9 @@ import java.util.Map;
  * - Logo central Boaz-Housing
  * - Support de sauvegarde d'images et conversion base64
  *
+ * Le rendu lui-même est délégué au {@link StyledQrRenderer} partagé: le symbole est
+ * rendu une seule fois puis consommé par les sinks fichier PNG et base64.
+ *
  * @author Boaz Housing Development Team
  * @version 1.0.0
  * @since 2024
@@ -45,83 +42,118 @@ public class ImageQrCodeService {
 
     private static final Logger logger = LoggerFactory.getLogger(ImageQrCodeService.class);
 
-    // Configuration technique pour le style Boaz-Housing
-    private static final int BOX_SIZE = 10;           // Taille des modules QR en pixels
-    private static final int BORDER_SIZE = 40;        // Bordure blanche autour du QR (4 * box_size)
-    private static final int LOGO_RADIUS = 6;         // Rayon de la zone logo au centre (en modules)
-    private static final int LOGO_DISPLAY_SIZE = 180; // Taille d'affichage du logo en pixels
+    // Configuration des répertoires et URLs d'accès
+    @Value("${app.images.output-directory:qr-images}")
+    private String outputDirectory;
 
-    // Couleurs officielles Boaz-Housing selon les spécifications du design
-    @Value("${app.colors.primary-blue:#0140ff}")
-    private String primaryBlue;        // Couleur des points de données
+    @Value("${app.images.base-access-url:http://localhost:8080/images}")
+    private String baseAccessUrl;
 
-    @Value("${app.colors.orange-dark:#f88206}")
-    private String orangeDark;         // Couleur centre des corners
+    // Nommage des fichiers: "timestamped" (un fichier par appel) ou "content-addressed"
+    // (nom dérivé de la référence et du style, fichier réutilisé tant que le style ne change pas)
+    @Value("${app.storage.mode:timestamped}")
+    private String storageMode = "timestamped";
 
-    @Value("${app.colors.orange-medium:#fa9000}")
-    private String orangeMedium;       // Couleur milieu des corners
+    // Moteur de rendu partagé (encodage, style Boaz-Housing, logo)
+    @Autowired
+    private StyledQrRenderer renderer;
 
-    @Value("${app.colors.orange-light:#ffa94d}")
-    private String orangeLight;        // Couleur bordure des corners
+    // Contrôle d'admission des rendus (budget mémoire), absent hors contexte Spring
+    @Autowired(required = false)
+    private QrAdmissionService admissionService;
 
-    // Configuration des URLs et chemins
-    @Value("${app.qr.base-url:https://housing.boaz-study.tech}")
-    private String baseUrl;
+    // Appels simultanés identiques servis par une seule génération (false: une génération par appel)
+    @Value("${app.coalescing.enabled:true}")
+    private boolean coalescingEnabled = true;
 
-    @Value("${app.qr.verification-path:/verif_doc}")
-    private String verificationPath;
+    private final SingleFlight<String, QrImageResult> inFlight = new SingleFlight<>();
 
-    @Value("${app.images.output-directory:qr-images}")
-    private String outputDirectory;
+    // Métriques (Micrometer), absentes hors contexte Spring
+    @Autowired(required = false)
+    private QrMetrics metrics;
 
-    @Value("${app.images.base-access-url:http://localhost:8080/images}")
-    private String baseAccessUrl;
+    /**
+     * Publie le nombre d'appels regroupés dans les métriques.
+     */
+    @PostConstruct
+    public void registerMetrics() {
+        if (metrics != null) {
+            metrics.monitorCoalescing("image", inFlight);
+        }
+    }
 
     /**
      * Génère un QR code image avec le style Boaz-Housing et le sauvegarde.
      *
      * Cette méthode est le point d'entrée principal du service. Elle:
-     * 1. Génère l'image QR code stylée
-     * 2. Sauvegarde l'image sur le système de fichiers
-     * 3. Retourne toutes les informations nécessaires (chemin, nom, base64)
+     * 1. Prépare la cible (nom de fichier unique, chemin, URL d'accès)
+     * 2. Rend l'image QR code stylée une seule fois
+     * 3. L'encode en PNG une seule fois, puis écrit ces octets sur disque et
+     *    les convertit en base64 dans la même passe
+     * 4. Retourne toutes les informations nécessaires (chemin, nom, base64)
      *
      * @param reference Référence unique pour générer l'URL de vérification
      * @return QrImageResult contenant toutes les informations de l'image générée
      * @throws Exception En cas d'erreur lors de la génération ou sauvegarde
      */
     public QrImageResult generateAndSaveQrCodeImage(String reference) throws Exception {
-        try {
-            logger.info("Démarrage génération image QR pour référence: {}", reference);
+        return generateAndSaveQrCodeImage(reference, true);
+    }
 
-            // 1. Génération de l'image QR code stylée
-            BufferedImage qrImage = generateStyledQrCodeImage(reference);
+    /**
+     * Génère et sauvegarde un QR code image, en produisant le base64 seulement si demandé.
+     *
+     * Les appels simultanés pour la même référence et les mêmes options partagent une seule
+     * génération (un seul rendu, un seul fichier) et reçoivent le même résultat.
+     *
+     * @param reference Référence unique pour générer l'URL de vérification
+     * @param includeBase64 true pour inclure l'image encodée en base64 dans le résultat
+     * @return QrImageResult (base64 null si non demandé)
+     * @throws Exception En cas d'erreur lors de la génération ou sauvegarde
+     */
+    public QrImageResult generateAndSaveQrCodeImage(String reference, boolean includeBase64) throws Exception {
+        if (!coalescingEnabled) {
+            return generate(reference, includeBase64);
+        }
+        // Même référence, mêmes options et même style: une seule génération, même résultat pour tous
+        return inFlight.execute(reference + "|" + includeBase64 + "|" + renderer.getStyleFingerprint(),
+                                () -> generate(reference, includeBase64));
+    }
 
-            // 2. Génération du nom de fichier unique
-            String filename = generateUniqueFilename(reference);
+    private QrImageResult generate(String reference, boolean includeBase64) throws Exception {
+        try {
+            logger.info("Démarrage génération image QR pour référence: {}", reference);
 
-            // 3. Sauvegarde de l'image
-            String savedFilePath = saveImageToFileSystem(qrImage, filename);
+            // 1. Préparation de la cible (fichier PNG, base64 si demandé)
+            ImageTarget target = prepareImageTarget(reference, includeBase64);
 
-            // 4. Conversion en base64 pour utilisation directe
-            String base64Image = convertImageToBase64(qrImage);
+            // Stockage adressé par contenu: l'image existe déjà, simple consultation
+            if (target.isStored()) {
+                QrImageResult result = target.toResult();
+                if (metrics != null) {
+                    metrics.recordStorageHit("png");
+                }
+                logger.info("Image QR existante réutilisée: {}", result.getFilename());
+                return result;
+            }
 
-            // 5. Construction de l'URL d'accès public
-            String accessUrl = buildPublicAccessUrl(filename);
+            // 2. Rendu unique consommé par les sinks fichier et base64 (PNG encodé une seule fois),
+            //    une fois sa mémoire réservée auprès du contrôle d'admission
+            RenderedQr renderedQr;
+            try (QrAdmissionService.Permit permit = admit(reference, includeBase64)) {
+                renderedQr = renderer.render(reference, target.getSinks());
+            }
 
-            // 6. Construction du résultat complet
-            QrImageResult result = new QrImageResult(
-                accessUrl,
-                filename,
-                base64Image,
-                savedFilePath,
-                reference
-            );
+            // 3. Construction du résultat complet
+            QrImageResult result = target.toResult();
 
-            logger.info("Image QR générée avec succès: {} (taille: {} bytes)",
-                       filename, base64Image.length());
+            logger.info("Image QR générée avec succès: {} (étapes: {})",
+                       result.getFilename(), renderedQr.describeTimings());
 
             return result;
 
+        } catch (QrAdmissionService.RenderRejectedException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Erreur lors de la génération image QR pour référence {}: {}",
                         reference, e.getMessage(), e);
@@ -130,293 +162,59 @@ public class ImageQrCodeService {
     }
 
     /**
-     * Génère l'image QR code avec le style visuel exact Boaz-Housing.
+     * Réserve la mémoire estimée du rendu d'une référence (sans contrôle hors contexte Spring).
      *
-     * Implémente l'algorithme de génération QR stylisé:
-     * - Configuration ZXing sans quiet zone automatique
-     * - Points bleus circulaires pour les données
-     * - Corners orange avec dégradé selon la distance du centre
-     * - Logo central avec fond blanc circulaire
-     *
-     * @param reference Référence pour construire l'URL de vérification
-     * @return BufferedImage de l'image QR stylée
-     * @throws Exception En cas d'erreur de génération
+     * @param reference Référence à rendre
+     * @param includeBase64 true si le rendu produit aussi le base64
+     * @return Autorisation à fermer après le rendu, ou null sans contrôle d'admission
+     * @throws QrAdmissionService.RenderRejectedException Si le service est saturé
      */
-    private BufferedImage generateStyledQrCodeImage(String reference) throws Exception {
-        // Construction de l'URL de vérification finale
-        String verificationUrl = baseUrl + verificationPath + "?ref=" + reference;
-        logger.debug("URL de vérification générée: {}", verificationUrl);
-
-        // Configuration ZXing pour génération optimisée
-        Map<EncodeHintType, Object> hints = new HashMap<>();
-        hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H); // 30% récupération (permet logo)
-        hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
-        hints.put(EncodeHintType.MARGIN, 0); // CRITIQUE: Désactive la quiet zone automatique ZXing
-
-        // Génération de la matrice QR brute
-        QRCodeWriter qrCodeWriter = new QRCodeWriter();
-        BitMatrix bitMatrix = qrCodeWriter.encode(verificationUrl, BarcodeFormat.QR_CODE, 0, 0, hints);
-
-        int moduleCount = bitMatrix.getWidth();
-        int totalImageSize = moduleCount * BOX_SIZE + 2 * BORDER_SIZE;
-
-        logger.debug("Matrice QR: {}x{} modules, image finale: {}x{} pixels",
-                    moduleCount, moduleCount, totalImageSize, totalImageSize);
-
-        // Création de l'image finale avec antialiasing
-        BufferedImage qrImage = new BufferedImage(totalImageSize, totalImageSize, BufferedImage.TYPE_INT_RGB);
-        Graphics2D graphics = qrImage.createGraphics();
-
-        // Configuration pour qualité maximale du rendu
-        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-
-        // Fond blanc uniforme
-        graphics.setColor(Color.WHITE);
-        graphics.fillRect(0, 0, totalImageSize, totalImageSize);
-
-        // Préparation des couleurs Boaz-Housing
-        Color dotColor = Color.decode(primaryBlue);
-        Color cornerDark = Color.decode(orangeDark);
-        Color cornerMedium = Color.decode(orangeMedium);
-        Color cornerLight = Color.decode(orangeLight);
-
-        // Parcours et stylisation de chaque module de la matrice QR
-        for (int row = 0; row < moduleCount; row++) {
-            for (int col = 0; col < moduleCount; col++) {
-                int pixelX = BORDER_SIZE + col * BOX_SIZE;
-                int pixelY = BORDER_SIZE + row * BOX_SIZE;
-
-                // Traitement uniquement des modules "noirs" (actifs) du QR original
-                if (bitMatrix.get(col, row)) {
-                    if (isFinderPattern(row, col, moduleCount)) {
-                        // Finder patterns: remplacement par orange dégradé
-                        Color cornerColor = calculateCornerColor(row, col, moduleCount,
-                                                               cornerDark, cornerMedium, cornerLight);
-                        graphics.setColor(cornerColor);
-                        graphics.fillRect(pixelX, pixelY, BOX_SIZE, BOX_SIZE);
-
-                    } else if (!isLogoZone(row, col, moduleCount)) {
-                        // Points de données: cercles bleus stylisés
-                        graphics.setColor(dotColor);
-                        int centerX = pixelX + BOX_SIZE / 2;
-                        int centerY = pixelY + BOX_SIZE / 2;
-                        int circleRadius = BOX_SIZE / 3;
-                        graphics.fillOval(centerX - circleRadius, centerY - circleRadius,
-                                        circleRadius * 2, circleRadius * 2);
-                    }
-                    // Zone logo: laissée blanche pour intégration du logo
-                }
-            }
-        }
-
-        // Intégration du logo central Boaz-Housing
-        addCentralLogo(graphics, totalImageSize, dotColor);
-
-        graphics.dispose();
-        return qrImage;
+    QrAdmissionService.Permit admit(String reference, boolean includeBase64) throws InterruptedException {
+        return admissionService != null
+                ? admissionService.admit(renderer.estimateRenderBytes(reference, includeBase64))
+                : null;
     }
 
     /**
-     * Détermine si un module fait partie d'un finder pattern (coin de détection).
+     * Prépare la cible de sortie image d'une référence sans effectuer le rendu.
      *
-     * Les finder patterns sont des carrés 7x7 situés aux trois coins:
-     * - Coin supérieur gauche: (0,0)
-     * - Coin supérieur droit: (0, moduleCount-7)
-     * - Coin inférieur gauche: (moduleCount-7, 0)
+     * Permet de combiner les sinks image avec d'autres sinks (PDF, ...) autour
+     * d'un seul rendu du symbole.
      *
-     * @param row Position ligne du module
-     * @param col Position colonne du module
-     * @param moduleCount Taille totale de la matrice
-     * @return true si le module fait partie d'un finder pattern
+     * @param reference Référence du document
+     * @return Cible contenant les sinks à alimenter et les informations d'accès
      */
-    private boolean isFinderPattern(int row, int col, int moduleCount) {
-        int[][] finderPositions = {
-            {0, 0},                    // Coin supérieur gauche
-            {0, moduleCount - 7},      // Coin supérieur droit
-            {moduleCount - 7, 0}       // Coin inférieur gauche
-        };
-
-        for (int[] position : finderPositions) {
-            int startRow = position[0];
-            int startCol = position[1];
-
-            if (startRow <= row && row < startRow + 7 &&
-                startCol <= col && col < startCol + 7) {
-                return true;
-            }
-        }
-        return false;
+    public ImageTarget prepareImageTarget(String reference) {
+        return prepareImageTarget(reference, true);
     }
 
     /**
-     * Vérifie si un module se trouve dans la zone réservée au logo central.
+     * Prépare la cible de sortie image d'une référence sans effectuer le rendu.
      *
-     * La zone logo est un carré centré de rayon LOGO_RADIUS modules.
-     * Cette zone reste blanche pour permettre l'intégration du logo.
-     *
-     * @param row Position ligne du module
-     * @param col Position colonne du module
-     * @param moduleCount Taille totale de la matrice
-     * @return true si le module est dans la zone logo
+     * @param reference Référence du document
+     * @param includeBase64 true pour ajouter le sink base64 (réponses HTTP qui le demandent)
+     * @return Cible contenant les sinks à alimenter et les informations d'accès
      */
-    private boolean isLogoZone(int row, int col, int moduleCount) {
-        int center = moduleCount / 2;
-        return Math.abs(row - center) <= LOGO_RADIUS &&
-               Math.abs(col - center) <= LOGO_RADIUS;
+    public ImageTarget prepareImageTarget(String reference, boolean includeBase64) {
+        boolean contentAddressed = "content-addressed".equalsIgnoreCase(storageMode);
+        String filename = contentAddressed
+                ? generateContentAddressedFilename(reference)
+                : generateUniqueFilename(reference);
+        Path filePath = Paths.get(outputDirectory).resolve(filename);
+        boolean stored = contentAddressed && Files.isRegularFile(filePath);
+        return new ImageTarget(reference, filename, filePath, buildPublicAccessUrl(filename), includeBase64, stored);
     }
 
     /**
-     * Calcule la couleur orange à appliquer selon la position dans le finder pattern.
+     * Nom de fichier adressé par contenu: identique pour une même référence et un même style.
      *
-     * Applique un dégradé radial du centre vers l'extérieur:
-     * - Centre (distance <= 1): Orange foncé
-     * - Milieu (distance <= 2): Orange moyen
-     * - Bordure (distance > 2): Orange clair
+     * Format: QR_IMG_{reference}_{empreinte 16 hex}.png
      *
-     * @param row Position ligne globale du module
-     * @param col Position colonne globale du module
-     * @param moduleCount Taille totale de la matrice
-     * @param darkColor Couleur orange foncée (centre)
-     * @param mediumColor Couleur orange moyenne (milieu)
-     * @param lightColor Couleur orange claire (bordure)
-     * @return Color à appliquer pour ce module
-     */
-    private Color calculateCornerColor(int row, int col, int moduleCount,
-                                     Color darkColor, Color mediumColor, Color lightColor) {
-        // Détermination du finder pattern et position locale dans ce pattern
-        int localRow = 0, localCol = 0;
-
-        int[][] finderPositions = {
-            {0, 0},
-            {0, moduleCount - 7},
-            {moduleCount - 7, 0}
-        };
-
-        for (int[] position : finderPositions) {
-            int startRow = position[0];
-            int startCol = position[1];
-
-            if (startRow <= row && row < startRow + 7 &&
-                startCol <= col && col < startCol + 7) {
-                localRow = row - startRow;
-                localCol = col - startCol;
-                break;
-            }
-        }
-
-        // Calcul de la distance au centre du finder pattern (position 3,3)
-        int distanceFromCenter = Math.max(Math.abs(localRow - 3), Math.abs(localCol - 3));
-
-        // Application du dégradé selon la distance
-        if (distanceFromCenter <= 1) {
-            return darkColor;    // Centre: Orange foncé
-        } else if (distanceFromCenter <= 2) {
-            return mediumColor;  // Milieu: Orange moyen
-        } else {
-            return lightColor;   // Bordure: Orange clair
-        }
-    }
-
-    /**
-     * Ajoute le logo central Boaz-Housing sur l'image QR.
-     *
-     * Tente de charger le logo depuis les ressources et l'intègre avec:
-     * - Redimensionnement proportionnel
-     * - Fond blanc circulaire minimal
-     * - Bordure subtile de la couleur des points
-     * - Fallback texte "BH" si logo indisponible
-     *
-     * @param graphics Contexte graphique de l'image QR
-     * @param imageSize Taille totale de l'image en pixels
-     * @param borderColor Couleur pour la bordure du logo
-     */
-    private void addCentralLogo(Graphics2D graphics, int imageSize, Color borderColor) {
-        int centerX = imageSize / 2;
-        int centerY = imageSize / 2;
-
-        try {
-            // Tentative de chargement du logo depuis les ressources
-            var logoStream = getClass().getResourceAsStream("/static/assets/logo-simplifier-bh.png");
-
-            if (logoStream != null) {
-                BufferedImage logoImage = ImageIO.read(logoStream);
-
-                // Calcul du redimensionnement proportionnel
-                int originalWidth = logoImage.getWidth();
-                int originalHeight = logoImage.getHeight();
-                int newWidth, newHeight;
-
-                if (originalWidth > originalHeight) {
-                    newWidth = LOGO_DISPLAY_SIZE;
-                    newHeight = (originalHeight * LOGO_DISPLAY_SIZE) / originalWidth;
-                } else {
-                    newHeight = LOGO_DISPLAY_SIZE;
-                    newWidth = (originalWidth * LOGO_DISPLAY_SIZE) / originalHeight;
-                }
-
-                // Fond blanc circulaire optimisé pour le logo
-                int backgroundRadius = Math.min(newWidth, newHeight) / 2 - 25;
-
-                // Dessin du fond blanc avec bordure
-                graphics.setColor(Color.WHITE);
-                graphics.fillOval(centerX - backgroundRadius, centerY - backgroundRadius,
-                                backgroundRadius * 2, backgroundRadius * 2);
-                graphics.setColor(borderColor);
-                graphics.setStroke(new BasicStroke(1));
-                graphics.drawOval(centerX - backgroundRadius, centerY - backgroundRadius,
-                                backgroundRadius * 2, backgroundRadius * 2);
-
-                // Centrage et dessin du logo redimensionné
-                int logoX = centerX - newWidth / 2;
-                int logoY = centerY - newHeight / 2;
-                graphics.drawImage(logoImage.getScaledInstance(newWidth, newHeight, Image.SCALE_SMOOTH),
-                                 logoX, logoY, null);
-
-                logoStream.close();
-                logger.debug("Logo Boaz-Housing intégré avec succès ({}x{} -> {}x{})",
-                           originalWidth, originalHeight, newWidth, newHeight);
-                return;
-            }
-        } catch (IOException e) {
-            logger.warn("Impossible de charger le logo Boaz-Housing: {}", e.getMessage());
-        }
-
-        // Fallback: affichage "BH" si logo indisponible
-        drawFallbackLogo(graphics, centerX, centerY, borderColor);
-    }
-
-    /**
-     * Dessine un logo de secours "BH" si le logo principal est indisponible.
-     *
-     * @param graphics Contexte graphique
-     * @param centerX Position X du centre
-     * @param centerY Position Y du centre
-     * @param textColor Couleur du texte et bordure
+     * @param reference Référence du document
+     * @return Nom de fichier stable
      */
-    private void drawFallbackLogo(Graphics2D graphics, int centerX, int centerY, Color textColor) {
-        int fallbackRadius = 25;
-
-        // Fond blanc circulaire
-        graphics.setColor(Color.WHITE);
-        graphics.fillOval(centerX - fallbackRadius, centerY - fallbackRadius,
-                         fallbackRadius * 2, fallbackRadius * 2);
-
-        // Bordure colorée
-        graphics.setColor(textColor);
-        graphics.setStroke(new BasicStroke(2));
-        graphics.drawOval(centerX - fallbackRadius, centerY - fallbackRadius,
-                         fallbackRadius * 2, fallbackRadius * 2);
-
-        // Texte "BH" centré
-        graphics.setFont(new Font("Arial", Font.BOLD, 16));
-        FontMetrics fontMetrics = graphics.getFontMetrics();
-        String fallbackText = "BH";
-        int textX = centerX - fontMetrics.stringWidth(fallbackText) / 2;
-        int textY = centerY + fontMetrics.getAscent() / 2;
-        graphics.drawString(fallbackText, textX, textY);
-
-        logger.info("Logo fallback 'BH' appliqué avec succès");
+    private String generateContentAddressedFilename(String reference) {
+        return String.format("QR_IMG_%s_%s.png", reference, renderer.getArtifactHash(reference, "png"));
     }
 
     /**
@@ -434,52 +232,69 @@ public class ImageQrCodeService {
     }
 
     /**
-     * Sauvegarde l'image sur le système de fichiers.
+     * Construit l'URL d'accès public à l'image.
      *
-     * @param image Image à sauvegarder
      * @param filename Nom du fichier
-     * @return Chemin complet du fichier sauvegardé
-     * @throws IOException En cas d'erreur de sauvegarde
+     * @return URL complète d'accès
      */
-    private String saveImageToFileSystem(BufferedImage image, String filename) throws IOException {
-        // Création du répertoire de sortie si nécessaire
-        Path outputPath = Paths.get(outputDirectory);
-        if (!Files.exists(outputPath)) {
-            Files.createDirectories(outputPath);
-            logger.info("Répertoire de sortie créé: {}", outputPath);
-        }
-
-        // Sauvegarde de l'image
-        Path filePath = outputPath.resolve(filename);
-        File outputFile = filePath.toFile();
-        ImageIO.write(image, "PNG", outputFile);
-
-        logger.info("Image sauvegardée: {} (taille: {} bytes)", filePath, outputFile.length());
-        return filePath.toString();
+    private String buildPublicAccessUrl(String filename) {
+        return baseAccessUrl + "/" + filename;
     }
 
     /**
-     * Convertit une BufferedImage en string base64.
+     * Cible de sortie d'une image QR: sink fichier PNG et, si demandé, sink base64,
+     * alimentés par un même rendu.
      *
-     * @param image Image à convertir
-     * @return String base64 de l'image (sans préfixe data:image)
-     * @throws IOException En cas d'erreur de conversion
+     * En stockage adressé par contenu, la cible peut désigner une image déjà présente:
+     * aucun sink n'est alors à alimenter et le base64 éventuel est lu depuis le fichier.
      */
-    private String convertImageToBase64(BufferedImage image) throws IOException {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        ImageIO.write(image, "PNG", outputStream);
-        byte[] imageBytes = outputStream.toByteArray();
-        return Base64.getEncoder().encodeToString(imageBytes);
-    }
+    public static class ImageTarget {
+        private final String reference;
+        private final String filename;
+        private final String accessUrl;
+        private final PngFileSink fileSink;
+        private final Base64Sink base64Sink;
+        private final boolean includeBase64;
+        private final boolean stored;
+
+        ImageTarget(String reference, String filename, Path filePath, String accessUrl,
+                    boolean includeBase64, boolean stored) {
+            this.reference = reference;
+            this.filename = filename;
+            this.accessUrl = accessUrl;
+            this.fileSink = new PngFileSink(filePath);
+            this.base64Sink = includeBase64 && !stored ? new Base64Sink() : null;
+            this.includeBase64 = includeBase64;
+            this.stored = stored;
+        }
 
-    /**
-     * Construit l'URL d'accès public à l'image.
-     *
-     * @param filename Nom du fichier
-     * @return URL complète d'accès
-     */
-    private String buildPublicAccessUrl(String filename) {
-        return baseAccessUrl + "/" + filename;
+        /** @return true si l'image existe déjà (stockage adressé par contenu): aucun rendu nécessaire */
+        public boolean isStored() {
+            return stored;
+        }
+
+        /** @return Sinks à transmettre au moteur de rendu (aucun si l'image existe déjà) */
+        public List<QrOutputSink> getSinks() {
+            if (stored) {
+                return List.of();
+            }
+            return base64Sink != null ? List.of(fileSink, base64Sink) : List.of(fileSink);
+        }
+
+        /**
+         * @return Résultat complet, à appeler après le rendu
+         * @throws IOException En cas d'erreur de lecture d'une image existante
+         */
+        public QrImageResult toResult() throws IOException {
+            String base64Image = null;
+            if (stored && includeBase64) {
+                base64Image = Base64.getEncoder().encodeToString(Files.readAllBytes(fileSink.getFilePath()));
+            } else if (base64Sink != null) {
+                base64Image = base64Sink.getBase64Image();
+            }
+            return new QrImageResult(accessUrl, filename, base64Image,
+                                     fileSink.getFilePath().toString(), reference);
+        }
     }
 
     /**
@@ -512,7 +327,7 @@ public class ImageQrCodeService {
         /** @return Nom du fichier généré (unique) */
         public String getFilename() { return filename; }
 
-        /** @return Image encodée en base64 (prête pour intégration HTML/JSON) */
+        /** @return Image encodée en base64 (prête pour intégration HTML/JSON), null si non demandée */
         public String getBase64Image() { return base64Image; }
 
         /** @return Chemin complet du fichier sur le système */
@@ -0,0 +1,177 @@
+package com.boazhousing.qrcodegen.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache partagé du logo Boaz-Housing, décodé et redimensionné une seule fois par taille cible.
+ *
+ * Le logo source est une image PNG de grande taille: le décoder (ImageIO.read) puis le
+ * redimensionner (getScaledInstance SCALE_SMOOTH, moyenne par zones) à chaque QR code
+ * coûtait plus cher que tout le reste du rendu. Ce service:
+ * - charge et redimensionne le logo au démarrage pour les tailles configurées
+ * - conserve chaque version redimensionnée en ARGB prémultiplié, prête à être composée
+ * - partage ces images entre threads (elles ne doivent jamais être modifiées)
+ * - compte les accès servis depuis le cache (hits) et ceux ayant nécessité un chargement (misses)
+ *
+ * L'image source, volumineuse, n'est pas conservée en mémoire après redimensionnement.
+ *
+ * @author Boaz Housing Development Team
+ * @version 1.0.0
+ */
+@Service
+public class LogoAssetCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogoAssetCache.class);
+
+    @Value("${app.logo.resource:/static/assets/logo-simplifier-bh.png}")
+    private String logoResource = "/static/assets/logo-simplifier-bh.png";
+
+    // Tailles d'affichage (en pixels) préparées dès le démarrage
+    @Value("${app.logo.preload-sizes:180}")
+    private int[] preloadSizes;
+
+    private final ConcurrentHashMap<Integer, BufferedImage> scaledLogos = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // Positionné si la ressource est absente ou illisible, pour ne pas la rechercher à chaque appel
+    private volatile boolean unavailable;
+
+    private volatile String sourceHash;
+
+    /**
+     * Prépare au démarrage les tailles de logo configurées.
+     */
+    @PostConstruct
+    public void preload() {
+        if (preloadSizes == null) {
+            return;
+        }
+        for (int size : preloadSizes) {
+            scaledLogos.computeIfAbsent(size, this::loadScaledLogo);
+        }
+        logger.info("Logo Boaz-Housing préchargé pour {} taille(s)", scaledLogos.size());
+    }
+
+    /**
+     * Retourne le logo redimensionné proportionnellement pour que son plus grand côté
+     * mesure targetSize pixels.
+     *
+     * @param targetSize Taille du plus grand côté en pixels
+     * @return Image TYPE_INT_ARGB_PRE partagée (lecture seule), ou null si le logo est indisponible
+     */
+    public BufferedImage getLogo(int targetSize) {
+        if (unavailable) {
+            return null;
+        }
+        BufferedImage logo = scaledLogos.get(targetSize);
+        if (logo != null) {
+            hits.increment();
+            return logo;
+        }
+        return scaledLogos.computeIfAbsent(targetSize, this::loadScaledLogo);
+    }
+
+    /**
+     * Empreinte des octets du logo source, intégrée à l'empreinte du style: un nouveau logo
+     * renomme les fichiers adressés par leur contenu au lieu de réutiliser les anciens.
+     * La ressource n'est lue qu'au premier appel.
+     *
+     * @return Empreinte hexadécimale courte (16 caractères), ou "absent" si le logo est introuvable
+     */
+    public String getSourceHash() {
+        String hash = sourceHash;
+        if (hash == null) {
+            hash = hashSource();
+            sourceHash = hash;
+        }
+        return hash;
+    }
+
+    /** @return Nombre d'accès servis directement depuis le cache */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /** @return Nombre d'accès ayant nécessité le chargement et le redimensionnement du logo */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private String hashSource() {
+        try (InputStream logoStream = getClass().getResourceAsStream(logoResource)) {
+            if (logoStream == null) {
+                return "absent";
+            }
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(logoStream.readAllBytes());
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (IOException e) {
+            logger.warn("Impossible de lire le logo Boaz-Housing: {}", e.getMessage());
+            return "absent";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    /**
+     * Décode le logo source puis le redimensionne avec le même algorithme que le rendu
+     * historique (SCALE_SMOOTH), et le convertit en ARGB prémultiplié.
+     *
+     * @return Logo redimensionné, ou null si la ressource est indisponible
+     */
+    private BufferedImage loadScaledLogo(int targetSize) {
+        misses.increment();
+        long start = System.nanoTime();
+
+        BufferedImage source;
+        try (InputStream logoStream = getClass().getResourceAsStream(logoResource)) {
+            source = logoStream != null ? ImageIO.read(logoStream) : null;
+        } catch (IOException e) {
+            logger.warn("Impossible de charger le logo Boaz-Housing: {}", e.getMessage());
+            source = null;
+        }
+
+        if (source == null) {
+            logger.warn("Logo Boaz-Housing introuvable: {}", logoResource);
+            unavailable = true;
+            return null;
+        }
+
+        // Redimensionnement proportionnel
+        int originalWidth = source.getWidth();
+        int originalHeight = source.getHeight();
+        int newWidth, newHeight;
+
+        if (originalWidth > originalHeight) {
+            newWidth = targetSize;
+            newHeight = (originalHeight * targetSize) / originalWidth;
+        } else {
+            newHeight = targetSize;
+            newWidth = (originalWidth * targetSize) / originalHeight;
+        }
+
+        BufferedImage scaled = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D graphics = scaled.createGraphics();
+        graphics.drawImage(source.getScaledInstance(newWidth, newHeight, Image.SCALE_SMOOTH), 0, 0, null);
+        graphics.dispose();
+
+        logger.info("Logo Boaz-Housing redimensionné ({}x{} -> {}x{}) en {} ms",
+                originalWidth, originalHeight, newWidth, newHeight, (System.nanoTime() - start) / 1_000_000);
+        return scaled;
+    }
+}
@@ -1,37 +1,59 @@
 package com.boazhousing.qrcodegen.service;
 
 import com.boazhousing.qrcodegen.model.QrGenerationResult;
-import com.itextpdf.io.image.ImageDataFactory;
-import com.itextpdf.kernel.geom.PageSize;
-import com.itextpdf.kernel.pdf.PdfDocument;
-import com.itextpdf.kernel.pdf.PdfWriter;
-import com.itextpdf.layout.Document;
-import com.itextpdf.layout.element.Image;
-import com.itextpdf.layout.element.Paragraph;
-import com.itextpdf.layout.properties.HorizontalAlignment;
-import com.itextpdf.layout.properties.TextAlignment;
+import com.boazhousing.qrcodegen.service.render.PdfLabelLayout;
+import com.boazhousing.qrcodegen.service.render.PdfLabelSheetWriter;
+import com.boazhousing.qrcodegen.service.render.PdfPageSink;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
 
 @Service
 public class PdfGenerationService {
 
     private static final Logger logger = LoggerFactory.getLogger(PdfGenerationService.class);
 
+    // Moteur de rendu partagé (encodage, style Boaz-Housing, logo)
     @Autowired
-    private BoazQrCodeService qrCodeService;
+    private StyledQrRenderer renderer;
+
+    // Contrôle d'admission des rendus (budget mémoire), absent hors contexte Spring
+    @Autowired(required = false)
+    private QrAdmissionService admissionService;
+
+    // Appels simultanés identiques servis par une seule génération (false: une génération par appel)
+    @Value("${app.coalescing.enabled:true}")
+    private boolean coalescingEnabled = true;
+
+    private final SingleFlight<String, QrGenerationResult> inFlight = new SingleFlight<>();
+
+    // Métriques (Micrometer), absentes hors contexte Spring
+    @Autowired(required = false)
+    private QrMetrics metrics;
+
+    /**
+     * Publie le nombre d'appels regroupés dans les métriques.
+     */
+    @PostConstruct
+    public void registerMetrics() {
+        if (metrics != null) {
+            metrics.monitorCoalescing("pdf", inFlight);
+        }
+    }
 
     @Value("${app.qr.output-directory:document-qr-code-generer}")
     private String outputDirectory;
@@ -39,41 +61,184 @@ public class PdfGenerationService {
     @Value("${server.port:8080}")
     private String serverPort;
 
+    // Intégration du QR code dans le PDF: "vector" (chemins PDF) ou "raster" (image)
+    @Value("${app.pdf.qr-mode:vector}")
+    private String qrMode;
+
+    // Nommage des fichiers: "timestamped" ou "content-addressed" (voir ImageQrCodeService)
+    @Value("${app.storage.mode:timestamped}")
+    private String storageMode = "timestamped";
+
+    // Nombre maximal de références par planche d'étiquettes
+    @Value("${app.pdf.sheet.max-references:5000}")
+    private int maxSheetReferences = 5000;
+
     /**
-     * Génère un PDF avec titre de référence et QR code Boaz-Housing
+     * Génère un PDF avec titre de référence et QR code Boaz-Housing.
+     *
+     * Les appels simultanés pour la même référence partagent une seule génération.
      */
     public QrGenerationResult generateQrCodePdf(String reference) throws Exception {
+        if (!coalescingEnabled) {
+            return generate(reference);
+        }
+        return inFlight.execute(reference + "|" + renderer.getStyleFingerprint(), () -> generate(reference));
+    }
+
+    private QrGenerationResult generate(String reference) throws Exception {
         try {
             logger.info("Génération PDF pour référence: {}", reference);
 
-            // Créer le répertoire de sortie s'il n'existe pas
-            ensureOutputDirectoryExists();
+            // Préparer le fichier cible (répertoire, nom avec timestamp, URL)
+            PdfTarget target = preparePdfTarget(reference);
+
+            // Rendre le QR code Boaz-Housing et générer le PDF dans la même passe,
+            // sauf si le PDF adressé par contenu existe déjà
+            if (target.isStored()) {
+                if (metrics != null) {
+                    metrics.recordStorageHit("pdf");
+                }
+                logger.info("PDF existant réutilisé: {}", target.getFileName());
+            } else {
+                // Mémoire réservée auprès du contrôle d'admission (majorant en mode vectoriel, sans image)
+                try (QrAdmissionService.Permit permit = admissionService != null
+                        ? admissionService.admit(renderer.estimateRenderBytes(reference, false)) : null) {
+                    renderer.render(reference, target.getSink());
+                }
+            }
+
+            QrGenerationResult result = target.toResult();
+
+            logger.info("PDF généré avec succès: {} (taille: {} bytes)", result.getFileName(), result.getFileSize());
+            return result;
 
-            // Générer le QR code avec style Boaz-Housing
-            String qrCodeBase64 = qrCodeService.generateBoazStyleQrCode(reference);
+        } catch (QrAdmissionService.RenderRejectedException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Erreur lors de la génération PDF pour référence {}: {}", reference, e.getMessage());
+            throw new Exception("Erreur lors de la génération du PDF: " + e.getMessage(), e);
+        }
+    }
 
-            // Créer le nom de fichier avec timestamp
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            String fileName = String.format("QR_%s_%s.pdf", reference, timestamp);
-            String filePath = Paths.get(outputDirectory, fileName).toString();
+    /**
+     * Prépare la cible PDF d'une référence sans effectuer le rendu
+     * (permet de combiner la page PDF avec d'autres sinks autour d'un seul rendu)
+     */
+    public PdfTarget preparePdfTarget(String reference) throws IOException {
+        // Créer le répertoire de sortie s'il n'existe pas
+        ensureOutputDirectoryExists();
+
+        // Créer le nom de fichier: timestamp, ou empreinte de la référence, du style, du mode PDF
+        // et de la version de mise en page
+        boolean vector = !"raster".equalsIgnoreCase(qrMode);
+        boolean contentAddressed = "content-addressed".equalsIgnoreCase(storageMode);
+        String suffix = contentAddressed
+                ? renderer.getArtifactHash(reference,
+                                           (vector ? "pdf-vector|" : "pdf-raster|") + PdfPageSink.TEMPLATE_VERSION)
+                : LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        String fileName = String.format("QR_%s_%s.pdf", reference, suffix);
+        Path filePath = Paths.get(outputDirectory, fileName);
+        boolean stored = contentAddressed && Files.isRegularFile(filePath);
 
-            // Générer le PDF
-            createPdfWithQrCode(reference, qrCodeBase64, filePath);
+        // Créer l'URL pour téléchargement
+        String pdfUrl = String.format("http://localhost:%s/download/%s", serverPort, fileName);
 
-            // Calculer la taille du fichier
-            long fileSize = Files.size(Paths.get(filePath));
+        PdfPageSink sink = vector
+                ? new PdfPageSink(filePath, renderer.getPdfVectorPainter())
+                : new PdfPageSink(filePath);
+        return new PdfTarget(reference, fileName, pdfUrl, sink, stored);
+    }
 
-            // Créer l'URL pour téléchargement
-            String pdfUrl = String.format("http://localhost:%s/download/%s", serverPort, fileName);
+    /**
+     * Crée un sink produisant la page PDF d'une référence en mémoire, sans fichier
+     * (entrée d'archive), selon le mode d'intégration configuré.
+     */
+    public PdfPageSink createMemorySink() throws IOException {
+        return PdfPageSink.inMemory("raster".equalsIgnoreCase(qrMode) ? null : renderer.getPdfVectorPainter());
+    }
 
-            QrGenerationResult result = new QrGenerationResult(reference, pdfUrl, fileName, filePath, fileSize);
+    /**
+     * Vérifie les références d'une planche d'étiquettes avant l'écriture de la réponse.
+     * Une planche d'impression est complète ou refusée: toute référence invalide la rejette.
+     *
+     * @throws IllegalArgumentException Si la liste est vide, trop longue ou contient une référence invalide
+     */
+    public void validateLabelSheet(List<String> references) {
+        if (references == null || references.isEmpty()) {
+            throw new IllegalArgumentException("La planche doit contenir au moins une référence");
+        }
+        if (references.size() > maxSheetReferences) {
+            throw new IllegalArgumentException("La planche ne peut pas dépasser " + maxSheetReferences + " références");
+        }
+        for (String reference : references) {
+            String error = QrBatchService.validateReference(reference);
+            if (error != null) {
+                throw new IllegalArgumentException(error + ": " + reference);
+            }
+        }
+    }
 
-            logger.info("PDF généré avec succès: {} (taille: {} bytes)", fileName, fileSize);
-            return result;
+    /**
+     * Réserve la mémoire d'une planche d'étiquettes (un symbole à la fois, le plus gros de la
+     * liste), à libérer en fin d'écriture du document.
+     *
+     * @param references Références de la planche (déjà vérifiées)
+     * @return Autorisation à fermer après la planche, ou null sans contrôle d'admission
+     * @throws QrAdmissionService.RenderRejectedException Si le service est saturé
+     */
+    public QrAdmissionService.Permit admitLabelSheet(List<String> references) throws InterruptedException {
+        return admissionService != null
+                ? admissionService.admit(renderer.estimateSequentialRenderBytes(references))
+                : null;
+    }
 
+    /**
+     * Génère une planche d'étiquettes PDF multi-pages (un QR code par étiquette, dans l'ordre
+     * des références, doublons compris) écrite directement dans le flux.
+     *
+     * Les pages sont vidées dans le flux au fur et à mesure: ni fichier, ni document complet
+     * en mémoire. Le flux n'est pas fermé.
+     *
+     * @param references Références à imprimer (nettoyées: espaces retirés, majuscules)
+     * @param layout Grille des étiquettes
+     * @param outputStream Flux recevant le PDF (réponse HTTP)
+     * @return Nombre de pages écrites
+     */
+    public int writeLabelSheet(List<String> references, PdfLabelLayout layout, OutputStream outputStream)
+            throws Exception {
+        return writeLabelSheet(references, layout, outputStream, placed -> { });
+    }
+
+    /**
+     * Comme {@link #writeLabelSheet(List, PdfLabelLayout, OutputStream)}, avec suivi de l'avancement.
+     *
+     * @param progress Reçoit le nombre d'étiquettes placées après chaque étiquette
+     */
+    public int writeLabelSheet(List<String> references, PdfLabelLayout layout, OutputStream outputStream,
+                               IntConsumer progress) throws Exception {
+        validateLabelSheet(references);
+        long start = System.nanoTime();
+        logger.info("Génération d'une planche {} de {} étiquettes", layout.describe(), references.size());
+
+        try {
+            PdfLabelSheetWriter sheet = new PdfLabelSheetWriter(outputStream, layout,
+                    "raster".equalsIgnoreCase(qrMode) ? null : renderer.getPdfVectorPainter());
+            for (String reference : references) {
+                renderer.render(reference.trim().toUpperCase(), sheet);
+                progress.accept(sheet.getLabelCount());
+            }
+            // Document terminé uniquement si toutes les étiquettes ont été placées
+            sheet.close();
+            if (metrics != null) {
+                metrics.recordBytesWritten(PdfLabelSheetWriter.class.getSimpleName(), sheet.getCommittedBytes());
+            }
+
+            logger.info("Planche générée: {} étiquettes sur {} pages en {} ms", sheet.getLabelCount(),
+                       sheet.getPageCount(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return sheet.getPageCount();
         } catch (Exception e) {
-            logger.error("Erreur lors de la génération PDF pour référence {}: {}", reference, e.getMessage());
-            throw new Exception("Erreur lors de la génération du PDF: " + e.getMessage(), e);
+            logger.error("Erreur lors de la génération de la planche d'étiquettes: {}", e.getMessage());
+            throw new Exception("Erreur lors de la génération de la planche PDF: " + e.getMessage(), e);
         }
     }
 
@@ -88,74 +253,6 @@ public class PdfGenerationService {
         }
     }
 
-    /**
-     * Crée le PDF avec le titre de référence et le QR code
-     */
-    private void createPdfWithQrCode(String reference, String qrCodeBase64, String filePath) throws Exception {
-        try {
-            // Créer le document PDF
-            PdfWriter writer = new PdfWriter(filePath);
-            PdfDocument pdfDoc = new PdfDocument(writer);
-            Document document = new Document(pdfDoc, PageSize.A4);
-
-            // Marges
-            document.setMargins(50, 50, 50, 50);
-
-            // Titre principal
-            Paragraph title = new Paragraph("QR Code Generator - Boaz Study")
-                    .setFontSize(24)
-                    .setBold()
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setMarginBottom(30);
-            document.add(title);
-
-            // Référence
-            Paragraph refParagraph = new Paragraph("Référence: " + reference)
-                    .setFontSize(18)
-                    .setBold()
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setMarginBottom(40);
-            document.add(refParagraph);
-
-            // QR Code
-            byte[] qrCodeBytes = Base64.getDecoder().decode(qrCodeBase64);
-            Image qrImage = new Image(ImageDataFactory.create(qrCodeBytes));
-
-            // Redimensionner le QR code (taille optimale pour visualisation)
-            qrImage.setWidth(300);
-            qrImage.setHeight(300);
-            qrImage.setHorizontalAlignment(HorizontalAlignment.CENTER);
-            qrImage.setMarginBottom(30);
-
-            document.add(qrImage);
-
-            // Description
-            Paragraph description = new Paragraph("Ce QR code a été généré avec le style unique Boaz-Housing.")
-                    .setFontSize(12)
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setMarginBottom(20);
-            document.add(description);
-
-            // Informations de génération
-            String generationInfo = String.format("Généré le: %s",
-                    LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy à HH:mm:ss")));
-            Paragraph infoParagraph = new Paragraph(generationInfo)
-                    .setFontSize(10)
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setItalic();
-            document.add(infoParagraph);
-
-            // Fermer le document
-            document.close();
-
-            logger.info("Document PDF créé avec succès: {}", filePath);
-
-        } catch (Exception e) {
-            logger.error("Erreur lors de la création du PDF: {}", e.getMessage());
-            throw new Exception("Erreur lors de la création du document PDF: " + e.getMessage(), e);
-        }
-    }
-
     /**
      * Vérifie si un fichier PDF existe
      */
@@ -170,4 +267,46 @@ public class PdfGenerationService {
     public String getPdfPath(String fileName) {
         return Paths.get(outputDirectory, fileName).toString();
     }
-}
\ No newline at end of file
+
+    /**
+     * Cible de sortie d'un PDF: sink de page PDF et informations de téléchargement.
+     * En stockage adressé par contenu, la cible peut désigner un PDF déjà présent.
+     */
+    public static class PdfTarget {
+        private final String reference;
+        private final String fileName;
+        private final String pdfUrl;
+        private final PdfPageSink sink;
+        private final boolean stored;
+
+        PdfTarget(String reference, String fileName, String pdfUrl, PdfPageSink sink, boolean stored) {
+            this.reference = reference;
+            this.fileName = fileName;
+            this.pdfUrl = pdfUrl;
+            this.sink = sink;
+            this.stored = stored;
+        }
+
+        public PdfPageSink getSink() {
+            return sink;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        /** @return true si le PDF existe déjà (stockage adressé par contenu): aucun rendu nécessaire */
+        public boolean isStored() {
+            return stored;
+        }
+
+        /**
+         * Résultat de génération, à appeler après le rendu
+         */
+        public QrGenerationResult toResult() throws IOException {
+            long fileSize = stored ? Files.size(sink.getFilePath()) : sink.getFileSize();
+            return new QrGenerationResult(reference, pdfUrl, fileName,
+                    sink.getFilePath().toString(), fileSize);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.boazhousing.qrcodegen.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Contrôle d'admission des rendus à la demande (image, PDF, image + PDF).
+ *
+ * Chaque rendu alloue d'un coup l'image ARGB, le tampon PNG et éventuellement le base64:
+ * sans limite, un pic de trafic pousse le tas vers des GC complets. Les rendus en cours sont
+ * donc bornés par un budget mémoire estimé ({@link StyledQrRenderer#estimateRenderBytes}).
+ * Budget épuisé: la requête attend une place dans une file bornée, pendant un délai borné;
+ * file pleine ou délai écoulé, le rendu est refusé ({@link RenderRejectedException}, 503 avec
+ * Retry-After) plutôt que de laisser la latence croître sans limite.
+ *
+ * Un rendu plus gros que le budget entier est admis seul. Les éléments d'un lot passent par
+ * ImageQrCodeService et partagent donc le budget (un élément refusé est rapporté en erreur).
+ * Archives et planches rendent séquentiellement: chaque flux réserve la mémoire de son plus
+ * gros symbole pour toute sa durée, avant l'écriture de la réponse. Les tâches de fond sont
+ * bornées par leurs workers et n'y sont pas soumises.
+ *
+ * @author Boaz Housing Development Team
+ * @version 1.0.0
+ */
+@Service
+public class QrAdmissionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QrAdmissionService.class);
+
+    // false: aucun contrôle, tous les rendus admis
+    @Value("${app.admission.enabled:true}")
+    private boolean enabled = true;
+
+    // Budget mémoire des rendus en cours en octets (0 = quart du tas maximal)
+    @Value("${app.admission.heap-budget-bytes:0}")
+    private long heapBudgetBytes = 0;
+
+    // Requêtes pouvant attendre une place; au-delà, refus immédiat
+    @Value("${app.admission.max-queue:64}")
+    private int maxQueue = 64;
+
+    // Attente maximale d'une place avant refus (millisecondes)
+    @Value("${app.admission.max-wait-ms:2000}")
+    private long maxWaitMs = 2000;
+
+    // Délai conseillé au client après un refus (en-tête Retry-After, secondes)
+    @Value("${app.admission.retry-after-seconds:2}")
+    private int retryAfterSeconds = 2;
+
+    // Métriques (Micrometer), absentes hors contexte Spring
+    @Autowired(required = false)
+    private QrMetrics metrics;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition released = lock.newCondition();
+    private long budget;
+    private long inFlightBytes;
+    private int inFlight;
+    private int waiting;
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Calcule le budget selon la configuration et le tas disponible.
+     */
+    @PostConstruct
+    public void init() {
+        budget = heapBudgetBytes > 0 ? heapBudgetBytes : Runtime.getRuntime().maxMemory() / 4;
+        if (enabled) {
+            logger.info("Contrôle d'admission: budget de {} Mo, file de {} requêtes, attente de {} ms au plus",
+                       budget / (1024 * 1024), maxQueue, maxWaitMs);
+        } else {
+            logger.info("Contrôle d'admission désactivé");
+        }
+        if (metrics != null) {
+            metrics.monitorAdmission(this);
+        }
+    }
+
+    /**
+     * Réserve la mémoire d'un rendu, en attendant au plus le délai configuré.
+     *
+     * @param estimatedBytes Mémoire estimée du rendu
+     * @return Autorisation à libérer en fin de rendu (try-with-resources)
+     * @throws RenderRejectedException Si la file est pleine ou le délai écoulé
+     * @throws InterruptedException Si le thread est interrompu pendant l'attente
+     */
+    public Permit admit(long estimatedBytes) throws InterruptedException {
+        if (!enabled) {
+            return new Permit(0);
+        }
+        long cost = Math.min(Math.max(estimatedBytes, 0), budget);
+
+        lock.lock();
+        try {
+            if (waiting == 0 && fits(cost)) {
+                return grant(cost);
+            }
+            if (waiting >= maxQueue) {
+                throw reject("file d'attente pleine");
+            }
+
+            waiting++;
+            try {
+                long remaining = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+                // Verrou équitable: les requêtes en attente sont servies dans l'ordre d'arrivée
+                while (!fits(cost)) {
+                    if (remaining <= 0) {
+                        throw reject("délai d'attente écoulé");
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                return grant(cost);
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean fits(long cost) {
+        return inFlight == 0 || inFlightBytes + cost <= budget;
+    }
+
+    private Permit grant(long cost) {
+        inFlightBytes += cost;
+        inFlight++;
+        admitted.increment();
+        return new Permit(cost);
+    }
+
+    private RenderRejectedException reject(String reason) {
+        rejected.increment();
+        logger.warn("Rendu refusé ({}): {} rendus en cours ({} octets), {} en attente",
+                   reason, inFlight, inFlightBytes, waiting);
+        return new RenderRejectedException("Service saturé, réessayer dans " + retryAfterSeconds + " s",
+                                           retryAfterSeconds);
+    }
+
+    private void release(long cost) {
+        lock.lock();
+        try {
+            inFlightBytes -= cost;
+            inFlight--;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return Mémoire estimée des rendus en cours */
+    public long getInFlightBytes() {
+        lock.lock();
+        try {
+            return inFlightBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return true si des requêtes attendent une place */
+    public boolean hasQueuedRequests() {
+        lock.lock();
+        try {
+            return waiting > 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return Budget mémoire des rendus en cours */
+    public long getBudget() {
+        return budget;
+    }
+
+    /** @return Nombre de rendus admis depuis le démarrage */
+    public long getAdmittedCount() {
+        return admitted.sum();
+    }
+
+    /** @return Nombre de rendus refusés depuis le démarrage */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Autorisation d'un rendu: libère sa part du budget à la fermeture (une seule fois).
+     */
+    public class Permit implements AutoCloseable {
+        private final long cost;
+        private boolean closed;
+
+        private Permit(long cost) {
+            this.cost = cost;
+        }
+
+        @Override
+        public void close() {
+            if (!closed && enabled) {
+                closed = true;
+                release(cost);
+            }
+        }
+    }
+
+    /**
+     * Rendu refusé faute de budget: à traduire en 503 avec l'en-tête Retry-After.
+     */
+    public static class RenderRejectedException extends RuntimeException {
+        private final int retryAfterSeconds;
+
+        public RenderRejectedException(String message, int retryAfterSeconds) {
+            super(message);
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        /** @return Délai conseillé avant une nouvelle tentative, en secondes */
+        public int getRetryAfterSeconds() { return retryAfterSeconds; }
+    }
+}
@@ -0,0 +1,238 @@
+package com.boazhousing.qrcodegen.service;
+
+import com.boazhousing.qrcodegen.service.render.PdfPageSink;
+import com.boazhousing.qrcodegen.service.render.RawPngSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Service d'export de QR codes en archive ZIP, écrite au fil de l'eau dans un flux.
+ *
+ * Chaque référence est rendue puis écrite comme entrée de l'archive avant de passer à la
+ * suivante: aucune image n'est sauvegardée sur disque et seule l'entrée en cours est en
+ * mémoire, quelle que soit la taille du lot. Le rendu suit le débit du client (l'écriture
+ * dans la réponse bloque lorsque le client lit moins vite).
+ *
+ * - png: octets PNG du rendu (cache PNG partagé), entrée stockée sans recompression
+ * - pdf: page A4 mise en page en mémoire puis écrite dans l'entrée de l'archive
+ *
+ * Une référence invalide ou en erreur n'interrompt pas l'export: elle est listée dans une
+ * entrée {@value #ERRORS_ENTRY} en fin d'archive. Une référence présente plusieurs fois
+ * n'est exportée qu'une fois.
+ *
+ * Les références étant rendues une à une, un export réserve auprès du contrôle d'admission
+ * la mémoire de son plus gros symbole pour toute sa durée ({@link #admit}), avant l'écriture
+ * de la réponse.
+ *
+ * @author Boaz Housing Development Team
+ * @version 1.0.0
+ */
+@Service
+public class QrArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QrArchiveService.class);
+
+    /** Entrée listant les références non exportées, présente uniquement en cas d'erreur. */
+    public static final String ERRORS_ENTRY = "erreurs.txt";
+
+    // Nombre maximal de références par archive
+    @Value("${app.archive.max-size:10000}")
+    private int maxArchiveSize = 10000;
+
+    @Autowired
+    private StyledQrRenderer renderer;
+
+    @Autowired
+    private PdfGenerationService pdfGenerationService;
+
+    // Contrôle d'admission des rendus (budget mémoire), absent hors contexte Spring
+    @Autowired(required = false)
+    private QrAdmissionService admissionService;
+
+    /**
+     * Vérifie une demande d'export avant l'écriture de la réponse
+     * (une fois l'archive commencée, le statut HTTP ne peut plus changer).
+     *
+     * @param references Références à exporter
+     * @param format png ou pdf
+     * @throws IllegalArgumentException Si la liste est vide, trop longue ou le format inconnu
+     */
+    public void validateRequest(List<String> references, String format) {
+        if (references == null || references.isEmpty()) {
+            throw new IllegalArgumentException("L'archive doit contenir au moins une référence");
+        }
+        if (references.size() > maxArchiveSize) {
+            throw new IllegalArgumentException("L'archive ne peut pas dépasser " + maxArchiveSize + " références");
+        }
+        if (!"png".equalsIgnoreCase(format) && !"pdf".equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("Format d'archive invalide: " + format + " (png ou pdf)");
+        }
+    }
+
+    /**
+     * Réserve la mémoire d'un export (un symbole à la fois, le plus gros de la liste), à
+     * libérer en fin d'écriture de l'archive.
+     *
+     * @param references Références à exporter (déjà vérifiées)
+     * @return Autorisation à fermer après l'export, ou null sans contrôle d'admission
+     * @throws QrAdmissionService.RenderRejectedException Si le service est saturé
+     */
+    public QrAdmissionService.Permit admit(List<String> references) throws InterruptedException {
+        return admissionService != null
+                ? admissionService.admit(renderer.estimateSequentialRenderBytes(references))
+                : null;
+    }
+
+    /**
+     * Rend les références et écrit l'archive ZIP dans le flux, entrée par entrée.
+     * Le flux n'est pas fermé.
+     *
+     * @param references Références à exporter (nettoyées: espaces retirés, majuscules)
+     * @param format png ou pdf
+     * @param outputStream Flux recevant l'archive (réponse HTTP)
+     * @return Bilan de l'export
+     * @throws IOException Si l'écriture dans le flux échoue (client déconnecté)
+     */
+    public QrArchiveResult writeArchive(List<String> references, String format, OutputStream outputStream)
+            throws IOException {
+        return writeArchive(references, format, outputStream, processed -> { });
+    }
+
+    /**
+     * Comme {@link #writeArchive(List, String, OutputStream)}, avec suivi de l'avancement.
+     *
+     * @param progress Reçoit le nombre de références déjà traitées (exportées, ignorées ou en
+     *                 erreur), avant chaque référence puis en fin d'export
+     */
+    public QrArchiveResult writeArchive(List<String> references, String format, OutputStream outputStream,
+                                        IntConsumer progress) throws IOException {
+        validateRequest(references, format);
+        boolean pdf = "pdf".equalsIgnoreCase(format);
+
+        long start = System.nanoTime();
+        logger.info("Export d'une archive {} de {} références", pdf ? "PDF" : "PNG", references.size());
+
+        Set<String> exported = new HashSet<>();
+        List<String> errors = new ArrayList<>();
+        ZipOutputStream zip = new ZipOutputStream(outputStream);
+        int processed = 0;
+        for (String reference : references) {
+            progress.accept(processed++);
+            String error = QrBatchService.validateReference(reference);
+            if (error != null) {
+                errors.add(reference + ": " + error);
+                continue;
+            }
+            String cleanReference = reference.trim().toUpperCase();
+            if (!exported.add(cleanReference)) {
+                continue;
+            }
+            try {
+                if (pdf) {
+                    writePdfEntry(zip, cleanReference);
+                } else {
+                    writePngEntry(zip, cleanReference);
+                }
+            } catch (IOException e) {
+                // Flux de la réponse inutilisable: l'archive ne peut pas être poursuivie
+                throw e;
+            } catch (Exception e) {
+                logger.warn("Référence {} non exportée: {}", cleanReference, e.getMessage());
+                exported.remove(cleanReference);
+                errors.add(cleanReference + ": " + e.getMessage());
+            }
+            // Entrée transmise au client sans attendre la fin de l'archive
+            zip.flush();
+        }
+
+        progress.accept(processed);
+
+        if (!errors.isEmpty()) {
+            zip.putNextEntry(new ZipEntry(ERRORS_ENTRY));
+            zip.write((String.join("\n", errors) + "\n").getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+
+        QrArchiveResult result = new QrArchiveResult(exported.size(), errors.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        logger.info("Archive terminée: {} entrées, {} erreurs en {} ms",
+                   result.getEntries(), result.getFailed(), result.getDurationMs());
+        return result;
+    }
+
+    /**
+     * Entrée PNG stockée telle quelle: le PNG est déjà compressé (deflate), une seconde
+     * compression coûterait du CPU sans réduire la taille.
+     */
+    private void writePngEntry(ZipOutputStream zip, String reference) throws Exception {
+        RawPngSink pngSink = new RawPngSink();
+        renderer.render(reference, pngSink);
+        byte[] png = pngSink.getPngBytes();
+
+        CRC32 crc = new CRC32();
+        crc.update(png);
+        ZipEntry entry = new ZipEntry(String.format("QR_IMG_%s.png", reference));
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(png.length);
+        entry.setCompressedSize(png.length);
+        entry.setCrc(crc.getValue());
+        zip.putNextEntry(entry);
+        zip.write(png);
+        zip.closeEntry();
+    }
+
+    /**
+     * Entrée PDF: page mise en page en mémoire (une seule à la fois), sans fichier.
+     * L'entrée n'est ouverte qu'une fois la page produite: une référence en erreur
+     * n'ajoute aucune entrée.
+     */
+    private void writePdfEntry(ZipOutputStream zip, String reference) throws Exception {
+        PdfPageSink pdfSink = pdfGenerationService.createMemorySink();
+        renderer.render(reference, pdfSink);
+        zip.putNextEntry(new ZipEntry(String.format("QR_%s.pdf", reference)));
+        zip.write(pdfSink.getPdfBytes());
+        zip.closeEntry();
+    }
+
+    /**
+     * Bilan d'un export en archive.
+     */
+    public static class QrArchiveResult {
+        private final int entries;
+        private final int failed;
+        private final long durationMs;
+
+        public QrArchiveResult(int entries, int failed, long durationMs) {
+            this.entries = entries;
+            this.failed = failed;
+            this.durationMs = durationMs;
+        }
+
+        /** @return Nombre de QR codes écrits dans l'archive */
+        public int getEntries() { return entries; }
+
+        /** @return Nombre de références non exportées (listées dans l'entrée d'erreurs) */
+        public int getFailed() { return failed; }
+
+        /** @return Durée de l'export en millisecondes */
+        public long getDurationMs() { return durationMs; }
+    }
+}
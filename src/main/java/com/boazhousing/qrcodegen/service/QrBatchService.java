@@ -0,0 +1,255 @@
+package com.boazhousing.qrcodegen.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service de génération d'images QR par lots.
+ *
+ * Les références d'un lot sont rendues en parallèle sur un pool borné dimensionné sur les
+ * processeurs (le rendu est limité par le CPU), partagé par tous les lots. Chaque élément
+ * passe par {@link ImageQrCodeService}, donc par le {@link StyledQrRenderer} partagé
+ * (hints, logo et cache PNG réutilisés).
+ *
+ * La file d'attente du pool est bornée: lorsqu'elle est pleine, le thread de la requête
+ * attend une place avant de soumettre l'élément suivant (contre-pression plutôt que rejet),
+ * sans jamais rendre lui-même, comme {@link QrRenderExecutor}.
+ *
+ * Une référence invalide ou en erreur n'interrompt pas le lot: l'erreur est rapportée
+ * pour l'élément concerné. Une référence présente plusieurs fois n'est rendue qu'une fois.
+ *
+ * @author Boaz Housing Development Team
+ * @version 1.0.0
+ */
+@Service
+public class QrBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QrBatchService.class);
+
+    private static final String REFERENCE_PATTERN = "^[A-Za-z0-9\\-_]+$";
+    private static final int MAX_REFERENCE_LENGTH = 50;
+
+    // Nombre maximal de références par lot
+    @Value("${app.batch.max-size:1000}")
+    private int maxBatchSize = 1000;
+
+    // Threads de rendu (0 = nombre de processeurs)
+    @Value("${app.batch.threads:0}")
+    private int threads = 0;
+
+    // Rendus en attente au-delà desquels le thread appelant attend une place
+    @Value("${app.batch.queue-capacity:256}")
+    private int queueCapacity = 256;
+
+    @Autowired
+    private ImageQrCodeService imageQrCodeService;
+
+    private ThreadPoolExecutor executor;
+
+    // Places du pool (threads + file), rendues à la fin de chaque tâche: la file ne déborde jamais
+    private Semaphore slots;
+
+    /**
+     * Crée le pool de rendu selon la configuration.
+     */
+    @PostConstruct
+    public void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        slots = new Semaphore(poolSize + queueCapacity);
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                // File bornée par les places: aucun rejet entre la fin d'une tâche et la suivante
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "qr-batch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }) {
+            @Override
+            protected void afterExecute(Runnable runnable, Throwable error) {
+                // Tâche terminée: place libérée pour un appelant en attente
+                slots.release();
+            }
+        };
+        logger.info("Génération par lots: {} threads, file de {} rendus, lots de {} références au plus",
+                   poolSize, queueCapacity, maxBatchSize);
+    }
+
+    /**
+     * Arrête le pool de rendu (rendus en cours terminés).
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Génère et sauvegarde les images QR d'un lot de références, en parallèle.
+     *
+     * @param references Références du lot (nettoyées: espaces retirés, majuscules)
+     * @param includeBase64 true pour inclure chaque image encodée en base64
+     * @return Résultat par élément, dans l'ordre des références
+     * @throws IllegalArgumentException Si le lot est vide ou dépasse la taille maximale
+     */
+    public QrBatchResult generateBatch(List<String> references, boolean includeBase64) {
+        if (references == null || references.isEmpty()) {
+            throw new IllegalArgumentException("Le lot doit contenir au moins une référence");
+        }
+        if (references.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Le lot ne peut pas dépasser " + maxBatchSize + " références");
+        }
+
+        long start = System.nanoTime();
+        logger.info("Génération d'un lot de {} références", references.size());
+
+        // Une tâche de rendu par référence distincte, soumise avant toute attente
+        Map<String, CompletableFuture<ImageQrCodeService.QrImageResult>> renders = new HashMap<>();
+        List<String> errors = new ArrayList<>(references.size());
+        List<String> cleanReferences = new ArrayList<>(references.size());
+        for (String reference : references) {
+            String error = validateReference(reference);
+            errors.add(error);
+            if (error != null) {
+                cleanReferences.add(null);
+                continue;
+            }
+            String cleanReference = reference.trim().toUpperCase();
+            cleanReferences.add(cleanReference);
+            renders.computeIfAbsent(cleanReference, r -> submit(r, includeBase64));
+        }
+
+        List<QrBatchItem> items = new ArrayList<>(references.size());
+        for (int i = 0; i < references.size(); i++) {
+            String reference = references.get(i);
+            if (errors.get(i) != null) {
+                items.add(new QrBatchItem(reference, null, errors.get(i)));
+                continue;
+            }
+            try {
+                items.add(new QrBatchItem(reference, renders.get(cleanReferences.get(i)).join(), null));
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                items.add(new QrBatchItem(reference, null, cause.getMessage()));
+            }
+        }
+
+        QrBatchResult result = new QrBatchResult(items, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        logger.info("Lot terminé: {}/{} images générées ({} rendus distincts) en {} ms",
+                   result.getSucceeded(), items.size(), renders.size(), result.getDurationMs());
+        return result;
+    }
+
+    /**
+     * Soumet le rendu d'une référence au pool, après avoir attendu une place si la file est pleine.
+     */
+    private CompletableFuture<ImageQrCodeService.QrImageResult> submit(String reference, boolean includeBase64) {
+        try {
+            slots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(new InterruptedException("Génération du lot interrompue"));
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> render(reference, includeBase64), executor);
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    private ImageQrCodeService.QrImageResult render(String reference, boolean includeBase64) {
+        try {
+            return imageQrCodeService.generateAndSaveQrCodeImage(reference, includeBase64);
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Validation identique aux endpoints unitaires (partagée avec l'export en archive).
+     *
+     * @return Message d'erreur, ou null si la référence est valide
+     */
+    static String validateReference(String reference) {
+        if (reference == null || reference.isBlank()) {
+            return "La référence est obligatoire";
+        }
+        if (reference.length() > MAX_REFERENCE_LENGTH) {
+            return "La référence ne peut pas dépasser " + MAX_REFERENCE_LENGTH + " caractères";
+        }
+        if (!reference.trim().matches(REFERENCE_PATTERN)) {
+            return "La référence ne doit contenir que des lettres, chiffres, tirets et underscores";
+        }
+        return null;
+    }
+
+    /**
+     * Résultat d'un lot: un élément par référence demandée, dans l'ordre.
+     */
+    public static class QrBatchResult {
+        private final List<QrBatchItem> items;
+        private final long durationMs;
+
+        public QrBatchResult(List<QrBatchItem> items, long durationMs) {
+            this.items = items;
+            this.durationMs = durationMs;
+        }
+
+        /** @return Résultats par référence, dans l'ordre de la demande */
+        public List<QrBatchItem> getItems() { return items; }
+
+        /** @return Durée totale du lot en millisecondes */
+        public long getDurationMs() { return durationMs; }
+
+        /** @return Nombre d'images générées avec succès */
+        public int getSucceeded() {
+            return (int) items.stream().filter(QrBatchItem::isSuccess).count();
+        }
+    }
+
+    /**
+     * Résultat d'une référence du lot: image générée ou message d'erreur.
+     */
+    public static class QrBatchItem {
+        private final String reference;
+        private final ImageQrCodeService.QrImageResult image;
+        private final String error;
+
+        public QrBatchItem(String reference, ImageQrCodeService.QrImageResult image, String error) {
+            this.reference = reference;
+            this.image = image;
+            this.error = error;
+        }
+
+        /** @return Référence telle que demandée */
+        public String getReference() { return reference; }
+
+        /** @return Image générée, null en cas d'erreur */
+        public ImageQrCodeService.QrImageResult getImage() { return image; }
+
+        /** @return Message d'erreur, null en cas de succès */
+        public String getError() { return error; }
+
+        /** @return true si l'image a été générée */
+        public boolean isSuccess() { return image != null; }
+    }
+}
@@ -0,0 +1,129 @@
+package com.boazhousing.qrcodegen.service;
+
+import com.boazhousing.qrcodegen.model.QrGenerationResult;
+import com.boazhousing.qrcodegen.service.render.QrOutputSink;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service de génération combinée image PNG + PDF à partir d'un seul rendu.
+ *
+ * Avant ce service, un client ayant besoin des deux formats appelait
+ * /generate-qr-image puis /generate-qr, ce qui rendait le symbole deux fois.
+ * Ici le symbole est rendu une seule fois par le {@link StyledQrRenderer} puis
+ * consommé par les sinks image (fichier + base64) et PDF dans la même passe.
+ *
+ * @author Boaz Housing Development Team
+ * @version 1.0.0
+ */
+@Service
+public class QrBundleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QrBundleService.class);
+
+    @Autowired
+    private StyledQrRenderer renderer;
+
+    @Autowired
+    private ImageQrCodeService imageQrCodeService;
+
+    @Autowired
+    private PdfGenerationService pdfGenerationService;
+
+    // Appels simultanés identiques servis par une seule génération (false: une génération par appel)
+    @Value("${app.coalescing.enabled:true}")
+    private boolean coalescingEnabled = true;
+
+    private final SingleFlight<String, QrBundleResult> inFlight = new SingleFlight<>();
+
+    // Métriques (Micrometer), absentes hors contexte Spring
+    @Autowired(required = false)
+    private QrMetrics metrics;
+
+    /**
+     * Publie le nombre d'appels regroupés dans les métriques.
+     */
+    @PostConstruct
+    public void registerMetrics() {
+        if (metrics != null) {
+            metrics.monitorCoalescing("bundle", inFlight);
+        }
+    }
+
+    /**
+     * Génère l'image QR et le PDF d'une référence avec un seul rendu du symbole.
+     * Les appels simultanés identiques partagent cette génération.
+     *
+     * @param reference Référence du document
+     * @param includeBase64 true pour inclure l'image encodée en base64
+     * @return Résultats image et PDF
+     * @throws Exception En cas d'erreur lors du rendu ou de l'écriture des fichiers
+     */
+    public QrBundleResult generateBundle(String reference, boolean includeBase64) throws Exception {
+        if (!coalescingEnabled) {
+            return generate(reference, includeBase64);
+        }
+        return inFlight.execute(reference + "|" + includeBase64 + "|" + renderer.getStyleFingerprint(),
+                                () -> generate(reference, includeBase64));
+    }
+
+    private QrBundleResult generate(String reference, boolean includeBase64) throws Exception {
+        try {
+            logger.info("Génération combinée image + PDF pour référence: {}", reference);
+
+            ImageQrCodeService.ImageTarget imageTarget = imageQrCodeService.prepareImageTarget(reference, includeBase64);
+            PdfGenerationService.PdfTarget pdfTarget = pdfGenerationService.preparePdfTarget(reference);
+
+            // Fichiers adressés par contenu déjà présents: pas de sink, et aucun rendu si rien à produire
+            List<QrOutputSink> sinks = new ArrayList<>(imageTarget.getSinks());
+            if (!pdfTarget.isStored()) {
+                sinks.add(pdfTarget.getSink());
+            }
+
+            // Image et PDF issus du même rendu: une seule réservation auprès du contrôle d'admission
+            if (!sinks.isEmpty()) {
+                try (QrAdmissionService.Permit permit = imageQrCodeService.admit(reference, includeBase64)) {
+                    renderer.render(reference, sinks);
+                }
+            }
+
+            QrBundleResult result = new QrBundleResult(imageTarget.toResult(), pdfTarget.toResult());
+            logger.info("Génération combinée réussie pour {}: {} + {}", reference,
+                       result.getImage().getFilename(), result.getPdf().getFileName());
+            return result;
+
+        } catch (QrAdmissionService.RenderRejectedException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Erreur lors de la génération combinée pour référence {}: {}",
+                        reference, e.getMessage(), e);
+            throw new Exception("Erreur lors de la génération combinée image + PDF: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Résultat d'une génération combinée: image QR et PDF issus du même rendu.
+     */
+    public static class QrBundleResult {
+        private final ImageQrCodeService.QrImageResult image;
+        private final QrGenerationResult pdf;
+
+        public QrBundleResult(ImageQrCodeService.QrImageResult image, QrGenerationResult pdf) {
+            this.image = image;
+            this.pdf = pdf;
+        }
+
+        /** @return Informations de l'image PNG générée */
+        public ImageQrCodeService.QrImageResult getImage() { return image; }
+
+        /** @return Informations du PDF généré */
+        public QrGenerationResult getPdf() { return pdf; }
+    }
+}
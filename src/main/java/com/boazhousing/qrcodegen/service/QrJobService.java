@@ -0,0 +1,452 @@
+package com.boazhousing.qrcodegen.service;
+
+import com.boazhousing.qrcodegen.service.render.AtomicFiles;
+import com.boazhousing.qrcodegen.service.render.PdfLabelLayout;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service de tâches de génération asynchrones, adossé à une file persistante sur disque.
+ *
+ * Une tâche (lot de références et format de sortie) est enregistrée dans le répertoire des
+ * tâches avant d'être acceptée, puis exécutée par un pool de workers dédié: la requête HTTP
+ * rend la main immédiatement et le client suit l'avancement, puis télécharge le résultat.
+ *
+ * Fichiers d'une tâche (écrits de façon atomique et forcés sur disque avant d'être annoncés):
+ * - {id}.references: références, une par ligne, écrites une seule fois
+ * - {id}.job: état de la tâche (propriétés), réécrit à chaque changement d'état
+ * - {id}.zip ou {id}.pdf: résultat, présent une fois la tâche terminée
+ *
+ * Au démarrage, les tâches en attente ou interrompues en cours d'exécution sont remises en
+ * file dans leur ordre de soumission. Les tâches terminées au-delà de la durée de
+ * conservation sont supprimées au démarrage, puis périodiquement.
+ *
+ * Formats: png et pdf (archive ZIP, voir {@link QrArchiveService}), sheet (planche
+ * d'étiquettes PDF, grille par défaut, voir {@link PdfGenerationService}).
+ *
+ * @author Boaz Housing Development Team
+ * @version 1.0.0
+ */
+@Service
+public class QrJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QrJobService.class);
+
+    private static final String JOB_EXTENSION = ".job";
+    private static final String REFERENCES_EXTENSION = ".references";
+
+    // Répertoire de la file persistante
+    @Value("${app.jobs.directory:qr-jobs}")
+    private String jobsDirectory = "qr-jobs";
+
+    // Nombre de workers exécutant les tâches
+    @Value("${app.jobs.workers:2}")
+    private int workers = 2;
+
+    // Durée de conservation des tâches terminées et de leur résultat
+    @Value("${app.jobs.retention-hours:24}")
+    private int retentionHours = 24;
+
+    // Intervalle de suppression des tâches expirées, serveur inactif compris
+    @Value("${app.jobs.purge-interval-seconds:600}")
+    private long purgeIntervalSeconds = 600;
+
+    @Autowired
+    private QrArchiveService qrArchiveService;
+
+    @Autowired
+    private PdfGenerationService pdfGenerationService;
+
+    private final Map<String, QrJob> jobs = new ConcurrentHashMap<>();
+    private final BlockingQueue<String> pending = new LinkedBlockingQueue<>();
+    private ExecutorService workerPool;
+    private ScheduledExecutorService purgeScheduler;
+    private volatile boolean running;
+
+    /**
+     * Recharge la file persistante et démarre les workers.
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        Path directory = Paths.get(jobsDirectory);
+        Files.createDirectories(directory);
+
+        // Résultats partiels des exécutions interrompues
+        try (DirectoryStream<Path> temporaryFiles = Files.newDirectoryStream(directory, ".*.tmp")) {
+            for (Path temporaryFile : temporaryFiles) {
+                Files.deleteIfExists(temporaryFile);
+            }
+        }
+
+        List<QrJob> resumed = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + JOB_EXTENSION)) {
+            for (Path file : files) {
+                try {
+                    QrJob job = load(file);
+                    if (job.getStatus() == QrJobStatus.QUEUED || job.getStatus() == QrJobStatus.RUNNING) {
+                        // Tâche interrompue par l'arrêt: reprise depuis le début
+                        job.reset();
+                        save(job);
+                        resumed.add(job);
+                    }
+                    jobs.put(job.getId(), job);
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Tâche illisible ignorée: {} ({})", file.getFileName(), e.getMessage());
+                }
+            }
+        }
+        resumed.sort(Comparator.comparingLong(QrJob::getCreatedAt));
+        resumed.forEach(job -> pending.add(job.getId()));
+        purgeExpired();
+
+        running = true;
+        AtomicInteger threadCount = new AtomicInteger();
+        workerPool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "qr-job-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            workerPool.execute(this::work);
+        }
+        purgeScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "qr-job-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purgeScheduler.scheduleWithFixedDelay(this::purgeExpired, purgeIntervalSeconds, purgeIntervalSeconds,
+                                              TimeUnit.SECONDS);
+        logger.info("Tâches asynchrones: {} workers, répertoire {}, {} tâches reprises",
+                   workers, directory.toAbsolutePath(), resumed.size());
+    }
+
+    /**
+     * Arrête les workers après leur tâche en cours, sans les interrompre (une interruption
+     * fermerait les fichiers en cours d'écriture). Une tâche encore en cours à l'arrêt de la
+     * JVM reste enregistrée comme en cours d'exécution et sera reprise au prochain démarrage.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (workerPool != null) {
+            workerPool.shutdown();
+        }
+        if (purgeScheduler != null) {
+            purgeScheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Enregistre une tâche de génération et la place en file.
+     *
+     * @param references Références du lot (toutes valides, doublons admis)
+     * @param format png, pdf (archive ZIP) ou sheet (planche d'étiquettes PDF)
+     * @return Tâche en attente
+     * @throws IllegalArgumentException Si le lot ou le format est invalide
+     * @throws IOException Si la tâche ne peut pas être enregistrée
+     */
+    public QrJob submit(List<String> references, String format) throws IOException {
+        String jobFormat = format != null ? format.trim().toLowerCase() : "png";
+        if ("sheet".equals(jobFormat)) {
+            pdfGenerationService.validateLabelSheet(references);
+        } else {
+            qrArchiveService.validateRequest(references, jobFormat);
+            for (String reference : references) {
+                String error = QrBatchService.validateReference(reference);
+                if (error != null) {
+                    throw new IllegalArgumentException(error + ": " + reference);
+                }
+            }
+        }
+        purgeExpired();
+
+        QrJob job = new QrJob(UUID.randomUUID().toString(), jobFormat, references.size(), System.currentTimeMillis());
+        List<String> cleanReferences = references.stream().map(reference -> reference.trim().toUpperCase()).toList();
+        AtomicFiles.writeDurably(path(job.getId(), REFERENCES_EXTENSION),
+                          String.join("\n", cleanReferences).getBytes(StandardCharsets.UTF_8));
+        save(job);
+
+        jobs.put(job.getId(), job);
+        pending.add(job.getId());
+        logger.info("Tâche {} enregistrée: {} références, format {} ({} en attente)",
+                   job.getId(), job.getTotal(), jobFormat, pending.size());
+        return job;
+    }
+
+    /**
+     * @param id Identifiant de la tâche
+     * @return Tâche (remplacée par son état final en fin d'exécution), ou null si inconnue
+     */
+    public QrJob getJob(String id) {
+        return id != null ? jobs.get(id) : null;
+    }
+
+    /**
+     * @param id Identifiant de la tâche
+     * @return Fichier résultat, ou null si la tâche est inconnue, pas terminée ou en échec
+     */
+    public Path getResultPath(String id) {
+        QrJob job = getJob(id);
+        if (job == null || job.getStatus() != QrJobStatus.SUCCEEDED) {
+            return null;
+        }
+        Path result = path(id, "." + job.getResultExtension());
+        return Files.isRegularFile(result) ? result : null;
+    }
+
+    /**
+     * Boucle d'un worker: prend la tâche suivante de la file et l'exécute.
+     */
+    private void work() {
+        try {
+            while (running) {
+                String id = pending.poll(1, TimeUnit.SECONDS);
+                QrJob job = id != null ? jobs.get(id) : null;
+                if (job != null) {
+                    run(job);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run(QrJob job) {
+        long start = System.nanoTime();
+        Path result = path(job.getId(), "." + job.getResultExtension());
+        try {
+            job.start(System.currentTimeMillis());
+            save(job);
+
+            List<String> references = Files.readAllLines(path(job.getId(), REFERENCES_EXTENSION), StandardCharsets.UTF_8);
+            Path tempFile = AtomicFiles.createTempSibling(result);
+            try {
+                try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+                    if ("sheet".equals(job.getFormat())) {
+                        pdfGenerationService.writeLabelSheet(references, PdfLabelLayout.of("A4", 3, 8, 10, 4, true),
+                                                             outputStream, job::setProcessed);
+                    } else {
+                        qrArchiveService.writeArchive(references, job.getFormat(), outputStream, job::setProcessed);
+                    }
+                }
+                AtomicFiles.moveIntoPlaceDurably(tempFile, result);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+
+            finish(job, QrJobStatus.SUCCEEDED, null);
+            logger.info("Tâche {} terminée en {} ms", job.getId(),
+                       TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            logger.error("Erreur lors de l'exécution de la tâche {}: {}", job.getId(), e.getMessage());
+            finish(job, QrJobStatus.FAILED, e.getMessage());
+        }
+    }
+
+    /**
+     * Enregistre l'état final avant de le rendre visible: une tâche vue terminée par un
+     * client l'est aussi après un redémarrage.
+     */
+    private void finish(QrJob job, QrJobStatus status, String error) {
+        QrJob finished = job.finished(status, error, System.currentTimeMillis());
+        try {
+            save(finished);
+        } catch (IOException e) {
+            logger.error("État de la tâche {} non enregistré: {}", job.getId(), e.getMessage());
+        }
+        jobs.put(job.getId(), finished);
+    }
+
+    /**
+     * Supprime les tâches terminées depuis plus longtemps que la durée de conservation.
+     * Appelée au démarrage, à chaque soumission et périodiquement.
+     */
+    private void purgeExpired() {
+        long limit = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(retentionHours);
+        for (QrJob job : jobs.values()) {
+            if (job.isFinished() && job.getFinishedAt() < limit) {
+                jobs.remove(job.getId());
+                try {
+                    Files.deleteIfExists(path(job.getId(), "." + job.getResultExtension()));
+                    Files.deleteIfExists(path(job.getId(), REFERENCES_EXTENSION));
+                    Files.deleteIfExists(path(job.getId(), JOB_EXTENSION));
+                } catch (IOException e) {
+                    logger.warn("Suppression de la tâche expirée {} incomplète: {}", job.getId(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private Path path(String id, String extension) {
+        return Paths.get(jobsDirectory, id + extension);
+    }
+
+    private void save(QrJob job) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        job.toProperties().store(bytes, null);
+        AtomicFiles.writeDurably(path(job.getId(), JOB_EXTENSION), bytes.toByteArray());
+    }
+
+    private static QrJob load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            properties.load(inputStream);
+        }
+        return QrJob.fromProperties(properties);
+    }
+
+    /**
+     * État d'une tâche.
+     */
+    public enum QrJobStatus {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    /**
+     * Tâche de génération: état persistant et avancement (mis à jour par le worker,
+     * lu par les requêtes de suivi).
+     */
+    public static class QrJob {
+        private final String id;
+        private final String format;
+        private final int total;
+        private final long createdAt;
+        private volatile QrJobStatus status = QrJobStatus.QUEUED;
+        private volatile int processed;
+        private volatile long startedAt;
+        private volatile long finishedAt;
+        private volatile String error;
+
+        public QrJob(String id, String format, int total, long createdAt) {
+            this.id = id;
+            this.format = format;
+            this.total = total;
+            this.createdAt = createdAt;
+        }
+
+        void start(long now) {
+            startedAt = now;
+            processed = 0;
+            status = QrJobStatus.RUNNING;
+        }
+
+        /**
+         * @return Copie terminée de la tâche (l'instance en cours reste inchangée)
+         */
+        QrJob finished(QrJobStatus finalStatus, String message, long now) {
+            QrJob job = new QrJob(id, format, total, createdAt);
+            job.startedAt = startedAt;
+            job.finishedAt = now;
+            job.error = message;
+            job.processed = finalStatus == QrJobStatus.SUCCEEDED ? total : processed;
+            job.status = finalStatus;
+            return job;
+        }
+
+        void reset() {
+            status = QrJobStatus.QUEUED;
+            processed = 0;
+            startedAt = 0;
+        }
+
+        void setProcessed(int processed) {
+            this.processed = processed;
+        }
+
+        /** @return Identifiant de la tâche */
+        public String getId() { return id; }
+
+        /** @return Format de sortie (png, pdf ou sheet) */
+        public String getFormat() { return format; }
+
+        /** @return Nombre de références du lot */
+        public int getTotal() { return total; }
+
+        /** @return Références déjà traitées */
+        public int getProcessed() { return processed; }
+
+        /** @return État de la tâche */
+        public QrJobStatus getStatus() { return status; }
+
+        /** @return Message d'erreur, null sauf en échec */
+        public String getError() { return error; }
+
+        /** @return Date de soumission (ms depuis l'époque) */
+        public long getCreatedAt() { return createdAt; }
+
+        /** @return Date de début d'exécution (0 si pas commencée) */
+        public long getStartedAt() { return startedAt; }
+
+        /** @return Date de fin (0 si pas terminée) */
+        public long getFinishedAt() { return finishedAt; }
+
+        /** @return true si la tâche est terminée (succès ou échec) */
+        public boolean isFinished() {
+            return status == QrJobStatus.SUCCEEDED || status == QrJobStatus.FAILED;
+        }
+
+        /** @return Extension du fichier résultat (zip ou pdf) */
+        public String getResultExtension() {
+            return "sheet".equals(format) ? "pdf" : "zip";
+        }
+
+        Properties toProperties() {
+            Properties properties = new Properties();
+            properties.setProperty("id", id);
+            properties.setProperty("format", format);
+            properties.setProperty("total", Integer.toString(total));
+            properties.setProperty("status", status.name());
+            properties.setProperty("createdAt", Long.toString(createdAt));
+            properties.setProperty("startedAt", Long.toString(startedAt));
+            properties.setProperty("finishedAt", Long.toString(finishedAt));
+            if (error != null) {
+                properties.setProperty("error", error);
+            }
+            return properties;
+        }
+
+        static QrJob fromProperties(Properties properties) {
+            QrJob job = new QrJob(properties.getProperty("id"), properties.getProperty("format"),
+                                  Integer.parseInt(properties.getProperty("total")),
+                                  Long.parseLong(properties.getProperty("createdAt")));
+            job.status = QrJobStatus.valueOf(properties.getProperty("status"));
+            job.startedAt = Long.parseLong(properties.getProperty("startedAt", "0"));
+            job.finishedAt = Long.parseLong(properties.getProperty("finishedAt", "0"));
+            job.error = properties.getProperty("error");
+            if (job.status == QrJobStatus.SUCCEEDED) {
+                job.processed = job.total;
+            }
+            return job;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.boazhousing.qrcodegen.service;
+
+import com.boazhousing.qrcodegen.service.render.QrOutputSink;
+import com.boazhousing.qrcodegen.service.render.RenderStage;
+import com.boazhousing.qrcodegen.service.render.RenderedQr;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Métriques Micrometer de la génération, exposées sous /actuator/prometheus.
+ *
+ * - qr.render.stage (timer avec histogramme, tag stage): durée de chaque étape d'un rendu
+ *   (encodage ZXing, modules, logo, PNG, base64, mise en page PDF, écriture disque, service
+ *   d'un fichier), reprise des durées déjà mesurées par {@link RenderedQr}
+ * - qr.render.requests (compteur, tag source=cache|render): rendus servis par le cache PNG ou calculés
+ * - qr.output.bytes (compteur, tag sink): octets écrits par les sinks (fichiers, flux)
+ * - qr.storage.hits (compteur, tag format): fichiers adressés par contenu réutilisés sans rendu
+ * - qr.output.directory.bytes / qr.output.directory.files (jauges, tag directory): taille des
+ *   répertoires de sortie, recalculée au plus une fois par intervalle de scan
+ *
+ * Sans registre Micrometer (tests hors contexte Spring), les enregistrements sont ignorés.
+ *
+ * @author Boaz Housing Development Team
+ * @version 1.0.0
+ */
+@Service
+public class QrMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(QrMetrics.class);
+
+    @Value("${app.images.output-directory:qr-images}")
+    private String imagesDirectory = "qr-images";
+
+    @Value("${app.qr.output-directory:document-qr-code-generer}")
+    private String pdfDirectory = "document-qr-code-generer";
+
+    @Value("${app.jobs.directory:qr-jobs}")
+    private String jobsDirectory = "qr-jobs";
+
+    // Âge maximal de la taille publiée d'un répertoire (parcours du disque au plus une fois par intervalle)
+    @Value("${app.metrics.directory-scan-interval-seconds:30}")
+    private long directoryScanIntervalSeconds = 30;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private MeterRegistry registry;
+    private final Map<RenderStage, Timer> stageTimers = new EnumMap<>(RenderStage.class);
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    // Les jauges ne retiennent leur objet que par référence faible
+    private final List<DirectoryUsage> directoryUsages = new ArrayList<>();
+
+    /**
+     * Enregistre les timers d'étapes et les jauges des répertoires de sortie.
+     */
+    @PostConstruct
+    public void init() {
+        registry = meterRegistry != null ? meterRegistry.getIfAvailable() : null;
+        if (registry == null) {
+            logger.info("Aucun registre Micrometer: métriques de génération désactivées");
+            return;
+        }
+        for (RenderStage stage : RenderStage.values()) {
+            stageTimers.put(stage, Timer.builder("qr.render.stage")
+                    .description("Durée d'une étape de la génération d'un QR code")
+                    .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                    .publishPercentileHistogram()
+                    // Étapes courantes de quelques µs (base64) à quelques centaines de µs (encodage):
+                    // premier seau à 1 µs pour que les quantiles les distinguent
+                    .minimumExpectedValue(Duration.ofNanos(1_000))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(registry));
+        }
+        monitorDirectory("images", imagesDirectory);
+        monitorDirectory("pdf", pdfDirectory);
+        monitorDirectory("jobs", jobsDirectory);
+    }
+
+    /**
+     * Publie les durées d'un rendu terminé et les octets écrits par ses sinks.
+     *
+     * @param renderedQr Symbole rendu et validé
+     * @param sinks Sinks du rendu, après validation
+     */
+    public void recordRender(RenderedQr renderedQr, List<? extends QrOutputSink> sinks) {
+        if (registry == null) {
+            return;
+        }
+        for (Map.Entry<RenderStage, Long> timing : renderedQr.getStageTimings().entrySet()) {
+            recordStage(timing.getKey(), timing.getValue());
+        }
+        counter("qr.render.requests", "source", renderedQr.isFromCache() ? "cache" : "render").increment();
+        for (QrOutputSink sink : sinks) {
+            long bytes = sink.getCommittedBytes();
+            if (bytes > 0) {
+                recordBytesWritten(sink.getClass().getSimpleName(), bytes);
+            }
+        }
+    }
+
+    /**
+     * Publie la durée d'une étape mesurée hors d'un {@link RenderedQr} (logo, service de fichier).
+     *
+     * @param stage Étape
+     * @param nanos Durée en nanosecondes
+     */
+    public void recordStage(RenderStage stage, long nanos) {
+        Timer timer = stageTimers.get(stage);
+        if (timer != null) {
+            timer.record(Duration.ofNanos(nanos));
+        }
+    }
+
+    /**
+     * @param sink Nom de la sortie (classe du sink, archive...)
+     * @param bytes Octets écrits
+     */
+    public void recordBytesWritten(String sink, long bytes) {
+        if (registry != null) {
+            counter("qr.output.bytes", "sink", sink).increment(bytes);
+        }
+    }
+
+    /**
+     * @param format Format du fichier adressé par contenu réutilisé sans rendu (png, pdf)
+     */
+    public void recordStorageHit(String format) {
+        if (registry != null) {
+            counter("qr.storage.hits", "format", format).increment();
+        }
+    }
+
+    /**
+     * Publie le nombre d'appels regroupés sur une génération déjà en cours.
+     *
+     * @param service Service générateur (image, pdf, bundle)
+     * @param singleFlight Regroupement du service
+     */
+    public void monitorCoalescing(String service, SingleFlight<?, ?> singleFlight) {
+        if (registry == null) {
+            return;
+        }
+        FunctionCounter.builder("qr.coalesced.requests", singleFlight, SingleFlight::getCoalescedCount)
+                .description("Appels servis par une génération identique déjà en cours")
+                .tag("service", service)
+                .register(registry);
+    }
+
+    /**
+     * Publie l'état du contrôle d'admission (mémoire réservée, refus).
+     *
+     * @param admission Contrôle d'admission
+     */
+    public void monitorAdmission(QrAdmissionService admission) {
+        if (registry == null) {
+            return;
+        }
+        Gauge.builder("qr.admission.inflight.bytes", admission, QrAdmissionService::getInFlightBytes)
+                .description("Mémoire estimée des rendus en cours")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("qr.admission.budget.bytes", admission, QrAdmissionService::getBudget)
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("qr.admission.rejected", admission, QrAdmissionService::getRejectedCount)
+                .description("Rendus refusés (503) faute de budget")
+                .register(registry);
+    }
+
+    private Counter counter(String name, String tagKey, String tagValue) {
+        return counters.computeIfAbsent(name + "|" + tagValue,
+                key -> Counter.builder(name).tag(tagKey, tagValue).register(registry));
+    }
+
+    private void monitorDirectory(String name, String directory) {
+        DirectoryUsage usage = new DirectoryUsage(Paths.get(directory),
+                                                  Duration.ofSeconds(directoryScanIntervalSeconds).toNanos());
+        directoryUsages.add(usage);
+        Gauge.builder("qr.output.directory.bytes", usage, DirectoryUsage::getBytes)
+                .description("Taille des fichiers du répertoire de sortie")
+                .tag("directory", name)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("qr.output.directory.files", usage, DirectoryUsage::getFiles)
+                .description("Nombre de fichiers du répertoire de sortie")
+                .tag("directory", name)
+                .register(registry);
+    }
+
+    /**
+     * Taille d'un répertoire (fichiers directs), recalculée au plus une fois par intervalle.
+     */
+    private static final class DirectoryUsage {
+        private final Path directory;
+        private final long intervalNanos;
+        private long scannedAt;
+        private long bytes;
+        private long files;
+
+        private DirectoryUsage(Path directory, long intervalNanos) {
+            this.directory = directory;
+            this.intervalNanos = intervalNanos;
+            this.scannedAt = System.nanoTime() - intervalNanos - 1;
+        }
+
+        synchronized double getBytes() {
+            refresh();
+            return bytes;
+        }
+
+        synchronized double getFiles() {
+            refresh();
+            return files;
+        }
+
+        private void refresh() {
+            long now = System.nanoTime();
+            if (now - scannedAt <= intervalNanos) {
+                return;
+            }
+            scannedAt = now;
+            long totalBytes = 0;
+            long totalFiles = 0;
+            if (Files.isDirectory(directory)) {
+                try (Stream<Path> entries = Files.list(directory)) {
+                    for (Path entry : (Iterable<Path>) entries::iterator) {
+                        try {
+                            BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                            if (attributes.isRegularFile()) {
+                                totalBytes += attributes.size();
+                                totalFiles++;
+                            }
+                        } catch (IOException e) {
+                            // Fichier supprimé pendant le parcours (purge, remplacement atomique)
+                        }
+                    }
+                } catch (IOException e) {
+                    logger.warn("Taille du répertoire {} indisponible: {}", directory, e.getMessage());
+                }
+            }
+            bytes = totalBytes;
+            files = totalFiles;
+        }
+    }
+}
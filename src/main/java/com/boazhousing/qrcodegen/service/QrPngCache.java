@@ -0,0 +1,152 @@
+package com.boazhousing.qrcodegen.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Cache borné des octets PNG rendus, indexé par référence et empreinte du style.
+ *
+ * Une même référence produit toujours la même URL de vérification, donc la même image
+ * pour un style donné: les relances et réimpressions de documents n'ont pas à
+ * ré-encoder, re-rendre ni recompresser le symbole. Ce cache:
+ * - est borné par un budget en octets (poids de chaque entrée = taille du PNG + clé)
+ * - évince selon W-TinyLFU (Caffeine), qui protège les références fréquemment relues
+ *   contre les rafales de références vues une seule fois
+ * - peut stocker les octets hors du tas Java (ByteBuffer direct), pour ne pas
+ *   alourdir le GC avec un grand cache
+ * - publie ses statistiques (hits, misses, évictions, taux de succès, octets occupés)
+ *   dans Micrometer, visibles sous /actuator/metrics
+ *
+ * Les octets retournés sont partagés (tas) ou copiés (hors tas): ils ne doivent pas être modifiés.
+ */
+@Service
+public class QrPngCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(QrPngCache.class);
+
+    // Surcoût approximatif d'une entrée (objets Caffeine, en-têtes, clé) ajouté à son poids
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    @Value("${app.cache.png.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.cache.png.max-bytes:67108864}")
+    private long maxBytes = 64L * 1024 * 1024;
+
+    @Value("${app.cache.png.off-heap:false}")
+    private boolean offHeap;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private Cache<String, Object> cache;
+
+    /**
+     * Construit le cache selon la configuration et l'enregistre dans Micrometer.
+     */
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            logger.info("Cache PNG désactivé");
+            return;
+        }
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, Object value) -> ENTRY_OVERHEAD_BYTES + key.length() * 2 + sizeOf(value))
+                .recordStats()
+                .build();
+
+        MeterRegistry registry = meterRegistry != null ? meterRegistry.getIfAvailable() : null;
+        if (registry != null) {
+            CaffeineCacheMetrics.monitor(registry, cache, "qr.png");
+            Gauge.builder("qr.png.cache.hit.ratio", this, c -> c.getStats().hitRate())
+                 .description("Taux de succès du cache PNG")
+                 .register(registry);
+            Gauge.builder("qr.png.cache.weight", this, QrPngCache::getWeightedSize)
+                 .description("Octets occupés par le cache PNG")
+                 .baseUnit("bytes")
+                 .register(registry);
+        }
+        logger.info("Cache PNG activé: budget {} octets, stockage {}", maxBytes, offHeap ? "hors tas" : "tas");
+    }
+
+    /**
+     * @param key Clé (référence et empreinte du style)
+     * @return Octets PNG en cache, ou null
+     */
+    public byte[] get(String key) {
+        if (cache == null) {
+            return null;
+        }
+        Object value = cache.getIfPresent(key);
+        if (value instanceof ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.duplicate().get(bytes);
+            return bytes;
+        }
+        return (byte[]) value;
+    }
+
+    /**
+     * @param key Clé (référence et empreinte du style)
+     * @param pngBytes Octets PNG à conserver (non modifiés ensuite)
+     */
+    public void put(String key, byte[] pngBytes) {
+        if (cache == null || pngBytes == null) {
+            return;
+        }
+        if (offHeap) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(pngBytes.length);
+            buffer.put(pngBytes).flip();
+            cache.put(key, buffer.asReadOnlyBuffer());
+        } else {
+            cache.put(key, pngBytes);
+        }
+    }
+
+    /** @return true si le cache est actif */
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /** @return Statistiques cumulées (hits, misses, évictions) */
+    public CacheStats getStats() {
+        return cache != null ? cache.stats() : CacheStats.empty();
+    }
+
+    /** @return Octets occupés (poids cumulé des entrées) */
+    public long getWeightedSize() {
+        if (cache == null) {
+            return 0;
+        }
+        // Les écritures sont comptabilisées de façon asynchrone: les appliquer avant lecture
+        cache.cleanUp();
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    /** Vide le cache (changement de style, tests) */
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    private static int sizeOf(Object value) {
+        return value instanceof ByteBuffer buffer ? buffer.capacity() : ((byte[]) value).length;
+    }
+}
@@ -0,0 +1,147 @@
+package com.boazhousing.qrcodegen.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exécuteur du rendu (calcul): pool borné de threads plateforme dimensionné sur les processeurs.
+ *
+ * Avec les threads virtuels (Java 21, spring.threads.virtual.enabled), les requêtes Tomcat ne
+ * sont plus limitées par un pool: le calcul du rendu (encodage, rastérisation, compression PNG,
+ * mise en page PDF) est alors déporté ici pour que le nombre de rendus simultanés reste celui
+ * des cœurs, tandis que les écritures (fichiers, réponses) restent sur le thread de la requête.
+ *
+ * Désactivé, le rendu s'exécute sur le thread appelant (comportement historique). File pleine:
+ * le thread appelant attend une place (contre-pression plutôt que rejet) mais ne rend jamais
+ * lui-même, pour ne pas occuper les threads porteurs des threads virtuels. Un rendu demandé
+ * depuis un thread de rendu s'exécute sur place.
+ *
+ * @author Boaz Housing Development Team
+ * @version 1.0.0
+ */
+@Service
+public class QrRenderExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(QrRenderExecutor.class);
+
+    private static final ThreadLocal<Boolean> RENDER_THREAD = ThreadLocal.withInitial(() -> false);
+
+    // true: calcul du rendu déporté sur le pool (recommandé avec les threads virtuels)
+    @Value("${app.render.executor.enabled:false}")
+    private boolean enabled = false;
+
+    // Threads de rendu (0 = nombre de processeurs)
+    @Value("${app.render.executor.threads:0}")
+    private int threads = 0;
+
+    // Rendus en attente au-delà desquels le thread appelant attend une place
+    @Value("${app.render.executor.queue-capacity:256}")
+    private int queueCapacity = 256;
+
+    private ThreadPoolExecutor executor;
+
+    // Places du pool (threads + file), rendues à la fin de chaque tâche: la file ne déborde jamais
+    private Semaphore slots;
+
+    /**
+     * Crée le pool de rendu s'il est activé.
+     */
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            logger.info("Exécuteur de rendu désactivé: rendu sur le thread de la requête");
+            return;
+        }
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        slots = new Semaphore(poolSize + queueCapacity);
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                // File bornée par les places: aucun rejet entre la fin d'une tâche et la suivante
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(() -> {
+                        RENDER_THREAD.set(true);
+                        runnable.run();
+                    }, "qr-render-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }) {
+            @Override
+            protected void afterExecute(Runnable runnable, Throwable error) {
+                // Tâche terminée, annulée comprise: place libérée pour un appelant en attente
+                slots.release();
+            }
+        };
+        logger.info("Exécuteur de rendu: {} threads plateforme, file de {} rendus", poolSize, queueCapacity);
+    }
+
+    /**
+     * Arrête le pool de rendu (rendus en cours terminés).
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Exécute un calcul de rendu sur le pool et attend son résultat.
+     *
+     * @param task Calcul à exécuter
+     * @return Résultat du calcul
+     * @throws Exception Exception levée par le calcul (non enveloppée), ou InterruptedException
+     */
+    public <T> T call(Callable<T> task) throws Exception {
+        if (executor == null || RENDER_THREAD.get()) {
+            return task.call();
+        }
+        slots.acquire();
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    /** @return Nombre d'appelants en attente d'une place dans le pool */
+    public int getWaitingCount() {
+        return slots != null ? slots.getQueueLength() : 0;
+    }
+
+    /** @return true si le calcul du rendu est déporté sur le pool */
+    public boolean isEnabled() {
+        return executor != null;
+    }
+}
@@ -0,0 +1,79 @@
+package com.boazhousing.qrcodegen.service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Regroupement des appels simultanés identiques ("single flight").
+ *
+ * Le premier appel pour une clé exécute le calcul sur son propre thread; les appels arrivant
+ * pendant ce calcul attendent et reçoivent le même résultat (ou la même exception). Dès que
+ * le calcul se termine, la clé est libérée: un appel ultérieur calcule à nouveau, rien n'est
+ * mis en cache ici.
+ *
+ * @param <K> Clé identifiant le calcul (référence, style, format...)
+ * @param <V> Résultat partagé, qui doit pouvoir être lu par plusieurs threads
+ * @author Boaz Housing Development Team
+ * @version 1.0.0
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Exécute le calcul d'une clé, ou attend celui déjà en cours pour la même clé.
+     *
+     * @param key Clé du calcul
+     * @param computation Calcul exécuté par le premier appel
+     * @return Résultat du calcul (partagé entre les appels regroupés)
+     * @throws Exception Exception du calcul (non enveloppée), ou InterruptedException pendant l'attente
+     */
+    public V execute(K key, Callable<V> computation) throws Exception {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        try {
+            V value = computation.call();
+            created.complete(value);
+            return value;
+        } catch (Exception | Error e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /** @return Nombre d'appels ayant reçu le résultat d'un calcul déjà en cours */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /** @return Nombre de calculs en cours */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,858 @@
+package com.boazhousing.qrcodegen.service;
+
+import com.boazhousing.qrcodegen.service.render.EccLevelPolicy;
+import com.boazhousing.qrcodegen.service.render.ImageIoPngEncoder;
+import com.boazhousing.qrcodegen.service.render.IndexedPngEncoder;
+import com.boazhousing.qrcodegen.service.render.PdfVectorQrPainter;
+import com.boazhousing.qrcodegen.service.render.PngEncoder;
+import com.boazhousing.qrcodegen.service.render.QrMatrixEncoder;
+import com.boazhousing.qrcodegen.service.render.QrOutputSink;
+import com.boazhousing.qrcodegen.service.render.RasterModuleRenderer;
+import com.boazhousing.qrcodegen.service.render.RenderStage;
+import com.boazhousing.qrcodegen.service.render.RenderedQr;
+import com.boazhousing.qrcodegen.service.render.SvgQrDocument;
+import com.boazhousing.qrcodegen.service.render.SvgQrWriter;
+import com.boazhousing.qrcodegen.service.render.VerificationQrEncoder;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageDataFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Moteur de rendu unique des QR codes au style Boaz-Housing.
+ *
+ * Centralise l'algorithme autrefois dupliqué entre BoazQrCodeService et ImageQrCodeService:
+ * - encodage ZXing de l'URL de vérification (correction H ou adaptative au logo, sans quiet zone)
+ * - rendu des modules: points bleus circulaires, corners orange dégradé
+ * - logo central avec fond blanc circulaire
+ *
+ * Le symbole est rendu une seule fois par appel puis transmis à un ou plusieurs
+ * {@link QrOutputSink} (fichier PNG, base64, octets bruts, page PDF) dans la même passe.
+ * L'image n'est compressée en PNG qu'une seule fois, à la première demande d'un sink.
+ *
+ * @author Boaz Housing Development Team
+ * @version 1.0.0
+ */
+@Service
+public class StyledQrRenderer {
+
+    private static final Logger logger = LoggerFactory.getLogger(StyledQrRenderer.class);
+
+    // Configuration technique pour le style Boaz-Housing
+    private static final int BOX_SIZE = 10;           // Taille des modules QR en pixels
+    private static final int BORDER_SIZE = 40;        // Bordure blanche autour du QR (4 * box_size)
+    private static final int LOGO_RADIUS = 6;         // Rayon de la zone logo au centre (en modules)
+    private static final int LOGO_DISPLAY_SIZE = 180; // Taille d'affichage du logo en pixels
+
+    // Couleurs officielles Boaz-Housing selon les spécifications du design
+    @Value("${app.colors.primary-blue:#0140ff}")
+    private String primaryBlue;        // Couleur des points de données
+
+    @Value("${app.colors.orange-dark:#f88206}")
+    private String orangeDark;         // Couleur centre des corners
+
+    @Value("${app.colors.orange-medium:#fa9000}")
+    private String orangeMedium;       // Couleur milieu des corners
+
+    @Value("${app.colors.orange-light:#ffa94d}")
+    private String orangeLight;        // Couleur bordure des corners
+
+    // Configuration des URLs de vérification
+    @Value("${app.qr.base-url:https://housing.boaz-study.tech}")
+    private String baseUrl;
+
+    @Value("${app.qr.verification-path:/verif_doc}")
+    private String verificationPath;
+
+    // Encodage épinglé: version du symbole (0 = automatique) et masque (-1 = recherche du meilleur)
+    @Value("${app.qr.encoding.version:0}")
+    private int pinnedVersion = 0;
+
+    @Value("${app.qr.encoding.mask:-1}")
+    private int pinnedMask = -1;
+
+    // Encodeur des URLs de vérification: "zxing" (QRCodeWriter) ou "builtin" (spécialisé, symboles identiques)
+    @Value("${app.qr.encoding.engine:zxing}")
+    private String encodingEngine = "zxing";
+
+    // Segments: "byte" (mode octet, historique) ou "mixed" (numérique/alphanumérique/octet, version plus petite)
+    @Value("${app.qr.encoding.segments:byte}")
+    private String encodingSegments = "byte";
+
+    // Schéma et hôte en majuscules (insensibles à la casse) pour l'encodage alphanumérique
+    @Value("${app.qr.encoding.uppercase-host:false}")
+    private boolean uppercaseHost = false;
+
+    // Niveau de correction: "H" (fixe) ou "adaptive" (plus faible niveau couvrant le logo, par version)
+    @Value("${app.qr.encoding.ecc:H}")
+    private String eccMode = "H";
+
+    // Part de la capacité de correction laissée libre en mode adaptatif
+    @Value("${app.qr.encoding.ecc-margin:0.25}")
+    private double eccMargin = 0.25;
+
+    private volatile QrMatrixEncoder matrixEncoder;
+
+    // Moteur de rendu des modules: "raster" (écriture directe des pixels) ou "graphics2d" (historique)
+    @Value("${app.render.mode:raster}")
+    private String renderMode;
+
+    private volatile RasterModuleRenderer rasterRenderer;
+
+    // Encodeur PNG: "indexed" (palette, spécialisé Boaz-Housing) ou "imageio" (24 bits générique)
+    @Value("${app.png.encoder:indexed}")
+    private String pngEncoderMode = "indexed";
+
+    @Value("${app.png.deflate-level:6}")
+    private int pngDeflateLevel = 6;
+
+    @Value("${app.png.deflate-strategy:default}")
+    private String pngDeflateStrategy = "default";
+
+    // Quantification des images de plus de 256 couleurs (avec perte): désactivée par défaut
+    @Value("${app.png.quantize:false}")
+    private boolean pngQuantize = false;
+
+    private volatile PngEncoder pngEncoder;
+
+    // Logo des documents SVG en mode "référencé": URL de l'image servie par l'application
+    @Value("${app.svg.logo-url:/assets/logo-simplifier-bh.png}")
+    private String svgLogoUrl = "/assets/logo-simplifier-bh.png";
+
+    private volatile SvgQrWriter svgWriter;
+
+    // Logo PNG en data URI pour les documents SVG autonomes, encodé une seule fois
+    private volatile SvgQrWriter.Logo embeddedSvgLogo;
+
+    private volatile PdfVectorQrPainter pdfVectorPainter;
+
+    private volatile String styleFingerprint;
+
+    // Cache borné des octets PNG par référence et empreinte du style (optionnel)
+    @Autowired(required = false)
+    private QrPngCache pngCache;
+
+    // Logo décodé et redimensionné une seule fois, partagé entre threads
+    @Autowired
+    private LogoAssetCache logoAssetCache;
+
+    // Pool de calcul du rendu (optionnel): acceptation des sinks déportée, écritures sur l'appelant
+    @Autowired(required = false)
+    private QrRenderExecutor renderExecutor;
+
+    // Métriques par étape (Micrometer), absentes hors contexte Spring
+    @Autowired(required = false)
+    private QrMetrics metrics;
+
+    /**
+     * Rend le QR code stylé d'une référence une seule fois et le transmet à chaque sink.
+     *
+     * @param reference Référence pour construire l'URL de vérification
+     * @param sinks Consommateurs du symbole rendu, appelés dans l'ordre
+     * @return Symbole rendu (matrice et image)
+     * @throws WriterException En cas d'erreur d'encodage ZXing
+     * @throws IOException En cas d'erreur d'un sink
+     */
+    public RenderedQr render(String reference, QrOutputSink... sinks) throws WriterException, IOException {
+        return render(reference, List.of(sinks));
+    }
+
+    /**
+     * Rend le QR code stylé d'une référence une seule fois et le transmet à chaque sink.
+     *
+     * Le calcul (encodage, rendu, acceptation par les sinks) s'exécute sur l'exécuteur de
+     * rendu s'il est actif; les écritures des sinks (validation) sur le thread appelant.
+     *
+     * @param reference Référence pour construire l'URL de vérification
+     * @param sinks Consommateurs du symbole rendu, appelés dans l'ordre
+     * @return Symbole rendu (matrice et image)
+     * @throws WriterException En cas d'erreur d'encodage ZXing
+     * @throws IOException En cas d'erreur d'un sink
+     */
+    public RenderedQr render(String reference, List<? extends QrOutputSink> sinks) throws WriterException, IOException {
+        if (reference == null || reference.isBlank()) {
+            throw new IllegalArgumentException("La référence est obligatoire");
+        }
+
+        RenderedQr renderedQr;
+        if (renderExecutor != null && renderExecutor.isEnabled()) {
+            try {
+                renderedQr = renderExecutor.call(() -> produce(reference, sinks));
+            } catch (WriterException | IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Rendu interrompu: " + e.getMessage(), e);
+            }
+        } else {
+            renderedQr = produce(reference, sinks);
+        }
+
+        for (QrOutputSink sink : sinks) {
+            sink.commit(renderedQr);
+        }
+        if (metrics != null) {
+            metrics.recordRender(renderedQr, sinks);
+        }
+
+        logger.debug("QR {} produit{}: {}", reference, renderedQr.isFromCache() ? " (cache)" : "",
+                     renderedQr.describeTimings());
+        return renderedQr;
+    }
+
+    /**
+     * Calcul du rendu: encodage (ou cache PNG), rendu à la demande et acceptation par les sinks.
+     */
+    private RenderedQr produce(String reference, List<? extends QrOutputSink> sinks) throws WriterException, IOException {
+        String verificationUrl = buildVerificationUrl(reference);
+        logger.debug("URL de vérification générée: {}", verificationUrl);
+
+        // Octets PNG déjà produits pour cette référence et ce style: ni encodage ni rendu
+        String cacheKey = pngCache != null && pngCache.isEnabled() ? reference + "|" + getStyleFingerprint() : null;
+        byte[] cachedPng = cacheKey != null ? pngCache.get(cacheKey) : null;
+
+        RenderedQr renderedQr;
+        if (cachedPng != null) {
+            renderedQr = new RenderedQr(reference, verificationUrl, cachedPng,
+                                        () -> encodeUnchecked(verificationUrl), this::renderImage);
+        } else {
+            long start = System.nanoTime();
+            BitMatrix bitMatrix = encode(verificationUrl);
+            long encoded = System.nanoTime();
+
+            // Rastérisation à la demande: seuls les sinks ayant besoin de pixels la déclenchent
+            renderedQr = new RenderedQr(reference, verificationUrl, bitMatrix, this::renderImage, getPngEncoder());
+            renderedQr.recordStage(RenderStage.ZXING_ENCODE, encoded - start);
+        }
+
+        for (QrOutputSink sink : sinks) {
+            sink.accept(renderedQr);
+        }
+
+        // Mise en cache des octets PNG produits par les sinks (pas d'encodage supplémentaire)
+        if (cacheKey != null && !renderedQr.isFromCache() && renderedQr.hasPngBytes()) {
+            pngCache.put(cacheKey, renderedQr.getPngBytes());
+        }
+        return renderedQr;
+    }
+
+    /**
+     * Empreinte de tout ce qui détermine l'image produite pour une référence: couleurs,
+     * URL de vérification, géométrie, logo (octets de la source et URL SVG), moteur de rendu
+     * et encodeur PNG.
+     *
+     * Deux configurations de même empreinte produisent des octets PNG identiques.
+     *
+     * @return Empreinte hexadécimale courte (16 caractères)
+     */
+    public String getStyleFingerprint() {
+        String fingerprint = styleFingerprint;
+        if (fingerprint == null) {
+            String style = String.join("|",
+                primaryBlue, orangeDark, orangeMedium, orangeLight, baseUrl, verificationPath,
+                String.valueOf(BOX_SIZE), String.valueOf(BORDER_SIZE), String.valueOf(LOGO_RADIUS),
+                String.valueOf(LOGO_DISPLAY_SIZE), getMatrixEncoder().describe(), uppercaseHost ? "HOST" : "host",
+                isRasterRenderMode() ? "raster" : "graphics2d",
+                pngEncoderMode, String.valueOf(pngDeflateLevel), pngDeflateStrategy, String.valueOf(pngQuantize),
+                logoAssetCache.getSourceHash(), svgLogoUrl);
+            fingerprint = sha256Hex(style);
+            styleFingerprint = fingerprint;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Encode une référence et prépare son document SVG, écrit ensuite directement dans un flux.
+     *
+     * Aucune image n'est rastérisée ni compressée: les points, finder patterns et logo
+     * sont décrits en vectoriel avec la même géométrie que le rendu PNG.
+     *
+     * @param reference Référence pour construire l'URL de vérification
+     * @param embedLogo true pour embarquer le logo (data URI), false pour le référencer par URL
+     * @return Document SVG prêt à être écrit
+     * @throws WriterException En cas d'erreur d'encodage ZXing
+     * @throws IOException En cas d'erreur d'encodage du logo embarqué
+     */
+    public SvgQrDocument renderSvg(String reference, boolean embedLogo) throws WriterException, IOException {
+        if (reference == null || reference.isBlank()) {
+            throw new IllegalArgumentException("La référence est obligatoire");
+        }
+
+        String verificationUrl = buildVerificationUrl(reference);
+        BitMatrix bitMatrix = encode(verificationUrl);
+        SvgQrWriter.Logo logo = embedLogo ? getEmbeddedSvgLogo() : getReferencedSvgLogo();
+        return new SvgQrDocument(reference, bitMatrix, getSvgWriter(), logo);
+    }
+
+    /**
+     * Construit l'URL de vérification encodée dans le QR code.
+     *
+     * @param reference Référence du document
+     * @return URL complète de vérification
+     */
+    public String buildVerificationUrl(String reference) {
+        return baseUrl + verificationPath + "?ref=" + reference;
+    }
+
+    /**
+     * Encode l'URL en matrice QR brute.
+     *
+     * @param verificationUrl Contenu à encoder
+     * @return Matrice QR sans quiet zone
+     * @throws WriterException En cas d'erreur d'encodage
+     */
+    BitMatrix encode(String verificationUrl) throws WriterException {
+        return getMatrixEncoder().encode(toQrContent(verificationUrl));
+    }
+
+    /**
+     * Contenu effectivement encodé: l'URL, avec schéma et hôte en majuscules si configuré
+     * (RFC 3986: insensibles à la casse), ce qui les rend encodables en mode alphanumérique.
+     * Chemin et référence sont conservés tels quels.
+     */
+    private String toQrContent(String verificationUrl) {
+        if (!uppercaseHost) {
+            return verificationUrl;
+        }
+        int schemeEnd = verificationUrl.indexOf("://");
+        if (schemeEnd < 0) {
+            return verificationUrl;
+        }
+        int hostEnd = verificationUrl.indexOf('/', schemeEnd + 3);
+        if (hostEnd < 0) {
+            hostEnd = verificationUrl.indexOf('?', schemeEnd + 3);
+        }
+        if (hostEnd < 0) {
+            hostEnd = verificationUrl.length();
+        }
+        return verificationUrl.substring(0, hostEnd).toUpperCase(Locale.ROOT) + verificationUrl.substring(hostEnd);
+    }
+
+    /**
+     * Retourne l'encodeur de matrices configuré (hints ZXing construits une seule fois).
+     *
+     * @return Encodeur partagé entre threads
+     */
+    public QrMatrixEncoder getMatrixEncoder() {
+        QrMatrixEncoder encoder = matrixEncoder;
+        if (encoder == null) {
+            boolean mixedSegments = "mixed".equalsIgnoreCase(encodingSegments);
+            VerificationQrEncoder builtin = "builtin".equalsIgnoreCase(encodingEngine)
+                    ? new VerificationQrEncoder(toQrContent(buildVerificationUrl("")), mixedSegments)
+                    : null;
+            EccLevelPolicy eccPolicy = "adaptive".equalsIgnoreCase(eccMode)
+                    ? EccLevelPolicy.forLogo(BOX_SIZE, BORDER_SIZE, LOGO_RADIUS, LOGO_DISPLAY_SIZE, eccMargin)
+                    : EccLevelPolicy.FIXED_H;
+            encoder = new QrMatrixEncoder(pinnedVersion, pinnedMask, builtin, mixedSegments, eccPolicy);
+            if (encoder.isPinned() || builtin != null || mixedSegments || uppercaseHost || !eccPolicy.isFixed()) {
+                logger.info("Encodage QR: {} (moteur {})", encoder.describe(), builtin != null ? "builtin" : "zxing");
+            }
+            matrixEncoder = encoder;
+        }
+        return encoder;
+    }
+
+    /**
+     * Empreinte d'un artefact (image, PDF...) d'une référence pour le style courant,
+     * utilisée pour nommer les fichiers adressés par leur contenu.
+     *
+     * @param reference Référence du document
+     * @param variant Type d'artefact et options qui le distinguent (ex: "png", "pdf-vector")
+     * @return Empreinte hexadécimale courte (16 caractères)
+     */
+    public String getArtifactHash(String reference, String variant) {
+        return sha256Hex(reference + "|" + variant + "|" + getStyleFingerprint());
+    }
+
+    /**
+     * Estimation de la mémoire allouée par le rendu d'une référence, avant tout encodage:
+     * image ARGB de (modules * 10 + 80)² pixels, tampon PNG (au plus un octet par pixel
+     * en couleurs indexées) et, si demandé, chaîne base64 du PNG.
+     *
+     * @param reference Référence du document
+     * @param includeBase64 true si le rendu produit aussi le base64
+     * @return Octets de tas estimés
+     */
+    public long estimateRenderBytes(String reference, boolean includeBase64) {
+        int moduleCount = getMatrixEncoder().estimateModuleCount(toQrContent(buildVerificationUrl(reference)));
+        long side = (long) moduleCount * BOX_SIZE + 2L * BORDER_SIZE;
+        long pixels = side * side;
+        long bytes = pixels * Integer.BYTES + pixels;
+        return includeBase64 ? bytes + (pixels + 2) / 3 * 4 : bytes;
+    }
+
+    /**
+     * Estimation de la mémoire d'un flux rendant les références une à une (archive, planche):
+     * un seul symbole en mémoire à la fois, le plus gros du lot.
+     *
+     * @param references Références du flux
+     * @return Octets de tas estimés
+     */
+    public long estimateSequentialRenderBytes(List<String> references) {
+        long bytes = 0;
+        for (String reference : references) {
+            if (reference != null) {
+                bytes = Math.max(bytes, estimateRenderBytes(reference.trim().toUpperCase(), false));
+            }
+        }
+        return bytes;
+    }
+
+    private static String sha256Hex(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    /**
+     * Encodage d'un contenu déjà encodé avec succès (entrée du cache PNG).
+     */
+    private BitMatrix encodeUnchecked(String verificationUrl) {
+        try {
+            return encode(verificationUrl);
+        } catch (WriterException e) {
+            throw new IllegalStateException("Erreur d'encodage QR: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Génère l'image QR code avec le style visuel exact Boaz-Housing.
+     *
+     * @param bitMatrix Matrice QR brute
+     * @return BufferedImage de l'image QR stylée
+     */
+    BufferedImage renderImage(BitMatrix bitMatrix) {
+        int moduleCount = bitMatrix.getWidth();
+        int totalImageSize = moduleCount * BOX_SIZE + 2 * BORDER_SIZE;
+
+        logger.debug("Matrice QR: {}x{} modules, image finale: {}x{} pixels",
+                    moduleCount, moduleCount, totalImageSize, totalImageSize);
+
+        // Rendu: gabarit pré-composé + écriture directe des pixels, ou Graphics2D historique
+        if (isRasterRenderMode()) {
+            return getRasterRenderer().render(bitMatrix);
+        }
+        return renderWithGraphics2D(bitMatrix, totalImageSize, Color.decode(primaryBlue));
+    }
+
+    /**
+     * Rendu historique via Graphics2D.
+     *
+     * Chaque module actif donne lieu à un setColor puis un fillOval/fillRect antialiasé,
+     * puis le logo central est dessiné. Conservé comme référence visuelle et
+     * sélectionnable via app.render.mode=graphics2d.
+     *
+     * @param bitMatrix Matrice QR brute
+     * @param totalImageSize Taille de l'image en pixels
+     * @param dotColor Couleur des points de données
+     * @return Image QR stylée complète
+     */
+    private BufferedImage renderWithGraphics2D(BitMatrix bitMatrix, int totalImageSize, Color dotColor) {
+        int moduleCount = bitMatrix.getWidth();
+
+        // Création de l'image finale avec antialiasing
+        BufferedImage qrImage = new BufferedImage(totalImageSize, totalImageSize, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = qrImage.createGraphics();
+
+        // Configuration pour qualité maximale du rendu
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+
+        // Fond blanc uniforme
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, totalImageSize, totalImageSize);
+
+        // Préparation des couleurs Boaz-Housing
+        Color cornerDark = Color.decode(orangeDark);
+        Color cornerMedium = Color.decode(orangeMedium);
+        Color cornerLight = Color.decode(orangeLight);
+
+        // Parcours et stylisation de chaque module de la matrice QR
+        for (int row = 0; row < moduleCount; row++) {
+            for (int col = 0; col < moduleCount; col++) {
+                int pixelX = BORDER_SIZE + col * BOX_SIZE;
+                int pixelY = BORDER_SIZE + row * BOX_SIZE;
+
+                // Traitement uniquement des modules "noirs" (actifs) du QR original
+                if (bitMatrix.get(col, row)) {
+                    if (isFinderPattern(row, col, moduleCount)) {
+                        // Finder patterns: remplacement par orange dégradé
+                        Color cornerColor = calculateCornerColor(row, col, moduleCount,
+                                                               cornerDark, cornerMedium, cornerLight);
+                        graphics.setColor(cornerColor);
+                        graphics.fillRect(pixelX, pixelY, BOX_SIZE, BOX_SIZE);
+
+                    } else if (!isLogoZone(row, col, moduleCount)) {
+                        // Points de données: cercles bleus stylisés
+                        graphics.setColor(dotColor);
+                        int centerX = pixelX + BOX_SIZE / 2;
+                        int centerY = pixelY + BOX_SIZE / 2;
+                        int circleRadius = BOX_SIZE / 3;
+                        graphics.fillOval(centerX - circleRadius, centerY - circleRadius,
+                                        circleRadius * 2, circleRadius * 2);
+                    }
+                    // Zone logo: laissée blanche pour intégration du logo
+                }
+            }
+        }
+
+        // Intégration du logo central Boaz-Housing
+        compositeLogo(graphics, totalImageSize, dotColor);
+
+        graphics.dispose();
+        return qrImage;
+    }
+
+    /**
+     * Indique si le rendu raster direct (mode par défaut) est activé.
+     *
+     * @return true sauf si app.render.mode vaut "graphics2d"
+     */
+    private boolean isRasterRenderMode() {
+        return !"graphics2d".equalsIgnoreCase(renderMode);
+    }
+
+    /**
+     * Retourne l'encodeur PNG configuré, construit une seule fois puis partagé entre threads.
+     *
+     * @return Encodeur indexé (par défaut) ou encodeur ImageIO générique
+     */
+    PngEncoder getPngEncoder() {
+        PngEncoder encoder = pngEncoder;
+        if (encoder == null) {
+            if ("imageio".equalsIgnoreCase(pngEncoderMode)) {
+                encoder = new ImageIoPngEncoder();
+            } else {
+                encoder = new IndexedPngEncoder(pngDeflateLevel,
+                        IndexedPngEncoder.parseDeflateStrategy(pngDeflateStrategy), pngQuantize);
+            }
+            pngEncoder = encoder;
+        }
+        return encoder;
+    }
+
+    /**
+     * @return Rendu SVG configuré avec les couleurs Boaz-Housing, partagé entre threads
+     */
+    private SvgQrWriter getSvgWriter() {
+        SvgQrWriter writer = svgWriter;
+        if (writer == null) {
+            writer = new SvgQrWriter(
+                Color.decode(primaryBlue), Color.decode(orangeDark),
+                Color.decode(orangeMedium), Color.decode(orangeLight),
+                BOX_SIZE, BORDER_SIZE, LOGO_RADIUS);
+            svgWriter = writer;
+        }
+        return writer;
+    }
+
+    /**
+     * Logo embarqué dans le document SVG: PNG du logo redimensionné, en data URI.
+     *
+     * @return Logo embarqué, ou null si le logo est indisponible (pastille "BH")
+     * @throws IOException En cas d'erreur d'encodage PNG
+     */
+    private SvgQrWriter.Logo getEmbeddedSvgLogo() throws IOException {
+        SvgQrWriter.Logo logo = embeddedSvgLogo;
+        if (logo == null) {
+            BufferedImage logoImage = logoAssetCache.getLogo(LOGO_DISPLAY_SIZE);
+            if (logoImage == null) {
+                return null;
+            }
+            logo = new SvgQrWriter.Logo(
+                "data:image/png;base64," + Base64.getEncoder().encodeToString(encodeLogoPng(logoImage)),
+                logoImage.getWidth(), logoImage.getHeight());
+            embeddedSvgLogo = logo;
+        }
+        return logo;
+    }
+
+    /**
+     * Retourne le dessin vectoriel PDF configuré, construit une seule fois puis partagé entre threads.
+     *
+     * Le logo y est décodé une seule fois; chaque document n'en contient qu'un XObject.
+     *
+     * @return Dessin vectoriel PDF aux couleurs Boaz-Housing
+     * @throws IOException En cas d'erreur d'encodage du logo
+     */
+    public PdfVectorQrPainter getPdfVectorPainter() throws IOException {
+        PdfVectorQrPainter painter = pdfVectorPainter;
+        if (painter == null) {
+            BufferedImage logoImage = logoAssetCache.getLogo(LOGO_DISPLAY_SIZE);
+            ImageData logo = logoImage != null ? ImageDataFactory.create(encodeLogoPng(logoImage)) : null;
+            painter = new PdfVectorQrPainter(
+                Color.decode(primaryBlue), Color.decode(orangeDark),
+                Color.decode(orangeMedium), Color.decode(orangeLight),
+                BOX_SIZE, BORDER_SIZE, LOGO_RADIUS,
+                logo, logoImage != null ? logoImage.getWidth() : 0, logoImage != null ? logoImage.getHeight() : 0);
+            pdfVectorPainter = painter;
+        }
+        return painter;
+    }
+
+    /**
+     * Encode le logo redimensionné en PNG (avec transparence) pour les sorties vectorielles.
+     */
+    private static byte[] encodeLogoPng(BufferedImage logoImage) throws IOException {
+        // ImageIO n'écrit pas l'ARGB prémultiplié: conversion en ARGB simple
+        BufferedImage argb = new BufferedImage(logoImage.getWidth(), logoImage.getHeight(),
+                                               BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = argb.createGraphics();
+        graphics.drawImage(logoImage, 0, 0, null);
+        graphics.dispose();
+
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(argb, "PNG", png);
+        return png.toByteArray();
+    }
+
+    /**
+     * Logo référencé par URL: document plus léger, l'image étant chargée par le client.
+     *
+     * @return Logo référencé, ou null si le logo est indisponible (pastille "BH")
+     */
+    private SvgQrWriter.Logo getReferencedSvgLogo() {
+        BufferedImage logoImage = logoAssetCache.getLogo(LOGO_DISPLAY_SIZE);
+        if (logoImage == null) {
+            return null;
+        }
+        return new SvgQrWriter.Logo(svgLogoUrl, logoImage.getWidth(), logoImage.getHeight());
+    }
+
+    /**
+     * Retourne le moteur raster, construit une seule fois puis partagé entre threads.
+     *
+     * Le moteur conserve en cache un gabarit pré-composé (fond, finder patterns, logo)
+     * par version QR; le logo y est dessiné une seule fois par version.
+     *
+     * @return Moteur de rendu raster configuré avec les couleurs Boaz-Housing
+     */
+    private RasterModuleRenderer getRasterRenderer() {
+        RasterModuleRenderer renderer = rasterRenderer;
+        if (renderer == null) {
+            Color dotColor = Color.decode(primaryBlue);
+            renderer = new RasterModuleRenderer(
+                dotColor, Color.decode(orangeDark),
+                Color.decode(orangeMedium), Color.decode(orangeLight),
+                BOX_SIZE, BORDER_SIZE, LOGO_RADIUS,
+                (graphics, imageSize) -> compositeLogo(graphics, imageSize, dotColor));
+            rasterRenderer = renderer;
+        }
+        return renderer;
+    }
+
+    /**
+     * Détermine si un module fait partie d'un finder pattern (coin de détection).
+     *
+     * Les finder patterns sont des carrés 7x7 situés aux trois coins:
+     * - Coin supérieur gauche: (0,0)
+     * - Coin supérieur droit: (0, moduleCount-7)
+     * - Coin inférieur gauche: (moduleCount-7, 0)
+     *
+     * @param row Position ligne du module
+     * @param col Position colonne du module
+     * @param moduleCount Taille totale de la matrice
+     * @return true si le module fait partie d'un finder pattern
+     */
+    private boolean isFinderPattern(int row, int col, int moduleCount) {
+        int[][] finderPositions = {
+            {0, 0},                    // Coin supérieur gauche
+            {0, moduleCount - 7},      // Coin supérieur droit
+            {moduleCount - 7, 0}       // Coin inférieur gauche
+        };
+
+        for (int[] position : finderPositions) {
+            int startRow = position[0];
+            int startCol = position[1];
+
+            if (startRow <= row && row < startRow + 7 &&
+                startCol <= col && col < startCol + 7) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Vérifie si un module se trouve dans la zone réservée au logo central.
+     *
+     * La zone logo est un carré centré de rayon LOGO_RADIUS modules.
+     * Cette zone reste blanche pour permettre l'intégration du logo.
+     *
+     * @param row Position ligne du module
+     * @param col Position colonne du module
+     * @param moduleCount Taille totale de la matrice
+     * @return true si le module est dans la zone logo
+     */
+    private boolean isLogoZone(int row, int col, int moduleCount) {
+        int center = moduleCount / 2;
+        return Math.abs(row - center) <= LOGO_RADIUS &&
+               Math.abs(col - center) <= LOGO_RADIUS;
+    }
+
+    /**
+     * Calcule la couleur orange à appliquer selon la position dans le finder pattern.
+     *
+     * Applique un dégradé radial du centre vers l'extérieur:
+     * - Centre (distance <= 1): Orange foncé
+     * - Milieu (distance <= 2): Orange moyen
+     * - Bordure (distance > 2): Orange clair
+     *
+     * @param row Position ligne globale du module
+     * @param col Position colonne globale du module
+     * @param moduleCount Taille totale de la matrice
+     * @param darkColor Couleur orange foncée (centre)
+     * @param mediumColor Couleur orange moyenne (milieu)
+     * @param lightColor Couleur orange claire (bordure)
+     * @return Color à appliquer pour ce module
+     */
+    private Color calculateCornerColor(int row, int col, int moduleCount,
+                                     Color darkColor, Color mediumColor, Color lightColor) {
+        // Détermination du finder pattern et position locale dans ce pattern
+        int localRow = 0, localCol = 0;
+
+        int[][] finderPositions = {
+            {0, 0},
+            {0, moduleCount - 7},
+            {moduleCount - 7, 0}
+        };
+
+        for (int[] position : finderPositions) {
+            int startRow = position[0];
+            int startCol = position[1];
+
+            if (startRow <= row && row < startRow + 7 &&
+                startCol <= col && col < startCol + 7) {
+                localRow = row - startRow;
+                localCol = col - startCol;
+                break;
+            }
+        }
+
+        // Calcul de la distance au centre du finder pattern (position 3,3)
+        int distanceFromCenter = Math.max(Math.abs(localRow - 3), Math.abs(localCol - 3));
+
+        // Application du dégradé selon la distance
+        if (distanceFromCenter <= 1) {
+            return darkColor;    // Centre: Orange foncé
+        } else if (distanceFromCenter <= 2) {
+            return mediumColor;  // Milieu: Orange moyen
+        } else {
+            return lightColor;   // Bordure: Orange clair
+        }
+    }
+
+    /**
+     * Composition du logo central, chronométrée (étape LOGO_COMPOSITE des métriques):
+     * à chaque rendu en mode graphics2d, une fois par gabarit de version en mode raster.
+     */
+    private void compositeLogo(Graphics2D graphics, int imageSize, Color borderColor) {
+        long start = System.nanoTime();
+        addCentralLogo(graphics, imageSize, borderColor);
+        if (metrics != null) {
+            metrics.recordStage(RenderStage.LOGO_COMPOSITE, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Ajoute le logo central Boaz-Housing sur l'image QR.
+     *
+     * Récupère le logo depuis le LogoAssetCache et l'intègre avec:
+     * - Redimensionnement proportionnel (effectué une seule fois par le cache)
+     * - Fond blanc circulaire minimal
+     * - Bordure subtile de la couleur des points
+     * - Fallback texte "BH" si logo indisponible
+     *
+     * @param graphics Contexte graphique de l'image QR
+     * @param imageSize Taille totale de l'image en pixels
+     * @param borderColor Couleur pour la bordure du logo
+     */
+    private void addCentralLogo(Graphics2D graphics, int imageSize, Color borderColor) {
+        int centerX = imageSize / 2;
+        int centerY = imageSize / 2;
+
+        // Logo pré-redimensionné depuis le cache partagé (null si indisponible)
+        BufferedImage logoImage = logoAssetCache.getLogo(LOGO_DISPLAY_SIZE);
+
+        if (logoImage != null) {
+            int newWidth = logoImage.getWidth();
+            int newHeight = logoImage.getHeight();
+
+            // Fond blanc circulaire optimisé pour le logo
+            int backgroundRadius = Math.min(newWidth, newHeight) / 2 - 25;
+
+            // Dessin du fond blanc avec bordure
+            graphics.setColor(Color.WHITE);
+            graphics.fillOval(centerX - backgroundRadius, centerY - backgroundRadius,
+                            backgroundRadius * 2, backgroundRadius * 2);
+            graphics.setColor(borderColor);
+            graphics.setStroke(new BasicStroke(1));
+            graphics.drawOval(centerX - backgroundRadius, centerY - backgroundRadius,
+                            backgroundRadius * 2, backgroundRadius * 2);
+
+            // Centrage et dessin du logo redimensionné
+            int logoX = centerX - newWidth / 2;
+            int logoY = centerY - newHeight / 2;
+            graphics.drawImage(logoImage, logoX, logoY, null);
+
+            logger.debug("Logo Boaz-Housing intégré avec succès ({}x{})", newWidth, newHeight);
+            return;
+        }
+
+        // Fallback: affichage "BH" si logo indisponible
+        drawFallbackLogo(graphics, centerX, centerY, borderColor);
+    }
+
+    /**
+     * Dessine un logo de secours "BH" si le logo principal est indisponible.
+     *
+     * @param graphics Contexte graphique
+     * @param centerX Position X du centre
+     * @param centerY Position Y du centre
+     * @param textColor Couleur du texte et bordure
+     */
+    private void drawFallbackLogo(Graphics2D graphics, int centerX, int centerY, Color textColor) {
+        int fallbackRadius = 25;
+
+        // Fond blanc circulaire
+        graphics.setColor(Color.WHITE);
+        graphics.fillOval(centerX - fallbackRadius, centerY - fallbackRadius,
+                         fallbackRadius * 2, fallbackRadius * 2);
+
+        // Bordure colorée
+        graphics.setColor(textColor);
+        graphics.setStroke(new BasicStroke(2));
+        graphics.drawOval(centerX - fallbackRadius, centerY - fallbackRadius,
+                         fallbackRadius * 2, fallbackRadius * 2);
+
+        // Texte "BH" centré
+        graphics.setFont(new Font("Arial", Font.BOLD, 16));
+        FontMetrics fontMetrics = graphics.getFontMetrics();
+        String fallbackText = "BH";
+        int textX = centerX - fontMetrics.stringWidth(fallbackText) / 2;
+        int textY = centerY + fontMetrics.getAscent() / 2;
+        graphics.drawString(fallbackText, textX, textY);
+
+        logger.info("Logo fallback 'BH' appliqué avec succès");
+    }
+}
@@ -0,0 +1,130 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Écriture atomique des fichiers générés.
+ *
+ * Le contenu est d'abord écrit dans un fichier temporaire du même répertoire, puis
+ * déplacé à son nom définitif: un lecteur concurrent (ex: /images/{filename}, ou une
+ * requête réutilisant un fichier adressé par contenu) ne voit jamais de fichier partiel.
+ *
+ * Les variantes durables (file de tâches) forcent en plus le contenu sur disque avant le
+ * déplacement, puis le répertoire après: après une coupure, le fichier est soit absent
+ * (ancienne version), soit complet, jamais vide.
+ */
+public final class AtomicFiles {
+
+    private AtomicFiles() {
+    }
+
+    /**
+     * @param target Fichier définitif
+     * @return Fichier temporaire voisin, à remplir puis passer à {@link #moveIntoPlace}
+     * @throws IOException En cas d'erreur de création du répertoire ou du fichier
+     */
+    public static Path createTempSibling(Path target) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (!Files.exists(parent)) {
+            Files.createDirectories(parent);
+        }
+        return Files.createTempFile(parent, "." + target.getFileName(), ".tmp");
+    }
+
+    /**
+     * Déplace le fichier temporaire à son nom définitif (remplace un éventuel fichier existant).
+     *
+     * @param temp Fichier temporaire complet
+     * @param target Fichier définitif
+     * @throws IOException En cas d'erreur de déplacement
+     */
+    public static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Écrit des octets de façon atomique.
+     *
+     * @param target Fichier définitif
+     * @param bytes Contenu
+     * @throws IOException En cas d'erreur d'écriture
+     */
+    public static void write(Path target, byte[] bytes) throws IOException {
+        Path temp = createTempSibling(target);
+        try {
+            Files.write(temp, bytes);
+            moveIntoPlace(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Écrit des octets de façon atomique et durable (contenu et répertoire forcés sur disque).
+     *
+     * @param target Fichier définitif
+     * @param bytes Contenu
+     * @throws IOException En cas d'erreur d'écriture
+     */
+    public static void writeDurably(Path target, byte[] bytes) throws IOException {
+        Path temp = createTempSibling(target);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            moveIntoPlace(temp, target);
+            syncDirectory(target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Déplace de façon durable un fichier temporaire complet et fermé à son nom définitif.
+     *
+     * @param temp Fichier temporaire complet
+     * @param target Fichier définitif
+     * @throws IOException En cas d'erreur de synchronisation ou de déplacement
+     */
+    public static void moveIntoPlaceDurably(Path temp, Path target) throws IOException {
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        moveIntoPlace(temp, target);
+        syncDirectory(target);
+    }
+
+    /**
+     * Force sur disque l'entrée de répertoire du fichier (renommage). Sans effet sur les
+     * systèmes qui n'ouvrent pas les répertoires (Windows).
+     */
+    private static void syncDirectory(Path target) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(parent, StandardOpenOption.READ);
+        } catch (IOException e) {
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * Sink convertissant le symbole rendu en PNG encodé base64 (sans préfixe data:image).
+ *
+ * La conversion part des octets PNG partagés du {@link RenderedQr}: aucune
+ * compression PNG supplémentaire n'est effectuée.
+ */
+public class Base64Sink implements QrOutputSink {
+
+    private String base64Image;
+
+    @Override
+    public void accept(RenderedQr renderedQr) throws IOException {
+        byte[] pngBytes = renderedQr.getPngBytes();
+
+        long start = System.nanoTime();
+        base64Image = Base64.getEncoder().encodeToString(pngBytes);
+        renderedQr.recordStage(RenderStage.BASE64, System.nanoTime() - start);
+    }
+
+    /** @return Image encodée en base64 (null avant rendu) */
+    public String getBase64Image() { return base64Image; }
+}
@@ -0,0 +1,190 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.decoder.Version;
+
+import java.util.Arrays;
+
+/**
+ * Niveau de correction d'erreurs du symbole QR, par version.
+ *
+ * Niveau fixe: le même niveau pour toutes les versions (H par défaut, 30% de récupération).
+ *
+ * Niveau adaptatif au logo: pour chaque version, le niveau le plus faible (L, M, Q puis H) dont
+ * la correction couvre encore les mots de code masqués par le logo central, avec une marge de
+ * sécurité. Un mot de code est masqué dès qu'un de ses modules l'est: module de la zone sans
+ * points (rayon du logo en modules) ou recouvert par le carré d'affichage du logo. Les
+ * décodeurs ne connaissant pas la position des modules masqués, ils sont comptés comme
+ * erreurs: au plus (mots de correction du bloc - protection contre les faux décodages) / 2
+ * par bloc, réduit de la marge. Si aucun niveau ne convient, H est conservé.
+ *
+ * Le niveau plus faible laisse plus de place aux données: la version retenue pour un contenu
+ * peut être plus petite qu'en niveau H. Les instances sont immuables et partagées entre threads.
+ */
+public final class EccLevelPolicy {
+
+    /** Niveau H pour toutes les versions (comportement historique). */
+    public static final EccLevelPolicy FIXED_H = fixed(ErrorCorrectionLevel.H);
+
+    private static final int MAX_VERSION = 40;
+    // Du plus faible au plus fort: plus de données, moins de correction
+    private static final ErrorCorrectionLevel[] LEVELS = {
+            ErrorCorrectionLevel.L, ErrorCorrectionLevel.M, ErrorCorrectionLevel.Q, ErrorCorrectionLevel.H,
+    };
+
+    // Index = version (0 inutilisé)
+    private final ErrorCorrectionLevel[] levels;
+    private final boolean fixed;
+    private final String description;
+
+    private EccLevelPolicy(ErrorCorrectionLevel[] levels, boolean fixed, String description) {
+        this.levels = levels;
+        this.fixed = fixed;
+        this.description = description;
+    }
+
+    /**
+     * @param level Niveau de correction de toutes les versions
+     * @return Politique à niveau fixe
+     */
+    public static EccLevelPolicy fixed(ErrorCorrectionLevel level) {
+        ErrorCorrectionLevel[] levels = new ErrorCorrectionLevel[MAX_VERSION + 1];
+        Arrays.fill(levels, level);
+        return new EccLevelPolicy(levels, true, level.name());
+    }
+
+    /**
+     * Politique adaptée au logo central, géométrie du rendu (pixels).
+     *
+     * @param boxSize Taille d'un module en pixels
+     * @param borderSize Bordure blanche autour du symbole en pixels
+     * @param logoRadius Demi-côté de la zone sans points au centre, en modules
+     * @param logoSize Côté du carré d'affichage du logo en pixels
+     * @param safetyMargin Part de la capacité de correction laissée libre (0 à 1) pour les
+     *                     autres dégradations (impression, reflets, flou)
+     * @return Politique adaptative
+     */
+    public static EccLevelPolicy forLogo(int boxSize, int borderSize, int logoRadius, int logoSize,
+                                         double safetyMargin) {
+        if (safetyMargin < 0 || safetyMargin >= 1) {
+            throw new IllegalArgumentException("Marge de sécurité invalide: " + safetyMargin);
+        }
+        ErrorCorrectionLevel[] levels = new ErrorCorrectionLevel[MAX_VERSION + 1];
+        for (int version = 1; version <= MAX_VERSION; version++) {
+            boolean[] hidden = hiddenModules(version, boxSize, borderSize, logoRadius, logoSize);
+            levels[version] = ErrorCorrectionLevel.H;
+            for (ErrorCorrectionLevel level : LEVELS) {
+                if (maxHiddenPerBlock(version, level, hidden) <= correctable(version, level, safetyMargin)) {
+                    levels[version] = level;
+                    break;
+                }
+            }
+        }
+        return new EccLevelPolicy(levels, false, "adaptive-" + Math.round(safetyMargin * 100));
+    }
+
+    /**
+     * @param version Version du symbole (1 à 40)
+     * @return Niveau de correction à utiliser pour cette version
+     */
+    public ErrorCorrectionLevel levelFor(int version) {
+        return levels[version];
+    }
+
+    /** @return true si toutes les versions ont le même niveau */
+    public boolean isFixed() {
+        return fixed;
+    }
+
+    /** @return Description de la politique, incluse dans l'empreinte du style */
+    public String describe() {
+        return description;
+    }
+
+    /**
+     * Modules masqués par le logo: zone centrale sans points et modules dont le carré de pixels
+     * touche le carré d'affichage du logo (centré comme dans le rendu).
+     */
+    private static boolean[] hiddenModules(int version, int boxSize, int borderSize, int logoRadius, int logoSize) {
+        int size = 17 + 4 * version;
+        int center = size / 2;
+        int imageCenter = (size * boxSize + 2 * borderSize) / 2;
+        int logoStart = imageCenter - logoSize / 2;
+        int logoEnd = logoStart + logoSize;
+
+        boolean[] hidden = new boolean[size * size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                boolean dotZone = Math.abs(y - center) <= logoRadius && Math.abs(x - center) <= logoRadius;
+                boolean underLogo = overlaps(borderSize + x * boxSize, boxSize, logoStart, logoEnd)
+                        && overlaps(borderSize + y * boxSize, boxSize, logoStart, logoEnd);
+                hidden[y * size + x] = dotZone || underLogo;
+            }
+        }
+        return hidden;
+    }
+
+    private static boolean overlaps(int start, int length, int rangeStart, int rangeEnd) {
+        return start < rangeEnd && start + length > rangeStart;
+    }
+
+    /**
+     * Plus grand nombre de mots de code masqués dans un même bloc Reed-Solomon
+     * (entrelacement et placement ZXing).
+     */
+    private static int maxHiddenPerBlock(int version, ErrorCorrectionLevel level, boolean[] hidden) {
+        Version zxingVersion = Version.getVersionForNumber(version);
+        Version.ECBlocks ecBlocks = zxingVersion.getECBlocksForLevel(level);
+        int totalCodewords = zxingVersion.getTotalCodewords();
+        int numBlocks = ecBlocks.getNumBlocks();
+        int numDataBytes = totalCodewords - ecBlocks.getTotalECCodewords();
+        int group1Blocks = numBlocks - totalCodewords % numBlocks;
+        int group1DataBytes = numDataBytes / numBlocks;
+
+        int[] order = VerificationQrEncoder.dataModuleOrder(version);
+        int[] hiddenPerBlock = new int[numBlocks];
+        for (int codeword = 0; codeword < totalCodewords; codeword++) {
+            boolean masked = false;
+            for (int bit = 0; bit < 8 && !masked; bit++) {
+                masked = hidden[order[codeword * 8 + bit]];
+            }
+            if (!masked) {
+                continue;
+            }
+            int block;
+            if (codeword >= numDataBytes) {
+                block = (codeword - numDataBytes) % numBlocks;
+            } else if (codeword < group1DataBytes * numBlocks) {
+                block = codeword % numBlocks;
+            } else {
+                block = group1Blocks + (codeword - group1DataBytes * numBlocks);
+            }
+            hiddenPerBlock[block]++;
+        }
+        return Arrays.stream(hiddenPerBlock).max().orElse(0);
+    }
+
+    /**
+     * Erreurs corrigibles par bloc, réduites de la marge de sécurité.
+     */
+    private static int correctable(int version, ErrorCorrectionLevel level, double safetyMargin) {
+        int ecPerBlock = Version.getVersionForNumber(version).getECBlocksForLevel(level).getECCodewordsPerBlock();
+        return (int) Math.floor((ecPerBlock - misdecodeProtection(version, level)) / 2 * (1 - safetyMargin));
+    }
+
+    /**
+     * Mots de correction réservés à la détection des faux décodages (ISO/IEC 18004, petites versions).
+     */
+    private static int misdecodeProtection(int version, ErrorCorrectionLevel level) {
+        if (version == 1) {
+            return level == ErrorCorrectionLevel.L ? 3 : level == ErrorCorrectionLevel.M ? 2 : 1;
+        }
+        if (version == 2) {
+            return level == ErrorCorrectionLevel.L ? 2 : 0;
+        }
+        if (version == 3) {
+            return level == ErrorCorrectionLevel.L ? 1 : 0;
+        }
+        return 0;
+    }
+}
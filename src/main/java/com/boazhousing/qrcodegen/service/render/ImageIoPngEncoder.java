@@ -0,0 +1,21 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Encodeur PNG générique basé sur ImageIO (PNG 24 bits).
+ */
+public class ImageIoPngEncoder implements PngEncoder {
+
+    @Override
+    public byte[] encode(BufferedImage image) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(64 * 1024);
+        if (!ImageIO.write(image, "PNG", outputStream)) {
+            throw new IOException("Aucun encodeur PNG disponible");
+        }
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,401 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Encodeur PNG spécialisé pour le style Boaz-Housing: couleurs indexées, petite palette.
+ *
+ * Un QR code stylé ne contient que le blanc, le bleu des points, les trois oranges des
+ * finder patterns et quelques centaines de nuances d'antialiasing (bords des points et du logo).
+ * Plutôt que le PNG 24 bits générique d'ImageIO, cet encodeur:
+ * - construit la palette en un seul passage (table de hachage à adressage ouvert, sans boxing)
+ * - écrit une image indexée (1, 2, 4 ou 8 bits par pixel selon la taille de palette)
+ * - utilise des filtres de lignes fixés à l'avance plutôt qu'un choix adaptatif ligne à ligne:
+ *   aucun filtre pour l'indexé (recommandation PNG), filtre Up pour le truecolor
+ * - applique le niveau et la stratégie deflate configurés
+ *
+ * Au-delà de 256 couleurs, les nuances les plus rares (antialiasing du logo) sont ramenées
+ * à la couleur la plus proche de la palette si la quantification est activée; sinon,
+ * l'image est encodée en truecolor sans perte. Les images avec canal alpha sont déléguées
+ * à l'encodeur ImageIO.
+ *
+ * Les instances sont sans état mutable et partagées entre threads.
+ */
+public class IndexedPngEncoder implements PngEncoder {
+
+    private static final byte[] PNG_SIGNATURE = {
+        (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'
+    };
+
+    private static final int COLOR_TYPE_TRUECOLOR = 2;
+    private static final int COLOR_TYPE_INDEXED = 3;
+
+    private static final int FILTER_NONE = 0;
+    private static final int FILTER_UP = 2;
+
+    private static final int MAX_PALETTE_SIZE = 256;
+
+    // Au-delà, l'image n'est plus une image "à petite palette": encodage truecolor direct
+    private static final int MAX_DISTINCT_COLORS = 4096;
+
+    private final int deflateLevel;
+    private final int deflateStrategy;
+    private final boolean quantize;
+    private final PngEncoder alphaFallback = new ImageIoPngEncoder();
+
+    /**
+     * @param deflateLevel Niveau de compression deflate (0 à 9)
+     * @param deflateStrategy Stratégie deflate ({@link Deflater#DEFAULT_STRATEGY}, ...)
+     * @param quantize true pour ramener les images de plus de 256 couleurs à une palette
+     */
+    public IndexedPngEncoder(int deflateLevel, int deflateStrategy, boolean quantize) {
+        if (deflateLevel < Deflater.NO_COMPRESSION || deflateLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Niveau deflate invalide: " + deflateLevel);
+        }
+        this.deflateLevel = deflateLevel;
+        this.deflateStrategy = deflateStrategy;
+        this.quantize = quantize;
+    }
+
+    /**
+     * Convertit le nom de stratégie deflate de la configuration.
+     *
+     * @param name default, filtered ou huffman-only
+     * @return Constante {@link Deflater} correspondante
+     */
+    public static int parseDeflateStrategy(String name) {
+        if (name == null || name.isBlank() || "default".equalsIgnoreCase(name)) {
+            return Deflater.DEFAULT_STRATEGY;
+        }
+        if ("filtered".equalsIgnoreCase(name)) {
+            return Deflater.FILTERED;
+        }
+        if ("huffman-only".equalsIgnoreCase(name)) {
+            return Deflater.HUFFMAN_ONLY;
+        }
+        throw new IllegalArgumentException("Stratégie deflate inconnue: " + name);
+    }
+
+    @Override
+    public byte[] encode(BufferedImage image) throws IOException {
+        if (image.getColorModel().hasAlpha()) {
+            return alphaFallback.encode(image);
+        }
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = rgbPixels(image);
+
+        ColorTable colors = ColorTable.build(pixels, MAX_DISTINCT_COLORS);
+        if (colors == null || (colors.size() > MAX_PALETTE_SIZE && !quantize)) {
+            return encodeTruecolor(pixels, width, height);
+        }
+        return encodeIndexed(pixels, width, height, colors);
+    }
+
+    /**
+     * Encode l'image en couleurs indexées.
+     */
+    private byte[] encodeIndexed(int[] pixels, int width, int height, ColorTable colors) throws IOException {
+        int[] palette = colors.buildPalette(MAX_PALETTE_SIZE);
+        int paletteSize = palette.length;
+        int bitDepth = paletteSize <= 2 ? 1 : paletteSize <= 4 ? 2 : paletteSize <= 16 ? 4 : 8;
+        int pixelsPerByte = 8 / bitDepth;
+        int rowBytes = (width * bitDepth + 7) / 8;
+
+        byte[] paletteChunk = new byte[paletteSize * 3];
+        for (int i = 0; i < paletteSize; i++) {
+            paletteChunk[i * 3] = (byte) (palette[i] >> 16);
+            paletteChunk[i * 3 + 1] = (byte) (palette[i] >> 8);
+            paletteChunk[i * 3 + 2] = (byte) palette[i];
+        }
+
+        byte[] row = new byte[1 + rowBytes];
+        row[0] = FILTER_NONE;
+        ByteArrayOutputStream imageData = new ByteArrayOutputStream(pixels.length / 8);
+        Deflater deflater = newDeflater();
+        try (DeflaterOutputStream deflated = new DeflaterOutputStream(imageData, deflater, 16 * 1024)) {
+            int lastColor = -1;
+            int lastIndex = 0;
+            for (int y = 0; y < height; y++) {
+                Arrays.fill(row, 1, row.length, (byte) 0);
+                int offset = y * width;
+                for (int x = 0; x < width; x++) {
+                    // Les pixels identiques se suivent en longues séries: cache de la dernière couleur
+                    int color = pixels[offset + x];
+                    if (color != lastColor) {
+                        lastColor = color;
+                        lastIndex = colors.paletteIndexOf(color);
+                    }
+                    if (bitDepth == 8) {
+                        row[1 + x] = (byte) lastIndex;
+                    } else {
+                        int shift = 8 - bitDepth * (x % pixelsPerByte + 1);
+                        row[1 + x / pixelsPerByte] |= (byte) (lastIndex << shift);
+                    }
+                }
+                deflated.write(row);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        return writePng(width, height, bitDepth, COLOR_TYPE_INDEXED, paletteChunk, imageData);
+    }
+
+    /**
+     * Encode l'image en truecolor 24 bits sans perte (filtre Up sur chaque ligne).
+     */
+    private byte[] encodeTruecolor(int[] pixels, int width, int height) throws IOException {
+        int rowBytes = width * 3;
+        byte[] previous = new byte[rowBytes];
+        byte[] current = new byte[rowBytes];
+        byte[] filtered = new byte[1 + rowBytes];
+        filtered[0] = FILTER_UP;
+
+        ByteArrayOutputStream imageData = new ByteArrayOutputStream(pixels.length);
+        Deflater deflater = newDeflater();
+        try (DeflaterOutputStream deflated = new DeflaterOutputStream(imageData, deflater, 16 * 1024)) {
+            for (int y = 0; y < height; y++) {
+                int offset = y * width;
+                for (int x = 0, j = 0; x < width; x++) {
+                    int pixel = pixels[offset + x];
+                    current[j++] = (byte) (pixel >> 16);
+                    current[j++] = (byte) (pixel >> 8);
+                    current[j++] = (byte) pixel;
+                }
+                for (int i = 0; i < rowBytes; i++) {
+                    filtered[1 + i] = (byte) (current[i] - previous[i]);
+                }
+                deflated.write(filtered);
+
+                byte[] swap = previous;
+                previous = current;
+                current = swap;
+            }
+        } finally {
+            deflater.end();
+        }
+
+        return writePng(width, height, 8, COLOR_TYPE_TRUECOLOR, null, imageData);
+    }
+
+    private Deflater newDeflater() {
+        Deflater deflater = new Deflater(deflateLevel);
+        deflater.setStrategy(deflateStrategy);
+        return deflater;
+    }
+
+    /**
+     * Assemble le fichier PNG: signature, IHDR, PLTE éventuel, IDAT et IEND.
+     */
+    private static byte[] writePng(int width, int height, int bitDepth, int colorType,
+                                   byte[] palette, ByteArrayOutputStream imageData) throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream(imageData.size() + 1024);
+        png.write(PNG_SIGNATURE);
+
+        byte[] header = new byte[13];
+        writeInt(header, 0, width);
+        writeInt(header, 4, height);
+        header[8] = (byte) bitDepth;
+        header[9] = (byte) colorType;
+        // header[10..12]: compression deflate, filtrage standard, sans entrelacement
+        writeChunk(png, "IHDR", header, header.length);
+
+        if (palette != null) {
+            writeChunk(png, "PLTE", palette, palette.length);
+        }
+        writeChunk(png, "IDAT", imageData.toByteArray(), imageData.size());
+        writeChunk(png, "IEND", new byte[0], 0);
+        return png.toByteArray();
+    }
+
+    private static void writeChunk(ByteArrayOutputStream png, String type, byte[] data, int length) {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        byte[] lengthBytes = new byte[4];
+        writeInt(lengthBytes, 0, length);
+        png.write(lengthBytes, 0, 4);
+        png.write(typeBytes, 0, 4);
+        png.write(data, 0, length);
+
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        byte[] crcBytes = new byte[4];
+        writeInt(crcBytes, 0, (int) crc.getValue());
+        png.write(crcBytes, 0, 4);
+    }
+
+    private static void writeInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+
+    /**
+     * @return Pixels RGB (sans octet de poids fort) de l'image, ligne par ligne
+     */
+    private static int[] rgbPixels(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels;
+        if (image.getType() == BufferedImage.TYPE_INT_RGB
+                && image.getRaster().getDataBuffer() instanceof DataBufferInt dataBuffer
+                && image.getRaster().getParent() == null) {
+            // Chemin rapide: copie directe du tableau de pixels
+            pixels = Arrays.copyOf(dataBuffer.getData(), width * height);
+        } else {
+            pixels = image.getRGB(0, 0, width, height, null, 0, width);
+        }
+        // TYPE_INT_RGB ne garantit pas la valeur de l'octet de poids fort
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] &= 0xffffff;
+        }
+        return pixels;
+    }
+
+    /**
+     * Table des couleurs distinctes d'une image et de leur nombre d'occurrences,
+     * puis correspondance couleur vers index de palette.
+     */
+    private static final class ColorTable {
+
+        private static final int EMPTY = -1;
+
+        private final int[] keys;
+        private final int[] slotToColor;
+        private final int mask;
+        private int[] colors;
+        private int[] counts;
+        private int[] colorToPaletteIndex;
+        private int size;
+
+        private ColorTable(int capacity) {
+            keys = new int[capacity];
+            slotToColor = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            mask = capacity - 1;
+            colors = new int[64];
+            counts = new int[64];
+        }
+
+        /**
+         * @return Table des couleurs, ou null si l'image dépasse maxColors couleurs distinctes
+         */
+        static ColorTable build(int[] pixels, int maxColors) {
+            ColorTable table = new ColorTable(Integer.highestOneBit(maxColors) * 4);
+            int lastColor = EMPTY;
+            int lastId = 0;
+            for (int pixel : pixels) {
+                if (pixel != lastColor) {
+                    lastColor = pixel;
+                    lastId = table.idOf(pixel, true);
+                    if (table.size > maxColors) {
+                        return null;
+                    }
+                }
+                table.counts[lastId]++;
+            }
+            return table;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Construit la palette. Si les couleurs sont trop nombreuses, les plus fréquentes sont
+         * conservées telles quelles et les autres associées à la plus proche d'entre elles.
+         *
+         * @return Couleurs RGB de la palette
+         */
+        int[] buildPalette(int maxPaletteSize) {
+            colorToPaletteIndex = new int[size];
+            if (size <= maxPaletteSize) {
+                for (int i = 0; i < size; i++) {
+                    colorToPaletteIndex[i] = i;
+                }
+                return Arrays.copyOf(colors, size);
+            }
+
+            // Tri des couleurs par fréquence décroissante
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(counts[b], counts[a]));
+
+            int[] palette = new int[maxPaletteSize];
+            Arrays.fill(colorToPaletteIndex, -1);
+            for (int i = 0; i < maxPaletteSize; i++) {
+                palette[i] = colors[order[i]];
+                colorToPaletteIndex[order[i]] = i;
+            }
+            for (int i = maxPaletteSize; i < size; i++) {
+                colorToPaletteIndex[order[i]] = nearest(palette, colors[order[i]]);
+            }
+            return palette;
+        }
+
+        int paletteIndexOf(int color) {
+            return colorToPaletteIndex[idOf(color, false)];
+        }
+
+        private int idOf(int color, boolean insert) {
+            int slot = mix(color) & mask;
+            while (true) {
+                int key = keys[slot];
+                if (key == color) {
+                    return slotToColor[slot];
+                }
+                if (key == EMPTY) {
+                    if (!insert) {
+                        throw new IllegalStateException("Couleur absente de la table: " + color);
+                    }
+                    if (size == colors.length) {
+                        colors = Arrays.copyOf(colors, size * 2);
+                        counts = Arrays.copyOf(counts, size * 2);
+                    }
+                    keys[slot] = color;
+                    slotToColor[slot] = size;
+                    colors[size] = color;
+                    return size++;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private static int mix(int color) {
+            int h = color * 0x9e3779b9;
+            return h ^ (h >>> 16);
+        }
+
+        private static int nearest(int[] palette, int color) {
+            int red = (color >> 16) & 0xff;
+            int green = (color >> 8) & 0xff;
+            int blue = color & 0xff;
+            int best = 0;
+            int bestDistance = Integer.MAX_VALUE;
+            for (int i = 0; i < palette.length; i++) {
+                int dr = red - ((palette[i] >> 16) & 0xff);
+                int dg = green - ((palette[i] >> 8) & 0xff);
+                int db = blue - (palette[i] & 0xff);
+                int distance = dr * dr + dg * dg + db * db;
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    best = i;
+                }
+            }
+            return best;
+        }
+    }
+}
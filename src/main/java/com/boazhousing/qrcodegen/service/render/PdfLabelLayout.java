@@ -0,0 +1,141 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Rectangle;
+
+import java.util.Locale;
+
+/**
+ * Grille d'étiquettes d'une planche PDF: format de page, colonnes, lignes, marges et
+ * espacement entre étiquettes. Les dimensions sont exprimées en points PDF (1/72 pouce).
+ *
+ * Chaque étiquette reçoit un QR code carré, le plus grand possible dans la cellule, et
+ * optionnellement la référence imprimée sous le symbole. Les instances sont immuables.
+ */
+public final class PdfLabelLayout {
+
+    private static final float POINTS_PER_MM = 72f / 25.4f;
+    private static final float MIN_QR_SIZE_MM = 10;
+    private static final int MAX_LABELS_PER_PAGE = 200;
+
+    private final String pageName;
+    private final PageSize pageSize;
+    private final int columns;
+    private final int rows;
+    private final float margin;
+    private final float gap;
+    private final boolean showReference;
+
+    // Géométrie d'une cellule, calculée une fois
+    private final float cellWidth;
+    private final float cellHeight;
+    private final float fontSize;
+    private final float qrSize;
+
+    private PdfLabelLayout(String pageName, PageSize pageSize, int columns, int rows, float margin, float gap,
+                           boolean showReference) {
+        this.pageName = pageName;
+        this.pageSize = pageSize;
+        this.columns = columns;
+        this.rows = rows;
+        this.margin = margin;
+        this.gap = gap;
+        this.showReference = showReference;
+
+        this.cellWidth = (pageSize.getWidth() - 2 * margin - (columns - 1) * gap) / columns;
+        this.cellHeight = (pageSize.getHeight() - 2 * margin - (rows - 1) * gap) / rows;
+        this.fontSize = showReference ? Math.max(5, Math.min(10, cellWidth / 14)) : 0;
+        float captionHeight = showReference ? fontSize * 1.6f : 0;
+        this.qrSize = Math.min(cellWidth, cellHeight - captionHeight);
+    }
+
+    /**
+     * @param pageName Format de page: A4, A3, A5 ou LETTER
+     * @param columns Étiquettes par ligne
+     * @param rows Lignes d'étiquettes par page
+     * @param marginMm Marge de la page en millimètres
+     * @param gapMm Espacement entre étiquettes en millimètres
+     * @param showReference true pour imprimer la référence sous chaque QR code
+     * @return Grille validée
+     * @throws IllegalArgumentException Si le format est inconnu ou si les étiquettes sont trop petites
+     */
+    public static PdfLabelLayout of(String pageName, int columns, int rows, float marginMm, float gapMm,
+                                    boolean showReference) {
+        String name = pageName != null ? pageName.trim().toUpperCase(Locale.ROOT) : "A4";
+        PageSize pageSize = switch (name) {
+            case "A3" -> PageSize.A3;
+            case "A4" -> PageSize.A4;
+            case "A5" -> PageSize.A5;
+            case "LETTER" -> PageSize.LETTER;
+            default -> throw new IllegalArgumentException("Format de page invalide: " + pageName + " (A3, A4, A5 ou LETTER)");
+        };
+        if (columns < 1 || rows < 1 || columns * rows > MAX_LABELS_PER_PAGE) {
+            throw new IllegalArgumentException("Grille invalide: " + columns + "x" + rows
+                    + " (au plus " + MAX_LABELS_PER_PAGE + " étiquettes par page)");
+        }
+        if (marginMm < 0 || gapMm < 0) {
+            throw new IllegalArgumentException("Marge et espacement doivent être positifs");
+        }
+        PdfLabelLayout layout = new PdfLabelLayout(name, pageSize, columns, rows,
+                marginMm * POINTS_PER_MM, gapMm * POINTS_PER_MM, showReference);
+        if (layout.qrSize < MIN_QR_SIZE_MM * POINTS_PER_MM) {
+            throw new IllegalArgumentException("Étiquettes trop petites: QR code de moins de "
+                    + (int) MIN_QR_SIZE_MM + " mm avec la grille " + columns + "x" + rows + " en " + name);
+        }
+        return layout;
+    }
+
+    /** @return Format de la page */
+    public PageSize getPageSize() { return pageSize; }
+
+    /** @return Nombre d'étiquettes par page */
+    public int getLabelsPerPage() { return columns * rows; }
+
+    /** @return true si la référence est imprimée sous chaque QR code */
+    public boolean isShowReference() { return showReference; }
+
+    /** @return Taille des caractères de la référence en points */
+    public float getFontSize() { return fontSize; }
+
+    /**
+     * Emplacement du QR code d'une étiquette: carré centré horizontalement en haut de la cellule.
+     *
+     * @param index Position de l'étiquette dans la page (ligne par ligne, en partant du haut)
+     */
+    public Rectangle qrArea(int index) {
+        Rectangle cell = cell(index);
+        return new Rectangle(cell.getX() + (cellWidth - qrSize) / 2, cell.getTop() - qrSize, qrSize, qrSize);
+    }
+
+    /**
+     * Ligne de base de la référence sous le QR code d'une étiquette.
+     *
+     * @param index Position de l'étiquette dans la page
+     * @return Ordonnée de la ligne de base
+     */
+    public float captionBaseline(int index) {
+        return qrArea(index).getBottom() - fontSize * 1.2f;
+    }
+
+    /**
+     * @param index Position de l'étiquette dans la page
+     * @return Abscisse du centre de la cellule
+     */
+    public float cellCenterX(int index) {
+        Rectangle cell = cell(index);
+        return cell.getX() + cellWidth / 2;
+    }
+
+    private Rectangle cell(int index) {
+        int column = index % columns;
+        int row = index / columns;
+        float x = margin + column * (cellWidth + gap);
+        float top = pageSize.getHeight() - margin - row * (cellHeight + gap);
+        return new Rectangle(x, top - cellHeight, cellWidth, cellHeight);
+    }
+
+    /** @return Description de la grille (ex: A4-3x8) */
+    public String describe() {
+        return pageName + "-" + columns + "x" + rows;
+    }
+}
@@ -0,0 +1,147 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.colors.DeviceGray;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+import com.itextpdf.kernel.pdf.xobject.PdfXObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Sink produisant une planche d'étiquettes PDF multi-pages: un QR code par étiquette,
+ * placé dans la grille {@link PdfLabelLayout}, pages ajoutées au fil des symboles reçus.
+ *
+ * Le document est écrit au fil de l'eau, sans mise en page en mémoire: les étiquettes sont
+ * dessinées sur le canevas de la page, chaque symbole est écrit dès qu'il est placé et chaque
+ * page pleine est vidée avant d'ouvrir la suivante. Les octets produits à l'acceptation d'un
+ * symbole sont transmis au flux fourni à la validation (thread appelant): le tampon ne
+ * contient jamais plus d'une étiquette ou d'une page.
+ * La police de la référence et l'Image XObject du logo sont créées une seule fois et
+ * partagées par toutes les pages.
+ *
+ * Une instance correspond à un document: elle n'est pas partagée entre threads.
+ * Le flux n'est pas fermé par {@link #close()}.
+ */
+public class PdfLabelSheetWriter implements QrOutputSink, Closeable {
+
+    private final OutputStream outputStream;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+    private long committedBytes;
+    private final PdfLabelLayout layout;
+    private final PdfVectorQrPainter vectorPainter;
+    private final PdfDocument pdfDocument;
+    private final PdfImageXObject logoXObject;
+    private final PdfFont font;
+
+    private PdfPage page;
+    private PdfCanvas canvas;
+    private int pageIndex;
+    private int pageCount;
+    private int labelCount;
+
+    /**
+     * @param outputStream Flux recevant le PDF, laissé ouvert
+     * @param layout Grille des étiquettes
+     * @param vectorPainter Dessin vectoriel du QR code, ou null pour intégrer le raster
+     * @throws IOException En cas d'erreur de création de la police
+     */
+    public PdfLabelSheetWriter(OutputStream outputStream, PdfLabelLayout layout, PdfVectorQrPainter vectorPainter)
+            throws IOException {
+        this.outputStream = outputStream;
+        this.layout = layout;
+        this.vectorPainter = vectorPainter;
+
+        PdfWriter writer = new PdfWriter(buffer);
+        this.pdfDocument = new PdfDocument(writer);
+        this.pdfDocument.getDocumentInfo().setTitle("Planche QR Codes Boaz-Housing " + layout.describe());
+        this.logoXObject = vectorPainter != null ? vectorPainter.createLogoXObject() : null;
+        this.font = layout.isShowReference() ? PdfFontFactory.createFont(StandardFonts.HELVETICA) : null;
+    }
+
+    @Override
+    public void accept(RenderedQr renderedQr) throws IOException {
+        long start = System.nanoTime();
+
+        if (page == null || pageIndex == layout.getLabelsPerPage()) {
+            nextPage();
+        }
+
+        // Symbole dessiné dans son propre XObject, écrit aussitôt (utilisé une seule fois)
+        PdfXObject symbol = vectorPainter != null
+                ? vectorPainter.createQrXObject(renderedQr.getBitMatrix(), pdfDocument, logoXObject)
+                : new PdfImageXObject(RasterImageData.fromImage(renderedQr.getImage()));
+        canvas.addXObjectFittedIntoRectangle(symbol, layout.qrArea(pageIndex));
+        symbol.flush();
+
+        if (font != null) {
+            String reference = renderedQr.getReference();
+            float fontSize = layout.getFontSize();
+            float textX = layout.cellCenterX(pageIndex) - font.getWidth(reference, fontSize) / 2;
+            canvas.beginText().setFontAndSize(font, fontSize).setFillColor(DeviceGray.BLACK)
+                  .moveText(textX, layout.captionBaseline(pageIndex)).showText(reference).endText();
+        }
+
+        pageIndex++;
+        labelCount++;
+        renderedQr.recordStage(RenderStage.PDF_LAYOUT, System.nanoTime() - start);
+    }
+
+    @Override
+    public void commit(RenderedQr renderedQr) throws IOException {
+        drain();
+    }
+
+    private void drain() throws IOException {
+        committedBytes = buffer.size();
+        buffer.writeTo(outputStream);
+        buffer.reset();
+    }
+
+    @Override
+    public long getCommittedBytes() {
+        return committedBytes;
+    }
+
+    /**
+     * Vide la page pleine dans le flux et ouvre la suivante.
+     */
+    private void nextPage() {
+        if (page != null) {
+            canvas.release();
+            page.flush();
+        }
+        page = pdfDocument.addNewPage(layout.getPageSize());
+        canvas = new PdfCanvas(page);
+        pageIndex = 0;
+        pageCount++;
+    }
+
+    /**
+     * Termine le document (dernière page, ressources partagées, table des objets).
+     * Un document sans étiquette contient une page vide.
+     */
+    @Override
+    public void close() throws IOException {
+        if (page == null) {
+            nextPage();
+        }
+        canvas.release();
+        pdfDocument.close();
+        drain();
+    }
+
+    /** @return Nombre de pages ouvertes */
+    public int getPageCount() { return pageCount; }
+
+    /** @return Nombre d'étiquettes placées */
+    public int getLabelCount() { return labelCount; }
+}
@@ -0,0 +1,167 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.layout.element.Image;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.properties.HorizontalAlignment;
+import com.itextpdf.layout.properties.TextAlignment;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Sink produisant la page PDF A4 Boaz-Housing: titre, référence, QR code,
+ * description et date de génération.
+ *
+ * Le QR code est soit tracé en vectoriel (chemins PDF, logo en XObject), sans aucun
+ * raster, soit transmis à iText directement depuis le raster rendu, sans passer par
+ * un encodage PNG (ni base64).
+ *
+ * La mise en page est faite en mémoire à l'acceptation (une page: quelques dizaines de Ko);
+ * le fichier est écrit à la validation, de façon atomique. Sans fichier cible, les octets
+ * du PDF restent disponibles pour l'appelant (entrée d'archive).
+ */
+public class PdfPageSink implements QrOutputSink {
+
+    /**
+     * Version de la mise en page, intégrée au nom des PDF adressés par leur contenu:
+     * à incrémenter à chaque modification de la page pour ne pas réutiliser d'anciens fichiers.
+     */
+    public static final String TEMPLATE_VERSION = "a4-v1";
+
+    private final Path filePath;
+    private final PdfVectorQrPainter vectorPainter;
+    private byte[] pdfBytes;
+    private long fileSize = -1;
+
+    /**
+     * Page PDF avec le QR code en raster.
+     */
+    public PdfPageSink(Path filePath) {
+        this(filePath, null);
+    }
+
+    /**
+     * @param filePath Fichier PDF à écrire, ou null pour conserver le PDF en mémoire
+     * @param vectorPainter Dessin vectoriel du QR code, ou null pour intégrer le raster
+     */
+    public PdfPageSink(Path filePath, PdfVectorQrPainter vectorPainter) {
+        this.filePath = filePath;
+        this.vectorPainter = vectorPainter;
+    }
+
+    /**
+     * Page PDF conservée en mémoire (voir {@link #getPdfBytes()}), sans fichier.
+     *
+     * @param vectorPainter Dessin vectoriel du QR code, ou null pour intégrer le raster
+     */
+    public static PdfPageSink inMemory(PdfVectorQrPainter vectorPainter) {
+        return new PdfPageSink(null, vectorPainter);
+    }
+
+    @Override
+    public void accept(RenderedQr renderedQr) throws IOException {
+        long start = System.nanoTime();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(64 * 1024);
+        writePage(new PdfWriter(outputStream), renderedQr);
+        pdfBytes = outputStream.toByteArray();
+        renderedQr.recordStage(RenderStage.PDF_LAYOUT, System.nanoTime() - start);
+    }
+
+    @Override
+    public void commit(RenderedQr renderedQr) throws IOException {
+        if (filePath == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        AtomicFiles.write(filePath, pdfBytes);
+        renderedQr.recordStage(RenderStage.DISK_WRITE, System.nanoTime() - start);
+
+        fileSize = pdfBytes.length;
+    }
+
+    /**
+     * Mise en page A4 complète, document fermé à la fin.
+     */
+    private void writePage(PdfWriter writer, RenderedQr renderedQr) throws IOException {
+        PdfDocument pdfDoc = new PdfDocument(writer);
+        Document document = new Document(pdfDoc, PageSize.A4);
+
+        // Marges
+        document.setMargins(50, 50, 50, 50);
+
+        // Titre principal
+        Paragraph title = new Paragraph("QR Code Generator - Boaz Study")
+                .setFontSize(24)
+                .setBold()
+                .setTextAlignment(TextAlignment.CENTER)
+                .setMarginBottom(30);
+        document.add(title);
+
+        // Référence
+        Paragraph refParagraph = new Paragraph("Référence: " + renderedQr.getReference())
+                .setFontSize(18)
+                .setBold()
+                .setTextAlignment(TextAlignment.CENTER)
+                .setMarginBottom(40);
+        document.add(refParagraph);
+
+        // QR Code: tracé vectoriel, ou raster rendu repris directement
+        Image qrImage;
+        if (vectorPainter != null) {
+            PdfFormXObject qrForm = vectorPainter.createQrXObject(renderedQr.getBitMatrix(), pdfDoc,
+                                                                 vectorPainter.createLogoXObject());
+            qrImage = new Image(qrForm);
+        } else {
+            qrImage = new Image(RasterImageData.fromImage(renderedQr.getImage()));
+        }
+
+        // Redimensionner le QR code (taille optimale pour visualisation)
+        qrImage.setWidth(300);
+        qrImage.setHeight(300);
+        qrImage.setHorizontalAlignment(HorizontalAlignment.CENTER);
+        qrImage.setMarginBottom(30);
+
+        document.add(qrImage);
+
+        // Description
+        Paragraph description = new Paragraph("Ce QR code a été généré avec le style unique Boaz-Housing.")
+                .setFontSize(12)
+                .setTextAlignment(TextAlignment.CENTER)
+                .setMarginBottom(20);
+        document.add(description);
+
+        // Informations de génération
+        String generationInfo = String.format("Généré le: %s",
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy à HH:mm:ss")));
+        Paragraph infoParagraph = new Paragraph(generationInfo)
+                .setFontSize(10)
+                .setTextAlignment(TextAlignment.CENTER)
+                .setItalic();
+        document.add(infoParagraph);
+
+        // Fermer le document
+        document.close();
+    }
+
+    /** @return Chemin du fichier PDF écrit (null en mémoire) */
+    public Path getFilePath() { return filePath; }
+
+    /** @return Octets du PDF (null avant rendu, lecture seule) */
+    public byte[] getPdfBytes() { return pdfBytes; }
+
+    @Override
+    public long getCommittedBytes() {
+        return Math.max(fileSize, 0);
+    }
+
+    /** @return Taille du fichier écrit en octets (-1 avant écriture) */
+    public long getFileSize() { return fileSize; }
+}
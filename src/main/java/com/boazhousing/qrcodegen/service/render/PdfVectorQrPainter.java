@@ -0,0 +1,206 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import com.google.zxing.common.BitMatrix;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvasConstants;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+
+import java.awt.*;
+import java.io.IOException;
+
+/**
+ * Dessin vectoriel du QR code au style Boaz-Housing dans un document PDF.
+ *
+ * Le symbole est tracé sous forme de chemins PDF dans un Form XObject (une unité par pixel
+ * du rendu PNG, mise à l'échelle par la mise en page):
+ * - points de données: segments de longueur nulle à extrémités rondes, que la norme PDF
+ *   peint comme des disques de diamètre l'épaisseur du trait; coordonnées entières et
+ *   flux compact (quatre courbes de Bézier par cercle quadrupleraient le contenu),
+ *   peints en une seule opération
+ * - finder patterns: carrés orange du dégradé, un remplissage par couleur
+ * - logo central: fond circulaire blanc bordé, puis image du logo
+ *
+ * Le logo est décodé une seule fois (ImageData partagée); dans un document, il est placé
+ * dans un Image XObject unique, réutilisable par plusieurs symboles (planches d'étiquettes).
+ * Aucun raster du QR code n'est produit, ni encodé en PNG.
+ *
+ * Les instances sont immuables et partagées entre threads; les XObjects créés
+ * appartiennent à un seul document.
+ */
+public class PdfVectorQrPainter {
+
+    private static final int FINDER_SIZE = 7;
+    private static final int FALLBACK_LOGO_RADIUS = 25;
+
+    private final DeviceRgb dotColor;
+    private final DeviceRgb[] cornerColors;
+    private final int boxSize;
+    private final int borderSize;
+    private final int logoRadius;
+    private final ImageData logo;
+    private final int logoWidth;
+    private final int logoHeight;
+
+    /**
+     * @param logo Logo décodé, ou null pour la pastille de secours "BH"
+     * @param logoWidth Largeur d'affichage du logo en pixels
+     * @param logoHeight Hauteur d'affichage du logo en pixels
+     */
+    public PdfVectorQrPainter(Color dotColor, Color cornerDark, Color cornerMedium, Color cornerLight,
+                              int boxSize, int borderSize, int logoRadius,
+                              ImageData logo, int logoWidth, int logoHeight) {
+        this.dotColor = rgb(dotColor);
+        // Index = distance au centre du finder pattern ramenée à 0 (foncé), 1 (moyen), 2 (clair)
+        this.cornerColors = new DeviceRgb[] {rgb(cornerDark), rgb(cornerMedium), rgb(cornerLight)};
+        this.boxSize = boxSize;
+        this.borderSize = borderSize;
+        this.logoRadius = logoRadius;
+        this.logo = logo;
+        this.logoWidth = logoWidth;
+        this.logoHeight = logoHeight;
+    }
+
+    /**
+     * Crée l'Image XObject du logo pour un document, à réutiliser pour chaque symbole du document.
+     *
+     * @return XObject du logo, ou null si le logo est indisponible
+     */
+    public PdfImageXObject createLogoXObject() {
+        return logo != null ? new PdfImageXObject(logo) : null;
+    }
+
+    /**
+     * Trace le symbole dans un Form XObject de taille imageSize x imageSize unités.
+     *
+     * @param bitMatrix Matrice QR brute (sans quiet zone)
+     * @param pdfDocument Document de destination
+     * @param logoXObject Logo du document (voir {@link #createLogoXObject()}), ou null
+     * @return Form XObject à placer dans la page (ex: via un élément Image de la mise en page)
+     * @throws IOException En cas d'erreur de création de la police de secours
+     */
+    public PdfFormXObject createQrXObject(BitMatrix bitMatrix, PdfDocument pdfDocument,
+                                          PdfImageXObject logoXObject) throws IOException {
+        int moduleCount = bitMatrix.getWidth();
+        int imageSize = moduleCount * boxSize + 2 * borderSize;
+
+        PdfFormXObject form = new PdfFormXObject(new Rectangle(imageSize, imageSize));
+        PdfCanvas canvas = new PdfCanvas(form, pdfDocument);
+
+        // Fond blanc
+        canvas.setFillColor(DeviceRgb.WHITE).rectangle(0, 0, imageSize, imageSize).fill();
+
+        drawFinderPatterns(canvas, bitMatrix, imageSize);
+        drawDataDots(canvas, bitMatrix, imageSize);
+        drawLogo(canvas, imageSize, logoXObject);
+
+        canvas.release();
+        return form;
+    }
+
+    /**
+     * Finder patterns: un remplissage par couleur du dégradé.
+     * Les coordonnées PDF ont l'origine en bas à gauche: y = imageSize - y(pixel).
+     */
+    private void drawFinderPatterns(PdfCanvas canvas, BitMatrix bitMatrix, int imageSize) {
+        int finderLimit = bitMatrix.getWidth() - FINDER_SIZE;
+        int[][] origins = {{0, 0}, {0, finderLimit}, {finderLimit, 0}};
+
+        for (int level = 0; level < cornerColors.length; level++) {
+            boolean hasPath = false;
+            for (int[] origin : origins) {
+                for (int localRow = 0; localRow < FINDER_SIZE; localRow++) {
+                    for (int localCol = 0; localCol < FINDER_SIZE; localCol++) {
+                        int distance = Math.max(Math.abs(localRow - 3), Math.abs(localCol - 3));
+                        int moduleLevel = distance <= 1 ? 0 : (distance <= 2 ? 1 : 2);
+                        int row = origin[0] + localRow;
+                        int col = origin[1] + localCol;
+                        if (moduleLevel == level && bitMatrix.get(col, row)) {
+                            int x = borderSize + col * boxSize;
+                            int y = imageSize - (borderSize + (row + 1) * boxSize);
+                            canvas.rectangle(x, y, boxSize, boxSize);
+                            hasPath = true;
+                        }
+                    }
+                }
+            }
+            if (hasPath) {
+                canvas.setFillColor(cornerColors[level]).fill();
+            }
+        }
+    }
+
+    /**
+     * Points de données: disques de rayon boxSize/3, hors finder patterns et zone logo.
+     */
+    private void drawDataDots(PdfCanvas canvas, BitMatrix bitMatrix, int imageSize) {
+        int moduleCount = bitMatrix.getWidth();
+        int finderLimit = moduleCount - FINDER_SIZE;
+        int center = moduleCount / 2;
+        int radius = boxSize / 3;
+        int half = boxSize / 2;
+
+        boolean hasPath = false;
+        for (int row = 0; row < moduleCount; row++) {
+            for (int col = 0; col < moduleCount; col++) {
+                if (!bitMatrix.get(col, row)) {
+                    continue;
+                }
+                boolean finder = (row < FINDER_SIZE && (col < FINDER_SIZE || col >= finderLimit))
+                        || (row >= finderLimit && col < FINDER_SIZE);
+                boolean logoZone = Math.abs(row - center) <= logoRadius && Math.abs(col - center) <= logoRadius;
+                if (finder || logoZone) {
+                    continue;
+                }
+                int centerX = borderSize + col * boxSize + half;
+                int centerY = imageSize - (borderSize + row * boxSize + half);
+                canvas.moveTo(centerX, centerY).lineTo(centerX, centerY);
+                hasPath = true;
+            }
+        }
+        if (hasPath) {
+            canvas.setStrokeColor(dotColor)
+                  .setLineWidth(2 * radius)
+                  .setLineCapStyle(PdfCanvasConstants.LineCapStyle.ROUND)
+                  .stroke()
+                  .setLineCapStyle(PdfCanvasConstants.LineCapStyle.BUTT);
+        }
+    }
+
+    /**
+     * Logo central, mêmes dimensions que le rendu raster: fond circulaire de rayon
+     * min(largeur, hauteur)/2 - 25 bordé de la couleur des points, puis le logo.
+     */
+    private void drawLogo(PdfCanvas canvas, int imageSize, PdfImageXObject logoXObject) throws IOException {
+        int center = imageSize / 2;
+
+        if (logoXObject == null) {
+            canvas.setFillColor(DeviceRgb.WHITE).setStrokeColor(dotColor).setLineWidth(2)
+                  .circle(center, center, FALLBACK_LOGO_RADIUS).fillStroke();
+            PdfFont font = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
+            float textWidth = font.getWidth("BH", 16);
+            canvas.beginText().setFontAndSize(font, 16).setFillColor(dotColor)
+                  .moveText(center - textWidth / 2, center - 6).showText("BH").endText();
+            return;
+        }
+
+        int backgroundRadius = Math.min(logoWidth, logoHeight) / 2 - 25;
+        canvas.setFillColor(DeviceRgb.WHITE).setStrokeColor(dotColor).setLineWidth(1)
+              .circle(center, center, backgroundRadius).fillStroke();
+
+        float logoX = center - logoWidth / 2;
+        float logoY = imageSize - (center - logoHeight / 2) - logoHeight;
+        canvas.addXObjectFittedIntoRectangle(logoXObject, new Rectangle(logoX, logoY, logoWidth, logoHeight));
+    }
+
+    private static DeviceRgb rgb(Color color) {
+        return new DeviceRgb(color.getRed(), color.getGreen(), color.getBlue());
+    }
+}
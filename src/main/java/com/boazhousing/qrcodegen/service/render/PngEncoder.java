@@ -0,0 +1,20 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * Encodeur PNG d'une image QR rendue.
+ */
+@FunctionalInterface
+public interface PngEncoder {
+
+    /**
+     * Encode l'image au format PNG.
+     *
+     * @param image Image à encoder (lecture seule)
+     * @return Octets du fichier PNG
+     * @throws IOException En cas d'erreur d'encodage
+     */
+    byte[] encode(BufferedImage image) throws IOException;
+}
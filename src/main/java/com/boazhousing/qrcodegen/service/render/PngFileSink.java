@@ -0,0 +1,46 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Sink écrivant le symbole rendu dans un fichier PNG.
+ *
+ * Les octets PNG sont ceux du {@link RenderedQr}, encodés une seule fois (acceptation);
+ * le répertoire parent est créé si nécessaire et le fichier écrit de façon atomique (validation).
+ */
+public class PngFileSink implements QrOutputSink {
+
+    private final Path filePath;
+    private byte[] pngBytes;
+    private long fileSize = -1;
+
+    public PngFileSink(Path filePath) {
+        this.filePath = filePath;
+    }
+
+    @Override
+    public void accept(RenderedQr renderedQr) throws IOException {
+        pngBytes = renderedQr.getPngBytes();
+    }
+
+    @Override
+    public void commit(RenderedQr renderedQr) throws IOException {
+        long start = System.nanoTime();
+        AtomicFiles.write(filePath, pngBytes);
+        renderedQr.recordStage(RenderStage.DISK_WRITE, System.nanoTime() - start);
+
+        fileSize = pngBytes.length;
+    }
+
+    /** @return Chemin du fichier PNG écrit */
+    public Path getFilePath() { return filePath; }
+
+    @Override
+    public long getCommittedBytes() {
+        return Math.max(fileSize, 0);
+    }
+
+    /** @return Taille du fichier écrit en octets (-1 avant écriture) */
+    public long getFileSize() { return fileSize; }
+}
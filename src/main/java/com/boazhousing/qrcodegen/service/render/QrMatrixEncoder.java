@@ -0,0 +1,304 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.decoder.Version;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Encodage des URLs de vérification en matrice QR brute (sans quiet zone), niveau de
+ * correction H.
+ *
+ * Les hints ZXing et le QRCodeWriter (sans état) sont construits une seule fois et partagés
+ * entre threads. Le mode épinglé fixe la version du symbole et, optionnellement, le masque:
+ * ZXing ne cherche alors plus la plus petite version adaptée et n'évalue plus les 8 masques
+ * (score de pénalité calculé sur toute la matrice pour chacun).
+ *
+ * Un contenu trop long pour la version épinglée est encodé en mode automatique
+ * (repli compté, voir {@link #getFallbackCount()}).
+ *
+ * Les URLs de vérification peuvent être confiées à l'encodeur spécialisé
+ * {@link VerificationQrEncoder} (symboles identiques à ZXing); les autres contenus
+ * passent toujours par ZXing.
+ *
+ * Le niveau de correction suit une {@link EccLevelPolicy}: H fixe par défaut, ou adaptatif au
+ * logo. En adaptatif, la version au niveau H est d'abord déterminée (masque imposé, donc sans
+ * recherche), puis les versions plus petites dont le niveau adaptatif offre assez de place
+ * sont essayées; à version égale, le niveau le plus fort qui contient les données est retenu.
+ *
+ * En mode segments mixtes, ZXing découpe le contenu en segments numériques, alphanumériques
+ * et octets (QR_COMPACT); un contenu ASCII est encodé sans segment ECI UTF-8.
+ */
+public class QrMatrixEncoder {
+
+    private final QRCodeWriter writer = new QRCodeWriter();
+    private final Map<EncodeHintType, Object> autoHints;
+    private final Map<EncodeHintType, Object> pinnedHints;
+    private final Map<EncodeHintType, Object> asciiAutoHints;
+    private final Map<EncodeHintType, Object> asciiPinnedHints;
+    private final int pinnedVersion;
+    private final int pinnedMask;
+    private final VerificationQrEncoder builtin;
+    private final boolean mixedSegments;
+    private final EccLevelPolicy eccPolicy;
+    private final LongAdder fallbacks = new LongAdder();
+
+    /**
+     * @param pinnedVersion Version du symbole (1 à 40), ou 0 pour la version minimale automatique
+     * @param pinnedMask Masque (0 à 7), ou -1 pour le meilleur masque (recherche ZXing)
+     */
+    public QrMatrixEncoder(int pinnedVersion, int pinnedMask) {
+        this(pinnedVersion, pinnedMask, null);
+    }
+
+    /**
+     * @param pinnedVersion Version du symbole (1 à 40), ou 0 pour la version minimale automatique
+     * @param pinnedMask Masque (0 à 7), ou -1 pour le meilleur masque (recherche ZXing)
+     * @param builtin Encodeur spécialisé des URLs de vérification, ou null pour ZXing seul
+     */
+    public QrMatrixEncoder(int pinnedVersion, int pinnedMask, VerificationQrEncoder builtin) {
+        this(pinnedVersion, pinnedMask, builtin, false);
+    }
+
+    /**
+     * @param pinnedVersion Version du symbole (1 à 40), ou 0 pour la version minimale automatique
+     * @param pinnedMask Masque (0 à 7), ou -1 pour le meilleur masque (recherche ZXing)
+     * @param builtin Encodeur spécialisé des URLs de vérification, ou null pour ZXing seul
+     * @param mixedSegments true pour le découpage en segments mixtes (doit correspondre à l'encodeur spécialisé)
+     */
+    public QrMatrixEncoder(int pinnedVersion, int pinnedMask, VerificationQrEncoder builtin, boolean mixedSegments) {
+        this(pinnedVersion, pinnedMask, builtin, mixedSegments, EccLevelPolicy.FIXED_H);
+    }
+
+    /**
+     * @param pinnedVersion Version du symbole (1 à 40), ou 0 pour la version minimale automatique
+     * @param pinnedMask Masque (0 à 7), ou -1 pour le meilleur masque (recherche ZXing)
+     * @param builtin Encodeur spécialisé des URLs de vérification, ou null pour ZXing seul
+     * @param mixedSegments true pour le découpage en segments mixtes (doit correspondre à l'encodeur spécialisé)
+     * @param eccPolicy Niveau de correction par version
+     */
+    public QrMatrixEncoder(int pinnedVersion, int pinnedMask, VerificationQrEncoder builtin, boolean mixedSegments,
+                           EccLevelPolicy eccPolicy) {
+        if (pinnedVersion < 0 || pinnedVersion > 40) {
+            throw new IllegalArgumentException("Version QR invalide: " + pinnedVersion);
+        }
+        if (pinnedMask < -1 || pinnedMask > 7) {
+            throw new IllegalArgumentException("Masque QR invalide: " + pinnedMask);
+        }
+        this.pinnedVersion = pinnedVersion;
+        this.pinnedMask = pinnedMask;
+        this.builtin = builtin;
+        this.mixedSegments = mixedSegments;
+        this.eccPolicy = eccPolicy;
+        if (builtin != null && builtin.isMixedSegments() != mixedSegments) {
+            throw new IllegalArgumentException("Encodeur spécialisé incohérent avec le mode de segments");
+        }
+
+        Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+        // H: 30% récupération (permet logo); en adaptatif, niveau fixé à chaque encodage
+        hints.put(EncodeHintType.ERROR_CORRECTION, eccPolicy.isFixed() ? eccPolicy.levelFor(1) : ErrorCorrectionLevel.H);
+        hints.put(EncodeHintType.MARGIN, 0); // CRITIQUE: Désactive la quiet zone automatique ZXing
+        if (mixedSegments) {
+            hints.put(EncodeHintType.QR_COMPACT, true);
+        }
+        this.asciiAutoHints = Collections.unmodifiableMap(new EnumMap<>(hints));
+        hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+        this.autoHints = Collections.unmodifiableMap(new EnumMap<>(hints));
+
+        if (pinnedVersion > 0) {
+            hints.put(EncodeHintType.QR_VERSION, pinnedVersion);
+        }
+        if (pinnedMask >= 0) {
+            hints.put(EncodeHintType.QR_MASK_PATTERN, pinnedMask);
+        }
+        this.pinnedHints = isPinned() ? Collections.unmodifiableMap(new EnumMap<>(hints)) : autoHints;
+        hints.remove(EncodeHintType.CHARACTER_SET);
+        this.asciiPinnedHints = isPinned() ? Collections.unmodifiableMap(hints) : asciiAutoHints;
+    }
+
+    /**
+     * Encode un contenu, avec la version et le masque épinglés s'ils sont configurés.
+     *
+     * @param contents Contenu à encoder
+     * @return Matrice QR sans quiet zone
+     * @throws WriterException En cas d'erreur d'encodage (contenu trop long pour toute version)
+     */
+    public BitMatrix encode(String contents) throws WriterException {
+        if (builtin != null && builtin.supports(contents)) {
+            return encodeBuiltin(contents);
+        }
+        // Segments mixtes: sans ECI UTF-8 pour un contenu ASCII (ISO-8859-1 par défaut des lecteurs)
+        boolean ascii = mixedSegments && contents.chars().allMatch(c -> c < 0x80);
+        Map<EncodeHintType, Object> auto = ascii ? asciiAutoHints : autoHints;
+        if (!eccPolicy.isFixed()) {
+            return encodeAdaptive(contents, auto);
+        }
+        if (pinnedHints != autoHints) {
+            try {
+                return writer.encode(contents, BarcodeFormat.QR_CODE, 0, 0, ascii ? asciiPinnedHints : pinnedHints);
+            } catch (WriterException e) {
+                // Contenu trop long pour la version épinglée: version minimale automatique
+                if (pinnedVersion == 0) {
+                    throw e;
+                }
+                fallbacks.increment();
+            }
+        }
+        return writer.encode(contents, BarcodeFormat.QR_CODE, 0, 0, auto);
+    }
+
+    /**
+     * Niveau adaptatif avec ZXing: version épinglée si elle convient, sinon plus petite version
+     * dont le niveau adaptatif contient les données.
+     */
+    private BitMatrix encodeAdaptive(String contents, Map<EncodeHintType, Object> base) throws WriterException {
+        if (pinnedVersion > 0) {
+            try {
+                return encodeStrongest(contents, base, pinnedVersion, eccPolicy.levelFor(pinnedVersion));
+            } catch (WriterException e) {
+                fallbacks.increment();
+            }
+        }
+
+        // Version minimale au niveau H: masque imposé, aucune recherche de masque
+        Map<EncodeHintType, Object> probe = new EnumMap<>(base);
+        probe.put(EncodeHintType.QR_MASK_PATTERN, 0);
+        int levelHVersion = (writer.encode(contents, BarcodeFormat.QR_CODE, 0, 0, probe).getWidth() - 17) / 4;
+
+        // Versions plus petites: seules celles offrant au moins la place de la version H précédente peuvent convenir
+        int needed = levelHVersion > 1 ? dataBytes(levelHVersion - 1, ErrorCorrectionLevel.H) : Integer.MAX_VALUE;
+        for (int version = 1; version < levelHVersion; version++) {
+            ErrorCorrectionLevel weakest = eccPolicy.levelFor(version);
+            if (weakest == ErrorCorrectionLevel.H || dataBytes(version, weakest) < needed) {
+                continue;
+            }
+            try {
+                return encodeStrongest(contents, base, version, weakest);
+            } catch (WriterException e) {
+                // Données trop longues même au niveau le plus faible admis: version suivante
+            }
+        }
+        return encodeAt(contents, base, 0, ErrorCorrectionLevel.H);
+    }
+
+    /**
+     * Du niveau le plus fort au plus faible admis pour la version: premier qui contient les données.
+     */
+    private BitMatrix encodeStrongest(String contents, Map<EncodeHintType, Object> base, int version,
+                                      ErrorCorrectionLevel weakest) throws WriterException {
+        ErrorCorrectionLevel[] levels = ErrorCorrectionLevel.values(); // L, M, Q, H
+        WriterException lastError = null;
+        for (int level = levels.length - 1; level >= weakest.ordinal(); level--) {
+            try {
+                return encodeAt(contents, base, version, levels[level]);
+            } catch (WriterException e) {
+                lastError = e;
+            }
+        }
+        throw lastError;
+    }
+
+    private BitMatrix encodeAt(String contents, Map<EncodeHintType, Object> base, int version,
+                               ErrorCorrectionLevel level) throws WriterException {
+        Map<EncodeHintType, Object> hints = new EnumMap<>(base);
+        hints.put(EncodeHintType.ERROR_CORRECTION, level);
+        if (version > 0) {
+            hints.put(EncodeHintType.QR_VERSION, version);
+        }
+        if (pinnedMask >= 0) {
+            hints.put(EncodeHintType.QR_MASK_PATTERN, pinnedMask);
+        }
+        return writer.encode(contents, BarcodeFormat.QR_CODE, 0, 0, hints);
+    }
+
+    private static int dataBytes(int version, ErrorCorrectionLevel level) {
+        Version zxingVersion = Version.getVersionForNumber(version);
+        return zxingVersion.getTotalCodewords() - zxingVersion.getECBlocksForLevel(level).getTotalECCodewords();
+    }
+
+    private BitMatrix encodeBuiltin(String contents) throws WriterException {
+        try {
+            BitMatrix matrix = builtin.encode(contents, eccPolicy, pinnedVersion, pinnedMask, null);
+            if (matrix != null) {
+                return matrix;
+            }
+            fallbacks.increment();
+            return builtin.encode(contents, eccPolicy, 0, -1, null);
+        } catch (IllegalArgumentException e) {
+            throw new WriterException(e.getMessage());
+        }
+    }
+
+    /**
+     * Nombre de modules par côté attendu pour un contenu, sans l'encoder.
+     *
+     * Majorant: contenu en mode octet UTF-8 au niveau H (les segments mixtes et le niveau
+     * adaptatif ne donnent jamais un symbole plus grand), ou version épinglée si elle est plus grande.
+     *
+     * @param contents Contenu à encoder
+     * @return Côté de la matrice en modules (version 40 si le contenu ne tient dans aucune version)
+     */
+    public int estimateModuleCount(String contents) {
+        int length = contents.getBytes(StandardCharsets.UTF_8).length;
+        int version = 1;
+        while (version < 40) {
+            // Indicateur de mode (4 bits), ECI UTF-8 (12 bits), longueur (8 ou 16 bits), données
+            int bits = 4 + 12 + (version < 10 ? 8 : 16) + 8 * length;
+            if ((bits + 7) / 8 <= dataBytes(version, ErrorCorrectionLevel.H)) {
+                break;
+            }
+            version++;
+        }
+        return 17 + 4 * Math.max(version, pinnedVersion);
+    }
+
+    /** @return true si la version ou le masque est épinglé */
+    public boolean isPinned() {
+        return pinnedVersion > 0 || pinnedMask >= 0;
+    }
+
+    /** @return Nombre de contenus encodés en mode automatique faute de place dans la version épinglée */
+    public long getFallbackCount() {
+        return fallbacks.sum();
+    }
+
+    /** @return true si les URLs de vérification passent par l'encodeur spécialisé */
+    public boolean isBuiltin() {
+        return builtin != null;
+    }
+
+    /** @return Niveau de correction par version */
+    public EccLevelPolicy getEccPolicy() {
+        return eccPolicy;
+    }
+
+    /** @return true si le contenu est découpé en segments mixtes */
+    public boolean isMixedSegments() {
+        return mixedSegments;
+    }
+
+    /**
+     * @return Description de la configuration, incluse dans l'empreinte du style
+     *         (le moteur n'en fait pas partie en mode octet: symboles identiques)
+     */
+    public String describe() {
+        String description = "v" + (pinnedVersion > 0 ? pinnedVersion : "auto") + "-m" + (pinnedMask >= 0 ? pinnedMask : "auto");
+        if (!eccPolicy.isFixed() || eccPolicy.levelFor(1) != ErrorCorrectionLevel.H) {
+            description += "-ecc-" + eccPolicy.describe();
+        }
+        if (mixedSegments) {
+            // Segments mixtes: découpages ZXing et spécialisé différents
+            description += "-mixed-" + (builtin != null ? "builtin" : "zxing");
+        }
+        return description;
+    }
+}
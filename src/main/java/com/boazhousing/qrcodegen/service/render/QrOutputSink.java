@@ -0,0 +1,42 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import java.io.IOException;
+
+/**
+ * Consommateur d'un symbole QR rendu (fichier PNG, base64, page PDF, ...).
+ *
+ * Plusieurs sinks peuvent consommer le même rendu dans une seule passe;
+ * chaque sink conserve son propre résultat, consultable après le rendu.
+ *
+ * Deux phases: {@link #accept} produit la sortie (calcul: PNG, mise en page), éventuellement
+ * sur l'exécuteur de rendu; {@link #commit} l'écrit (fichier, flux) sur le thread appelant.
+ */
+@FunctionalInterface
+public interface QrOutputSink {
+
+    /**
+     * Consomme le symbole rendu.
+     *
+     * @param renderedQr Symbole rendu (lecture seule)
+     * @throws IOException En cas d'erreur d'écriture
+     */
+    void accept(RenderedQr renderedQr) throws IOException;
+
+    /**
+     * Écrit la sortie produite par {@link #accept} (aucune écriture par défaut).
+     * Appelé après l'acceptation par tous les sinks du rendu.
+     *
+     * @param renderedQr Symbole rendu (lecture seule)
+     * @throws IOException En cas d'erreur d'écriture
+     */
+    default void commit(RenderedQr renderedQr) throws IOException {
+    }
+
+    /**
+     * @return Octets écrits par la dernière validation (fichier, flux), 0 sans écriture;
+     *         publiés dans les métriques
+     */
+    default long getCommittedBytes() {
+        return 0;
+    }
+}
@@ -0,0 +1,210 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import java.util.Arrays;
+
+/**
+ * Découpage optimal d'une URL de vérification en segments QR numériques, alphanumériques
+ * et octets, puis écriture du flux de bits correspondant.
+ *
+ * Le coût d'un segment est exact (indicateur de mode, compteur selon la classe de version,
+ * données): numérique 10 bits par 3 chiffres, alphanumérique 11 bits par 2 caractères,
+ * octet 8 bits par caractère. La programmation dynamique sur le préfixe fixe est calculée
+ * une seule fois par classe de version; seule la référence est traitée à chaque appel.
+ *
+ * Contenu ASCII uniquement: aucun segment ECI (ISO-8859-1 par défaut des lecteurs QR).
+ */
+final class QrSegmentPlanner {
+
+    static final int NUMERIC = 0;
+    static final int ALPHANUMERIC = 1;
+    static final int BYTE = 2;
+
+    // Indicateurs de mode (4 bits) et taille du compteur par classe de version (1-9, 10-26, 27-40)
+    private static final int[] MODE_BITS = {0b0001, 0b0010, 0b0100};
+    private static final int[][] COUNT_BITS = {{10, 9, 8}, {12, 11, 16}, {14, 13, 16}};
+
+    private static final String ALPHANUMERIC_CHARS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ $%*+-./:";
+    private static final int[] ALPHANUMERIC_VALUES = new int[128];
+
+    static {
+        Arrays.fill(ALPHANUMERIC_VALUES, -1);
+        for (int i = 0; i < ALPHANUMERIC_CHARS.length(); i++) {
+            ALPHANUMERIC_VALUES[ALPHANUMERIC_CHARS.charAt(i)] = i;
+        }
+    }
+
+    private final int prefixLength;
+    // Par classe de version: état de la programmation dynamique après chaque caractère du préfixe
+    private final int[][] prefixCost = new int[3][];
+    private final int[][] prefixStart = new int[3][];
+    private final byte[][] prefixMode = new byte[3][];
+    private final int[] prefixBestByte = new int[3];
+    private final int[] prefixBestByteStart = new int[3];
+    private final int prefixNumericRun;
+    private final int prefixAlphanumericRun;
+
+    /**
+     * @param prefix Préfixe ASCII commun à toutes les URLs
+     */
+    QrSegmentPlanner(String prefix) {
+        this.prefixLength = prefix.length();
+        int numericRun = 0;
+        int alphanumericRun = 0;
+        for (int versionClass = 0; versionClass < 3; versionClass++) {
+            int[] cost = new int[prefixLength + 1];
+            int[] start = new int[prefixLength + 1];
+            byte[] mode = new byte[prefixLength + 1];
+            long state = run(prefix, versionClass, 0, cost, start, mode, Integer.MAX_VALUE, 0, 0, 0);
+            prefixCost[versionClass] = cost;
+            prefixStart[versionClass] = start;
+            prefixMode[versionClass] = mode;
+            prefixBestByte[versionClass] = (int) (state >> 32);
+            prefixBestByteStart[versionClass] = (int) state;
+        }
+        for (int i = 0; i < prefixLength; i++) {
+            char c = prefix.charAt(i);
+            numericRun = c >= '0' && c <= '9' ? numericRun + 1 : 0;
+            alphanumericRun = alphanumericValue(c) >= 0 ? alphanumericRun + 1 : 0;
+        }
+        this.prefixNumericRun = numericRun;
+        this.prefixAlphanumericRun = alphanumericRun;
+    }
+
+    /**
+     * Calcule le découpage optimal du contenu pour une classe de version.
+     *
+     * @param contents Préfixe suivi de la référence (ASCII)
+     * @param versionClass 0 (versions 1-9), 1 (10-26) ou 2 (27-40)
+     * @param cost Tampon (longueur du contenu + 1): coût minimal en bits de chaque début du contenu
+     * @param start Tampon: début du dernier segment
+     * @param mode Tampon: mode du dernier segment
+     * @return Nombre total de bits de données (avant terminateur)
+     */
+    int plan(String contents, int versionClass, int[] cost, int[] start, byte[] mode) {
+        System.arraycopy(prefixCost[versionClass], 0, cost, 0, prefixLength + 1);
+        System.arraycopy(prefixStart[versionClass], 0, start, 0, prefixLength + 1);
+        System.arraycopy(prefixMode[versionClass], 0, mode, 0, prefixLength + 1);
+        run(contents, versionClass, prefixLength, cost, start, mode,
+            prefixBestByte[versionClass], prefixBestByteStart[versionClass],
+            prefixNumericRun, prefixAlphanumericRun);
+        return cost[contents.length()];
+    }
+
+    /**
+     * Écrit les segments du dernier découpage calculé par {@link #plan}.
+     *
+     * @param codewords Tampon de sortie, mis à zéro au préalable
+     * @return Nombre de bits écrits
+     */
+    int write(String contents, int versionClass, int[] start, byte[] mode, int[] segmentEnds, byte[] codewords) {
+        // Segments relevés de la fin vers le début, puis écrits dans l'ordre
+        int segments = 0;
+        for (int end = contents.length(); end > 0; end = start[end]) {
+            segmentEnds[segments++] = end;
+        }
+
+        int bit = 0;
+        for (int s = segments - 1; s >= 0; s--) {
+            int end = segmentEnds[s];
+            int begin = start[end];
+            int segmentMode = mode[end];
+            bit = appendBits(codewords, bit, MODE_BITS[segmentMode], 4);
+            bit = appendBits(codewords, bit, end - begin, COUNT_BITS[versionClass][segmentMode]);
+            if (segmentMode == NUMERIC) {
+                int i = begin;
+                for (; i + 2 < end; i += 3) {
+                    int value = (contents.charAt(i) - '0') * 100 + (contents.charAt(i + 1) - '0') * 10
+                            + (contents.charAt(i + 2) - '0');
+                    bit = appendBits(codewords, bit, value, 10);
+                }
+                if (end - i == 2) {
+                    bit = appendBits(codewords, bit, (contents.charAt(i) - '0') * 10 + (contents.charAt(i + 1) - '0'), 7);
+                } else if (end - i == 1) {
+                    bit = appendBits(codewords, bit, contents.charAt(i) - '0', 4);
+                }
+            } else if (segmentMode == ALPHANUMERIC) {
+                int i = begin;
+                for (; i + 1 < end; i += 2) {
+                    int value = alphanumericValue(contents.charAt(i)) * 45 + alphanumericValue(contents.charAt(i + 1));
+                    bit = appendBits(codewords, bit, value, 11);
+                }
+                if (i < end) {
+                    bit = appendBits(codewords, bit, alphanumericValue(contents.charAt(i)), 6);
+                }
+            } else {
+                for (int i = begin; i < end; i++) {
+                    bit = appendBits(codewords, bit, contents.charAt(i), 8);
+                }
+            }
+        }
+        return bit;
+    }
+
+    /**
+     * Programmation dynamique de from à la fin du contenu: cost[i] = min sur les segments
+     * [j, i) d'un mode valide de cost[j] + coût du segment. Pour le mode octet (coût linéaire),
+     * le minimum de cost[j] - 8j est entretenu au fil de i.
+     *
+     * @return Minimum courant du mode octet (32 bits de poids fort) et son début
+     */
+    private static long run(String contents, int versionClass, int from, int[] cost, int[] start, byte[] mode,
+                            int bestByte, int bestByteStart, int numericRun, int alphanumericRun) {
+        int[] countBits = COUNT_BITS[versionClass];
+        if (from == 0) {
+            cost[0] = 0;
+        }
+        for (int i = from + 1; i <= contents.length(); i++) {
+            char c = contents.charAt(i - 1);
+            numericRun = c >= '0' && c <= '9' ? numericRun + 1 : 0;
+            alphanumericRun = alphanumericValue(c) >= 0 ? alphanumericRun + 1 : 0;
+
+            int previous = cost[i - 1] - 8 * (i - 1);
+            if (previous < bestByte) {
+                bestByte = previous;
+                bestByteStart = i - 1;
+            }
+            int best = bestByte + 8 * i + 4 + countBits[BYTE];
+            int bestStart = bestByteStart;
+            int bestMode = BYTE;
+
+            for (int j = i - 1; j >= i - alphanumericRun; j--) {
+                int length = i - j;
+                int candidate = cost[j] + 4 + countBits[ALPHANUMERIC] + 11 * (length / 2) + 6 * (length % 2);
+                if (candidate < best) {
+                    best = candidate;
+                    bestStart = j;
+                    bestMode = ALPHANUMERIC;
+                }
+            }
+            for (int j = i - 1; j >= i - numericRun; j--) {
+                int length = i - j;
+                int remainder = length % 3;
+                int candidate = cost[j] + 4 + countBits[NUMERIC] + 10 * (length / 3)
+                        + (remainder == 0 ? 0 : remainder == 1 ? 4 : 7);
+                if (candidate < best) {
+                    best = candidate;
+                    bestStart = j;
+                    bestMode = NUMERIC;
+                }
+            }
+
+            cost[i] = best;
+            start[i] = bestStart;
+            mode[i] = (byte) bestMode;
+        }
+        return ((long) bestByte << 32) | (bestByteStart & 0xFFFFFFFFL);
+    }
+
+    private static int appendBits(byte[] codewords, int bit, int value, int count) {
+        for (int i = count - 1; i >= 0; i--, bit++) {
+            if (((value >> i) & 1) != 0) {
+                codewords[bit >> 3] |= (byte) (0x80 >>> (bit & 7));
+            }
+        }
+        return bit;
+    }
+
+    private static int alphanumericValue(char c) {
+        return c < 128 ? ALPHANUMERIC_VALUES[c] : -1;
+    }
+}
@@ -0,0 +1,109 @@
+package com.boazhousing.qrcodegen.service.render;
+
+/**
+ * Gabarit pré-composé d'un QR code pour une version et un style donnés.
+ *
+ * Contient tout ce qui ne dépend pas des données encodées:
+ * - la couche statique entièrement composée (fond blanc, finder patterns orange,
+ *   fond circulaire du logo, bordure et logo)
+ * - la carte de classe de chaque module (donnée, finder, zone logo, donnée sous le logo)
+ * - la couche de recouvrement (logo) en ARGB prémultiplié, limitée à sa boîte englobante,
+ *   pour recomposer les quelques points de données situés sous le logo
+ *
+ * Les instances sont immuables après construction et partagées entre threads.
+ */
+public final class QrTemplate {
+
+    /** Module de données libre: seul le tampon du point est écrit */
+    public static final byte MODULE_DATA = 0;
+    /** Module de données recouvert partiellement par le logo: tampon puis recomposition */
+    public static final byte MODULE_DATA_UNDER_OVERLAY = 1;
+    /** Module d'un finder pattern: déjà présent dans la couche statique */
+    public static final byte MODULE_FINDER = 2;
+    /** Module de la zone logo: jamais dessiné */
+    public static final byte MODULE_LOGO_ZONE = 3;
+
+    private final int moduleCount;
+    private final int imageSize;
+    private final int[] staticPixels;
+    private final byte[] moduleClasses;
+
+    private final int overlayX;
+    private final int overlayY;
+    private final int overlayWidth;
+    private final int overlayHeight;
+    private final int[] overlayPixels;
+
+    QrTemplate(int moduleCount, int imageSize, int[] staticPixels, byte[] moduleClasses,
+               int overlayX, int overlayY, int overlayWidth, int overlayHeight, int[] overlayPixels) {
+        this.moduleCount = moduleCount;
+        this.imageSize = imageSize;
+        this.staticPixels = staticPixels;
+        this.moduleClasses = moduleClasses;
+        this.overlayX = overlayX;
+        this.overlayY = overlayY;
+        this.overlayWidth = overlayWidth;
+        this.overlayHeight = overlayHeight;
+        this.overlayPixels = overlayPixels;
+    }
+
+    /** @return Nombre de modules par côté */
+    public int getModuleCount() { return moduleCount; }
+
+    /** @return Taille du côté de l'image en pixels */
+    public int getImageSize() { return imageSize; }
+
+    /** @return Version QR correspondant au nombre de modules */
+    public int getVersion() { return (moduleCount - 17) / 4; }
+
+    /**
+     * @return Classe du module (MODULE_DATA, MODULE_FINDER, ...)
+     */
+    public byte moduleClass(int row, int col) {
+        return moduleClasses[row * moduleCount + col];
+    }
+
+    /**
+     * Copie la couche statique dans le tableau de pixels de l'image cible.
+     */
+    void copyStaticLayer(int[] target) {
+        System.arraycopy(staticPixels, 0, target, 0, staticPixels.length);
+    }
+
+    /**
+     * Recompose le logo par-dessus un pixel de donnée (opérateur SrcOver, ARGB prémultiplié).
+     *
+     * @param x Abscisse du pixel dans l'image
+     * @param y Ordonnée du pixel dans l'image
+     * @param destination Pixel TYPE_INT_RGB sous le logo
+     * @return Pixel composé
+     */
+    int composeOverlay(int x, int y, int destination) {
+        int localX = x - overlayX;
+        int localY = y - overlayY;
+        if (localX < 0 || localY < 0 || localX >= overlayWidth || localY >= overlayHeight) {
+            return destination;
+        }
+        int source = overlayPixels[localY * overlayWidth + localX];
+        int alpha = source >>> 24;
+        if (alpha == 0) {
+            return destination;
+        }
+        if (alpha == 0xff) {
+            return source;
+        }
+        int inverse = 0xff - alpha;
+        int red = ((source >> 16) & 0xff) + mul8(inverse, (destination >> 16) & 0xff);
+        int green = ((source >> 8) & 0xff) + mul8(inverse, (destination >> 8) & 0xff);
+        int blue = (source & 0xff) + mul8(inverse, destination & 0xff);
+        return (red << 16) | (green << 8) | blue;
+    }
+
+    /**
+     * Produit de deux valeurs 8 bits normalisé sur 255, arrondi au plus proche.
+     */
+    private static int mul8(int a, int b) {
+        int product = a * b + 0x80;
+        return (product + (product >> 8)) >> 8;
+    }
+}
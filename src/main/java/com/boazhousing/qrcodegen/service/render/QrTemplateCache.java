@@ -0,0 +1,50 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Cache des gabarits QR pré-composés, indexé par version QR et empreinte de style.
+ *
+ * Le nombre d'entrées est naturellement borné: au plus 40 versions par style,
+ * et en pratique une ou deux versions pour nos URLs de vérification.
+ */
+public class QrTemplateCache {
+
+    private final ConcurrentHashMap<String, QrTemplate> templates = new ConcurrentHashMap<>();
+
+    /**
+     * Retourne le gabarit de la version et du style demandés, en le construisant au premier appel.
+     *
+     * La construction (rastérisation des finder patterns et du logo) a lieu hors du verrou
+     * de la table, pour ne pas bloquer les autres clés du même compartiment: deux premiers
+     * appels simultanés peuvent construire chacun le gabarit, le premier inséré est conservé.
+     *
+     * @param version Version QR (1 à 40)
+     * @param styleKey Empreinte du style (couleurs, dimensions, logo)
+     * @param builder Construction du gabarit si absent
+     * @return Gabarit partagé
+     */
+    public QrTemplate get(int version, String styleKey, Supplier<QrTemplate> builder) {
+        String key = version + "|" + styleKey;
+        QrTemplate template = templates.get(key);
+        if (template != null) {
+            return template;
+        }
+        QrTemplate built = builder.get();
+        QrTemplate existing = templates.putIfAbsent(key, built);
+        return existing != null ? existing : built;
+    }
+
+    /** @return Nombre de gabarits en cache */
+    public int size() {
+        return templates.size();
+    }
+
+    /**
+     * Vide le cache (changement de configuration ou de logo).
+     */
+    public void clear() {
+        templates.clear();
+    }
+}
@@ -0,0 +1,55 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageDataFactory;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * Conversion directe d'une image rendue en données image iText (RGB 8 bits brut).
+ *
+ * Évite le détour PNG (compression ImageIO puis décompression par iText):
+ * les pixels du raster sont recopiés tels quels, iText se chargeant de la
+ * compression Flate du flux dans le PDF.
+ */
+public final class RasterImageData {
+
+    private RasterImageData() {
+    }
+
+    /**
+     * @param image Image QR rendue (TYPE_INT_RGB de préférence)
+     * @return Données image RGB prêtes pour un {@code com.itextpdf.layout.element.Image}
+     */
+    public static ImageData fromImage(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        byte[] rgb = new byte[width * height * 3];
+
+        if (image.getType() == BufferedImage.TYPE_INT_RGB
+                && image.getRaster().getDataBuffer() instanceof DataBufferInt dataBuffer
+                && image.getRaster().getParent() == null) {
+            // Chemin rapide: lecture directe du tableau de pixels
+            int[] pixels = dataBuffer.getData();
+            for (int i = 0, j = 0; i < width * height; i++) {
+                int pixel = pixels[i];
+                rgb[j++] = (byte) (pixel >> 16);
+                rgb[j++] = (byte) (pixel >> 8);
+                rgb[j++] = (byte) pixel;
+            }
+        } else {
+            int j = 0;
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int pixel = image.getRGB(x, y);
+                    rgb[j++] = (byte) (pixel >> 16);
+                    rgb[j++] = (byte) (pixel >> 8);
+                    rgb[j++] = (byte) pixel;
+                }
+            }
+        }
+
+        return ImageDataFactory.create(width, height, 3, 8, rgb, null);
+    }
+}
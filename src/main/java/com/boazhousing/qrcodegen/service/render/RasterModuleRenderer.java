@@ -0,0 +1,326 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import com.google.zxing.common.BitMatrix;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Moteur de rendu "raster direct" des modules QR au style Boaz-Housing.
+ *
+ * Au lieu d'appeler Graphics2D (setColor + fillOval/fillRect antialiasés) pour
+ * chaque module, ce moteur pré-rastérise une seule fois:
+ * - le tampon (stamp) d'un point bleu antialiasé, rendu par Java2D avec les mêmes
+ *   hints que le rendu historique
+ * - la table des couleurs orange 7x7 des finder patterns
+ *
+ * Tout ce qui ne dépend que de la version et du style (fond, finder patterns, logo)
+ * est pré-composé dans un {@link QrTemplate} mis en cache. Le rendu d'une matrice se
+ * résume ensuite à copier la couche statique puis à écrire les points de données,
+ * directement dans le DataBufferInt de l'image, sans aucune allocation par module.
+ * Le résultat est identique au rendu Graphics2D historique (au pixel près, à la
+ * tolérance d'arrondi de l'antialiasing près).
+ *
+ * Les instances sont immuables et peuvent être partagées entre threads.
+ */
+public class RasterModuleRenderer {
+
+    private static final int FINDER_SIZE = 7;
+
+    /**
+     * Dessin de la couche posée par-dessus les modules (fond du logo, bordure, logo).
+     */
+    @FunctionalInterface
+    public interface OverlayPainter {
+        void paint(Graphics2D graphics, int imageSize);
+    }
+
+    private final int boxSize;
+    private final int borderSize;
+    private final int logoRadius;
+    private final OverlayPainter overlayPainter;
+    private final String styleKey;
+    private final QrTemplateCache templateCache = new QrTemplateCache();
+
+    private final int backgroundPixel;
+    private final int[] cornerPixels = new int[FINDER_SIZE * FINDER_SIZE];
+
+    // Tampon du point bleu, réduit à sa boîte englobante non blanche
+    private final int[] dotStamp;
+    private final int stampOffsetX;
+    private final int stampOffsetY;
+    private final int stampWidth;
+    private final int stampHeight;
+
+    public RasterModuleRenderer(Color dotColor, Color cornerDark, Color cornerMedium, Color cornerLight,
+                                int boxSize, int borderSize, int logoRadius, OverlayPainter overlayPainter) {
+        this.boxSize = boxSize;
+        this.borderSize = borderSize;
+        this.logoRadius = logoRadius;
+        this.overlayPainter = overlayPainter;
+        this.styleKey = String.format("%06x-%06x-%06x-%06x-%d-%d-%d",
+                dotColor.getRGB() & 0xffffff, cornerDark.getRGB() & 0xffffff,
+                cornerMedium.getRGB() & 0xffffff, cornerLight.getRGB() & 0xffffff,
+                boxSize, borderSize, logoRadius);
+
+        // Rendu d'une tuile de référence avec Java2D, exactement comme le rendu historique
+        BufferedImage tile = new BufferedImage(boxSize, boxSize, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = tile.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, boxSize, boxSize);
+        int[] tilePixels = pixelsOf(tile);
+        this.backgroundPixel = tilePixels[0];
+
+        graphics.setColor(dotColor);
+        int center = boxSize / 2;
+        int radius = boxSize / 3;
+        graphics.fillOval(center - radius, center - radius, radius * 2, radius * 2);
+        graphics.dispose();
+
+        // Réduction du tampon à la zone réellement modifiée par le point
+        int minX = boxSize, minY = boxSize, maxX = -1, maxY = -1;
+        for (int y = 0; y < boxSize; y++) {
+            for (int x = 0; x < boxSize; x++) {
+                if (tilePixels[y * boxSize + x] != backgroundPixel) {
+                    minX = Math.min(minX, x);
+                    minY = Math.min(minY, y);
+                    maxX = Math.max(maxX, x);
+                    maxY = Math.max(maxY, y);
+                }
+            }
+        }
+        if (maxX < 0) {
+            minX = minY = 0;
+            maxX = maxY = -1;
+        }
+        this.stampOffsetX = minX;
+        this.stampOffsetY = minY;
+        this.stampWidth = maxX - minX + 1;
+        this.stampHeight = maxY - minY + 1;
+        this.dotStamp = new int[stampWidth * stampHeight];
+        for (int y = 0; y < stampHeight; y++) {
+            System.arraycopy(tilePixels, (minY + y) * boxSize + minX, dotStamp, y * stampWidth, stampWidth);
+        }
+
+        // Dégradé orange des finder patterns selon la distance au centre (3,3)
+        int dark = pixelFor(cornerDark);
+        int medium = pixelFor(cornerMedium);
+        int light = pixelFor(cornerLight);
+        for (int localRow = 0; localRow < FINDER_SIZE; localRow++) {
+            for (int localCol = 0; localCol < FINDER_SIZE; localCol++) {
+                int distance = Math.max(Math.abs(localRow - 3), Math.abs(localCol - 3));
+                cornerPixels[localRow * FINDER_SIZE + localCol] =
+                        distance <= 1 ? dark : (distance <= 2 ? medium : light);
+            }
+        }
+    }
+
+    /**
+     * Calcule la taille en pixels de l'image finale pour une matrice donnée.
+     *
+     * @param moduleCount Nombre de modules par côté
+     * @return Taille du côté de l'image en pixels
+     */
+    public int imageSizeFor(int moduleCount) {
+        return moduleCount * boxSize + 2 * borderSize;
+    }
+
+    /** @return Empreinte du style rendu par ce moteur */
+    public String getStyleKey() {
+        return styleKey;
+    }
+
+    /** @return Cache des gabarits pré-composés de ce moteur */
+    public QrTemplateCache getTemplateCache() {
+        return templateCache;
+    }
+
+    /**
+     * Produit l'image QR stylée complète (modules et logo) pour une matrice.
+     *
+     * La couche statique du gabarit de la version est copiée en un seul bloc,
+     * puis seuls les points de données actifs sont écrits.
+     *
+     * @param bitMatrix Matrice QR brute (sans quiet zone)
+     * @return Image TYPE_INT_RGB finale
+     */
+    public BufferedImage render(BitMatrix bitMatrix) {
+        int moduleCount = bitMatrix.getWidth();
+        QrTemplate template = templateCache.get((moduleCount - 17) / 4, styleKey, () -> buildTemplate(bitMatrix));
+
+        int imageSize = template.getImageSize();
+        BufferedImage image = new BufferedImage(imageSize, imageSize, BufferedImage.TYPE_INT_RGB);
+        int[] pixels = pixelsOf(image);
+        template.copyStaticLayer(pixels);
+
+        for (int row = 0; row < moduleCount; row++) {
+            int rowOffset = (borderSize + row * boxSize) * imageSize + borderSize;
+
+            for (int col = 0; col < moduleCount; col++) {
+                if (!bitMatrix.get(col, row)) {
+                    continue;
+                }
+                byte moduleClass = template.moduleClass(row, col);
+                if (moduleClass == QrTemplate.MODULE_DATA) {
+                    stampDot(pixels, rowOffset + col * boxSize, imageSize);
+                } else if (moduleClass == QrTemplate.MODULE_DATA_UNDER_OVERLAY) {
+                    stampDotUnderOverlay(pixels, template, row, col);
+                }
+            }
+        }
+
+        return image;
+    }
+
+    /**
+     * Construit le gabarit d'une version: couche statique composée par Java2D,
+     * couche de recouvrement isolée et carte des classes de modules.
+     *
+     * Les finder patterns étant identiques pour tous les symboles d'une même version,
+     * ils sont repris de la première matrice rencontrée.
+     */
+    private QrTemplate buildTemplate(BitMatrix reference) {
+        int moduleCount = reference.getWidth();
+        int imageSize = imageSizeFor(moduleCount);
+        int finderLimit = moduleCount - FINDER_SIZE;
+
+        // Couche statique: fond, finder patterns puis logo, dans l'ordre du rendu historique
+        BufferedImage staticLayer = new BufferedImage(imageSize, imageSize, BufferedImage.TYPE_INT_RGB);
+        int[] staticPixels = pixelsOf(staticLayer);
+        Arrays.fill(staticPixels, backgroundPixel);
+
+        byte[] moduleClasses = new byte[moduleCount * moduleCount];
+        int center = moduleCount / 2;
+        for (int row = 0; row < moduleCount; row++) {
+            for (int col = 0; col < moduleCount; col++) {
+                int localRow = -1, localCol = -1;
+                if (row < FINDER_SIZE && col < FINDER_SIZE) {
+                    localRow = row;
+                    localCol = col;
+                } else if (row < FINDER_SIZE && col >= finderLimit) {
+                    localRow = row;
+                    localCol = col - finderLimit;
+                } else if (row >= finderLimit && col < FINDER_SIZE) {
+                    localRow = row - finderLimit;
+                    localCol = col;
+                }
+
+                if (localRow >= 0) {
+                    moduleClasses[row * moduleCount + col] = QrTemplate.MODULE_FINDER;
+                    if (reference.get(col, row)) {
+                        int tileOffset = (borderSize + row * boxSize) * imageSize + borderSize + col * boxSize;
+                        fillTile(staticPixels, tileOffset, imageSize, cornerPixels[localRow * FINDER_SIZE + localCol]);
+                    }
+                } else if (Math.abs(row - center) <= logoRadius && Math.abs(col - center) <= logoRadius) {
+                    moduleClasses[row * moduleCount + col] = QrTemplate.MODULE_LOGO_ZONE;
+                }
+            }
+        }
+        paintOverlay(staticLayer, imageSize);
+
+        // Couche de recouvrement seule, en ARGB prémultiplié, pour les points situés sous le logo
+        BufferedImage overlayLayer = new BufferedImage(imageSize, imageSize, BufferedImage.TYPE_INT_ARGB_PRE);
+        paintOverlay(overlayLayer, imageSize);
+        int[] overlayFull = pixelsOf(overlayLayer);
+
+        int minX = imageSize, minY = imageSize, maxX = -1, maxY = -1;
+        for (int y = 0; y < imageSize; y++) {
+            for (int x = 0; x < imageSize; x++) {
+                if (overlayFull[y * imageSize + x] != 0) {
+                    minX = Math.min(minX, x);
+                    minY = Math.min(minY, y);
+                    maxX = Math.max(maxX, x);
+                    maxY = Math.max(maxY, y);
+                }
+            }
+        }
+        int overlayWidth = Math.max(0, maxX - minX + 1);
+        int overlayHeight = Math.max(0, maxY - minY + 1);
+        int[] overlayPixels = new int[overlayWidth * overlayHeight];
+        for (int y = 0; y < overlayHeight; y++) {
+            System.arraycopy(overlayFull, (minY + y) * imageSize + minX, overlayPixels, y * overlayWidth, overlayWidth);
+        }
+
+        // Modules de données dont le point est (même partiellement) recouvert par le logo
+        for (int row = 0; row < moduleCount; row++) {
+            for (int col = 0; col < moduleCount; col++) {
+                int index = row * moduleCount + col;
+                if (moduleClasses[index] == QrTemplate.MODULE_DATA
+                        && overlayTouchesStamp(overlayFull, imageSize, row, col)) {
+                    moduleClasses[index] = QrTemplate.MODULE_DATA_UNDER_OVERLAY;
+                }
+            }
+        }
+
+        return new QrTemplate(moduleCount, imageSize, staticPixels, moduleClasses,
+                minX, minY, overlayWidth, overlayHeight, overlayPixels);
+    }
+
+    private void paintOverlay(BufferedImage image, int imageSize) {
+        Graphics2D graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        overlayPainter.paint(graphics, imageSize);
+        graphics.dispose();
+    }
+
+    private boolean overlayTouchesStamp(int[] overlayFull, int imageSize, int row, int col) {
+        int startX = borderSize + col * boxSize + stampOffsetX;
+        int startY = borderSize + row * boxSize + stampOffsetY;
+        for (int y = startY; y < startY + stampHeight; y++) {
+            for (int x = startX; x < startX + stampWidth; x++) {
+                if (overlayFull[y * imageSize + x] != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void fillTile(int[] pixels, int tileOffset, int scanline, int pixel) {
+        for (int y = 0; y < boxSize; y++) {
+            int start = tileOffset + y * scanline;
+            Arrays.fill(pixels, start, start + boxSize, pixel);
+        }
+    }
+
+    private void stampDot(int[] pixels, int tileOffset, int scanline) {
+        int destination = tileOffset + stampOffsetY * scanline + stampOffsetX;
+        for (int y = 0; y < stampHeight; y++) {
+            System.arraycopy(dotStamp, y * stampWidth, pixels, destination, stampWidth);
+            destination += scanline;
+        }
+    }
+
+    private void stampDotUnderOverlay(int[] pixels, QrTemplate template, int row, int col) {
+        int imageSize = template.getImageSize();
+        int startX = borderSize + col * boxSize + stampOffsetX;
+        int startY = borderSize + row * boxSize + stampOffsetY;
+        for (int y = 0; y < stampHeight; y++) {
+            int destination = (startY + y) * imageSize + startX;
+            for (int x = 0; x < stampWidth; x++) {
+                pixels[destination + x] = template.composeOverlay(startX + x, startY + y, dotStamp[y * stampWidth + x]);
+            }
+        }
+    }
+
+    private static int[] pixelsOf(BufferedImage image) {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    /**
+     * Convertit une couleur dans la représentation interne d'un pixel TYPE_INT_RGB.
+     */
+    private static int pixelFor(Color color) {
+        BufferedImage probe = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = probe.createGraphics();
+        graphics.setColor(color);
+        graphics.fillRect(0, 0, 1, 1);
+        graphics.dispose();
+        return pixelsOf(probe)[0];
+    }
+}
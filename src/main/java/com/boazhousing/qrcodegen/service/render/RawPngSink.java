@@ -0,0 +1,19 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import java.io.IOException;
+
+/**
+ * Sink exposant les octets PNG bruts du symbole rendu, conservés en mémoire.
+ */
+public class RawPngSink implements QrOutputSink {
+
+    private byte[] pngBytes;
+
+    @Override
+    public void accept(RenderedQr renderedQr) throws IOException {
+        pngBytes = renderedQr.getPngBytes();
+    }
+
+    /** @return Octets PNG du symbole (null avant rendu, lecture seule) */
+    public byte[] getPngBytes() { return pngBytes; }
+}
@@ -0,0 +1,23 @@
+package com.boazhousing.qrcodegen.service.render;
+
+/**
+ * Étapes chronométrées de la production d'un QR code.
+ */
+public enum RenderStage {
+    /** Encodage ZXing de l'URL en matrice QR */
+    ZXING_ENCODE,
+    /** Rendu des modules et du logo dans l'image */
+    MODULE_RENDER,
+    /** Composition du logo central (par rendu en mode graphics2d, par gabarit en mode raster) */
+    LOGO_COMPOSITE,
+    /** Compression PNG de l'image */
+    PNG_ENCODE,
+    /** Conversion des octets PNG en base64 */
+    BASE64,
+    /** Écriture d'un fichier sur disque */
+    DISK_WRITE,
+    /** Mise en page du PDF */
+    PDF_LAYOUT,
+    /** Préparation du service d'un fichier généré (contrôles, en-têtes), hors transfert */
+    FILE_SERVE
+}
@@ -0,0 +1,161 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import com.google.zxing.common.BitMatrix;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Symbole QR stylé encodé une seule fois et partagé entre les sinks de sortie.
+ *
+ * L'image stylée est rastérisée à la première demande seulement: un sink vectoriel
+ * (PDF, SVG) travaille sur la matrice sans jamais déclencher le rendu raster.
+ * Les octets PNG sont eux aussi produits à la première demande puis réutilisés par tous
+ * les sinks (fichier, base64...): l'image n'est compressée qu'une seule fois.
+ * Lorsqu'ils proviennent du cache PNG, ni l'encodage ZXing ni le rendu ne sont
+ * exécutés, sauf si un sink demande la matrice ou les pixels.
+ * La durée de chaque étape (encodage, rendu, PNG, écriture...) est enregistrée.
+ *
+ * L'image, la matrice et les octets PNG ne doivent pas être modifiés par les sinks.
+ */
+public class RenderedQr {
+
+    private final String reference;          // Référence du document
+    private final String verificationUrl;    // Contenu encodé dans le QR code
+    private final Supplier<BitMatrix> matrixEncoder;               // Encodage ZXing à la demande (cache)
+    private final Function<BitMatrix, BufferedImage> imageRenderer; // Rendu raster, à la première demande
+    private final PngEncoder pngEncoder;     // Encodeur PNG utilisé à la première demande
+    private final boolean fromCache;         // Octets PNG repris du cache
+
+    private final Map<RenderStage, Long> stageNanos = new EnumMap<>(RenderStage.class);
+    private BitMatrix bitMatrix;             // Matrice QR brute (sans quiet zone)
+    private BufferedImage image;
+    private byte[] pngBytes;
+
+    /**
+     * Symbole fraîchement encodé.
+     *
+     * @param bitMatrix Matrice QR déjà encodée
+     * @param imageRenderer Rendu raster de la matrice, exécuté à la première demande
+     * @param pngEncoder Encodeur PNG, exécuté à la première demande
+     */
+    public RenderedQr(String reference, String verificationUrl, BitMatrix bitMatrix,
+                      Function<BitMatrix, BufferedImage> imageRenderer, PngEncoder pngEncoder) {
+        this.reference = reference;
+        this.verificationUrl = verificationUrl;
+        this.bitMatrix = bitMatrix;
+        this.matrixEncoder = () -> bitMatrix;
+        this.imageRenderer = imageRenderer;
+        this.pngEncoder = pngEncoder;
+        this.fromCache = false;
+    }
+
+    /**
+     * Symbole dont les octets PNG proviennent du cache.
+     *
+     * @param cachedPngBytes Octets PNG en cache (lecture seule)
+     * @param matrixEncoder Encodage ZXing, exécuté seulement si un sink demande la matrice
+     * @param imageRenderer Rendu raster, exécuté seulement si un sink demande les pixels
+     */
+    public RenderedQr(String reference, String verificationUrl, byte[] cachedPngBytes,
+                      Supplier<BitMatrix> matrixEncoder, Function<BitMatrix, BufferedImage> imageRenderer) {
+        this.reference = reference;
+        this.verificationUrl = verificationUrl;
+        this.pngBytes = cachedPngBytes;
+        this.matrixEncoder = matrixEncoder;
+        this.imageRenderer = imageRenderer;
+        this.pngEncoder = null;
+        this.fromCache = true;
+    }
+
+    /** @return Référence utilisée pour générer le QR code */
+    public String getReference() { return reference; }
+
+    /** @return URL de vérification encodée */
+    public String getVerificationUrl() { return verificationUrl; }
+
+    /**
+     * Retourne la matrice QR brute, encodée à la première demande si elle provient du cache.
+     *
+     * @return Matrice partagée (lecture seule)
+     */
+    public synchronized BitMatrix getBitMatrix() {
+        if (bitMatrix == null) {
+            long start = System.nanoTime();
+            bitMatrix = matrixEncoder.get();
+            recordStage(RenderStage.ZXING_ENCODE, System.nanoTime() - start);
+        }
+        return bitMatrix;
+    }
+
+    /** @return true si les octets PNG proviennent du cache */
+    public boolean isFromCache() { return fromCache; }
+
+    /** @return true si les octets PNG sont disponibles (cache ou encodage déjà effectué) */
+    public synchronized boolean hasPngBytes() { return pngBytes != null; }
+
+    /**
+     * Retourne l'image QR stylée, rastérisée une seule fois.
+     *
+     * @return Image partagée (lecture seule)
+     */
+    public synchronized BufferedImage getImage() {
+        if (image == null) {
+            BitMatrix matrix = getBitMatrix();
+            long start = System.nanoTime();
+            image = imageRenderer.apply(matrix);
+            recordStage(RenderStage.MODULE_RENDER, System.nanoTime() - start);
+        }
+        return image;
+    }
+
+    /**
+     * Retourne les octets PNG de l'image, encodés une seule fois.
+     *
+     * @return Octets PNG partagés (lecture seule)
+     * @throws IOException En cas d'erreur d'encodage
+     */
+    public synchronized byte[] getPngBytes() throws IOException {
+        if (pngBytes == null) {
+            BufferedImage source = getImage();
+            long start = System.nanoTime();
+            pngBytes = pngEncoder.encode(source);
+            recordStage(RenderStage.PNG_ENCODE, System.nanoTime() - start);
+        }
+        return pngBytes;
+    }
+
+    /**
+     * Ajoute une durée à une étape (cumulée si l'étape est exécutée plusieurs fois).
+     *
+     * @param stage Étape chronométrée
+     * @param nanos Durée en nanosecondes
+     */
+    public synchronized void recordStage(RenderStage stage, long nanos) {
+        stageNanos.merge(stage, nanos, Long::sum);
+    }
+
+    /** @return Copie des durées enregistrées par étape, en nanosecondes */
+    public synchronized Map<RenderStage, Long> getStageTimings() {
+        return new EnumMap<>(stageNanos);
+    }
+
+    /**
+     * @return Résumé lisible des durées par étape (ex: "ZXING_ENCODE=1.2ms, PNG_ENCODE=3.4ms")
+     */
+    public synchronized String describeTimings() {
+        StringBuilder description = new StringBuilder();
+        for (Map.Entry<RenderStage, Long> entry : stageNanos.entrySet()) {
+            if (description.length() > 0) {
+                description.append(", ");
+            }
+            description.append(entry.getKey()).append('=')
+                       .append(String.format("%.2fms", entry.getValue() / 1_000_000.0));
+        }
+        return description.toString();
+    }
+}
@@ -0,0 +1,49 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import com.google.zxing.common.BitMatrix;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Document SVG d'un QR code encodé, prêt à être écrit dans un flux.
+ *
+ * L'encodage ZXing est déjà effectué (les erreurs d'encodage surviennent avant
+ * toute écriture); le document lui-même n'est jamais matérialisé en mémoire.
+ */
+public class SvgQrDocument {
+
+    private final String reference;
+    private final BitMatrix bitMatrix;
+    private final SvgQrWriter writer;
+    private final SvgQrWriter.Logo logo;
+
+    public SvgQrDocument(String reference, BitMatrix bitMatrix, SvgQrWriter writer, SvgQrWriter.Logo logo) {
+        this.reference = reference;
+        this.bitMatrix = bitMatrix;
+        this.writer = writer;
+        this.logo = logo;
+    }
+
+    /** @return Référence encodée */
+    public String getReference() { return reference; }
+
+    /** @return Matrice QR brute (lecture seule) */
+    public BitMatrix getBitMatrix() { return bitMatrix; }
+
+    /**
+     * Écrit le document SVG (UTF-8) dans le flux, sans le fermer.
+     *
+     * @param outputStream Flux de destination (ex: corps de la réponse HTTP)
+     * @throws IOException En cas d'erreur d'écriture
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        Writer out = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 8 * 1024);
+        writer.write(bitMatrix, out, logo);
+        out.flush();
+    }
+}
@@ -0,0 +1,188 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import com.google.zxing.common.BitMatrix;
+
+import java.awt.*;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Rendu vectoriel SVG du QR code au style Boaz-Housing, écrit directement dans un flux.
+ *
+ * Reproduit la géométrie du rendu raster (mêmes coordonnées en pixels, viewBox à la
+ * taille de l'image PNG) sans aucune BufferedImage:
+ * - points de données: un seul chemin de cercles bleus
+ * - finder patterns: dégradé orange par anneaux, un chemin par couleur
+ * - logo central: fond circulaire blanc bordé, puis image embarquée (data URI) ou référencée
+ * - logo indisponible: pastille de secours "BH"
+ *
+ * Le document est produit module par module: la mémoire utilisée ne dépend pas de la
+ * taille du symbole. Les instances sont immuables et partagées entre threads.
+ */
+public class SvgQrWriter {
+
+    private static final int FINDER_SIZE = 7;
+    private static final int FALLBACK_LOGO_RADIUS = 25;
+
+    /**
+     * Logo central à placer dans le document.
+     */
+    public static final class Logo {
+        private final String href;
+        private final int width;
+        private final int height;
+
+        /**
+         * @param href URL de l'image (data URI ou URL absolue/relative)
+         * @param width Largeur d'affichage en pixels
+         * @param height Hauteur d'affichage en pixels
+         */
+        public Logo(String href, int width, int height) {
+            this.href = href;
+            this.width = width;
+            this.height = height;
+        }
+
+        public String getHref() { return href; }
+        public int getWidth() { return width; }
+        public int getHeight() { return height; }
+    }
+
+    private final String dotColor;
+    private final String[] cornerColors;
+    private final int boxSize;
+    private final int borderSize;
+    private final int logoRadius;
+
+    public SvgQrWriter(Color dotColor, Color cornerDark, Color cornerMedium, Color cornerLight,
+                       int boxSize, int borderSize, int logoRadius) {
+        this.dotColor = hex(dotColor);
+        // Index = distance au centre du finder pattern ramenée à 0 (foncé), 1 (moyen), 2 (clair)
+        this.cornerColors = new String[] {hex(cornerDark), hex(cornerMedium), hex(cornerLight)};
+        this.boxSize = boxSize;
+        this.borderSize = borderSize;
+        this.logoRadius = logoRadius;
+    }
+
+    /**
+     * Écrit le document SVG complet du symbole.
+     *
+     * @param bitMatrix Matrice QR brute (sans quiet zone)
+     * @param out Flux de sortie (idéalement bufferisé), non fermé par cette méthode
+     * @param logo Logo central, ou null pour la pastille de secours "BH"
+     * @throws IOException En cas d'erreur d'écriture
+     */
+    public void write(BitMatrix bitMatrix, Writer out, Logo logo) throws IOException {
+        int moduleCount = bitMatrix.getWidth();
+        int imageSize = moduleCount * boxSize + 2 * borderSize;
+
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\"");
+        out.write(" width=\"" + imageSize + "\" height=\"" + imageSize
+                + "\" viewBox=\"0 0 " + imageSize + " " + imageSize + "\">\n");
+        out.write("<rect width=\"" + imageSize + "\" height=\"" + imageSize + "\" fill=\"#ffffff\"/>\n");
+
+        writeFinderPatterns(bitMatrix, out);
+        writeDataDots(bitMatrix, out);
+        writeLogo(out, imageSize, logo);
+
+        out.write("</svg>\n");
+        out.flush();
+    }
+
+    /**
+     * Finder patterns: un chemin de carrés jointifs par couleur du dégradé.
+     */
+    private void writeFinderPatterns(BitMatrix bitMatrix, Writer out) throws IOException {
+        int finderLimit = bitMatrix.getWidth() - FINDER_SIZE;
+        int[][] origins = {{0, 0}, {0, finderLimit}, {finderLimit, 0}};
+
+        for (int level = 0; level < cornerColors.length; level++) {
+            out.write("<path fill=\"" + cornerColors[level] + "\" shape-rendering=\"crispEdges\" d=\"");
+            for (int[] origin : origins) {
+                for (int localRow = 0; localRow < FINDER_SIZE; localRow++) {
+                    for (int localCol = 0; localCol < FINDER_SIZE; localCol++) {
+                        int distance = Math.max(Math.abs(localRow - 3), Math.abs(localCol - 3));
+                        int moduleLevel = distance <= 1 ? 0 : (distance <= 2 ? 1 : 2);
+                        int row = origin[0] + localRow;
+                        int col = origin[1] + localCol;
+                        if (moduleLevel == level && bitMatrix.get(col, row)) {
+                            int x = borderSize + col * boxSize;
+                            int y = borderSize + row * boxSize;
+                            out.write("M" + x + " " + y + "h" + boxSize + "v" + boxSize + "h-" + boxSize + "z");
+                        }
+                    }
+                }
+            }
+            out.write("\"/>\n");
+        }
+    }
+
+    /**
+     * Points de données: cercles de rayon boxSize/3 centrés dans chaque module actif,
+     * hors finder patterns et zone logo, regroupés dans un seul chemin.
+     */
+    private void writeDataDots(BitMatrix bitMatrix, Writer out) throws IOException {
+        int moduleCount = bitMatrix.getWidth();
+        int finderLimit = moduleCount - FINDER_SIZE;
+        int center = moduleCount / 2;
+        int radius = boxSize / 3;
+        int half = boxSize / 2;
+        String arc = "a" + radius + " " + radius + " 0 1 0 ";
+        String dot = arc + (2 * radius) + " 0" + arc + (-2 * radius) + " 0z";
+
+        out.write("<path fill=\"" + dotColor + "\" d=\"");
+        for (int row = 0; row < moduleCount; row++) {
+            for (int col = 0; col < moduleCount; col++) {
+                if (!bitMatrix.get(col, row)) {
+                    continue;
+                }
+                boolean finder = (row < FINDER_SIZE && (col < FINDER_SIZE || col >= finderLimit))
+                        || (row >= finderLimit && col < FINDER_SIZE);
+                boolean logoZone = Math.abs(row - center) <= logoRadius && Math.abs(col - center) <= logoRadius;
+                if (finder || logoZone) {
+                    continue;
+                }
+                int centerX = borderSize + col * boxSize + half;
+                int centerY = borderSize + row * boxSize + half;
+                out.write("M" + (centerX - radius) + " " + centerY + dot);
+            }
+        }
+        out.write("\"/>\n");
+    }
+
+    /**
+     * Logo central: mêmes dimensions que le rendu raster (fond circulaire de rayon
+     * min(largeur, hauteur)/2 - 25, bordure de la couleur des points).
+     */
+    private void writeLogo(Writer out, int imageSize, Logo logo) throws IOException {
+        int center = imageSize / 2;
+
+        if (logo == null) {
+            out.write("<circle cx=\"" + center + "\" cy=\"" + center + "\" r=\"" + FALLBACK_LOGO_RADIUS
+                    + "\" fill=\"#ffffff\" stroke=\"" + dotColor + "\" stroke-width=\"2\"/>\n");
+            out.write("<text x=\"" + center + "\" y=\"" + center + "\" fill=\"" + dotColor
+                    + "\" font-family=\"Arial, sans-serif\" font-weight=\"bold\" font-size=\"16\""
+                    + " text-anchor=\"middle\" dominant-baseline=\"central\">BH</text>\n");
+            return;
+        }
+
+        int backgroundRadius = Math.min(logo.getWidth(), logo.getHeight()) / 2 - 25;
+        out.write("<circle cx=\"" + center + "\" cy=\"" + center + "\" r=\"" + backgroundRadius
+                + "\" fill=\"#ffffff\" stroke=\"" + dotColor + "\" stroke-width=\"1\"/>\n");
+        out.write("<image x=\"" + (center - logo.getWidth() / 2) + "\" y=\"" + (center - logo.getHeight() / 2)
+                + "\" width=\"" + logo.getWidth() + "\" height=\"" + logo.getHeight()
+                // xlink:href plutôt que href: compris aussi par les moteurs d'impression plus anciens
+                + "\" xlink:href=\"");
+        out.write(escapeAttribute(logo.getHref()));
+        out.write("\"/>\n");
+    }
+
+    private static String hex(Color color) {
+        return String.format("#%06x", color.getRGB() & 0xffffff);
+    }
+
+    private static String escapeAttribute(String value) {
+        return value.replace("&", "&amp;").replace("\"", "&quot;").replace("<", "&lt;");
+    }
+}
@@ -0,0 +1,918 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.decoder.Version;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Encodeur QR spécialisé pour les URLs de vérification: préfixe fixe
+ * (base-url + verification-path + "?ref=") suivi d'une courte référence ASCII.
+ *
+ * Produit exactement le symbole de ZXing (QRCodeWriter, niveau H ou autre niveau fixe,
+ * CHARACTER_SET UTF-8, sans quiet zone): segment ECI UTF-8, mode octet, même choix de version, mêmes blocs
+ * Reed-Solomon, même placement et même sélection du masque (règles de pénalité ZXing).
+ *
+ * Tout ce qui ne dépend pas de la référence est calculé une seule fois:
+ * - en-tête ECI + mode et octets du préfixe (flux aligné sur l'octet)
+ * - tables GF(256) et polynômes générateurs Reed-Solomon
+ * - par version: motifs fonctionnels (finder, timing, alignement, version) et ordre de
+ *   placement des modules de données
+ *
+ * Les tampons de travail (mots de code, matrices candidates) sont empruntés à un petit pool
+ * borné au nombre de processeurs, et non attachés aux threads: avec un thread virtuel par
+ * requête, un tampon par thread serait alloué à chaque encodage sans jamais être réutilisé.
+ * L'encodage dans une matrice fournie de la bonne taille n'alloue rien tant que le pool suffit.
+ *
+ * En mode segments mixtes, le contenu (ASCII, sans ECI) est découpé de façon optimale en
+ * segments numériques, alphanumériques et octets ({@link QrSegmentPlanner}) et la plus petite
+ * version adaptée est retenue: symbole plus petit que celui de ZXing, pas identique.
+ */
+public class VerificationQrEncoder {
+
+    // En-tête ECI (0111 + valeur 26 = UTF-8 sur 8 bits) puis indicateur de mode octet (0100)
+    private static final int HEADER_BITS = 16;
+    private static final int ECI_UTF8_HIGH = 0x71;
+    private static final int ECI_UTF8_LOW_AND_BYTE_MODE = 0xA4;
+
+    private static final int MAX_VERSION = 40;
+    private static final int MAX_MODULES = 17 + 4 * MAX_VERSION;
+    private static final int MAX_CODEWORDS = 3706;
+    private static final int MAX_EC_CODEWORDS = 30;
+    // Capacité numérique de la version 40 au niveau H: borne de la longueur en segments mixtes
+    private static final int MAX_MIXED_CHARACTERS = 3057;
+    // Plages de versions de même taille des compteurs de caractères
+    private static final int[][] VERSION_CLASSES = {{1, 9}, {10, 26}, {27, 40}};
+
+    // Bits de format (niveau, masque) avec BCH(15,5) et masque 0x5412, par niveau puis par masque
+    private static final int[][] TYPE_INFO = new int[4][8];
+
+    // Positions (x, y) de la première copie des bits de format, du bit de poids faible au plus fort
+    private static final int[][] TYPE_INFO_COORDINATES = {
+            {8, 0}, {8, 1}, {8, 2}, {8, 3}, {8, 4}, {8, 5}, {8, 7}, {8, 8},
+            {7, 8}, {5, 8}, {4, 8}, {3, 8}, {2, 8}, {1, 8}, {0, 8},
+    };
+
+    // Corps GF(256) du QR code (polynôme 0x11D, base 0)
+    private static final int[] EXP = new int[512];
+    private static final int[] LOG = new int[256];
+    private static final int[][] GENERATORS = new int[MAX_EC_CODEWORDS + 1][];
+
+    static {
+        int value = 1;
+        for (int i = 0; i < 255; i++) {
+            EXP[i] = value;
+            LOG[value] = i;
+            value <<= 1;
+            if (value >= 256) {
+                value ^= 0x11D;
+            }
+        }
+        for (int i = 255; i < EXP.length; i++) {
+            EXP[i] = EXP[i - 255];
+        }
+
+        // g(x) = (x + a^0)(x + a^1)...(x + a^(d-1)), coefficients du degré le plus élevé au plus faible
+        GENERATORS[0] = new int[] {1};
+        for (int degree = 1; degree <= MAX_EC_CODEWORDS; degree++) {
+            int[] previous = GENERATORS[degree - 1];
+            int[] next = new int[degree + 1];
+            int root = EXP[degree - 1];
+            for (int i = 0; i < previous.length; i++) {
+                next[i] ^= previous[i];
+                next[i + 1] ^= multiply(previous[i], root);
+            }
+            GENERATORS[degree] = next;
+        }
+
+        for (ErrorCorrectionLevel level : ErrorCorrectionLevel.values()) {
+            for (int mask = 0; mask < 8; mask++) {
+                int typeInfo = (level.getBits() << 3) | mask;
+                TYPE_INFO[level.ordinal()][mask] = ((typeInfo << 10) | bchCode(typeInfo, 0x537)) ^ 0x5412;
+            }
+        }
+    }
+
+    private static final ConcurrentHashMap<Integer, VersionLayout> LAYOUTS = new ConcurrentHashMap<>();
+
+    private final String prefix;
+    private final byte[] prefixBytes;
+    private final boolean byteMode;
+    private final QrSegmentPlanner planner;
+    private final boolean mixedSegments;
+    // Tampons de travail libres; un encodage sans tampon disponible en alloue un, rendu au pool s'il a de la place
+    private final ArrayBlockingQueue<Scratch> scratchPool =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * @param prefix Préfixe commun à toutes les URLs encodées (base-url + verification-path + "?ref=")
+     */
+    public VerificationQrEncoder(String prefix) {
+        this(prefix, false);
+    }
+
+    /**
+     * @param prefix Préfixe commun à toutes les URLs encodées (base-url + verification-path + "?ref=")
+     * @param mixedSegments true pour le découpage en segments mixtes (préfixe ASCII obligatoire)
+     */
+    public VerificationQrEncoder(String prefix, boolean mixedSegments) {
+        if (mixedSegments && !isAscii(prefix, 0)) {
+            throw new IllegalArgumentException("Préfixe non ASCII incompatible avec les segments mixtes: " + prefix);
+        }
+        this.prefix = prefix;
+        this.planner = mixedSegments ? new QrSegmentPlanner(prefix) : null;
+        this.mixedSegments = mixedSegments;
+        this.prefixBytes = prefix.getBytes(StandardCharsets.UTF_8);
+        // ZXing choisit le mode octet dès qu'un caractère sort de l'alphabet alphanumérique QR
+        boolean alphanumericOnly = true;
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z') || " $%*+-./:".indexOf(c) >= 0)) {
+                alphanumericOnly = false;
+                break;
+            }
+        }
+        this.byteMode = !alphanumericOnly;
+    }
+
+    /**
+     * @param contents URL à encoder
+     * @return true si l'URL a la forme prise en charge (préfixe attendu, référence ASCII)
+     */
+    public boolean supports(String contents) {
+        if ((planner == null && !byteMode) || contents.length() <= prefix.length() || !contents.startsWith(prefix)) {
+            return false;
+        }
+        return isAscii(contents, prefix.length());
+    }
+
+    /** @return true si le contenu est découpé en segments mixtes */
+    public boolean isMixedSegments() {
+        return planner != null;
+    }
+
+    private static boolean isAscii(String value, int from) {
+        for (int i = from; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Encode une URL de vérification dans une nouvelle matrice.
+     *
+     * @param contents URL acceptée par {@link #supports(String)}
+     * @param pinnedVersion Version imposée (1 à 40), ou 0 pour la version minimale
+     * @param pinnedMask Masque imposé (0 à 7), ou -1 pour le masque de pénalité minimale
+     * @return Matrice QR sans quiet zone, ou null si le contenu dépasse la version imposée
+     */
+    public BitMatrix encode(String contents, int pinnedVersion, int pinnedMask) {
+        return encode(contents, pinnedVersion, pinnedMask, null);
+    }
+
+    /**
+     * Encode une URL de vérification, en réutilisant la matrice fournie si sa taille convient.
+     *
+     * @param contents URL acceptée par {@link #supports(String)}
+     * @param pinnedVersion Version imposée (1 à 40), ou 0 pour la version minimale
+     * @param pinnedMask Masque imposé (0 à 7), ou -1 pour le masque de pénalité minimale
+     * @param reusable Matrice à réécrire (ou null): utilisée si elle a la taille du symbole
+     * @return Matrice QR sans quiet zone (reusable si réutilisée), ou null si le contenu
+     *         dépasse la version imposée
+     * @throws IllegalArgumentException Si le contenu dépasse la capacité de la version 40
+     */
+    public BitMatrix encode(String contents, int pinnedVersion, int pinnedMask, BitMatrix reusable) {
+        return encode(contents, EccLevelPolicy.FIXED_H, pinnedVersion, pinnedMask, reusable);
+    }
+
+    /**
+     * Encode une URL de vérification avec le niveau de correction choisi par version.
+     *
+     * Niveau fixe: même choix de version que ZXing. Niveau adaptatif: plus petite version
+     * dont le niveau de correction associé peut contenir les données.
+     *
+     * @param contents URL acceptée par {@link #supports(String)}
+     * @param policy Niveau de correction par version
+     * @param pinnedVersion Version imposée (1 à 40), ou 0 pour la version minimale
+     * @param pinnedMask Masque imposé (0 à 7), ou -1 pour le masque de pénalité minimale
+     * @param reusable Matrice à réécrire (ou null): utilisée si elle a la taille du symbole
+     * @return Matrice QR sans quiet zone (reusable si réutilisée), ou null si le contenu
+     *         dépasse la version imposée
+     * @throws IllegalArgumentException Si le contenu dépasse la capacité de la version 40
+     */
+    public BitMatrix encode(String contents, EccLevelPolicy policy, int pinnedVersion, int pinnedMask,
+                            BitMatrix reusable) {
+        Scratch work = scratchPool.poll();
+        if (work == null) {
+            work = new Scratch(mixedSegments);
+        }
+        try {
+            return encode(contents, policy, pinnedVersion, pinnedMask, reusable, work);
+        } finally {
+            scratchPool.offer(work);
+        }
+    }
+
+    private BitMatrix encode(String contents, EccLevelPolicy policy, int pinnedVersion, int pinnedMask,
+                             BitMatrix reusable, Scratch work) {
+        byte[] codewords = work.codewords;
+        VersionLayout layout;
+
+        if (planner != null) {
+            layout = planMixed(contents, policy, pinnedVersion, work);
+            if (layout == null) {
+                return null;
+            }
+            Arrays.fill(codewords, 0, layout.numDataBytes, (byte) 0);
+            int bits = planner.write(contents, versionClass(layout.version), work.segmentStart,
+                                     work.segmentMode, work.segmentEnds, codewords);
+            // Terminateur: jusqu'à 4 bits nuls, puis complément à l'octet (bits déjà nuls)
+            int terminated = Math.min(bits + 4, layout.numDataBytes * 8);
+            padBytes(codewords, (terminated + 7) / 8, layout.numDataBytes);
+        } else {
+            int length = prefixBytes.length + contents.length() - prefix.length();
+            if (pinnedVersion > 0) {
+                layout = layout(pinnedVersion, policy.levelFor(pinnedVersion));
+                if (!fits(length, layout)) {
+                    return null;
+                }
+            } else if (policy.isFixed()) {
+                // Même démarche que ZXing: version provisoire calculée avec le compteur de la version 1
+                ErrorCorrectionLevel level = policy.levelFor(1);
+                VersionLayout provisional = chooseVersion(bitsNeeded(length, 1), level);
+                layout = chooseVersion(bitsNeeded(length, provisional.version), level);
+            } else {
+                layout = chooseAdaptiveVersion(length, policy);
+            }
+            if (!policy.isFixed()) {
+                layout = strongestFitting(layout, (bitsNeeded(length, layout.version) + 7) / 8);
+            }
+            int count = writeDataCodewords(contents, length, layout, codewords);
+            padCodewords(codewords, count, layout.numDataBytes);
+        }
+
+        interleave(layout, codewords, work.interleaved, work.remainder);
+
+        int mask = pinnedMask >= 0 ? pinnedMask : chooseMask(layout, work);
+        byte[] modules = work.modules;
+        buildMatrix(layout, work.interleaved, mask, modules);
+
+        int size = layout.size;
+        BitMatrix matrix = reusable != null && reusable.getWidth() == size && reusable.getHeight() == size
+                ? reusable : new BitMatrix(size, size);
+        if (matrix == reusable) {
+            matrix.clear();
+        }
+        for (int y = 0, offset = 0; y < size; y++) {
+            for (int x = 0; x < size; x++, offset++) {
+                if (modules[offset] == 1) {
+                    matrix.set(x, y);
+                }
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Découpage en segments mixtes et choix de la version: plus petite version de chaque
+     * classe de compteurs, classes parcourues dans l'ordre (le découpage en dépend).
+     *
+     * @return Version retenue, ou null si le contenu dépasse la version imposée
+     */
+    private VersionLayout planMixed(String contents, EccLevelPolicy policy, int pinnedVersion, Scratch work) {
+        if (contents.length() > MAX_MIXED_CHARACTERS) {
+            throw new IllegalArgumentException("Contenu trop long pour un QR code de niveau H");
+        }
+        if (pinnedVersion > 0) {
+            int bits = planner.plan(contents, versionClass(pinnedVersion), work.segmentCost,
+                                    work.segmentStart, work.segmentMode);
+            VersionLayout layout = layout(pinnedVersion, policy.levelFor(pinnedVersion));
+            if (layout.numDataBytes < (bits + 7) / 8) {
+                return null;
+            }
+            return policy.isFixed() ? layout : strongestFitting(layout, (bits + 7) / 8);
+        }
+        for (int versionClass = 0; versionClass < VERSION_CLASSES.length; versionClass++) {
+            int bytes = (planner.plan(contents, versionClass, work.segmentCost,
+                                      work.segmentStart, work.segmentMode) + 7) / 8;
+            for (int version = VERSION_CLASSES[versionClass][0]; version <= VERSION_CLASSES[versionClass][1]; version++) {
+                VersionLayout layout = layout(version, policy.levelFor(version));
+                if (layout.numDataBytes >= bytes) {
+                    return policy.isFixed() ? layout : strongestFitting(layout, bytes);
+                }
+            }
+        }
+        throw new IllegalArgumentException("Contenu trop long pour un QR code");
+    }
+
+    private static int versionClass(int version) {
+        return version <= 9 ? 0 : version <= 26 ? 1 : 2;
+    }
+
+    /**
+     * Mots de code de données: en-tête, longueur, préfixe, référence (flux aligné sur l'octet).
+     *
+     * @return Nombre d'octets écrits
+     */
+    private int writeDataCodewords(String contents, int length, VersionLayout layout, byte[] codewords) {
+        int index = 0;
+        codewords[index++] = (byte) ECI_UTF8_HIGH;
+        codewords[index++] = (byte) ECI_UTF8_LOW_AND_BYTE_MODE;
+        if (characterCountBits(layout.version) == 16) {
+            codewords[index++] = (byte) (length >> 8);
+        }
+        codewords[index++] = (byte) length;
+        System.arraycopy(prefixBytes, 0, codewords, index, prefixBytes.length);
+        index += prefixBytes.length;
+        for (int i = prefix.length(); i < contents.length(); i++) {
+            codewords[index++] = (byte) contents.charAt(i);
+        }
+        return index;
+    }
+
+    /**
+     * Terminateur (4 bits nuls, puis complément à l'octet) et octets de bourrage 0xEC / 0x11.
+     */
+    private static void padCodewords(byte[] codewords, int count, int numDataBytes) {
+        int index = count;
+        if (index < numDataBytes) {
+            codewords[index++] = 0;
+        }
+        padBytes(codewords, index, numDataBytes);
+    }
+
+    /**
+     * Octets de bourrage 0xEC / 0x11 alternés jusqu'à la capacité de la version.
+     */
+    private static void padBytes(byte[] codewords, int from, int numDataBytes) {
+        for (int i = 0, index = from; index < numDataBytes; i++) {
+            codewords[index++] = (byte) ((i & 1) == 0 ? 0xEC : 0x11);
+        }
+    }
+
+    /**
+     * Découpe les données en blocs, calcule leur correction Reed-Solomon et entrelace
+     * données puis corrections (ordre ZXing).
+     */
+    private static void interleave(VersionLayout layout, byte[] data, byte[] out, int[] remainder) {
+        int numBlocks = layout.numBlocks;
+        int group2Blocks = layout.totalCodewords % numBlocks;
+        int group1Blocks = numBlocks - group2Blocks;
+        int group1DataBytes = layout.numDataBytes / numBlocks;
+        int ecBytes = layout.totalCodewords / numBlocks - group1DataBytes;
+        int[] generator = GENERATORS[ecBytes];
+
+        int dataOffset = 0;
+        for (int block = 0; block < numBlocks; block++) {
+            int blockDataBytes = block < group1Blocks ? group1DataBytes : group1DataBytes + 1;
+
+            // Données du bloc: colonne "block" de l'entrelacement
+            for (int i = 0; i < blockDataBytes; i++) {
+                int position = i < group1DataBytes
+                        ? i * numBlocks + block
+                        : group1DataBytes * numBlocks + (block - group1Blocks);
+                out[position] = data[dataOffset + i];
+            }
+
+            // Reste de la division par le polynôme générateur (registre à décalage)
+            Arrays.fill(remainder, 0, ecBytes, 0);
+            for (int i = 0; i < blockDataBytes; i++) {
+                int factor = (data[dataOffset + i] & 0xFF) ^ remainder[0];
+                System.arraycopy(remainder, 1, remainder, 0, ecBytes - 1);
+                remainder[ecBytes - 1] = 0;
+                if (factor != 0) {
+                    int logFactor = LOG[factor];
+                    for (int j = 0; j < ecBytes; j++) {
+                        int coefficient = generator[j + 1];
+                        if (coefficient != 0) {
+                            remainder[j] ^= EXP[LOG[coefficient] + logFactor];
+                        }
+                    }
+                }
+            }
+            int ecBase = layout.numDataBytes;
+            for (int i = 0; i < ecBytes; i++) {
+                out[ecBase + i * numBlocks + block] = (byte) remainder[i];
+            }
+            dataOffset += blockDataBytes;
+        }
+    }
+
+    /**
+     * Masque de pénalité minimale (premier en cas d'égalité, comme ZXing).
+     */
+    private static int chooseMask(VersionLayout layout, Scratch work) {
+        int bestMask = 0;
+        int minPenalty = Integer.MAX_VALUE;
+        for (int mask = 0; mask < 8; mask++) {
+            buildMatrix(layout, work.interleaved, mask, work.modules);
+            int penalty = layout.size <= 64
+                    ? PackedMaskPenalty.total(work.modules, layout.size, work.rows, work.columns)
+                    : MaskPenalty.total(work.modules, layout.size);
+            if (penalty < minPenalty) {
+                minPenalty = penalty;
+                bestMask = mask;
+            }
+        }
+        return bestMask;
+    }
+
+    /**
+     * Matrice complète: motifs fonctionnels de la version, bits de format du masque,
+     * puis modules de données masqués (modules restants à 0 avant masquage).
+     */
+    private static void buildMatrix(VersionLayout layout, byte[] codewords, int mask, byte[] modules) {
+        int size = layout.size;
+        System.arraycopy(layout.template, 0, modules, 0, size * size);
+
+        int typeInfo = TYPE_INFO[layout.level.ordinal()][mask];
+        for (int i = 0; i < 15; i++) {
+            byte bit = (byte) ((typeInfo >> i) & 1);
+            int[] coordinates = TYPE_INFO_COORDINATES[i];
+            modules[coordinates[1] * size + coordinates[0]] = bit;
+            if (i < 8) {
+                modules[8 * size + size - i - 1] = bit;
+            } else {
+                modules[(size - 7 + (i - 8)) * size + 8] = bit;
+            }
+        }
+
+        int[] order = layout.dataOrder;
+        byte[] flips = layout.maskFlips[mask];
+        int numBits = layout.totalCodewords * 8;
+        for (int k = 0; k < order.length; k++) {
+            int bit = k < numBits ? (codewords[k >> 3] >> (7 - (k & 7))) & 1 : 0;
+            modules[order[k]] = (byte) (bit ^ flips[k]);
+        }
+    }
+
+    private static boolean isMasked(int mask, int x, int y) {
+        int intermediate;
+        int temp;
+        switch (mask) {
+            case 0: intermediate = (y + x) & 1; break;
+            case 1: intermediate = y & 1; break;
+            case 2: intermediate = x % 3; break;
+            case 3: intermediate = (y + x) % 3; break;
+            case 4: intermediate = ((y / 2) + (x / 3)) & 1; break;
+            case 5: temp = y * x; intermediate = (temp & 1) + (temp % 3); break;
+            case 6: temp = y * x; intermediate = ((temp & 1) + (temp % 3)) & 1; break;
+            default: temp = y * x; intermediate = ((temp % 3) + ((y + x) & 1)) & 1; break;
+        }
+        return intermediate == 0;
+    }
+
+    private static int bitsNeeded(int length, int version) {
+        return HEADER_BITS + characterCountBits(version) + 8 * length;
+    }
+
+    private static int characterCountBits(int version) {
+        return version <= 9 ? 8 : 16;
+    }
+
+    private static boolean fits(int length, VersionLayout layout) {
+        return layout.numDataBytes >= (bitsNeeded(length, layout.version) + 7) / 8;
+    }
+
+    private static VersionLayout chooseVersion(int bits, ErrorCorrectionLevel level) {
+        for (int version = 1; version <= MAX_VERSION; version++) {
+            VersionLayout layout = layout(version, level);
+            if (layout.numDataBytes >= (bits + 7) / 8) {
+                return layout;
+            }
+        }
+        throw new IllegalArgumentException("Contenu trop long pour un QR code de niveau " + level);
+    }
+
+    private static VersionLayout chooseAdaptiveVersion(int length, EccLevelPolicy policy) {
+        for (int version = 1; version <= MAX_VERSION; version++) {
+            VersionLayout layout = layout(version, policy.levelFor(version));
+            if (fits(length, layout)) {
+                return layout;
+            }
+        }
+        throw new IllegalArgumentException("Contenu trop long pour un QR code");
+    }
+
+    /**
+     * Niveau adaptatif: à version égale, le niveau le plus fort qui contient encore les données
+     * (symbole de même taille, plus robuste).
+     */
+    private static VersionLayout strongestFitting(VersionLayout layout, int bytes) {
+        ErrorCorrectionLevel[] levels = ErrorCorrectionLevel.values(); // L, M, Q, H
+        for (int i = levels.length - 1; i > layout.level.ordinal(); i--) {
+            VersionLayout stronger = layout(layout.version, levels[i]);
+            if (stronger.numDataBytes >= bytes) {
+                return stronger;
+            }
+        }
+        return layout;
+    }
+
+    /**
+     * Structure d'une version pour un niveau de correction; les motifs fonctionnels et l'ordre
+     * de placement, communs à tous les niveaux, sont partagés avec la structure du niveau H.
+     */
+    private static VersionLayout layout(int version, ErrorCorrectionLevel level) {
+        VersionLayout geometry = LAYOUTS.computeIfAbsent(version * 4 + ErrorCorrectionLevel.H.ordinal(),
+                                                         key -> new VersionLayout(version));
+        if (level == ErrorCorrectionLevel.H) {
+            return geometry;
+        }
+        return LAYOUTS.computeIfAbsent(version * 4 + level.ordinal(), key -> new VersionLayout(geometry, level));
+    }
+
+    /**
+     * Ordre de placement des modules de données d'une version (indices y * taille + x),
+     * du premier bit du flux entrelacé au dernier. Tableau partagé: ne pas modifier.
+     */
+    static int[] dataModuleOrder(int version) {
+        return layout(version, ErrorCorrectionLevel.H).dataOrder;
+    }
+
+    private static int multiply(int a, int b) {
+        return a == 0 || b == 0 ? 0 : EXP[LOG[a] + LOG[b]];
+    }
+
+    private static int bchCode(int value, int polynomial) {
+        int msbPolynomial = 31 - Integer.numberOfLeadingZeros(polynomial);
+        int code = value << (msbPolynomial);
+        while (31 - Integer.numberOfLeadingZeros(code) >= msbPolynomial) {
+            code ^= polynomial << (31 - Integer.numberOfLeadingZeros(code) - msbPolynomial);
+        }
+        return code;
+    }
+
+    /**
+     * Structure d'une version pour un niveau de correction: capacités, blocs, motifs
+     * fonctionnels pré-placés et ordre de placement des modules de données. Immuable et partagée.
+     */
+    private static final class VersionLayout {
+        private static final byte EMPTY = -1;
+
+        final int version;
+        final ErrorCorrectionLevel level;
+        final int size;
+        final int totalCodewords;
+        final int numDataBytes;
+        final int numBlocks;
+        final byte[] template;
+        final int[] dataOrder;
+        // Par masque: 1 si le module de données de rang k est inversé
+        final byte[][] maskFlips;
+
+        /** Structure d'un autre niveau de correction, motifs et placement partagés. */
+        VersionLayout(VersionLayout geometry, ErrorCorrectionLevel level) {
+            Version.ECBlocks ecBlocks = Version.getVersionForNumber(geometry.version).getECBlocksForLevel(level);
+            this.version = geometry.version;
+            this.level = level;
+            this.size = geometry.size;
+            this.totalCodewords = geometry.totalCodewords;
+            this.numDataBytes = totalCodewords - ecBlocks.getTotalECCodewords();
+            this.numBlocks = ecBlocks.getNumBlocks();
+            this.template = geometry.template;
+            this.dataOrder = geometry.dataOrder;
+            this.maskFlips = geometry.maskFlips;
+        }
+
+        VersionLayout(int version) {
+            Version zxingVersion = Version.getVersionForNumber(version);
+            Version.ECBlocks ecBlocks = zxingVersion.getECBlocksForLevel(ErrorCorrectionLevel.H);
+            this.version = version;
+            this.level = ErrorCorrectionLevel.H;
+            this.size = zxingVersion.getDimensionForVersion();
+            this.totalCodewords = zxingVersion.getTotalCodewords();
+            this.numDataBytes = totalCodewords - ecBlocks.getTotalECCodewords();
+            this.numBlocks = ecBlocks.getNumBlocks();
+            this.maskFlips = new byte[8][];
+
+            byte[] modules = new byte[size * size];
+            Arrays.fill(modules, EMPTY);
+            embedFinderPatterns(modules);
+            // Module sombre fixe
+            modules[(size - 8) * size + 8] = 1;
+            embedAlignmentPatterns(modules, zxingVersion.getAlignmentPatternCenters());
+            embedTimingPatterns(modules);
+            reserveTypeInfo(modules);
+            embedVersionInfo(modules);
+            this.dataOrder = placementOrder(modules);
+            this.template = modules;
+            for (int mask = 0; mask < 8; mask++) {
+                byte[] flips = new byte[dataOrder.length];
+                for (int k = 0; k < dataOrder.length; k++) {
+                    flips[k] = (byte) (isMasked(mask, dataOrder[k] % size, dataOrder[k] / size) ? 1 : 0);
+                }
+                maskFlips[mask] = flips;
+            }
+        }
+
+        private void embedFinderPatterns(byte[] modules) {
+            int[][] origins = {{0, 0}, {size - 7, 0}, {0, size - 7}};
+            for (int[] origin : origins) {
+                for (int dy = -1; dy <= 7; dy++) {
+                    for (int dx = -1; dx <= 7; dx++) {
+                        int x = origin[0] + dx;
+                        int y = origin[1] + dy;
+                        if (x < 0 || y < 0 || x >= size || y >= size) {
+                            continue;
+                        }
+                        // Séparateur blanc autour du motif 7x7 (anneaux noir, blanc, carré noir 3x3)
+                        int ring = Math.max(Math.abs(dx - 3), Math.abs(dy - 3));
+                        modules[y * size + x] = (byte) (ring == 4 || ring == 2 ? 0 : 1);
+                    }
+                }
+            }
+        }
+
+        private void embedAlignmentPatterns(byte[] modules, int[] centers) {
+            for (int cy : centers) {
+                for (int cx : centers) {
+                    if (modules[cy * size + cx] != EMPTY) {
+                        continue;
+                    }
+                    for (int dy = -2; dy <= 2; dy++) {
+                        for (int dx = -2; dx <= 2; dx++) {
+                            int ring = Math.max(Math.abs(dx), Math.abs(dy));
+                            modules[(cy + dy) * size + cx + dx] = (byte) (ring == 1 ? 0 : 1);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void embedTimingPatterns(byte[] modules) {
+            for (int i = 8; i < size - 8; i++) {
+                byte bit = (byte) ((i + 1) % 2);
+                if (modules[6 * size + i] == EMPTY) {
+                    modules[6 * size + i] = bit;
+                }
+                if (modules[i * size + 6] == EMPTY) {
+                    modules[i * size + 6] = bit;
+                }
+            }
+        }
+
+        /** Bits de format écrits par masque: positions réservées (valeur provisoire 0). */
+        private void reserveTypeInfo(byte[] modules) {
+            for (int i = 0; i < 15; i++) {
+                int[] coordinates = TYPE_INFO_COORDINATES[i];
+                modules[coordinates[1] * size + coordinates[0]] = 0;
+                if (i < 8) {
+                    modules[8 * size + size - i - 1] = 0;
+                } else {
+                    modules[(size - 7 + (i - 8)) * size + 8] = 0;
+                }
+            }
+        }
+
+        private void embedVersionInfo(byte[] modules) {
+            if (version < 7) {
+                return;
+            }
+            int versionInfo = (version << 12) | bchCode(version, 0x1F25);
+            int bitIndex = 0;
+            for (int i = 0; i < 6; i++) {
+                for (int j = 0; j < 3; j++) {
+                    byte bit = (byte) ((versionInfo >> bitIndex) & 1);
+                    bitIndex++;
+                    modules[(size - 11 + j) * size + i] = bit;
+                    modules[i * size + size - 11 + j] = bit;
+                }
+            }
+        }
+
+        /** Ordre ZXing: colonnes de deux modules de droite à gauche, en zigzag, colonne 6 sautée. */
+        private int[] placementOrder(byte[] modules) {
+            int[] order = new int[size * size];
+            int count = 0;
+            int direction = -1;
+            int x = size - 1;
+            int y = size - 1;
+            while (x > 0) {
+                if (x == 6) {
+                    x -= 1;
+                }
+                while (y >= 0 && y < size) {
+                    for (int i = 0; i < 2; i++) {
+                        int offset = y * size + x - i;
+                        if (modules[offset] == EMPTY) {
+                            order[count++] = offset;
+                        }
+                    }
+                    y += direction;
+                }
+                direction = -direction;
+                y += direction;
+                x -= 2;
+            }
+            return Arrays.copyOf(order, count);
+        }
+    }
+
+    /**
+     * Tampons de travail d'un encodage, dimensionnés pour la version 40.
+     */
+    private static final class Scratch {
+        final byte[] codewords = new byte[MAX_CODEWORDS];
+        final byte[] interleaved = new byte[MAX_CODEWORDS];
+        final int[] remainder = new int[MAX_EC_CODEWORDS];
+        final byte[] modules = new byte[MAX_MODULES * MAX_MODULES];
+        final long[] rows = new long[64];
+        final long[] columns = new long[64];
+        // Découpage en segments mixtes (alloués seulement dans ce mode)
+        final int[] segmentCost;
+        final int[] segmentStart;
+        final byte[] segmentMode;
+        final int[] segmentEnds;
+
+        Scratch(boolean mixedSegments) {
+            int length = mixedSegments ? MAX_MIXED_CHARACTERS + 1 : 0;
+            segmentCost = new int[length];
+            segmentStart = new int[length];
+            segmentMode = new byte[length];
+            segmentEnds = new int[length];
+        }
+    }
+
+    /**
+     * Mêmes règles de pénalité que {@link MaskPenalty}, sur des lignes et colonnes de bits
+     * (symboles jusqu'à 64 modules de côté, version 11): chaque règle traite une ligne entière
+     * par quelques opérations sur un long, sans branchement par module.
+     * Bit x de rows[y] (et bit y de columns[x]) = module (x, y) sombre.
+     */
+    private static final class PackedMaskPenalty {
+
+        static int total(byte[] m, int size, long[] rows, long[] columns) {
+            Arrays.fill(columns, 0, size, 0L);
+            for (int y = 0; y < size; y++) {
+                long row = 0;
+                int offset = y * size;
+                for (int x = 0; x < size; x++) {
+                    long bit = m[offset + x];
+                    row |= bit << x;
+                    columns[x] |= bit << y;
+                }
+                rows[y] = row;
+            }
+
+            long full = size == 64 ? -1L : (1L << size) - 1;
+            int penalty = 0;
+            int dark = 0;
+            for (int i = 0; i < size; i++) {
+                penalty += runs(rows[i], full) + runs(columns[i], full);
+                penalty += 40 * (finderLike(rows[i], full) + finderLike(columns[i], full));
+                dark += Long.bitCount(rows[i]);
+            }
+
+            // Blocs 2x2: lignes y et y + 1 égales en x et x + 1, et ligne y égale entre x et x + 1
+            long pairs = full >>> 1;
+            int blocks = 0;
+            for (int y = 0; y < size - 1; y++) {
+                long sameVertical = ~(rows[y] ^ rows[y + 1]);
+                long sameHorizontal = ~(rows[y] ^ (rows[y] >>> 1));
+                blocks += Long.bitCount(sameVertical & (sameVertical >>> 1) & sameHorizontal & pairs);
+            }
+            penalty += 3 * blocks;
+
+            int total = size * size;
+            return penalty + Math.abs(dark * 2 - total) * 10 / total * 10;
+        }
+
+        /**
+         * Suites d'au moins 5 modules identiques: une suite de longueur L coûte L - 2, soit
+         * (L - 4) positions de départ de 4 égalités consécutives, plus 2 par suite.
+         */
+        private static int runs(long line, long full) {
+            long same = ~(line ^ (line >>> 1)) & (full >>> 1);
+            long four = same & (same >>> 1) & (same >>> 2) & (same >>> 3);
+            return Long.bitCount(four) + 2 * Long.bitCount(four & ~(four << 1));
+        }
+
+        /** Motifs 1:1:3:1:1 précédés ou suivis de 4 modules clairs dans la ligne. */
+        private static int finderLike(long line, long full) {
+            long light = ~line & full;
+            long pattern = line & ~(line >>> 1) & (line >>> 2) & (line >>> 3) & (line >>> 4)
+                    & ~(line >>> 5) & (line >>> 6);
+            long lightFour = light & (light >>> 1) & (light >>> 2) & (light >>> 3);
+            return Long.bitCount(pattern & ((lightFour << 4) | (lightFour >>> 7)));
+        }
+    }
+
+    /**
+     * Règles de pénalité des masques, identiques à celles de ZXing (MaskUtil).
+     */
+    private static final class MaskPenalty {
+
+        static int total(byte[] m, int size) {
+            return rule1(m, size, true) + rule1(m, size, false) + rule2(m, size) + rule3(m, size) + rule4(m, size);
+        }
+
+        /** Suites d'au moins 5 modules de même couleur: 3 + (longueur - 5). */
+        static int rule1(byte[] m, int size, boolean horizontal) {
+            int penalty = 0;
+            for (int i = 0; i < size; i++) {
+                int run = 0;
+                int previous = -1;
+                for (int j = 0; j < size; j++) {
+                    int bit = horizontal ? m[i * size + j] : m[j * size + i];
+                    if (bit == previous) {
+                        run++;
+                    } else {
+                        if (run >= 5) {
+                            penalty += 3 + (run - 5);
+                        }
+                        run = 1;
+                        previous = bit;
+                    }
+                }
+                if (run >= 5) {
+                    penalty += 3 + (run - 5);
+                }
+            }
+            return penalty;
+        }
+
+        /** Blocs 2x2 de même couleur: 3 chacun. */
+        static int rule2(byte[] m, int size) {
+            int penalty = 0;
+            for (int y = 0; y < size - 1; y++) {
+                int row = y * size;
+                for (int x = 0; x < size - 1; x++) {
+                    int value = m[row + x];
+                    if (value == m[row + x + 1] && value == m[row + size + x] && value == m[row + size + x + 1]) {
+                        penalty++;
+                    }
+                }
+            }
+            return 3 * penalty;
+        }
+
+        /** Motifs 1:1:3:1:1 bordés de 4 modules clairs d'un côté: 40 chacun. */
+        static int rule3(byte[] m, int size) {
+            int penalties = 0;
+            for (int y = 0; y < size; y++) {
+                int row = y * size;
+                for (int x = 0; x < size; x++) {
+                    if (x + 6 < size
+                            && m[row + x] == 1 && m[row + x + 1] == 0 && m[row + x + 2] == 1
+                            && m[row + x + 3] == 1 && m[row + x + 4] == 1 && m[row + x + 5] == 0
+                            && m[row + x + 6] == 1
+                            && (isLightHorizontal(m, row, size, x - 4, x) || isLightHorizontal(m, row, size, x + 7, x + 11))) {
+                        penalties++;
+                    }
+                    if (y + 6 < size
+                            && m[row + x] == 1 && m[row + size + x] == 0 && m[row + 2 * size + x] == 1
+                            && m[row + 3 * size + x] == 1 && m[row + 4 * size + x] == 1
+                            && m[row + 5 * size + x] == 0 && m[row + 6 * size + x] == 1
+                            && (isLightVertical(m, x, size, y - 4, y) || isLightVertical(m, x, size, y + 7, y + 11))) {
+                        penalties++;
+                    }
+                }
+            }
+            return 40 * penalties;
+        }
+
+        /** Zone claire entièrement dans la matrice (hors matrice: non claire, comme ZXing). */
+        private static boolean isLightHorizontal(byte[] m, int row, int size, int from, int to) {
+            if (from < 0 || to > size) {
+                return false;
+            }
+            for (int i = from; i < to; i++) {
+                if (m[row + i] == 1) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isLightVertical(byte[] m, int x, int size, int from, int to) {
+            if (from < 0 || to > size) {
+                return false;
+            }
+            for (int i = from; i < to; i++) {
+                if (m[i * size + x] == 1) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** Écart de la proportion de modules sombres à 50%, par tranche de 5%: 10 par tranche. */
+        static int rule4(byte[] m, int size) {
+            int dark = 0;
+            int total = size * size;
+            for (int i = 0; i < total; i++) {
+                if (m[i] == 1) {
+                    dark++;
+                }
+            }
+            return Math.abs(dark * 2 - total) * 10 / total * 10;
+        }
+    }
+}
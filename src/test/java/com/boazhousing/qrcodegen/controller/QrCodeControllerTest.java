@@ -1,6 +1,15 @@
 package com.boazhousing.qrcodegen.controller;
 
+import com.boazhousing.qrcodegen.service.BoazQrCodeService;
+import com.boazhousing.qrcodegen.service.ImageQrCodeService;
+import com.boazhousing.qrcodegen.model.QrArchiveRequest;
+import com.boazhousing.qrcodegen.model.QrBatchRequest;
+import com.boazhousing.qrcodegen.model.QrSheetRequest;
 import com.boazhousing.qrcodegen.service.PdfGenerationService;
+import com.boazhousing.qrcodegen.service.QrAdmissionService;
+import com.boazhousing.qrcodegen.service.QrArchiveService;
+import com.boazhousing.qrcodegen.service.QrBatchService;
+import com.boazhousing.qrcodegen.service.QrBundleService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,8 +17,21 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(QrCodeController.class)
@@ -21,6 +43,21 @@ class QrCodeControllerTest {
     @MockBean
     private PdfGenerationService pdfGenerationService;
 
+    @MockBean
+    private ImageQrCodeService imageQrCodeService;
+
+    @MockBean
+    private QrBundleService qrBundleService;
+
+    @MockBean
+    private BoazQrCodeService boazQrCodeService;
+
+    @MockBean
+    private QrBatchService qrBatchService;
+
+    @MockBean
+    private QrArchiveService qrArchiveService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -103,4 +140,160 @@ class QrCodeControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGenerateQrImageBatch_PerItemResults() throws Exception {
+        // Lot avec une référence en erreur: réponse 200, un résultat par référence
+        ImageQrCodeService.QrImageResult image = new ImageQrCodeService.QrImageResult(
+                "http://localhost:8080/images/QR_IMG_ATT-B1_20240101_120000.png",
+                "QR_IMG_ATT-B1_20240101_120000.png", null, "qr-images/QR_IMG_ATT-B1_20240101_120000.png", "ATT-B1");
+        when(qrBatchService.generateBatch(anyList(), anyBoolean())).thenReturn(new QrBatchService.QrBatchResult(List.of(
+                new QrBatchService.QrBatchItem("ATT-B1", image, null),
+                new QrBatchService.QrBatchItem("ATT@B2", null, "La référence ne doit contenir que des lettres, chiffres, tirets et underscores")
+        ), 12));
+
+        mockMvc.perform(post("/generate-qr-image/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new QrBatchRequest(List.of("ATT-B1", "ATT@B2"), false))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.total").value(2))
+                .andExpect(jsonPath("$.data.succeeded").value(1))
+                .andExpect(jsonPath("$.data.failed").value(1))
+                .andExpect(jsonPath("$.data.items[0].image.imageName").value("QR_IMG_ATT-B1_20240101_120000.png"))
+                .andExpect(jsonPath("$.data.items[1].success").value(false))
+                .andExpect(jsonPath("$.data.items[1].error").exists());
+    }
+
+    @Test
+    void testGenerateQrImageBatch_EmptyOrTooLarge() throws Exception {
+        // Lot vide
+        mockMvc.perform(post("/generate-qr-image/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"references\": []}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+
+        // Lot au-delà de la taille maximale (refusé par le service)
+        when(qrBatchService.generateBatch(anyList(), anyBoolean()))
+                .thenThrow(new IllegalArgumentException("Le lot ne peut pas dépasser 1000 références"));
+        mockMvc.perform(post("/generate-qr-image/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new QrBatchRequest(List.of("ATT-B1"), false))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Le lot ne peut pas dépasser 1000 références"));
+    }
+
+    @Test
+    void testGenerateQrArchive_StreamsZip() throws Exception {
+        // Archive écrite par le service dans le flux de la réponse
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(2);
+            outputStream.write(new byte[]{'P', 'K', 3, 4});
+            return new QrArchiveService.QrArchiveResult(1, 0, 5);
+        }).when(qrArchiveService).writeArchive(anyList(), eq("png"), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(post("/generate-qr-archive")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new QrArchiveRequest(List.of("ATT-Z1"), "PNG"))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/zip"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"qr-codes-png.zip\""))
+                .andExpect(content().bytes(new byte[]{'P', 'K', 3, 4}));
+    }
+
+    @Test
+    void testGenerateQrArchive_InvalidRequest() throws Exception {
+        // Refus avant toute écriture de l'archive
+        doThrow(new IllegalArgumentException("Format d'archive invalide: gif (png ou pdf)"))
+                .when(qrArchiveService).validateRequest(anyList(), eq("gif"));
+        mockMvc.perform(post("/generate-qr-archive")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new QrArchiveRequest(List.of("ATT-Z1"), "gif"))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.error").value("Format d'archive invalide: gif (png ou pdf)"));
+    }
+
+    @Test
+    void testGenerateQrArchive_OverloadedReturns503() throws Exception {
+        // Mémoire de l'export refusée avant la réponse: 503 plutôt qu'une archive tronquée
+        when(qrArchiveService.admit(anyList()))
+                .thenThrow(new QrAdmissionService.RenderRejectedException("Service saturé, réessayer dans 2 s", 2));
+        mockMvc.perform(post("/generate-qr-archive")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new QrArchiveRequest(List.of("ATT-Z1"), "png"))))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    void testGenerateQrSheet_OverloadedReturns503() throws Exception {
+        when(pdfGenerationService.admitLabelSheet(anyList()))
+                .thenThrow(new QrAdmissionService.RenderRejectedException("Service saturé, réessayer dans 2 s", 2));
+        mockMvc.perform(post("/generate-qr-sheet")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new QrSheetRequest(List.of("ATT-S1")))))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    void testGenerateQrSheet_InvalidGrid() throws Exception {
+        // Grille impossible (aucune colonne): refusée avant toute écriture du PDF
+        QrSheetRequest request = new QrSheetRequest(List.of("ATT-S1"));
+        request.setColumns(0);
+        mockMvc.perform(post("/generate-qr-sheet")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    void testGenerateQrImage_OverloadedReturns503() throws Exception {
+        // Budget mémoire épuisé: refus immédiat avec délai conseillé
+        when(imageQrCodeService.generateAndSaveQrCodeImage(eq("ATT-BUSY-001"), anyBoolean()))
+                .thenThrow(new QrAdmissionService.RenderRejectedException("Service saturé, réessayer dans 2 s", 2));
+        mockMvc.perform(get("/generate-qr-image")
+                        .param("reference", "ATT-BUSY-001"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.error").value("Service saturé, réessayer dans 2 s"));
+    }
+
+    @Test
+    void testGenerateQrSymbol_StreamsPng() throws Exception {
+        // PNG rendu par le service puis écrit en flux dans la réponse
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G'};
+        when(boazQrCodeService.generateBoazStyleQrCodePng("ATT-SYM-001")).thenReturn(png);
+        MvcResult result = mockMvc.perform(get("/generate-qr-symbol")
+                        .param("reference", "att-sym-001")
+                        .param("format", "png"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(content().bytes(png));
+    }
+
+    @Test
+    void testGenerateQrSymbol_OverloadedReturns503() throws Exception {
+        // Rendu PNG direct soumis au même budget mémoire que /generate-qr-image
+        when(boazQrCodeService.generateBoazStyleQrCodePng("ATT-BUSY-002"))
+                .thenThrow(new QrAdmissionService.RenderRejectedException("Service saturé, réessayer dans 2 s", 2));
+        mockMvc.perform(get("/generate-qr-symbol")
+                        .param("reference", "ATT-BUSY-002")
+                        .param("format", "png"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.success").value(false));
+    }
+}
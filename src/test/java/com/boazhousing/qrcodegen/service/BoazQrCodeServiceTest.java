@@ -1,11 +1,20 @@
 package com.boazhousing.qrcodegen.service;
 
+import com.boazhousing.qrcodegen.service.render.SvgQrDocument;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.util.ReflectionTestUtils;
-
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.imageio.ImageIO;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -21,18 +30,14 @@ class BoazQrCodeServiceTest {
 
     private BoazQrCodeService qrCodeService;
 
+    private StyledQrRenderer renderer;
+
     @BeforeEach
     void setUp() {
-        qrCodeService = new BoazQrCodeService();
+        renderer = TestRenderers.newRenderer();
 
-        // Inject test properties using reflection
-        ReflectionTestUtils.setField(qrCodeService, "primaryBlue", "#0140ff");
-        ReflectionTestUtils.setField(qrCodeService, "orangeDark", "#f88206");
-        ReflectionTestUtils.setField(qrCodeService, "orangeMedium", "#fa9000");
-        ReflectionTestUtils.setField(qrCodeService, "orangeLight", "#ffa94d");
-        ReflectionTestUtils.setField(qrCodeService, "backgroundColor", "#ffffff");
-        ReflectionTestUtils.setField(qrCodeService, "baseUrl", "https://test.boaz-housing.com");
-        ReflectionTestUtils.setField(qrCodeService, "verificationPath", "/verif_doc");
+        qrCodeService = new BoazQrCodeService();
+        ReflectionTestUtils.setField(qrCodeService, "renderer", renderer);
     }
 
     @Test
@@ -148,4 +153,85 @@ class BoazQrCodeServiceTest {
         assertTrue(result.matches("^[A-Za-z0-9+/=]*$"),
                 "Le base64 ne doit contenir que des caractères valides");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRasterRenderMatchesGraphics2DRender() throws Exception {
+        // Le rendu raster direct doit reproduire le rendu Graphics2D historique
+        String[] references = {"ATT-RASTER-001", "ATT-" + "B".repeat(40), "REF_2024-XYZ"};
+        int tolerance = 2;
+        // Comparaison pixel à pixel: encodage PNG sans perte par défaut
+
+        for (String reference : references) {
+            ReflectionTestUtils.setField(renderer, "renderMode", "graphics2d");
+            BufferedImage expected = decode(qrCodeService.generateBoazStyleQrCode(reference));
+
+            ReflectionTestUtils.setField(renderer, "renderMode", "raster");
+            BufferedImage actual = decode(qrCodeService.generateBoazStyleQrCode(reference));
+
+            assertEquals(expected.getWidth(), actual.getWidth(), "Largeur différente pour " + reference);
+            assertEquals(expected.getHeight(), actual.getHeight(), "Hauteur différente pour " + reference);
+
+            int maxDifference = 0;
+            for (int y = 0; y < expected.getHeight(); y++) {
+                for (int x = 0; x < expected.getWidth(); x++) {
+                    int e = expected.getRGB(x, y);
+                    int a = actual.getRGB(x, y);
+                    for (int shift = 0; shift <= 16; shift += 8) {
+                        int diff = Math.abs(((e >> shift) & 0xff) - ((a >> shift) & 0xff));
+                        maxDifference = Math.max(maxDifference, diff);
+                    }
+                }
+            }
+            assertTrue(maxDifference <= tolerance,
+                    "Écart maximal " + maxDifference + " au-delà de la tolérance pour " + reference);
+        }
+    }
+
+    @Test
+    void testPngSymbolTakesAdmissionPermit() throws Exception {
+        long estimate = renderer.estimateRenderBytes("ATT-SYMBOL-001", false);
+        QrAdmissionService admission = new QrAdmissionService();
+        ReflectionTestUtils.setField(admission, "heapBudgetBytes", estimate);
+        ReflectionTestUtils.setField(admission, "maxWaitMs", 0L);
+        admission.init();
+        ReflectionTestUtils.setField(qrCodeService, "admissionService", admission);
+
+        // Budget occupé: le rendu PNG direct est refusé tel quel, sans enveloppe d'erreur
+        try (QrAdmissionService.Permit permit = admission.admit(estimate)) {
+            assertThrows(QrAdmissionService.RenderRejectedException.class,
+                         () -> qrCodeService.generateBoazStyleQrCodePng("ATT-SYMBOL-001"));
+        }
+        assertNotNull(qrCodeService.generateBoazStyleQrCodePng("ATT-SYMBOL-001"));
+        assertEquals(0, admission.getInFlightBytes());
+        assertEquals(1, admission.getRejectedCount());
+    }
+
+    @Test
+    void testSvgDocumentMatchesRasterGeometry() throws Exception {
+        String reference = "ATT-SVG-001";
+        BufferedImage raster = decode(qrCodeService.generateBoazStyleQrCode(reference));
+
+        SvgQrDocument document = qrCodeService.generateBoazStyleQrCodeSvg(reference, true);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        document.writeTo(output);
+
+        // Document XML bien formé, à la taille de l'image PNG, logo embarqué
+        Document svg = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new ByteArrayInputStream(output.toByteArray()));
+        Element root = svg.getDocumentElement();
+        assertEquals("svg", root.getTagName());
+        assertEquals(String.valueOf(raster.getWidth()), root.getAttribute("width"));
+        Element logo = (Element) svg.getElementsByTagName("image").item(0);
+        assertTrue(logo.getAttribute("xlink:href").startsWith("data:image/png;base64,"));
+
+        // Logo référencé: document bien plus léger
+        ByteArrayOutputStream referenced = new ByteArrayOutputStream();
+        qrCodeService.generateBoazStyleQrCodeSvg(reference, false).writeTo(referenced);
+        assertTrue(referenced.size() < output.size());
+        assertTrue(referenced.toString(StandardCharsets.UTF_8).contains("xlink:href=\"/assets/logo-simplifier-bh.png\""));
+    }
+
+    private BufferedImage decode(String base64) throws Exception {
+        return ImageIO.read(new ByteArrayInputStream(Base64.getDecoder().decode(base64)));
+    }
+}
@@ -0,0 +1,79 @@
+package com.boazhousing.qrcodegen.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageQrCodeServiceTest {
+
+    private StyledQrRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        renderer = TestRenderers.newRenderer();
+    }
+
+    @Test
+    void testContentAddressedImageIsReusedWithoutRendering(@TempDir Path tempDir) throws Exception {
+        ImageQrCodeService imageService = new ImageQrCodeService();
+        ReflectionTestUtils.setField(imageService, "renderer", renderer);
+        ReflectionTestUtils.setField(imageService, "outputDirectory", tempDir.toString());
+        ReflectionTestUtils.setField(imageService, "baseAccessUrl", "http://localhost/images");
+        ReflectionTestUtils.setField(imageService, "storageMode", "content-addressed");
+
+        ImageQrCodeService.QrImageResult first = imageService.generateAndSaveQrCodeImage("ATT-STORE-001");
+        Path file = Path.of(first.getFilePath());
+        long writtenAt = Files.getLastModifiedTime(file).toMillis();
+        Files.setLastModifiedTime(file, FileTime.fromMillis(writtenAt - 60_000));
+
+        // Même référence et même style: même nom, fichier existant ni réécrit ni rendu
+        ImageQrCodeService.QrImageResult second = imageService.generateAndSaveQrCodeImage("ATT-STORE-001");
+        assertEquals(first.getFilename(), second.getFilename());
+        assertEquals(first.getAccessUrl(), second.getAccessUrl());
+        assertEquals(first.getBase64Image(), second.getBase64Image());
+        assertEquals(writtenAt - 60_000, Files.getLastModifiedTime(file).toMillis());
+        assertTrue(first.getFilename().matches("^QR_IMG_ATT-STORE-001_[0-9a-f]{16}\\.png$"));
+
+        ImageQrCodeService.QrImageResult other = imageService.generateAndSaveQrCodeImage("ATT-STORE-002");
+        assertNotEquals(first.getFilename(), other.getFilename());
+        try (var files = Files.list(tempDir)) {
+            assertEquals(2, files.count(), "Aucun fichier temporaire ne doit subsister");
+        }
+    }
+
+    @Test
+    void testLogoChangeRenamesContentAddressedImage(@TempDir Path tempDir) throws Exception {
+        ImageQrCodeService imageService = newContentAddressedService(renderer, tempDir);
+        ImageQrCodeService.QrImageResult first = imageService.generateAndSaveQrCodeImage("ATT-LOGO-001");
+
+        // Même style, autre logo: nouveau nom, l'image stockée avec l'ancien logo n'est pas réutilisée
+        StyledQrRenderer otherLogo = TestRenderers.newRenderer();
+        LogoAssetCache logoAssetCache = new LogoAssetCache();
+        ReflectionTestUtils.setField(logoAssetCache, "logoResource", "/assets/logo-test.png");
+        ReflectionTestUtils.setField(otherLogo, "logoAssetCache", logoAssetCache);
+        ImageQrCodeService.QrImageResult second =
+                newContentAddressedService(otherLogo, tempDir).generateAndSaveQrCodeImage("ATT-LOGO-001");
+
+        assertNotEquals(first.getFilename(), second.getFilename());
+        assertNotEquals(first.getBase64Image(), second.getBase64Image());
+        try (var files = Files.list(tempDir)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    private static ImageQrCodeService newContentAddressedService(StyledQrRenderer renderer, Path outputDirectory) {
+        ImageQrCodeService imageService = new ImageQrCodeService();
+        ReflectionTestUtils.setField(imageService, "renderer", renderer);
+        ReflectionTestUtils.setField(imageService, "outputDirectory", outputDirectory.toString());
+        ReflectionTestUtils.setField(imageService, "baseAccessUrl", "http://localhost/images");
+        ReflectionTestUtils.setField(imageService, "storageMode", "content-addressed");
+        return imageService;
+    }
+}
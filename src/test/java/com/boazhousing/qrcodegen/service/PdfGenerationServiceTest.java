@@ -0,0 +1,99 @@
+package com.boazhousing.qrcodegen.service;
+
+import com.boazhousing.qrcodegen.service.render.PdfLabelLayout;
+import com.boazhousing.qrcodegen.service.render.PdfPageSink;
+import com.boazhousing.qrcodegen.service.render.RenderStage;
+import com.boazhousing.qrcodegen.service.render.RenderedQr;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PdfGenerationServiceTest {
+
+    private StyledQrRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        renderer = TestRenderers.newRenderer();
+    }
+
+    @Test
+    void testVectorPdfSkipsRasterAndIsSmaller(@TempDir Path tempDir) throws Exception {
+        String reference = "ATT-PDF-VECTOR";
+
+        PdfPageSink vectorSink = new PdfPageSink(tempDir.resolve("vector.pdf"), renderer.getPdfVectorPainter());
+        RenderedQr vector = renderer.render(reference, vectorSink);
+        PdfPageSink rasterSink = new PdfPageSink(tempDir.resolve("raster.pdf"));
+        renderer.render(reference, rasterSink);
+
+        // Le tracé vectoriel ne déclenche ni rendu raster ni encodage PNG
+        assertFalse(vector.getStageTimings().containsKey(RenderStage.MODULE_RENDER));
+        assertFalse(vector.getStageTimings().containsKey(RenderStage.PNG_ENCODE));
+
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(vectorSink.getFilePath().toString()))) {
+            assertEquals(1, pdf.getNumberOfPages());
+        }
+        assertTrue(vectorSink.getFileSize() < rasterSink.getFileSize(),
+                "PDF vectoriel (" + vectorSink.getFileSize() + " octets) plus gros que le PDF raster ("
+                        + rasterSink.getFileSize() + ")");
+    }
+
+    @Test
+    void testLabelSheetSharesLogoAcrossPages() throws Exception {
+        PdfGenerationService pdfService = new PdfGenerationService();
+        ReflectionTestUtils.setField(pdfService, "renderer", renderer);
+        ReflectionTestUtils.setField(pdfService, "qrMode", "vector");
+        PdfLabelLayout layout = PdfLabelLayout.of("A4", 3, 8, 10, 4, true);
+
+        List<String> references = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            references.add("ATT-SHEET-" + i);
+        }
+        ByteArrayOutputStream sheet = new ByteArrayOutputStream();
+        assertEquals(2, pdfService.writeLabelSheet(references, layout, sheet));
+        ByteArrayOutputStream single = new ByteArrayOutputStream();
+        assertEquals(1, pdfService.writeLabelSheet(List.of("ATT-SHEET-0"), layout, single));
+
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(sheet.toByteArray())))) {
+            assertEquals(2, pdf.getNumberOfPages());
+            // Logo présent une seule fois dans le document, quel que soit le nombre d'étiquettes
+            assertTrue(countImages(single.toByteArray()) > 0);
+            assertEquals(countImages(single.toByteArray()), countImages(sheet.toByteArray()));
+            String firstPage = PdfTextExtractor.getTextFromPage(pdf.getPage(1));
+            assertTrue(firstPage.contains("ATT-SHEET-0") && firstPage.contains("ATT-SHEET-23"));
+            assertFalse(firstPage.contains("ATT-SHEET-24"));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> pdfService.validateLabelSheet(List.of("ATT@INVALIDE")));
+        assertThrows(IllegalArgumentException.class, () -> PdfLabelLayout.of("A4", 20, 20, 10, 4, true));
+        assertThrows(IllegalArgumentException.class, () -> PdfLabelLayout.of("B7", 3, 8, 10, 4, true));
+    }
+
+    private static int countImages(byte[] pdfBytes) throws Exception {
+        int images = 0;
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdfBytes)))) {
+            for (int i = 1; i <= pdf.getNumberOfPdfObjects(); i++) {
+                PdfObject object = pdf.getPdfObject(i);
+                if (object instanceof PdfStream stream && PdfName.Image.equals(stream.getAsName(PdfName.Subtype))) {
+                    images++;
+                }
+            }
+        }
+        return images;
+    }
+}
@@ -0,0 +1,85 @@
+package com.boazhousing.qrcodegen.service;
+
+import com.boazhousing.qrcodegen.service.render.QrMatrixEncoder;
+import com.google.zxing.common.BitMatrix;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QrAdmissionServiceTest {
+
+    private StyledQrRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        renderer = TestRenderers.newRenderer();
+    }
+
+    @Test
+    void testAdmissionShedsRendersBeyondHeapBudget(@TempDir Path tempDir) throws Exception {
+        // Estimation avant encodage: couvre au moins l'image ARGB réellement allouée
+        BitMatrix matrix = new QrMatrixEncoder(0, -1).encode(renderer.buildVerificationUrl("ATT-ADMISSION-001"));
+        long side = matrix.getWidth() * 10L + 80;
+        long estimate = renderer.estimateRenderBytes("ATT-ADMISSION-001", false);
+        assertTrue(estimate >= side * side * 4, "Estimation " + estimate + " pour " + side + " px de côté");
+        assertTrue(renderer.estimateRenderBytes("ATT-ADMISSION-001", true) > estimate);
+
+        QrAdmissionService admission = new QrAdmissionService();
+        ReflectionTestUtils.setField(admission, "heapBudgetBytes", 2 * estimate);
+        ReflectionTestUtils.setField(admission, "maxQueue", 1);
+        ReflectionTestUtils.setField(admission, "maxWaitMs", 10_000L);
+        admission.init();
+
+        // Budget de deux rendus: le troisième attend une place, le quatrième est refusé (file pleine)
+        QrAdmissionService.Permit first = admission.admit(estimate);
+        QrAdmissionService.Permit second = admission.admit(estimate);
+        Thread waiter = new Thread(() -> {
+            try (QrAdmissionService.Permit permit = admission.admit(estimate)) {
+                assertNotNull(permit);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!admission.hasQueuedRequests() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        QrAdmissionService.RenderRejectedException rejected =
+                assertThrows(QrAdmissionService.RenderRejectedException.class, () -> admission.admit(estimate));
+        assertEquals(2, rejected.getRetryAfterSeconds());
+
+        // Place libérée: le rendu en attente est admis
+        first.close();
+        first.close();
+        waiter.join(5_000);
+        assertFalse(waiter.isAlive());
+        assertEquals(estimate, admission.getInFlightBytes());
+
+        // Service d'images: refus transmis tel quel, sans rendu ni fichier
+        ImageQrCodeService imageService = new ImageQrCodeService();
+        ReflectionTestUtils.setField(imageService, "renderer", renderer);
+        ReflectionTestUtils.setField(imageService, "outputDirectory", tempDir.toString());
+        ReflectionTestUtils.setField(imageService, "baseAccessUrl", "http://localhost/images");
+        ReflectionTestUtils.setField(imageService, "admissionService", admission);
+        ReflectionTestUtils.setField(admission, "maxWaitMs", 0L);
+        QrAdmissionService.Permit third = admission.admit(estimate);
+        assertThrows(QrAdmissionService.RenderRejectedException.class,
+                     () -> imageService.generateAndSaveQrCodeImage("ATT-ADMISSION-001", false));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+
+        second.close();
+        third.close();
+        assertNotNull(imageService.generateAndSaveQrCodeImage("ATT-ADMISSION-001", false).getFilePath());
+        assertEquals(0, admission.getInFlightBytes());
+        assertEquals(2, admission.getRejectedCount());
+    }
+}
@@ -0,0 +1,98 @@
+package com.boazhousing.qrcodegen.service;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QrArchiveServiceTest {
+
+    private StyledQrRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        renderer = TestRenderers.newRenderer();
+    }
+
+    @Test
+    void testArchiveStreamsEntriesWithErrorList() throws Exception {
+        PdfGenerationService pdfService = new PdfGenerationService();
+        ReflectionTestUtils.setField(pdfService, "renderer", renderer);
+        ReflectionTestUtils.setField(pdfService, "qrMode", "vector");
+
+        QrArchiveService archiveService = new QrArchiveService();
+        ReflectionTestUtils.setField(archiveService, "renderer", renderer);
+        ReflectionTestUtils.setField(archiveService, "pdfGenerationService", pdfService);
+        ReflectionTestUtils.setField(archiveService, "maxArchiveSize", 10);
+
+        List<String> references = List.of("ATT-ZIP-1", "ATT@INVALIDE", " att-zip-1 ", "ATT-ZIP-2");
+        for (String format : List.of("png", "pdf")) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            QrArchiveService.QrArchiveResult result = archiveService.writeArchive(references, format, out);
+            assertEquals(2, result.getEntries());
+            assertEquals(1, result.getFailed());
+
+            // Entrées dans l'ordre des références, doublon exporté une seule fois, erreurs en dernier
+            List<String> names = new ArrayList<>();
+            try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+                for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                    names.add(entry.getName());
+                    byte[] content = zip.readAllBytes();
+                    if ("png".equals(format) && entry.getName().endsWith(".png")) {
+                        assertEquals(ZipEntry.STORED, entry.getMethod());
+                        assertNotNull(ImageIO.read(new ByteArrayInputStream(content)));
+                    } else if (entry.getName().endsWith(".pdf")) {
+                        try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(content)))) {
+                            assertEquals(1, pdf.getNumberOfPages());
+                        }
+                    } else {
+                        assertTrue(new String(content, StandardCharsets.UTF_8).startsWith("ATT@INVALIDE: "));
+                    }
+                }
+            }
+            String extension = "." + format;
+            String prefix = "png".equals(format) ? "QR_IMG_" : "QR_";
+            assertEquals(List.of(prefix + "ATT-ZIP-1" + extension, prefix + "ATT-ZIP-2" + extension,
+                                 QrArchiveService.ERRORS_ENTRY), names);
+        }
+
+        assertThrows(IllegalArgumentException.class,
+                     () -> archiveService.writeArchive(List.of("ATT-X"), "gif", new ByteArrayOutputStream()));
+        assertThrows(IllegalArgumentException.class,
+                     () -> archiveService.writeArchive(Collections.nCopies(11, "ATT-X"), "png", new ByteArrayOutputStream()));
+    }
+
+    @Test
+    void testArchiveReservesLargestSymbolForWholeExport() throws Exception {
+        QrAdmissionService admission = new QrAdmissionService();
+        ReflectionTestUtils.setField(admission, "maxWaitMs", 0L);
+        admission.init();
+
+        QrArchiveService archiveService = new QrArchiveService();
+        ReflectionTestUtils.setField(archiveService, "renderer", renderer);
+        ReflectionTestUtils.setField(archiveService, "admissionService", admission);
+
+        // Rendu séquentiel: une seule réservation, celle du plus gros symbole
+        String longReference = "ATT-" + "L".repeat(40);
+        List<String> references = List.of("ATT-ZIP-1", longReference, " att-zip-2 ");
+        try (QrAdmissionService.Permit permit = archiveService.admit(references)) {
+            assertNotNull(permit);
+            assertEquals(renderer.estimateRenderBytes(longReference, false), admission.getInFlightBytes());
+            assertTrue(admission.getInFlightBytes() > renderer.estimateRenderBytes("ATT-ZIP-1", false));
+        }
+        assertEquals(0, admission.getInFlightBytes());
+    }
+}
@@ -0,0 +1,82 @@
+package com.boazhousing.qrcodegen.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QrBatchServiceTest {
+
+    private StyledQrRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        renderer = TestRenderers.newRenderer();
+    }
+
+    @Test
+    void testBatchRendersInParallelWithPerItemErrors(@TempDir Path tempDir) throws Exception {
+        List<String> threadNames = Collections.synchronizedList(new ArrayList<>());
+        ImageQrCodeService imageService = new ImageQrCodeService() {
+            @Override
+            public QrImageResult generateAndSaveQrCodeImage(String reference, boolean includeBase64) throws Exception {
+                threadNames.add(Thread.currentThread().getName());
+                return super.generateAndSaveQrCodeImage(reference, includeBase64);
+            }
+        };
+        ReflectionTestUtils.setField(imageService, "renderer", renderer);
+        ReflectionTestUtils.setField(imageService, "outputDirectory", tempDir.toString());
+        ReflectionTestUtils.setField(imageService, "baseAccessUrl", "http://localhost/images");
+
+        QrBatchService batchService = new QrBatchService();
+        ReflectionTestUtils.setField(batchService, "imageQrCodeService", imageService);
+        ReflectionTestUtils.setField(batchService, "threads", 4);
+        ReflectionTestUtils.setField(batchService, "queueCapacity", 2);
+        ReflectionTestUtils.setField(batchService, "maxBatchSize", 20);
+        batchService.init();
+        try {
+            List<String> references = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                references.add("ATT-BATCH-" + i);
+            }
+            references.add("ATT@INVALIDE");
+            references.add(" att-batch-3 ");
+            references.add("");
+
+            // File réduite à 2: le thread appelant attend des places, chaque élément est rendu par le pool
+            QrBatchService.QrBatchResult result = batchService.generateBatch(references, true);
+            assertEquals(references.size(), result.getItems().size());
+            assertEquals(13, result.getSucceeded());
+            for (int i = 0; i < 12; i++) {
+                QrBatchService.QrBatchItem item = result.getItems().get(i);
+                assertEquals("ATT-BATCH-" + i, item.getReference());
+                assertEquals("ATT-BATCH-" + i, item.getImage().getReference());
+                assertNotNull(item.getImage().getBase64Image());
+                assertTrue(Files.isRegularFile(Path.of(item.getImage().getFilePath())));
+            }
+            assertNotNull(result.getItems().get(12).getError());
+            assertFalse(result.getItems().get(12).isSuccess());
+            // Référence en double (après nettoyage): rendue une seule fois
+            assertSame(result.getItems().get(3).getImage(), result.getItems().get(13).getImage());
+            assertNotNull(result.getItems().get(14).getError());
+            assertEquals(12, threadNames.size());
+            for (String threadName : threadNames) {
+                assertTrue(threadName.startsWith("qr-batch-"), "Rendu sur le thread appelant: " + threadName);
+            }
+
+            assertThrows(IllegalArgumentException.class,
+                         () -> batchService.generateBatch(Collections.nCopies(21, "ATT-X"), false));
+            assertThrows(IllegalArgumentException.class, () -> batchService.generateBatch(List.of(), false));
+        } finally {
+            batchService.shutdown();
+        }
+    }
+}
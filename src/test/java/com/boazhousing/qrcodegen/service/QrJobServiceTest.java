@@ -0,0 +1,108 @@
+package com.boazhousing.qrcodegen.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QrJobServiceTest {
+
+    private StyledQrRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        renderer = TestRenderers.newRenderer();
+    }
+
+    @Test
+    void testJobQueueSurvivesRestart(@TempDir Path tempDir) throws Exception {
+        // Tâche enregistrée par une instance arrêtée avant de l'exécuter
+        QrJobService stopped = newJobService(tempDir);
+        QrJobService.QrJob submitted = stopped.submit(List.of("ATT-JOB-1", "ATT-JOB-2", "att-job-1"), "png");
+        assertEquals(QrJobService.QrJobStatus.QUEUED, submitted.getStatus());
+        assertThrows(IllegalArgumentException.class, () -> stopped.submit(List.of("ATT@INVALIDE"), "png"));
+        assertThrows(IllegalArgumentException.class, () -> stopped.submit(List.of("ATT-JOB-1"), "gif"));
+
+        // Redémarrage: la tâche est reprise depuis la file sur disque
+        QrJobService restarted = newJobService(tempDir);
+        restarted.init();
+        try {
+            QrJobService.QrJob job = restarted.getJob(submitted.getId());
+            long deadline = System.currentTimeMillis() + 30_000;
+            while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+                job = restarted.getJob(submitted.getId());
+            }
+            assertEquals(QrJobService.QrJobStatus.SUCCEEDED, job.getStatus(), job.getError());
+            assertEquals(3, job.getProcessed());
+
+            Path result = restarted.getResultPath(job.getId());
+            List<String> names = new ArrayList<>();
+            try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(result))) {
+                for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                    names.add(entry.getName());
+                }
+            }
+            assertEquals(List.of("QR_IMG_ATT-JOB-1.png", "QR_IMG_ATT-JOB-2.png"), names);
+        } finally {
+            restarted.shutdown();
+        }
+
+        // Tâche terminée: rechargée avec son résultat, non exécutée à nouveau
+        QrJobService reloaded = newJobService(tempDir);
+        reloaded.init();
+        try {
+            assertEquals(QrJobService.QrJobStatus.SUCCEEDED, reloaded.getJob(submitted.getId()).getStatus());
+            assertNotNull(reloaded.getResultPath(submitted.getId()));
+            assertNull(reloaded.getJob("inconnue"));
+        } finally {
+            reloaded.shutdown();
+        }
+    }
+
+    @Test
+    void testFinishedJobsArePurgedWithoutNewSubmissions(@TempDir Path tempDir) throws Exception {
+        QrJobService jobService = newJobService(tempDir);
+        ReflectionTestUtils.setField(jobService, "retentionHours", 0);
+        ReflectionTestUtils.setField(jobService, "purgeIntervalSeconds", 1L);
+        jobService.init();
+        try {
+            // Aucune soumission après la fin de la tâche: suppression par la purge périodique
+            QrJobService.QrJob submitted = jobService.submit(List.of("ATT-PURGE-1"), "png");
+            long deadline = System.currentTimeMillis() + 30_000;
+            while (jobService.getJob(submitted.getId()) != null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertNull(jobService.getJob(submitted.getId()));
+            try (var files = Files.list(tempDir)) {
+                assertEquals(0, files.count(), "Fichiers de la tâche expirée non supprimés");
+            }
+        } finally {
+            jobService.shutdown();
+        }
+    }
+
+    private QrJobService newJobService(Path directory) {
+        PdfGenerationService pdfService = new PdfGenerationService();
+        ReflectionTestUtils.setField(pdfService, "renderer", renderer);
+        QrArchiveService archiveService = new QrArchiveService();
+        ReflectionTestUtils.setField(archiveService, "renderer", renderer);
+        ReflectionTestUtils.setField(archiveService, "pdfGenerationService", pdfService);
+
+        QrJobService jobService = new QrJobService();
+        ReflectionTestUtils.setField(jobService, "jobsDirectory", directory.toString());
+        ReflectionTestUtils.setField(jobService, "workers", 1);
+        ReflectionTestUtils.setField(jobService, "qrArchiveService", archiveService);
+        ReflectionTestUtils.setField(jobService, "pdfGenerationService", pdfService);
+        return jobService;
+    }
+}
@@ -0,0 +1,82 @@
+package com.boazhousing.qrcodegen.service;
+
+import com.boazhousing.qrcodegen.service.render.RenderStage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QrMetricsTest {
+
+    private StyledQrRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        renderer = TestRenderers.newRenderer();
+    }
+
+    @Test
+    void testMetricsPublishStageTimingsBytesAndStorageHits(@TempDir Path tempDir) throws Exception {
+        // Registre de production: seuls les registres à histogrammes agrégeables publient les seaux
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("meterRegistry", registry);
+        QrMetrics metrics = new QrMetrics();
+        ReflectionTestUtils.setField(metrics, "meterRegistry", beans.getBeanProvider(MeterRegistry.class));
+        ReflectionTestUtils.setField(metrics, "imagesDirectory", tempDir.toString());
+        ReflectionTestUtils.setField(metrics, "directoryScanIntervalSeconds", 0L);
+        metrics.init();
+        ReflectionTestUtils.setField(renderer, "metrics", metrics);
+
+        ImageQrCodeService imageService = new ImageQrCodeService();
+        ReflectionTestUtils.setField(imageService, "renderer", renderer);
+        ReflectionTestUtils.setField(imageService, "outputDirectory", tempDir.toString());
+        ReflectionTestUtils.setField(imageService, "baseAccessUrl", "http://localhost/images");
+        ReflectionTestUtils.setField(imageService, "storageMode", "content-addressed");
+        ReflectionTestUtils.setField(imageService, "metrics", metrics);
+        imageService.registerMetrics();
+
+        ImageQrCodeService.QrImageResult first = imageService.generateAndSaveQrCodeImage("ATT-METRICS-001");
+        imageService.generateAndSaveQrCodeImage("ATT-METRICS-001");
+        long fileSize = Files.size(Path.of(first.getFilePath()));
+
+        // Une mesure par étape du rendu, octets du fichier PNG comptés une seule fois
+        for (RenderStage stage : List.of(RenderStage.ZXING_ENCODE, RenderStage.MODULE_RENDER,
+                                         RenderStage.PNG_ENCODE, RenderStage.BASE64, RenderStage.DISK_WRITE)) {
+            Timer timer = registry.get("qr.render.stage").tag("stage", stage.name().toLowerCase()).timer();
+            assertEquals(1, timer.count(), stage.name());
+        }
+        assertEquals(1, registry.get("qr.render.requests").tag("source", "render").counter().count());
+        assertEquals(fileSize, registry.get("qr.output.bytes").tag("sink", "PngFileSink").counter().count());
+        assertEquals(1, registry.get("qr.storage.hits").tag("format", "png").counter().count());
+        assertEquals(0, registry.get("qr.coalesced.requests").tag("service", "image").functionCounter().count());
+
+        // Étape de quelques dizaines de µs: comptée dans un seau sous la milliseconde
+        metrics.recordStage(RenderStage.FILE_SERVE, TimeUnit.MICROSECONDS.toNanos(50));
+        CountAtBucket[] buckets = registry.get("qr.render.stage").tag("stage", "file_serve").timer()
+                .takeSnapshot().histogramCounts();
+        CountAtBucket firstNonEmpty = Arrays.stream(buckets).filter(bucket -> bucket.count() > 0)
+                .findFirst().orElseThrow();
+        assertTrue(firstNonEmpty.bucket(TimeUnit.MICROSECONDS) >= 50);
+        assertTrue(firstNonEmpty.bucket(TimeUnit.MICROSECONDS) < 1_000,
+                "Premier seau atteint: " + firstNonEmpty.bucket(TimeUnit.MICROSECONDS) + " µs");
+
+        // Jauges des répertoires: fichier généré compté
+        assertEquals(1, registry.get("qr.output.directory.files").tag("directory", "images").gauge().value());
+        assertEquals(fileSize, registry.get("qr.output.directory.bytes").tag("directory", "images").gauge().value());
+    }
+}
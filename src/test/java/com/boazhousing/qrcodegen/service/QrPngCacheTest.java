@@ -0,0 +1,38 @@
+package com.boazhousing.qrcodegen.service;
+
+import com.boazhousing.qrcodegen.service.render.RawPngSink;
+import com.boazhousing.qrcodegen.service.render.RenderedQr;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QrPngCacheTest {
+
+    @Test
+    void testPngCacheServesRepeatedReferences() throws Exception {
+        StyledQrRenderer renderer = TestRenderers.newRenderer();
+        BoazQrCodeService qrCodeService = new BoazQrCodeService();
+        ReflectionTestUtils.setField(qrCodeService, "renderer", renderer);
+        QrPngCache pngCache = new QrPngCache();
+        pngCache.init();
+        ReflectionTestUtils.setField(renderer, "pngCache", pngCache);
+
+        byte[] first = qrCodeService.generateBoazStyleQrCodePng("ATT-CACHE-001");
+        RenderedQr cached = renderer.render("ATT-CACHE-001", new RawPngSink());
+
+        // Deuxième demande: octets identiques, sans encodage, rendu ni compression
+        assertTrue(cached.isFromCache());
+        assertArrayEquals(first, cached.getPngBytes());
+        assertTrue(cached.getStageTimings().isEmpty());
+        assertEquals(1, pngCache.getStats().hitCount());
+        assertEquals(1, pngCache.getStats().missCount());
+        assertTrue(pngCache.getWeightedSize() > first.length);
+
+        // Style différent: empreinte différente, pas de hit
+        String fingerprint = renderer.getStyleFingerprint();
+        StyledQrRenderer otherStyle = TestRenderers.newRenderer();
+        ReflectionTestUtils.setField(otherStyle, "primaryBlue", "#000000");
+        assertNotEquals(fingerprint, otherStyle.getStyleFingerprint());
+    }
+}
@@ -0,0 +1,133 @@
+package com.boazhousing.qrcodegen.service;
+
+import com.boazhousing.qrcodegen.service.render.PdfPageSink;
+import com.boazhousing.qrcodegen.service.render.PngFileSink;
+import com.boazhousing.qrcodegen.service.render.QrOutputSink;
+import com.boazhousing.qrcodegen.service.render.RenderedQr;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QrRenderExecutorTest {
+
+    private StyledQrRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        renderer = TestRenderers.newRenderer();
+    }
+
+    @Test
+    void testRenderExecutorRunsComputationOffCallerThread(@TempDir Path tempDir) throws Exception {
+        QrRenderExecutor renderExecutor = new QrRenderExecutor();
+        ReflectionTestUtils.setField(renderExecutor, "enabled", true);
+        ReflectionTestUtils.setField(renderExecutor, "threads", 2);
+        renderExecutor.init();
+        ReflectionTestUtils.setField(renderer, "renderExecutor", renderExecutor);
+        try {
+            // Calcul (acceptation) sur un thread de rendu, écriture (validation) sur le thread appelant
+            List<String> threadNames = Collections.synchronizedList(new ArrayList<>());
+            QrOutputSink probe = new QrOutputSink() {
+                @Override
+                public void accept(RenderedQr renderedQr) throws IOException {
+                    renderedQr.getPngBytes();
+                    threadNames.add(Thread.currentThread().getName());
+                }
+
+                @Override
+                public void commit(RenderedQr renderedQr) {
+                    threadNames.add(Thread.currentThread().getName());
+                }
+            };
+            Path pngPath = tempDir.resolve("executor.png");
+            Path pdfPath = tempDir.resolve("executor.pdf");
+            renderer.render("ATT-EXECUTOR-001", probe, new PngFileSink(pngPath),
+                            new PdfPageSink(pdfPath, renderer.getPdfVectorPainter()));
+
+            assertTrue(threadNames.get(0).startsWith("qr-render-"), threadNames.get(0));
+            assertEquals(Thread.currentThread().getName(), threadNames.get(1));
+            assertNotNull(ImageIO.read(pngPath.toFile()));
+            assertTrue(new String(Files.readAllBytes(pdfPath), 0, 5, StandardCharsets.US_ASCII).startsWith("%PDF-"));
+
+            // Erreur du calcul transmise telle quelle à l'appelant
+            QrOutputSink failing = renderedQr -> {
+                throw new IOException("Échec du sink");
+            };
+            IOException error = assertThrows(IOException.class, () -> renderer.render("ATT-EXECUTOR-002", failing));
+            assertEquals("Échec du sink", error.getMessage());
+        } finally {
+            renderExecutor.shutdown();
+        }
+    }
+
+    @Test
+    void testSaturatedRenderExecutorBlocksCallersInsteadOfRenderingOnThem() throws Exception {
+        QrRenderExecutor renderExecutor = new QrRenderExecutor();
+        ReflectionTestUtils.setField(renderExecutor, "enabled", true);
+        ReflectionTestUtils.setField(renderExecutor, "threads", 1);
+        ReflectionTestUtils.setField(renderExecutor, "queueCapacity", 1);
+        renderExecutor.init();
+        ReflectionTestUtils.setField(renderer, "renderExecutor", renderExecutor);
+        try {
+            // Un rendu bloqué en cours, un en file: les deux appelants suivants attendent une place
+            List<String> threadNames = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch release = new CountDownLatch(1);
+            QrOutputSink blocking = renderedQr -> {
+                threadNames.add(Thread.currentThread().getName());
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            };
+            List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+            List<Thread> callers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                String reference = "ATT-SATURATED-" + i;
+                Thread caller = new Thread(() -> {
+                    try {
+                        renderer.render(reference, blocking);
+                    } catch (Exception e) {
+                        errors.add(e);
+                    }
+                }, "caller-" + i);
+                callers.add(caller);
+                caller.start();
+            }
+            long deadline = System.currentTimeMillis() + 5_000;
+            while ((renderExecutor.getWaitingCount() < 2 || threadNames.isEmpty())
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(2, renderExecutor.getWaitingCount());
+            assertEquals(1, threadNames.size());
+
+            release.countDown();
+            for (Thread caller : callers) {
+                caller.join(10_000);
+                assertFalse(caller.isAlive());
+            }
+            assertTrue(errors.isEmpty(), errors.toString());
+            assertEquals(4, threadNames.size());
+            for (String threadName : threadNames) {
+                assertTrue(threadName.startsWith("qr-render-"), "Rendu sur le thread appelant: " + threadName);
+            }
+            assertEquals(0, renderExecutor.getWaitingCount());
+        } finally {
+            renderExecutor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.boazhousing.qrcodegen.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void testSingleFlightSharesConcurrentIdenticalGenerations() throws Exception {
+        SingleFlight<String, Object> singleFlight = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger computations = new AtomicInteger();
+        Callable<Object> slowGeneration = () -> {
+            computations.incrementAndGet();
+            started.countDown();
+            release.await();
+            return new Object();
+        };
+
+        // Premier appel en cours: les appels identiques attendent son résultat
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            results.add(callers.submit(() -> singleFlight.execute("ATT-FLIGHT-001|png", slowGeneration)));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                results.add(callers.submit(() -> singleFlight.execute("ATT-FLIGHT-001|png", slowGeneration)));
+            }
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (singleFlight.getCoalescedCount() < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            // Autre clé: calcul indépendant
+            assertEquals("autre", singleFlight.execute("ATT-FLIGHT-002|png", () -> "autre"));
+
+            release.countDown();
+            Object shared = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<Object> result : results) {
+                assertSame(shared, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, computations.get());
+            assertEquals(3, singleFlight.getCoalescedCount());
+            assertEquals(0, singleFlight.getInFlightCount());
+
+            // Calcul terminé: rien n'est conservé, l'appel suivant génère à nouveau
+            assertNotSame(shared, singleFlight.execute("ATT-FLIGHT-001|png", slowGeneration));
+            assertEquals(2, computations.get());
+        } finally {
+            callers.shutdownNow();
+        }
+
+        // Exception du calcul transmise telle quelle, clé libérée
+        IOException error = assertThrows(IOException.class,
+                () -> singleFlight.execute("ATT-FLIGHT-003|pdf", () -> { throw new IOException("Disque plein"); }));
+        assertEquals("Disque plein", error.getMessage());
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+}
@@ -0,0 +1,25 @@
+package com.boazhousing.qrcodegen.service;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Renderer partagé par les tests de services et du rendu, configuré comme en test
+ * (couleurs et URL injectées par réflexion).
+ */
+public final class TestRenderers {
+
+    private TestRenderers() {
+    }
+
+    public static StyledQrRenderer newRenderer() {
+        StyledQrRenderer renderer = new StyledQrRenderer();
+        ReflectionTestUtils.setField(renderer, "primaryBlue", "#0140ff");
+        ReflectionTestUtils.setField(renderer, "orangeDark", "#f88206");
+        ReflectionTestUtils.setField(renderer, "orangeMedium", "#fa9000");
+        ReflectionTestUtils.setField(renderer, "orangeLight", "#ffa94d");
+        ReflectionTestUtils.setField(renderer, "baseUrl", "https://test.boaz-housing.com");
+        ReflectionTestUtils.setField(renderer, "verificationPath", "/verif_doc");
+        ReflectionTestUtils.setField(renderer, "logoAssetCache", new LogoAssetCache());
+        return renderer;
+    }
+}
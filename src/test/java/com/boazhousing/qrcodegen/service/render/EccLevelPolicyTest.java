@@ -0,0 +1,84 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import com.boazhousing.qrcodegen.service.StyledQrRenderer;
+import com.boazhousing.qrcodegen.service.TestRenderers;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static com.boazhousing.qrcodegen.service.render.TestMatrices.decode;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EccLevelPolicyTest {
+
+    @Test
+    void testAdaptiveEccShrinksLongReferences() throws Exception {
+        EccLevelPolicy policy = EccLevelPolicy.forLogo(10, 40, 6, 180, 0.25);
+        // Petites versions: le logo masque trop de mots de code pour descendre sous H
+        assertEquals(ErrorCorrectionLevel.H, policy.levelFor(7));
+        assertNotEquals(ErrorCorrectionLevel.H, policy.levelFor(12));
+
+        StyledQrRenderer renderer = TestRenderers.newRenderer();
+        String prefix = renderer.buildVerificationUrl("");
+        VerificationQrEncoder builtin = new VerificationQrEncoder(prefix);
+        QrMatrixEncoder levelH = new QrMatrixEncoder(0, -1);
+        QrMatrixEncoder adaptive = new QrMatrixEncoder(0, -1, null, false, policy);
+        QrMatrixEncoder adaptiveBuiltin = new QrMatrixEncoder(0, -1, builtin, false, policy);
+
+        // Référence typique: symbole inchangé
+        String typical = renderer.buildVerificationUrl("ATT-TEST123456789");
+        assertEquals(levelH.encode(typical), adaptive.encode(typical));
+
+        // Références longues: symbole plus petit, identique avec l'encodeur spécialisé, et lisible
+        // avec tous les modules sous le logo inversés (zone sans points et carré de 180 pixels)
+        for (int length : new int[] {60, 100, 200}) {
+            String url = renderer.buildVerificationUrl("ATT-" + "X".repeat(length));
+            BitMatrix matrix = adaptive.encode(url);
+            assertTrue(matrix.getWidth() < levelH.encode(url).getWidth(), "Symbole non réduit pour " + length);
+            assertEquals(matrix, adaptiveBuiltin.encode(url));
+
+            int size = matrix.getWidth();
+            int imageCenter = (size * 10 + 80) / 2;
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    boolean dotZone = Math.abs(x - size / 2) <= 6 && Math.abs(y - size / 2) <= 6;
+                    boolean underLogo = 40 + x * 10 < imageCenter + 90 && 50 + x * 10 > imageCenter - 90
+                            && 40 + y * 10 < imageCenter + 90 && 50 + y * 10 > imageCenter - 90;
+                    if (dotZone || underLogo) {
+                        matrix.flip(x, y);
+                    }
+                }
+            }
+            assertEquals(url, decode(matrix));
+        }
+
+        // Niveau fixe autre que H: encodeur spécialisé identique à ZXing
+        QRCodeWriter writer = new QRCodeWriter();
+        for (ErrorCorrectionLevel level : ErrorCorrectionLevel.values()) {
+            Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+            hints.put(EncodeHintType.ERROR_CORRECTION, level);
+            hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+            hints.put(EncodeHintType.MARGIN, 0);
+            String url = renderer.buildVerificationUrl("ATT-LEVEL-" + level);
+            assertEquals(writer.encode(url, BarcodeFormat.QR_CODE, 0, 0, hints),
+                         builtin.encode(url, EccLevelPolicy.fixed(level), 0, -1, null));
+        }
+
+        // Rendu complet en mode adaptatif: empreinte distincte
+        String fingerprint = renderer.getStyleFingerprint();
+        ReflectionTestUtils.setField(renderer, "eccMode", "adaptive");
+        ReflectionTestUtils.setField(renderer, "matrixEncoder", null);
+        ReflectionTestUtils.setField(renderer, "styleFingerprint", null);
+        assertFalse(renderer.getMatrixEncoder().getEccPolicy().isFixed());
+        assertNotEquals(fingerprint, renderer.getStyleFingerprint());
+
+        assertNotNull(renderer.render("ATT-" + "X".repeat(100), new RawPngSink()).getPngBytes());
+    }
+}
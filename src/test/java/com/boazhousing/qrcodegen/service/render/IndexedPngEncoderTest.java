@@ -0,0 +1,90 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import com.boazhousing.qrcodegen.service.StyledQrRenderer;
+import com.boazhousing.qrcodegen.service.TestRenderers;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.GlobalHistogramBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedPngEncoderTest {
+
+    @Test
+    void testIndexedPngEncoderRoundTrip() throws Exception {
+        // Petite palette: l'image indexée doit être restituée à l'identique
+        BufferedImage palette = new BufferedImage(37, 23, BufferedImage.TYPE_INT_RGB);
+        int[] colors = {0xffffff, 0x0140ff, 0xf88206, 0xfa9000, 0xffa94d};
+        for (int y = 0; y < palette.getHeight(); y++) {
+            for (int x = 0; x < palette.getWidth(); x++) {
+                palette.setRGB(x, y, colors[(x * 7 + y * 3) % colors.length]);
+            }
+        }
+        assertSamePixels(palette, encodeAndDecode(new IndexedPngEncoder(6, Deflater.DEFAULT_STRATEGY, true), palette));
+
+        // QR code stylé rendu avec la configuration par défaut (sans quantification): toutes les
+        // nuances du logo sont conservées, le PNG reste sans perte
+        StyledQrRenderer renderer = TestRenderers.newRenderer();
+        BufferedImage rendered = ImageIO.read(new ByteArrayInputStream(
+                renderer.render("ATT-PNG-INDEXED", new RawPngSink()).getPngBytes()));
+        assertSamePixels(rendered, encodeAndDecode(new IndexedPngEncoder(6, Deflater.FILTERED, false), rendered));
+
+        // Avec quantification (app.png.quantize), le fichier est nettement plus petit que le PNG 24 bits ImageIO
+        byte[] indexed = new IndexedPngEncoder(6, Deflater.DEFAULT_STRATEGY, true).encode(rendered);
+        byte[] generic = new ImageIoPngEncoder().encode(rendered);
+        assertTrue(indexed.length * 4 < generic.length * 3,
+                "PNG indexé (" + indexed.length + " octets) non réduit par rapport à ImageIO (" + generic.length + ")");
+
+        // Seules les nuances rares sont remappées: modules, coins et fond gardent leur couleur exacte
+        // (l'orange moyen, réservé à l'anneau clair des coins, n'est jamais dessiné)
+        BufferedImage quantized = ImageIO.read(new ByteArrayInputStream(indexed));
+        assertEquals(rendered.getWidth(), quantized.getWidth());
+        Map<Integer, Integer> styleColors = new HashMap<>();
+        for (int color : new int[] {0xffffff, 0x0140ff, 0xf88206, 0xffa94d}) {
+            styleColors.put(color, 0);
+        }
+        for (int y = 0; y < rendered.getHeight(); y++) {
+            for (int x = 0; x < rendered.getWidth(); x++) {
+                int color = rendered.getRGB(x, y) & 0xffffff;
+                if (styleColors.containsKey(color)) {
+                    styleColors.merge(color, 1, Integer::sum);
+                    assertEquals(color, quantized.getRGB(x, y) & 0xffffff,
+                            "Couleur " + Integer.toHexString(color) + " altérée en " + x + "," + y);
+                }
+            }
+        }
+        styleColors.forEach((color, count) ->
+                assertTrue(count > 0, "Couleur " + Integer.toHexString(color) + " absente du rendu"));
+
+        // Le symbole quantifié reste lisible par ZXing (seuil global: les coins orange clair
+        // trompent le seuil local de HybridBinarizer, rendu sans perte compris)
+        BinaryBitmap bitmap = new BinaryBitmap(new GlobalHistogramBinarizer(new BufferedImageLuminanceSource(quantized)));
+        assertEquals(renderer.buildVerificationUrl("ATT-PNG-INDEXED"),
+                new QRCodeReader().decode(bitmap, Map.of(DecodeHintType.TRY_HARDER, Boolean.TRUE)).getText());
+    }
+
+    private BufferedImage encodeAndDecode(IndexedPngEncoder encoder, BufferedImage image) throws Exception {
+        return ImageIO.read(new ByteArrayInputStream(encoder.encode(image)));
+    }
+
+    private void assertSamePixels(BufferedImage expected, BufferedImage actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals(expected.getRGB(x, y) & 0xffffff, actual.getRGB(x, y) & 0xffffff,
+                        "Pixel différent en " + x + "," + y);
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import com.boazhousing.qrcodegen.service.StyledQrRenderer;
+import com.boazhousing.qrcodegen.service.TestRenderers;
+import com.google.zxing.common.BitMatrix;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Random;
+
+import static com.boazhousing.qrcodegen.service.render.TestMatrices.decode;
+import static org.junit.jupiter.api.Assertions.*;
+
+class QrMatrixEncoderTest {
+
+    private StyledQrRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        renderer = TestRenderers.newRenderer();
+    }
+
+    @Test
+    void testPinnedEncodingKeepsVersionAndFallsBack() throws Exception {
+        String url = renderer.buildVerificationUrl("ATT-TEST123456789");
+        BitMatrix auto = new QrMatrixEncoder(0, -1).encode(url);
+        int autoVersion = (auto.getWidth() - 17) / 4;
+
+        // Version et masque épinglés: même taille, contenu relu à l'identique
+        QrMatrixEncoder pinned = new QrMatrixEncoder(autoVersion, 2);
+        BitMatrix pinnedMatrix = pinned.encode(url);
+        assertEquals(auto.getWidth(), pinnedMatrix.getWidth());
+        assertEquals(url, decode(pinnedMatrix));
+
+        // Version supérieure épinglée: symbole plus grand, toujours lisible
+        BitMatrix larger = new QrMatrixEncoder(autoVersion + 2, 2).encode(url);
+        assertEquals(auto.getWidth() + 8, larger.getWidth());
+        assertEquals(url, decode(larger));
+
+        // Contenu trop long pour la version épinglée: repli sur la version automatique
+        String longUrl = renderer.buildVerificationUrl("ATT-" + "X".repeat(80));
+        BitMatrix fallback = pinned.encode(longUrl);
+        assertTrue(fallback.getWidth() > auto.getWidth());
+        assertEquals(longUrl, decode(fallback));
+        assertEquals(1, pinned.getFallbackCount());
+
+        // L'épinglage fait partie de l'empreinte du style (symbole différent)
+        String fingerprint = renderer.getStyleFingerprint();
+        StyledQrRenderer pinnedRenderer = TestRenderers.newRenderer();
+        ReflectionTestUtils.setField(pinnedRenderer, "pinnedMask", 2);
+        assertNotEquals(fingerprint, pinnedRenderer.getStyleFingerprint());
+    }
+
+    @Test
+    void testMixedSegmentsShrinkSymbol() throws Exception {
+        String prefix = renderer.buildVerificationUrl("");
+        VerificationQrEncoder mixed = new VerificationQrEncoder(prefix, true);
+        QrMatrixEncoder zxingByte = new QrMatrixEncoder(0, -1);
+        QrMatrixEncoder zxingCompact = new QrMatrixEncoder(0, -1, null, true);
+
+        // Références aléatoires (graine fixe), dont des suites de chiffres et de majuscules
+        String[] alphabets = {"ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789-", "0123456789", "abcdefghijXYZ0123456789-_."};
+        Random random = new Random(7);
+        for (int n = 0; n < 300; n++) {
+            String alphabet = alphabets[n % alphabets.length];
+            int length = 1 + random.nextInt(n < 200 ? 40 : 400);
+            StringBuilder reference = new StringBuilder();
+            for (int i = 0; i < length; i++) {
+                reference.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String url = renderer.buildVerificationUrl(reference.toString());
+            assertTrue(mixed.supports(url));
+
+            BitMatrix matrix = mixed.encode(url, 0, -1);
+            assertEquals(url, decode(matrix), "Contenu différent pour " + url);
+            assertTrue(matrix.getWidth() <= zxingCompact.encode(url).getWidth(), "Version plus grande pour " + url);
+            assertTrue(matrix.getWidth() <= zxingByte.encode(url).getWidth());
+        }
+
+        // Version et masque imposés, repli si le contenu dépasse la version
+        String url = renderer.buildVerificationUrl("ATT-2024-000123");
+        BitMatrix pinned = mixed.encode(url, 8, 3);
+        assertEquals(4 * 8 + 17, pinned.getWidth());
+        assertEquals(url, decode(pinned));
+        assertNull(mixed.encode(renderer.buildVerificationUrl("X".repeat(200)), 2, -1));
+
+        // Schéma et hôte en majuscules: référence typique une version plus petite qu'en mode octet
+        BitMatrix byteMatrix = renderer.getMatrixEncoder().encode(renderer.buildVerificationUrl("ATT-TEST123456789"));
+        String fingerprint = renderer.getStyleFingerprint();
+        ReflectionTestUtils.setField(renderer, "encodingEngine", "builtin");
+        ReflectionTestUtils.setField(renderer, "encodingSegments", "mixed");
+        ReflectionTestUtils.setField(renderer, "uppercaseHost", true);
+        ReflectionTestUtils.setField(renderer, "matrixEncoder", null);
+        ReflectionTestUtils.setField(renderer, "styleFingerprint", null);
+        assertTrue(renderer.getMatrixEncoder().isMixedSegments());
+        assertNotEquals(fingerprint, renderer.getStyleFingerprint());
+
+        String upperUrl = "HTTPS://TEST.BOAZ-HOUSING.COM/verif_doc?ref=ATT-TEST123456789";
+        BitMatrix mixedMatrix = renderer.getMatrixEncoder().encode(upperUrl);
+        assertEquals(byteMatrix.getWidth() - 4, mixedMatrix.getWidth());
+        assertEquals(upperUrl, decode(mixedMatrix));
+        assertNotNull(renderer.render("ATT-TEST123456789", new RawPngSink()).getPngBytes());
+    }
+}
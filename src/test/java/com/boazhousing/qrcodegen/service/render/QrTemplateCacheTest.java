@@ -0,0 +1,59 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QrTemplateCacheTest {
+
+    @Test
+    void testSlowBuildDoesNotBlockOtherKeys() throws Exception {
+        QrTemplateCache cache = new QrTemplateCache();
+        String styleKey = "style";
+        // Version dont la clé tombe dans le même compartiment que la version 1 (table de 16 compartiments)
+        int sameBin = 2;
+        while (bin(sameBin + "|" + styleKey) != bin("1|" + styleKey)) {
+            sameBin++;
+        }
+        int otherVersion = sameBin;
+
+        // Gabarit de la version 1 en cours de construction (rastérisation lente)
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<QrTemplate> slow = CompletableFuture.supplyAsync(() -> cache.get(1, styleKey, () -> {
+            building.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return template(21);
+        }));
+        assertTrue(building.await(5, TimeUnit.SECONDS));
+
+        // Autre clé du même compartiment: servie sans attendre la construction en cours
+        QrTemplate other = CompletableFuture.supplyAsync(() -> cache.get(otherVersion, styleKey, () -> template(25)))
+                .get(5, TimeUnit.SECONDS);
+        assertEquals(25, other.getModuleCount());
+
+        // Construction concurrente de la même clé: le premier gabarit inséré est partagé
+        QrTemplate first = cache.get(1, styleKey, () -> template(21));
+        release.countDown();
+        assertSame(first, slow.get(5, TimeUnit.SECONDS));
+        assertSame(first, cache.get(1, styleKey, () -> fail("Gabarit déjà en cache")));
+        assertEquals(2, cache.size());
+    }
+
+    private static int bin(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & 15;
+    }
+
+    private static QrTemplate template(int moduleCount) {
+        return new QrTemplate(moduleCount, 0, new int[0], new byte[0], 0, 0, 0, 0, new int[0]);
+    }
+}
@@ -0,0 +1,41 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+
+import java.awt.image.BufferedImage;
+import java.util.Map;
+
+/**
+ * Relecture des matrices QR brutes partagée par les tests d'encodage.
+ */
+final class TestMatrices {
+
+    private TestMatrices() {
+    }
+
+    /**
+     * Relit une matrice QR brute (quiet zone ajoutée) avec le lecteur ZXing.
+     */
+    static String decode(BitMatrix matrix) throws Exception {
+        int scale = 4;
+        int quietZone = 4 * scale;
+        int size = matrix.getWidth() * scale + 2 * quietZone;
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int col = (x - quietZone) / scale;
+                int row = (y - quietZone) / scale;
+                boolean dark = x >= quietZone && y >= quietZone && col < matrix.getWidth() && row < matrix.getHeight()
+                        && matrix.get(col, row);
+                image.setRGB(x, y, dark ? 0x000000 : 0xffffff);
+            }
+        }
+        BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)));
+        return new QRCodeReader().decode(bitmap, Map.of(DecodeHintType.PURE_BARCODE, Boolean.TRUE)).getText();
+    }
+}
@@ -0,0 +1,110 @@
+package com.boazhousing.qrcodegen.service.render;
+
+import com.boazhousing.qrcodegen.service.StyledQrRenderer;
+import com.boazhousing.qrcodegen.service.TestRenderers;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerificationQrEncoderTest {
+
+    @Test
+    void testBuiltinEncoderMatchesZxing() throws Exception {
+        StyledQrRenderer renderer = TestRenderers.newRenderer();
+        String prefix = renderer.buildVerificationUrl("");
+        VerificationQrEncoder builtin = new VerificationQrEncoder(prefix);
+        QRCodeWriter writer = new QRCodeWriter();
+        Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+        hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
+        hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+        hints.put(EncodeHintType.MARGIN, 0);
+
+        // Références aléatoires (graine fixe): versions 5 à 20 environ, compteur 8 et 16 bits
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        Random random = new Random(42);
+        BitMatrix reusable = null;
+        for (int n = 0; n < 300; n++) {
+            int length = 1 + random.nextInt(n < 200 ? 40 : 300);
+            StringBuilder reference = new StringBuilder();
+            for (int i = 0; i < length; i++) {
+                reference.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String url = renderer.buildVerificationUrl(reference.toString());
+            assertTrue(builtin.supports(url));
+
+            BitMatrix expected = writer.encode(url, BarcodeFormat.QR_CODE, 0, 0, hints);
+            assertEquals(expected, builtin.encode(url, 0, -1), "Symbole différent pour " + url);
+
+            // Matrice réutilisée d'un appel à l'autre lorsque la taille est la même
+            BitMatrix reused = builtin.encode(url, 0, -1, reusable);
+            assertEquals(expected, reused);
+            if (reusable != null && reusable.getWidth() == expected.getWidth()) {
+                assertSame(reusable, reused);
+            }
+            reusable = reused;
+        }
+
+        // Masque imposé: identique à ZXing avec QR_MASK_PATTERN
+        String url = renderer.buildVerificationUrl("ATT-TEST123456789");
+        for (int mask = 0; mask < 8; mask++) {
+            Map<EncodeHintType, Object> pinned = new EnumMap<>(hints);
+            pinned.put(EncodeHintType.QR_MASK_PATTERN, mask);
+            assertEquals(writer.encode(url, BarcodeFormat.QR_CODE, 0, 0, pinned), builtin.encode(url, 0, mask));
+        }
+
+        // Contenus hors forme prise en charge: ZXing
+        assertFalse(builtin.supports("https://autre.example/verif?ref=X"));
+        assertFalse(builtin.supports(prefix + "é"));
+
+        // Rendu complet identique avec le moteur spécialisé
+        byte[] zxingPng = renderer.render("ATT-ENGINE-001", new RawPngSink()).getPngBytes();
+        ReflectionTestUtils.setField(renderer, "encodingEngine", "builtin");
+        ReflectionTestUtils.setField(renderer, "matrixEncoder", null);
+        assertTrue(renderer.getMatrixEncoder().isBuiltin());
+        assertArrayEquals(zxingPng, renderer.render("ATT-ENGINE-001", new RawPngSink()).getPngBytes());
+    }
+
+    @Test
+    void testConcurrentEncodingsShareBoundedScratchPool() throws Exception {
+        StyledQrRenderer renderer = TestRenderers.newRenderer();
+        VerificationQrEncoder builtin = new VerificationQrEncoder(renderer.buildVerificationUrl(""));
+        QRCodeWriter writer = new QRCodeWriter();
+        Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+        hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
+        hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+        hints.put(EncodeHintType.MARGIN, 0);
+
+        // Plus d'encodages simultanés que de tampons dans le pool: tampons supplémentaires
+        // alloués puis abandonnés, symboles toujours identiques à ZXing
+        int threads = Runtime.getRuntime().availableProcessors() * 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int n = 0; n < threads * 8; n++) {
+                String url = renderer.buildVerificationUrl("ATT-POOL-" + "X".repeat(n % 60));
+                results.add(executor.submit(() ->
+                        writer.encode(url, BarcodeFormat.QR_CODE, 0, 0, hints).equals(builtin.encode(url, 0, -1))));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}